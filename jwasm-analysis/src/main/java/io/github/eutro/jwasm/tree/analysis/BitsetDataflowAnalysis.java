@@ -0,0 +1,310 @@
+package io.github.eutro.jwasm.tree.analysis;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * A worklist dataflow solver over the blocks of a {@link ControlFlowGraph},
+ * where lattice values are sets of small integers, such as local indices, stored as {@code long[]} bitsets.
+ * <p>
+ * The sets of every block are stored in one flat array, {@link #words} longs per block,
+ * so solving allocates nothing per block or per iteration.
+ * <p>
+ * By default, the meet of values is their union, and the transfer function of each block is
+ * {@code gen | (in & ~kill)}, where the {@link #gen} and {@link #kill} sets are to be filled by subclasses
+ * before {@link #solve()} is called. Subclasses may instead override {@link #meet(long[], int, long[], int)},
+ * {@link #initial(long[], int)} and {@link #transfer(int, long[], int, long[], int)} for other analyses.
+ *
+ * @see LiveLocals
+ * @see ReachingDefinitions
+ */
+public abstract class BitsetDataflowAnalysis {
+    /**
+     * The direction in which a dataflow analysis propagates values.
+     */
+    public enum Direction {
+        /**
+         * Values flow from the entry of the expression, along control flow edges.
+         */
+        FORWARD,
+        /**
+         * Values flow from the exits of the expression, against control flow edges.
+         */
+        BACKWARD,
+    }
+
+    /**
+     * The control flow graph being analysed.
+     */
+    protected final @NotNull ControlFlowGraph cfg;
+
+    /**
+     * The direction of this analysis.
+     */
+    protected final @NotNull Direction direction;
+
+    /**
+     * The number of bits in each set.
+     */
+    protected final int bits;
+
+    /**
+     * The number of longs in each set.
+     */
+    protected final int words;
+
+    /**
+     * The sets generated by each block, {@link #words} longs per block.
+     */
+    protected final long[] gen;
+
+    /**
+     * The sets killed by each block, {@link #words} longs per block.
+     */
+    protected final long[] kill;
+
+    private final long[] in, out;
+
+    /**
+     * Construct an analysis over the given graph.
+     *
+     * @param cfg       The control flow graph to analyse.
+     * @param direction The direction of the analysis.
+     * @param bits      The number of bits in each set.
+     */
+    protected BitsetDataflowAnalysis(@NotNull ControlFlowGraph cfg, @NotNull Direction direction, int bits) {
+        this.cfg = cfg;
+        this.direction = direction;
+        this.bits = bits;
+        this.words = wordsFor(bits);
+        int size = words * cfg.blockCount();
+        gen = new long[size];
+        kill = new long[size];
+        in = new long[size];
+        out = new long[size];
+    }
+
+    /**
+     * Get the number of longs needed to hold a set of the given number of bits.
+     *
+     * @param bits The number of bits.
+     * @return The number of longs.
+     */
+    public static int wordsFor(int bits) {
+        return (bits + 63) >>> 6;
+    }
+
+    /**
+     * Test whether a bit is set in a set stored at an offset in an array.
+     *
+     * @param set The array.
+     * @param off The offset of the set in the array.
+     * @param bit The bit.
+     * @return Whether the bit is set.
+     */
+    public static boolean get(long[] set, int off, int bit) {
+        return (set[off + (bit >>> 6)] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Set a bit in a set stored at an offset in an array.
+     *
+     * @param set The array.
+     * @param off The offset of the set in the array.
+     * @param bit The bit.
+     */
+    public static void set(long[] set, int off, int bit) {
+        set[off + (bit >>> 6)] |= 1L << bit;
+    }
+
+    /**
+     * Clear a bit in a set stored at an offset in an array.
+     *
+     * @param set The array.
+     * @param off The offset of the set in the array.
+     * @param bit The bit.
+     */
+    public static void clear(long[] set, int off, int bit) {
+        set[off + (bit >>> 6)] &= ~(1L << bit);
+    }
+
+    /**
+     * Fill the value at the boundary of the graph: the entry of the first block for forward analyses,
+     * or the exit of each {@link ControlFlowGraph#isExit(int) exit block} for backward analyses.
+     * <p>
+     * By default, this is the empty set.
+     *
+     * @param set The array to fill.
+     * @param off The offset of the set in the array.
+     */
+    protected void boundary(long[] set, int off) {
+    }
+
+    /**
+     * Fill the initial value of a block's set, before any values have been propagated to it.
+     * <p>
+     * By default, this is the empty set, the identity of union.
+     *
+     * @param set The array to fill.
+     * @param off The offset of the set in the array.
+     */
+    protected void initial(long[] set, int off) {
+    }
+
+    /**
+     * Meet a value into another.
+     * <p>
+     * By default, this is union.
+     *
+     * @param dst    The array holding the set to meet into.
+     * @param dstOff The offset of the destination set.
+     * @param src    The array holding the set to meet with.
+     * @param srcOff The offset of the source set.
+     */
+    protected void meet(long[] dst, int dstOff, long[] src, int srcOff) {
+        for (int i = 0; i < words; i++) {
+            dst[dstOff + i] |= src[srcOff + i];
+        }
+    }
+
+    /**
+     * Apply the transfer function of a block, in the direction of the analysis.
+     * <p>
+     * By default, this is {@code dst = gen | (src & ~kill)}.
+     *
+     * @param block  The block.
+     * @param src    The array holding the set flowing into the block.
+     * @param srcOff The offset of the source set.
+     * @param dst    The array to write the set flowing out of the block to.
+     * @param dstOff The offset of the destination set.
+     */
+    protected void transfer(int block, long[] src, int srcOff, long[] dst, int dstOff) {
+        int base = block * words;
+        for (int i = 0; i < words; i++) {
+            dst[dstOff + i] = gen[base + i] | (src[srcOff + i] & ~kill[base + i]);
+        }
+    }
+
+    /**
+     * Solve the dataflow equations, iterating until a fixed point is reached.
+     */
+    protected void solve() {
+        int blocks = cfg.blockCount();
+        if (blocks == 0) return;
+        boolean forward = direction == Direction.FORWARD;
+        // the sets on the "incoming" side of each block in the direction of the analysis
+        long[] flowIn = forward ? in : out;
+        long[] flowOut = forward ? out : in;
+        for (int b = 0; b < blocks; b++) {
+            initial(flowOut, b * words);
+        }
+
+        int[] order = cfg.reversePostorder();
+        if (!forward) {
+            for (int i = 0, j = blocks - 1; i < j; i++, j--) {
+                int t = order[i];
+                order[i] = order[j];
+                order[j] = t;
+            }
+        }
+
+        // circular worklist, seeded with every block in iteration order
+        int[] queue = new int[blocks];
+        boolean[] queued = new boolean[blocks];
+        System.arraycopy(order, 0, queue, 0, blocks);
+        Arrays.fill(queued, true);
+        int head = 0, size = blocks;
+
+        long[] scratch = new long[words];
+        while (size > 0) {
+            int b = queue[head];
+            head = head + 1 == blocks ? 0 : head + 1;
+            size--;
+            queued[b] = false;
+
+            int off = b * words;
+            Arrays.fill(flowIn, off, off + words, 0);
+            boolean first = true;
+            if (forward ? b == 0 : cfg.isExit(b)) {
+                boundary(flowIn, off);
+                first = false;
+            }
+            int edges = forward ? cfg.predCount(b) : cfg.succCount(b);
+            for (int i = 0; i < edges; i++) {
+                int other = forward ? cfg.pred(b, i) : cfg.succ(b, i);
+                if (first) {
+                    System.arraycopy(flowOut, other * words, flowIn, off, words);
+                    first = false;
+                } else {
+                    meet(flowIn, off, flowOut, other * words);
+                }
+            }
+            if (first) initial(flowIn, off);
+
+            transfer(b, flowIn, off, scratch, 0);
+            boolean changed = false;
+            for (int i = 0; i < words; i++) {
+                if (scratch[i] != flowOut[off + i]) {
+                    changed = true;
+                    break;
+                }
+            }
+            if (!changed) continue;
+            System.arraycopy(scratch, 0, flowOut, off, words);
+
+            int next = forward ? cfg.succCount(b) : cfg.predCount(b);
+            for (int i = 0; i < next; i++) {
+                int other = forward ? cfg.succ(b, i) : cfg.pred(b, i);
+                if (!queued[other]) {
+                    queued[other] = true;
+                    int tail = head + size;
+                    queue[tail >= blocks ? tail - blocks : tail] = other;
+                    size++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the set at the entry of a block, after solving.
+     *
+     * @param block The block.
+     * @return A copy of the set at the entry of the block.
+     */
+    public long[] getIn(int block) {
+        return Arrays.copyOfRange(in, block * words, (block + 1) * words);
+    }
+
+    /**
+     * Get the set at the exit of a block, after solving.
+     *
+     * @param block The block.
+     * @return A copy of the set at the exit of the block.
+     */
+    public long[] getOut(int block) {
+        return Arrays.copyOfRange(out, block * words, (block + 1) * words);
+    }
+
+    /**
+     * Test whether a bit is in the set at the entry of a block, after solving.
+     *
+     * @param block The block.
+     * @param bit   The bit.
+     * @return Whether the bit is set.
+     */
+    public boolean isIn(int block, int bit) {
+        return get(in, block * words, bit);
+    }
+
+    /**
+     * Test whether a bit is in the set at the exit of a block, after solving.
+     *
+     * @param block The block.
+     * @param bit   The bit.
+     * @return Whether the bit is set.
+     */
+    public boolean isOut(int block, int bit) {
+        return get(out, block * words, bit);
+    }
+}
@@ -0,0 +1,244 @@
+package io.github.eutro.jwasm.tree.analysis;
+
+import io.github.eutro.jwasm.Opcodes;
+import io.github.eutro.jwasm.tree.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * The call graph of a {@link ModuleNode module}, over the whole function index space, imports included.
+ * <p>
+ * A function has an edge to every function it names in a {@code call} or {@code ref.func} instruction,
+ * since a referenced function may be called through the reference.
+ * <p>
+ * The roots of the graph are the functions that may be called from outside the module or without a direct reference:
+ * exported functions, the start function, and functions referenced by global initializers
+ * and by active or passive element segments, which may be placed in tables and called indirectly.
+ * Declarative element segments only permit {@code ref.func} in function bodies, so they are not roots.
+ */
+public final class CallGraph {
+    private final int importCount;
+    private final int[] calleeOffsets, callees;
+    private final int[] callerOffsets, callers;
+    private final boolean[] roots;
+    private final boolean[] reachable;
+
+    private CallGraph(int importCount, int[] calleeOffsets, int[] callees, boolean[] roots) {
+        this.importCount = importCount;
+        this.calleeOffsets = calleeOffsets;
+        this.callees = callees;
+        this.roots = roots;
+
+        int funcs = roots.length;
+        callerOffsets = new int[funcs + 1];
+        for (int c : callees) callerOffsets[c + 1]++;
+        for (int f = 0; f < funcs; f++) callerOffsets[f + 1] += callerOffsets[f];
+        callers = new int[callees.length];
+        int[] fill = Arrays.copyOf(callerOffsets, funcs);
+        for (int f = 0; f < funcs; f++) {
+            for (int i = calleeOffsets[f]; i < calleeOffsets[f + 1]; i++) {
+                callers[fill[callees[i]]++] = f;
+            }
+        }
+
+        reachable = new boolean[funcs];
+        int[] stack = new int[funcs];
+        int sp = 0;
+        for (int f = 0; f < funcs; f++) {
+            if (roots[f]) {
+                reachable[f] = true;
+                stack[sp++] = f;
+            }
+        }
+        while (sp > 0) {
+            int f = stack[--sp];
+            for (int i = calleeOffsets[f]; i < calleeOffsets[f + 1]; i++) {
+                int c = callees[i];
+                if (!reachable[c]) {
+                    reachable[c] = true;
+                    stack[sp++] = c;
+                }
+            }
+        }
+    }
+
+    /**
+     * Build the call graph of a module.
+     *
+     * @param module The module.
+     * @return The call graph.
+     * @throws io.github.eutro.jwasm.ValidationException If the module refers to a function that does not exist.
+     */
+    public static CallGraph build(@NotNull ModuleNode module) {
+        int importCount = countFuncImports(module);
+        int defined = module.codes == null ? 0 : module.codes.codes.size();
+        int funcs = importCount + defined;
+
+        boolean[] roots = new boolean[funcs];
+        if (module.exports != null) {
+            for (ExportNode export : module.exports) {
+                if (export.type == Opcodes.EXPORTS_FUNC) {
+                    ModuleValidator.assertExists(funcs, export.index, "function");
+                    roots[export.index] = true;
+                }
+            }
+        }
+        if (module.start != null) {
+            ModuleValidator.assertExists(funcs, module.start, "function");
+            roots[module.start] = true;
+        }
+        if (module.globals != null) {
+            for (GlobalNode global : module.globals) {
+                markRefs(global.init, roots);
+            }
+        }
+        if (module.elems != null) {
+            for (ElementNode elem : module.elems) {
+                if (elem.offset == null && !elem.passive) continue;
+                if (elem.indices != null) {
+                    for (int index : elem.indices) {
+                        ModuleValidator.assertExists(funcs, index, "function");
+                        roots[index] = true;
+                    }
+                } else {
+                    for (ExprNode expr : elem.init) {
+                        markRefs(expr, roots);
+                    }
+                }
+            }
+        }
+
+        int[] calleeOffsets = new int[funcs + 1];
+        int[] callees = new int[16];
+        int edges = 0;
+        int[] lastSeenFrom = new int[funcs];
+        Arrays.fill(lastSeenFrom, -1);
+        for (int f = 0; f < funcs; f++) {
+            calleeOffsets[f] = edges;
+            if (f < importCount) continue;
+            ExprNode body = module.codes.codes.get(f - importCount).expr;
+            if (body.instructions == null) continue;
+            for (AbstractInsnNode insn : body.instructions) {
+                int callee;
+                if (insn.opcode == Opcodes.CALL) {
+                    callee = ((CallInsnNode) insn).function;
+                } else if (insn.opcode == Opcodes.REF_FUNC) {
+                    callee = ((FuncRefInsnNode) insn).function;
+                } else {
+                    continue;
+                }
+                ModuleValidator.assertExists(funcs, callee, "function");
+                if (lastSeenFrom[callee] == f) continue;
+                lastSeenFrom[callee] = f;
+                if (edges == callees.length) callees = Arrays.copyOf(callees, edges * 2);
+                callees[edges++] = callee;
+            }
+        }
+        calleeOffsets[funcs] = edges;
+
+        return new CallGraph(importCount, calleeOffsets, Arrays.copyOf(callees, edges), roots);
+    }
+
+    static int countFuncImports(ModuleNode module) {
+        int count = 0;
+        if (module.imports != null) {
+            for (AbstractImportNode theImport : module.imports) {
+                if (theImport.importType() == Opcodes.IMPORTS_FUNC) count++;
+            }
+        }
+        return count;
+    }
+
+    private static void markRefs(@Nullable ExprNode expr, boolean[] roots) {
+        if (expr == null || expr.instructions == null) return;
+        for (AbstractInsnNode insn : expr.instructions) {
+            if (insn.opcode == Opcodes.REF_FUNC) {
+                int function = ((FuncRefInsnNode) insn).function;
+                ModuleValidator.assertExists(roots.length, function, "function");
+                roots[function] = true;
+            }
+        }
+    }
+
+    /**
+     * Get the number of functions in the graph, imports included.
+     *
+     * @return The number of functions.
+     */
+    public int funcCount() {
+        return roots.length;
+    }
+
+    /**
+     * Get the number of imported functions, which come first in the function index space.
+     *
+     * @return The number of imported functions.
+     */
+    public int importCount() {
+        return importCount;
+    }
+
+    /**
+     * Get the number of distinct functions called or referenced by a function.
+     *
+     * @param func The index of the function.
+     * @return The number of callees.
+     */
+    public int calleeCount(int func) {
+        return calleeOffsets[func + 1] - calleeOffsets[func];
+    }
+
+    /**
+     * Get a function called or referenced by a function.
+     *
+     * @param func The index of the function.
+     * @param i    The index of the callee, less than {@link #calleeCount(int)}.
+     * @return The index of the callee.
+     */
+    public int callee(int func, int i) {
+        return callees[calleeOffsets[func] + i];
+    }
+
+    /**
+     * Get the number of distinct functions that call or reference a function.
+     *
+     * @param func The index of the function.
+     * @return The number of callers.
+     */
+    public int callerCount(int func) {
+        return callerOffsets[func + 1] - callerOffsets[func];
+    }
+
+    /**
+     * Get a function that calls or references a function.
+     *
+     * @param func The index of the function.
+     * @param i    The index of the caller, less than {@link #callerCount(int)}.
+     * @return The index of the caller.
+     */
+    public int caller(int func, int i) {
+        return callers[callerOffsets[func] + i];
+    }
+
+    /**
+     * Get whether a function is a root of the graph.
+     *
+     * @param func The index of the function.
+     * @return Whether the function is a root.
+     */
+    public boolean isRoot(int func) {
+        return roots[func];
+    }
+
+    /**
+     * Get whether a function is reachable from the roots of the graph.
+     *
+     * @param func The index of the function.
+     * @return Whether the function is reachable.
+     */
+    public boolean isReachable(int func) {
+        return reachable[func];
+    }
+}
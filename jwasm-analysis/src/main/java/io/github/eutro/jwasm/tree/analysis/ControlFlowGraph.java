@@ -0,0 +1,377 @@
+package io.github.eutro.jwasm.tree.analysis;
+
+import io.github.eutro.jwasm.ValidationException;
+import io.github.eutro.jwasm.tree.AbstractInsnNode;
+import io.github.eutro.jwasm.tree.BreakInsnNode;
+import io.github.eutro.jwasm.tree.ExprNode;
+import io.github.eutro.jwasm.tree.TableBreakInsnNode;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+import static io.github.eutro.jwasm.Opcodes.*;
+
+/**
+ * The control flow graph of an {@link ExprNode expression}, such as a function body.
+ * <p>
+ * Instructions are identified by their index in {@link ExprNode#instructions}, and are grouped into
+ * basic blocks, which are numbered from {@code 0} (the entry block) in the order they appear in the expression.
+ * A block is a maximal run of instructions that is only entered at its first instruction and only left after its last.
+ * <p>
+ * Branch targets are resolved to the instruction following the {@code end} of the targeted block,
+ * or following the {@code loop} instruction for loops. Edges that leave the expression,
+ * whether by {@code return}, a branch to the outermost label or falling off the final {@code end},
+ * are not represented as edges, but instead mark the block as an {@link #isExit(int) exit}.
+ * <p>
+ * Successors and predecessors are stored in flat {@code int} arrays, so graphs over large function bodies
+ * remain cheap to build and to traverse.
+ */
+public final class ControlFlowGraph {
+    private final AbstractInsnNode[] insns;
+    private final int[] blockStarts;
+    private final int[] succOffsets, succs;
+    private final int[] predOffsets, preds;
+    private final boolean[] exits;
+
+    private ControlFlowGraph(AbstractInsnNode[] insns,
+                             int[] blockStarts,
+                             int[] succOffsets,
+                             int[] succs,
+                             boolean[] exits) {
+        this.insns = insns;
+        this.blockStarts = blockStarts;
+        this.succOffsets = succOffsets;
+        this.succs = succs;
+        this.exits = exits;
+
+        int blocks = blockCount();
+        predOffsets = new int[blocks + 1];
+        for (int s : succs) predOffsets[s + 1]++;
+        for (int b = 0; b < blocks; b++) predOffsets[b + 1] += predOffsets[b];
+        preds = new int[succs.length];
+        int[] fill = Arrays.copyOf(predOffsets, blocks);
+        for (int b = 0; b < blocks; b++) {
+            for (int i = succOffsets[b]; i < succOffsets[b + 1]; i++) {
+                preds[fill[succs[i]]++] = b;
+            }
+        }
+    }
+
+    /**
+     * Build the control flow graph of an expression.
+     * <p>
+     * The expression is expected to be well-nested, as any validated expression will be.
+     *
+     * @param expr The expression.
+     * @return The control flow graph.
+     * @throws ValidationException If the blocks of the expression are not properly nested.
+     */
+    public static ControlFlowGraph build(@NotNull ExprNode expr) {
+        AbstractInsnNode[] insns = expr.instructions == null
+                ? new AbstractInsnNode[0]
+                : expr.instructions.toArray(new AbstractInsnNode[0]);
+        int n = insns.length;
+
+        // match each block, loop, if and else with its end, and each if with its else
+        int[] endOf = new int[n];
+        int[] elseOf = new int[n];
+        Arrays.fill(elseOf, -1);
+        int[] stack = new int[8];
+        int sp = 0;
+        for (int i = 0; i < n; i++) {
+            switch (insns[i].opcode) {
+                case BLOCK:
+                case LOOP:
+                case IF:
+                    if (sp == stack.length) stack = Arrays.copyOf(stack, sp * 2);
+                    stack[sp++] = i;
+                    break;
+                case ELSE:
+                    if (sp == 0 || insns[stack[sp - 1]].opcode != IF) {
+                        throw new ValidationException("else instruction not in if block");
+                    }
+                    elseOf[stack[sp - 1]] = i;
+                    break;
+                case END:
+                    if (sp == 0) {
+                        if (i != n - 1) throw new ValidationException("Unbalanced end instruction");
+                        break;
+                    }
+                    int opener = stack[--sp];
+                    endOf[opener] = i;
+                    if (elseOf[opener] != -1) endOf[elseOf[opener]] = i;
+                    break;
+            }
+        }
+        if (sp != 0) throw new ValidationException("not all blocks have been ended");
+
+        // a block starts at the beginning, and after every control instruction;
+        // every branch target is of this form
+        int blocks = 0;
+        int[] blockOfInsn = new int[n];
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || isControl(insns[i - 1].opcode)) blocks++;
+            blockOfInsn[i] = blocks - 1;
+        }
+        int[] blockStarts = new int[blocks + 1];
+        for (int i = n - 1; i >= 0; i--) blockStarts[blockOfInsn[i]] = i;
+        blockStarts[blocks] = n;
+
+        int[] succOffsets = new int[blocks + 1];
+        int[] succs = new int[Math.max(blocks, 4)];
+        int edges = 0;
+        boolean[] exits = new boolean[blocks];
+        // the control stack, holding the index of the opening instruction, or -1 for the whole expression
+        stack[0] = -1;
+        sp = 1;
+        int[] targets = new int[4];
+        int[] lastSeenFrom = new int[blocks];
+        Arrays.fill(lastSeenFrom, -1);
+        for (int b = 0; b < blocks; b++) {
+            // control instructions always end their block, so only the last needs inspecting
+            int last = blockStarts[b + 1] - 1;
+            AbstractInsnNode insn = insns[last];
+            int targetCount = 0;
+            switch (insn.opcode) {
+                case BLOCK:
+                case LOOP:
+                case IF:
+                    if (sp == stack.length) stack = Arrays.copyOf(stack, sp * 2);
+                    stack[sp++] = last;
+                    targets[targetCount++] = last + 1;
+                    if (insn.opcode == IF) {
+                        targets[targetCount++] = (elseOf[last] == -1 ? endOf[last] : elseOf[last]) + 1;
+                    }
+                    break;
+                case ELSE:
+                    targets[targetCount++] = endOf[last] + 1;
+                    break;
+                case END:
+                    sp--;
+                    targets[targetCount++] = last + 1;
+                    break;
+                case BR:
+                case BR_IF: {
+                    targets[targetCount++] = labelTarget(insns, endOf, stack, sp, ((BreakInsnNode) insn).label);
+                    if (insn.opcode == BR_IF) targets[targetCount++] = last + 1;
+                    break;
+                }
+                case BR_TABLE: {
+                    TableBreakInsnNode tbr = (TableBreakInsnNode) insn;
+                    if (targets.length < tbr.labels.length + 1) targets = new int[tbr.labels.length + 1];
+                    for (int label : tbr.labels) {
+                        targets[targetCount++] = labelTarget(insns, endOf, stack, sp, label);
+                    }
+                    targets[targetCount++] = labelTarget(insns, endOf, stack, sp, tbr.defaultLabel);
+                    break;
+                }
+                case RETURN:
+                    exits[b] = true;
+                    break;
+                case UNREACHABLE:
+                    break;
+                default:
+                    targets[targetCount++] = last + 1;
+                    break;
+            }
+
+            succOffsets[b] = edges;
+            for (int t = 0; t < targetCount; t++) {
+                int target = targets[t];
+                if (target == -1 || target >= n) {
+                    exits[b] = true;
+                    continue;
+                }
+                int succ = blockOfInsn[target];
+                if (lastSeenFrom[succ] == b) continue;
+                lastSeenFrom[succ] = b;
+                if (edges == succs.length) succs = Arrays.copyOf(succs, edges * 2);
+                succs[edges++] = succ;
+            }
+        }
+        succOffsets[blocks] = edges;
+
+        return new ControlFlowGraph(insns, blockStarts, succOffsets, Arrays.copyOf(succs, edges), exits);
+    }
+
+    private static int labelTarget(AbstractInsnNode[] insns, int[] endOf, int[] stack, int sp, int label) {
+        if (label < 0 || label >= sp) {
+            throw new ValidationException(String.format("label at index %d does not exist", label));
+        }
+        int opener = stack[sp - label - 1];
+        if (opener == -1) return -1;
+        return insns[opener].opcode == LOOP ? opener + 1 : endOf[opener] + 1;
+    }
+
+    private static boolean isControl(byte opcode) {
+        switch (opcode) {
+            case BLOCK:
+            case LOOP:
+            case IF:
+            case ELSE:
+            case END:
+            case BR:
+            case BR_IF:
+            case BR_TABLE:
+            case RETURN:
+            case UNREACHABLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Get the number of instructions in the expression.
+     *
+     * @return The number of instructions.
+     */
+    public int insnCount() {
+        return insns.length;
+    }
+
+    /**
+     * Get an instruction of the expression by index.
+     *
+     * @param insn The index of the instruction.
+     * @return The instruction.
+     */
+    public AbstractInsnNode getInsn(int insn) {
+        return insns[insn];
+    }
+
+    /**
+     * Get the number of basic blocks in the graph.
+     *
+     * @return The number of blocks.
+     */
+    public int blockCount() {
+        return blockStarts.length - 1;
+    }
+
+    /**
+     * Get the index of the first instruction of a block.
+     *
+     * @param block The block.
+     * @return The index of the first instruction in the block.
+     */
+    public int blockStart(int block) {
+        return blockStarts[block];
+    }
+
+    /**
+     * Get the index after the last instruction of a block.
+     *
+     * @param block The block.
+     * @return The index after the last instruction in the block.
+     */
+    public int blockEnd(int block) {
+        return blockStarts[block + 1];
+    }
+
+    /**
+     * Get the block that an instruction belongs to.
+     *
+     * @param insn The index of the instruction.
+     * @return The block containing the instruction.
+     */
+    public int blockOf(int insn) {
+        if (insn < 0 || insn >= insns.length) throw new IndexOutOfBoundsException(String.valueOf(insn));
+        int found = Arrays.binarySearch(blockStarts, 0, blockStarts.length - 1, insn);
+        return found >= 0 ? found : -found - 2;
+    }
+
+    /**
+     * Get the number of successors of a block.
+     *
+     * @param block The block.
+     * @return The number of successors.
+     */
+    public int succCount(int block) {
+        return succOffsets[block + 1] - succOffsets[block];
+    }
+
+    /**
+     * Get a successor of a block.
+     *
+     * @param block The block.
+     * @param i     The index of the successor, less than {@link #succCount(int)}.
+     * @return The successor block.
+     */
+    public int succ(int block, int i) {
+        return succs[succOffsets[block] + i];
+    }
+
+    /**
+     * Get the number of predecessors of a block.
+     *
+     * @param block The block.
+     * @return The number of predecessors.
+     */
+    public int predCount(int block) {
+        return predOffsets[block + 1] - predOffsets[block];
+    }
+
+    /**
+     * Get a predecessor of a block.
+     *
+     * @param block The block.
+     * @param i     The index of the predecessor, less than {@link #predCount(int)}.
+     * @return The predecessor block.
+     */
+    public int pred(int block, int i) {
+        return preds[predOffsets[block] + i];
+    }
+
+    /**
+     * Get whether control may leave the expression at the end of a block,
+     * by returning, branching to the outermost label or reaching the final {@code end}.
+     *
+     * @param block The block.
+     * @return Whether the block is an exit of the expression.
+     */
+    public boolean isExit(int block) {
+        return exits[block];
+    }
+
+    /**
+     * Compute a reverse postorder of the blocks of this graph, from the entry block.
+     * <p>
+     * Blocks that are unreachable from the entry are placed at the end, in ascending order.
+     *
+     * @return The blocks of this graph in reverse postorder.
+     */
+    public int[] reversePostorder() {
+        int blocks = blockCount();
+        int[] order = new int[blocks];
+        if (blocks == 0) return order;
+        boolean[] visited = new boolean[blocks];
+        int[] stack = new int[blocks];
+        int[] edge = new int[blocks];
+        int pos = blocks;
+        int sp = 0;
+        stack[sp++] = 0;
+        visited[0] = true;
+        while (sp > 0) {
+            int b = stack[sp - 1];
+            if (edge[b] < succCount(b)) {
+                int s = succ(b, edge[b]++);
+                if (!visited[s]) {
+                    visited[s] = true;
+                    stack[sp++] = s;
+                }
+            } else {
+                order[--pos] = b;
+                sp--;
+            }
+        }
+        if (pos != 0) {
+            int reached = blocks - pos;
+            System.arraycopy(order, pos, order, 0, reached);
+            for (int b = 0; b < blocks; b++) {
+                if (!visited[b]) order[reached++] = b;
+            }
+        }
+        return order;
+    }
+}
@@ -0,0 +1,208 @@
+package io.github.eutro.jwasm.tree.analysis;
+
+import io.github.eutro.jwasm.ByteInputStream;
+import io.github.eutro.jwasm.ByteOutputStream;
+import io.github.eutro.jwasm.Opcodes;
+import io.github.eutro.jwasm.ValidationException;
+import io.github.eutro.jwasm.tree.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A transform that removes the functions of a module that are not {@link CallGraph#isReachable(int) reachable}
+ * in its {@link CallGraph call graph}, renumbering all references to the remaining functions.
+ * <p>
+ * Imported functions are never removed, since removing them would change the imports the module must be given.
+ * <p>
+ * Function indices are rewritten in {@code call} and {@code ref.func} instructions, exports, the start function,
+ * element segments, and the function, local and label name maps of the {@code name} custom section.
+ * Declarative element segments lose any entries that referred to removed functions.
+ */
+public final class DeadFunctionEliminator {
+    private static final String NAME_SECTION = "name";
+    private static final byte NAME_SUBSEC_FUNCS = 1;
+    private static final byte NAME_SUBSEC_LOCALS = 2;
+    private static final byte NAME_SUBSEC_LABELS = 3;
+
+    private DeadFunctionEliminator() {
+    }
+
+    /**
+     * Remove the unreachable functions of a module, in place.
+     *
+     * @param module The module.
+     * @return The new index of every function, indexed by its old index, or -1 if it was removed.
+     * @throws ValidationException If the module refers to a function that does not exist.
+     */
+    public static int[] eliminate(@NotNull ModuleNode module) {
+        return eliminate(module, CallGraph.build(module));
+    }
+
+    /**
+     * Remove the unreachable functions of a module, in place.
+     *
+     * @param module The module.
+     * @param graph  The call graph of the module, as built by {@link CallGraph#build(ModuleNode)}.
+     * @return The new index of every function, indexed by its old index, or -1 if it was removed.
+     */
+    public static int[] eliminate(@NotNull ModuleNode module, @NotNull CallGraph graph) {
+        int funcs = graph.funcCount();
+        int imports = graph.importCount();
+        int[] remap = new int[funcs];
+        int next = 0;
+        for (int f = 0; f < funcs; f++) {
+            remap[f] = f < imports || graph.isReachable(f) ? next++ : -1;
+        }
+        if (next == funcs) return remap;
+
+        if (module.funcs != null && module.codes != null) {
+            List<FuncNode> newFuncs = new ArrayList<>(next - imports);
+            List<CodeNode> newCodes = new ArrayList<>(next - imports);
+            for (int f = imports; f < funcs; f++) {
+                if (remap[f] == -1) continue;
+                newFuncs.add(module.funcs.funcs.get(f - imports));
+                CodeNode code = module.codes.codes.get(f - imports);
+                remapExpr(code.expr, remap);
+                newCodes.add(code);
+            }
+            module.funcs.funcs = newFuncs;
+            module.codes.codes = newCodes;
+        }
+
+        if (module.exports != null) {
+            for (ExportNode export : module.exports) {
+                if (export.type == Opcodes.EXPORTS_FUNC) export.index = remap[export.index];
+            }
+        }
+        if (module.start != null) {
+            module.start = remap[module.start];
+        }
+        if (module.globals != null) {
+            for (GlobalNode global : module.globals) {
+                remapExpr(global.init, remap);
+            }
+        }
+        if (module.elems != null) {
+            for (ElementNode elem : module.elems) {
+                remapExpr(elem.offset, remap);
+                if (elem.indices != null) {
+                    int[] indices = new int[elem.indices.length];
+                    int count = 0;
+                    for (int index : elem.indices) {
+                        if (remap[index] != -1) indices[count++] = remap[index];
+                    }
+                    elem.indices = count == indices.length ? indices : Arrays.copyOf(indices, count);
+                } else {
+                    Iterator<ExprNode> it = elem.init.iterator();
+                    while (it.hasNext()) {
+                        if (!remapExpr(it.next(), remap)) it.remove();
+                    }
+                }
+            }
+        }
+        if (module.datas != null) {
+            for (DataNode data : module.datas) {
+                remapExpr(data.offset, remap);
+            }
+        }
+
+        for (List<CustomNode> customs : module.customs) {
+            if (customs == null) continue;
+            Iterator<CustomNode> it = customs.iterator();
+            while (it.hasNext()) {
+                CustomNode custom = it.next();
+                if (!NAME_SECTION.equals(custom.name)) continue;
+                try {
+                    custom.data = remapNames(custom.data, remap);
+                } catch (ValidationException e) {
+                    // names that cannot be read cannot be renumbered, and stale names are worse than none
+                    it.remove();
+                }
+            }
+        }
+
+        return remap;
+    }
+
+    /**
+     * Renumber the functions referred to by an expression.
+     *
+     * @return Whether every function it referred to was kept.
+     */
+    private static boolean remapExpr(@Nullable ExprNode expr, int[] remap) {
+        if (expr == null || expr.instructions == null) return true;
+        boolean kept = true;
+        for (AbstractInsnNode insn : expr.instructions) {
+            if (insn.opcode == Opcodes.CALL) {
+                CallInsnNode call = (CallInsnNode) insn;
+                call.function = remap[call.function];
+                kept &= call.function != -1;
+            } else if (insn.opcode == Opcodes.REF_FUNC) {
+                FuncRefInsnNode ref = (FuncRefInsnNode) insn;
+                ref.function = remap[ref.function];
+                kept &= ref.function != -1;
+            }
+        }
+        return kept;
+    }
+
+    private static byte[] remapNames(byte[] data, int[] remap) {
+        ByteBuffer bb = ByteBuffer.wrap(data);
+        ByteInputStream<RuntimeException> in = new ByteInputStream.ByteBufferByteInputStream(bb);
+        ByteOutputStream.BaosByteOutputStream out = new ByteOutputStream.BaosByteOutputStream();
+        while (bb.hasRemaining()) {
+            byte id = in.expect();
+            byte[] content = in.getByteArray();
+            switch (id) {
+                case NAME_SUBSEC_FUNCS:
+                case NAME_SUBSEC_LOCALS:
+                case NAME_SUBSEC_LABELS:
+                    content = remapNameMap(content, remap, id != NAME_SUBSEC_FUNCS);
+                    break;
+                default:
+                    break;
+            }
+            out.put(id);
+            out.putByteArray(content);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] remapNameMap(byte[] content, int[] remap, boolean indirect) {
+        ByteBuffer bb = ByteBuffer.wrap(content);
+        ByteInputStream<RuntimeException> in = new ByteInputStream.ByteBufferByteInputStream(bb);
+        ByteOutputStream.BaosByteOutputStream entries = new ByteOutputStream.BaosByteOutputStream();
+        int count = in.getVarUInt32();
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int func = in.getVarUInt32();
+            ModuleValidator.assertExists(remap.length, func, "function");
+            boolean keep = remap[func] != -1;
+            if (keep) {
+                entries.putVarUInt(Integer.toUnsignedLong(remap[func]));
+                kept++;
+            }
+            int inner = indirect ? in.getVarUInt32() : 1;
+            if (indirect && keep) entries.putVarUInt(Integer.toUnsignedLong(inner));
+            for (int j = 0; j < inner; j++) {
+                if (indirect) {
+                    int index = in.getVarUInt32();
+                    if (keep) entries.putVarUInt(Integer.toUnsignedLong(index));
+                }
+                byte[] name = in.getByteArray();
+                if (keep) entries.putByteArray(name);
+            }
+        }
+        in.expectEmpty();
+        ByteOutputStream.BaosByteOutputStream out = new ByteOutputStream.BaosByteOutputStream();
+        out.putVarUInt(Integer.toUnsignedLong(kept));
+        out.put(entries.toByteArray());
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,343 @@
+package io.github.eutro.jwasm.tree.analysis;
+
+import io.github.eutro.jwasm.BlockType;
+import io.github.eutro.jwasm.ExprVisitor;
+import org.jetbrains.annotations.Nullable;
+
+import static io.github.eutro.jwasm.Opcodes.*;
+
+/**
+ * An {@link ExprVisitor} that gathers statistics about the expressions it visits, in a single pass,
+ * without building them into a tree.
+ * <p>
+ * Instructions are counted by opcode, in a dense opcode space of {@link #OPCODES} indices:
+ * single-byte opcodes come first, then those prefixed by {@link io.github.eutro.jwasm.Opcodes#INSN_PREFIX},
+ * then those prefixed by {@link io.github.eutro.jwasm.Opcodes#VECTOR_PREFIX}, and finally a single index
+ * for any prefixed opcodes beyond those, as found by {@link #index(byte)}, {@link #prefixIndex(int)}
+ * and {@link #vectorIndex(int)}.
+ * <p>
+ * The same statistics may visit any number of expressions, one after another, and statistics gathered separately,
+ * such as on different threads, can be {@link #merge(ExprStatistics) merged}.
+ * Statistics are not safe to update from multiple threads at once.
+ *
+ * @see ModuleStatistics
+ */
+public final class ExprStatistics extends ExprVisitor {
+    private static final int PREFIX_OPCODES = TABLE_FILL + 1;
+    private static final int VECTOR_OPCODES = 256;
+    private static final int PREFIX_START = 256;
+    private static final int VECTOR_START = PREFIX_START + PREFIX_OPCODES;
+    private static final int UNKNOWN = VECTOR_START + VECTOR_OPCODES;
+
+    /**
+     * The size of the dense opcode space.
+     */
+    public static final int OPCODES = UNKNOWN + 1;
+
+    /**
+     * The number of alignments that are counted separately, from {@code 2^0} up to {@code 2^(ALIGNMENTS - 2)},
+     * the last of which also counts all larger alignments.
+     */
+    public static final int ALIGNMENTS = 8;
+
+    private final int[] opcodes = new int[OPCODES];
+    private final int[] alignments = new int[ALIGNMENTS];
+    private long instructions;
+    private long expressions;
+    private int depth;
+    private int maxDepth;
+
+    /**
+     * Construct statistics that have visited nothing, with no delegate.
+     */
+    public ExprStatistics() {
+    }
+
+    /**
+     * Construct statistics that have visited nothing, with a delegate.
+     *
+     * @param dl The visitor to delegate all method calls to, or {@code null}.
+     */
+    public ExprStatistics(@Nullable ExprVisitor dl) {
+        super(dl);
+    }
+
+    /**
+     * Get the index of a single-byte opcode in the dense opcode space.
+     *
+     * @param opcode The opcode.
+     * @return The index.
+     */
+    public static int index(byte opcode) {
+        return Byte.toUnsignedInt(opcode);
+    }
+
+    /**
+     * Get the index of an opcode prefixed by {@link io.github.eutro.jwasm.Opcodes#INSN_PREFIX}
+     * in the dense opcode space.
+     *
+     * @param opcode The opcode, after the prefix.
+     * @return The index.
+     */
+    public static int prefixIndex(int opcode) {
+        return opcode >= 0 && opcode < PREFIX_OPCODES ? PREFIX_START + opcode : UNKNOWN;
+    }
+
+    /**
+     * Get the index of an opcode prefixed by {@link io.github.eutro.jwasm.Opcodes#VECTOR_PREFIX}
+     * in the dense opcode space.
+     *
+     * @param opcode The opcode, after the prefix.
+     * @return The index.
+     */
+    public static int vectorIndex(int opcode) {
+        return opcode >= 0 && opcode < VECTOR_OPCODES ? VECTOR_START + opcode : UNKNOWN;
+    }
+
+    private void count(int index) {
+        opcodes[index]++;
+        instructions++;
+    }
+
+    private void countAlign(int align) {
+        alignments[Integer.compareUnsigned(align, ALIGNMENTS - 1) < 0 ? align : ALIGNMENTS - 1]++;
+    }
+
+    @Override
+    public void visitInsn(byte opcode) {
+        count(index(opcode));
+        super.visitInsn(opcode);
+    }
+
+    @Override
+    public void visitPrefixInsn(int opcode) {
+        count(prefixIndex(opcode));
+        super.visitPrefixInsn(opcode);
+    }
+
+    @Override
+    public void visitConstInsn(Object v) {
+        byte opcode;
+        if (v instanceof Integer) opcode = I32_CONST;
+        else if (v instanceof Long) opcode = I64_CONST;
+        else if (v instanceof Float) opcode = F32_CONST;
+        else opcode = F64_CONST;
+        count(index(opcode));
+        super.visitConstInsn(v);
+    }
+
+    @Override
+    public void visitNullInsn(byte type) {
+        count(index(REF_NULL));
+        super.visitNullInsn(type);
+    }
+
+    @Override
+    public void visitFuncRefInsn(int function) {
+        count(index(REF_FUNC));
+        super.visitFuncRefInsn(function);
+    }
+
+    @Override
+    public void visitSelectInsn(byte[] type) {
+        count(index(SELECTT));
+        super.visitSelectInsn(type);
+    }
+
+    @Override
+    public void visitVariableInsn(byte opcode, int variable) {
+        count(index(opcode));
+        super.visitVariableInsn(opcode, variable);
+    }
+
+    @Override
+    public void visitTableInsn(byte opcode, int table) {
+        count(index(opcode));
+        super.visitTableInsn(opcode, table);
+    }
+
+    @Override
+    public void visitPrefixTableInsn(int opcode, int table) {
+        count(prefixIndex(opcode));
+        super.visitPrefixTableInsn(opcode, table);
+    }
+
+    @Override
+    public void visitPrefixBinaryTableInsn(int opcode, int firstIndex, int secondIndex) {
+        count(prefixIndex(opcode));
+        super.visitPrefixBinaryTableInsn(opcode, firstIndex, secondIndex);
+    }
+
+    @Override
+    public void visitMemInsn(byte opcode, int align, int offset) {
+        count(index(opcode));
+        countAlign(align);
+        super.visitMemInsn(opcode, align, offset);
+    }
+
+    @Override
+    public void visitIndexedMemInsn(int opcode, int index) {
+        count(prefixIndex(opcode));
+        super.visitIndexedMemInsn(opcode, index);
+    }
+
+    @Override
+    public void visitBlockInsn(byte opcode, BlockType blockType) {
+        count(index(opcode));
+        if (++depth > maxDepth) maxDepth = depth;
+        super.visitBlockInsn(opcode, blockType);
+    }
+
+    @Override
+    public void visitElseInsn() {
+        count(index(ELSE));
+        super.visitElseInsn();
+    }
+
+    @Override
+    public void visitEndInsn() {
+        count(index(END));
+        if (depth > 0) depth--;
+        super.visitEndInsn();
+    }
+
+    @Override
+    public void visitBreakInsn(byte opcode, int label) {
+        count(index(opcode));
+        super.visitBreakInsn(opcode, label);
+    }
+
+    @Override
+    public void visitTableBreakInsn(int[] labels, int defaultLabel) {
+        count(index(BR_TABLE));
+        super.visitTableBreakInsn(labels, defaultLabel);
+    }
+
+    @Override
+    public void visitCallInsn(int function) {
+        count(index(CALL));
+        super.visitCallInsn(function);
+    }
+
+    @Override
+    public void visitCallIndirectInsn(int table, int type) {
+        count(index(CALL_INDIRECT));
+        super.visitCallIndirectInsn(table, type);
+    }
+
+    @Override
+    public void visitVectorInsn(int opcode) {
+        count(vectorIndex(opcode));
+        super.visitVectorInsn(opcode);
+    }
+
+    @Override
+    public void visitVectorMemInsn(int opcode, int align, int offset) {
+        count(vectorIndex(opcode));
+        countAlign(align);
+        super.visitVectorMemInsn(opcode, align, offset);
+    }
+
+    @Override
+    public void visitVectorMemLaneInsn(int opcode, int align, int offset, byte lane) {
+        count(vectorIndex(opcode));
+        countAlign(align);
+        super.visitVectorMemLaneInsn(opcode, align, offset, lane);
+    }
+
+    @Override
+    public void visitVectorConstOrShuffleInsn(int opcode, byte[] bytes) {
+        count(vectorIndex(opcode));
+        super.visitVectorConstOrShuffleInsn(opcode, bytes);
+    }
+
+    @Override
+    public void visitVectorLaneInsn(int opcode, byte lane) {
+        count(vectorIndex(opcode));
+        super.visitVectorLaneInsn(opcode, lane);
+    }
+
+    @Override
+    public void visitEnd() {
+        expressions++;
+        depth = 0;
+        super.visitEnd();
+    }
+
+    /**
+     * Get how many times an opcode was visited.
+     *
+     * @param index The index of the opcode in the dense opcode space.
+     * @return The count.
+     */
+    public int getCount(int index) {
+        return opcodes[index];
+    }
+
+    /**
+     * Get how many times each opcode was visited.
+     *
+     * @return A copy of the counts, indexed by the dense opcode space.
+     */
+    public int[] getCounts() {
+        return opcodes.clone();
+    }
+
+    /**
+     * Get how many memory instructions were visited with each alignment.
+     *
+     * @return A copy of the counts, indexed by the alignment exponent, up to {@link #ALIGNMENTS}.
+     */
+    public int[] getAlignments() {
+        return alignments.clone();
+    }
+
+    /**
+     * Get the number of instructions visited, including {@code end}s.
+     *
+     * @return The number of instructions.
+     */
+    public long getInstructions() {
+        return instructions;
+    }
+
+    /**
+     * Get the number of expressions visited, which is the number of times {@link #visitEnd()} was called.
+     *
+     * @return The number of expressions.
+     */
+    public long getExpressions() {
+        return expressions;
+    }
+
+    /**
+     * Get the deepest that blocks were nested in any expression visited,
+     * 0 if there were no blocks, and 1 if there were no blocks within blocks.
+     *
+     * @return The maximum nesting depth.
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Add the statistics gathered by another visitor to these.
+     *
+     * @param other The other statistics, which are left unchanged.
+     * @return These statistics.
+     */
+    public ExprStatistics merge(ExprStatistics other) {
+        add(opcodes, other.opcodes);
+        add(alignments, other.alignments);
+        instructions += other.instructions;
+        expressions += other.expressions;
+        maxDepth = Math.max(maxDepth, other.maxDepth);
+        return this;
+    }
+
+    static void add(int[] to, int[] from) {
+        for (int i = 0; i < to.length; i++) {
+            to[i] += from[i];
+        }
+    }
+}
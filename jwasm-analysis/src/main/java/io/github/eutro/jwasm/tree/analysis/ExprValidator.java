@@ -42,6 +42,14 @@ class ExprValidator extends ExprVisitor {
     protected final VerifCtx ctx;
     protected int insn = 0;
 
+    private final int[] typeCounts = new int[StackMaxes.TYPE_COUNT];
+    private final int[] maxTypeCounts = new int[StackMaxes.TYPE_COUNT];
+    private int maxStack = 0;
+    private int maxControlDepth = 0;
+
+    @Nullable ValidationBudget budget;
+    private int unchecked = 0;
+
     ExprValidator(
             VerifCtx ctx,
             List<Byte> expectedType,
@@ -87,6 +95,20 @@ class ExprValidator extends ExprVisitor {
 
     protected void pushV(@Nullable Byte type) {
         vals.add(type);
+        if (vals.size() > maxStack) maxStack = vals.size();
+        if (type != null) {
+            int idx = StackMaxes.typeIndex(type);
+            if (idx != -1 && ++typeCounts[idx] > maxTypeCounts[idx]) maxTypeCounts[idx] = typeCounts[idx];
+        }
+    }
+
+    private @Nullable Byte removeV() {
+        Byte type = vals.remove(vals.size() - 1);
+        if (type != null) {
+            int idx = StackMaxes.typeIndex(type);
+            if (idx != -1) typeCounts[idx]--;
+        }
+        return type;
     }
 
     protected @Nullable Byte popV() {
@@ -98,7 +120,7 @@ class ExprValidator extends ExprVisitor {
                         typeMismatch());
             }
         }
-        return vals.remove(vals.size() - 1);
+        return removeV();
     }
 
     private static String typeName(byte type) {
@@ -166,6 +188,7 @@ class ExprValidator extends ExprVisitor {
         frame.height = vals.size();
         frame.unreachable = false;
         ctrls.add(frame);
+        if (ctrls.size() > maxControlDepth) maxControlDepth = ctrls.size();
         pushVs(ins);
     }
 
@@ -194,13 +217,21 @@ class ExprValidator extends ExprVisitor {
     protected void unreachable() {
         CtrlFrame frame = ctrlsRef(0);
         while (vals.size() > frame.height) {
-            vals.remove(vals.size() - 1);
+            removeV();
         }
         frame.unreachable = true;
     }
 
     protected void bumpI() {
         insn++;
+        if (budget != null && ++unchecked == ValidationBudget.CHECK_INTERVAL) {
+            unchecked = 0;
+            budget.consume(ValidationBudget.CHECK_INTERVAL);
+        }
+    }
+
+    StackMaxes getMaxes() {
+        return new StackMaxes(maxStack, maxControlDepth, maxTypeCounts.clone());
     }
 
     private void applyType(@Nullable StackType type) {
@@ -647,6 +678,7 @@ class ExprValidator extends ExprVisitor {
     public void visitVectorInsn(int opcode) {
         super.visitVectorInsn(opcode);
         checkVectorAgainstAttrs(opcode, VisitTarget.VectorInsn);
+        bumpI();
     }
 
     @Override
@@ -655,6 +687,7 @@ class ExprValidator extends ExprVisitor {
         assertMemExists();
         checkVectorAgainstAttrs(opcode, VisitTarget.VectorMemInsn);
         checkAlign(vectorOpcode(opcode), align);
+        bumpI();
     }
 
     @Override
@@ -664,6 +697,7 @@ class ExprValidator extends ExprVisitor {
         InsnAttributes attrs = checkVectorAgainstAttrs(opcode, VisitTarget.VectorMemLaneInsn);
         checkAlign(vectorOpcode(opcode), align);
         checkLane(lane, attrs);
+        bumpI();
     }
 
     @Override
@@ -678,6 +712,7 @@ class ExprValidator extends ExprVisitor {
                 }
             }
         }
+        bumpI();
     }
 
     @Override
@@ -685,6 +720,7 @@ class ExprValidator extends ExprVisitor {
         super.visitVectorLaneInsn(opcode, lane);
         InsnAttributes attrs = checkVectorAgainstAttrs(opcode, VisitTarget.VectorLaneInsn);
         checkLane(lane, attrs);
+        bumpI();
     }
 
     private static void checkLane(byte lane, InsnAttributes attrs) {
@@ -697,6 +733,10 @@ class ExprValidator extends ExprVisitor {
     @Override
     public void visitEnd() {
         super.visitEnd();
+        if (budget != null) {
+            budget.consume(unchecked);
+            unchecked = 0;
+        }
         assertMsg(ctrls.isEmpty(), "not all blocks have been ended");
     }
 }
@@ -0,0 +1,246 @@
+package io.github.eutro.jwasm.tree.analysis;
+
+import io.github.eutro.jwasm.ByteList;
+import io.github.eutro.jwasm.ValidationException;
+import io.github.eutro.jwasm.tree.CodeNode;
+import io.github.eutro.jwasm.tree.ExprNode;
+import io.github.eutro.jwasm.tree.ModuleNode;
+import io.github.eutro.jwasm.tree.TypeNode;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An analyzer that computes the types of the values on the operand stack before every instruction of a function,
+ * using the same typing rules as {@link ModuleValidator}.
+ * <p>
+ * Function bodies are validated as they are analysed, so a {@link ValidationException} is thrown
+ * for any function that is not well-typed.
+ */
+public final class FrameAnalyzer {
+    /**
+     * The type recorded for a value whose type is not known,
+     * which may occur in unreachable code after its stack has been made polymorphic.
+     */
+    public static final byte UNKNOWN = 0;
+
+    private final @NotNull ModuleNode module;
+    private final VerifCtx ctx = new VerifCtx();
+
+    /**
+     * Construct an analyzer for the functions of a module.
+     *
+     * @param module The module.
+     * @throws ValidationException If the types, imports or other declarations of the module are invalid.
+     */
+    public FrameAnalyzer(@NotNull ModuleNode module) {
+        this.module = module;
+        ModuleValidator.collectCtx(module, ctx, new VerifCtx());
+    }
+
+    /**
+     * Analyse a function defined in the module.
+     *
+     * @param index The index of the function among those defined in the module,
+     *              that is, excluding imported functions; its index in {@link ModuleNode#codes}.
+     * @return The frames of the function.
+     * @throws ValidationException If the function is not well-typed.
+     */
+    public Frames analyze(int index) {
+        return analyze(funcType(index), module.codes.codes.get(index));
+    }
+
+    /**
+     * Compute the maximum stack and control depths of a function defined in the module,
+     * without recording its frames.
+     *
+     * @param index The index of the function among those defined in the module,
+     *              that is, excluding imported functions; its index in {@link ModuleNode#codes}.
+     * @return The maximums.
+     * @throws ValidationException If the function is not well-typed.
+     */
+    public StackMaxes computeMaxes(int index) {
+        ExprValidator ev = newValidator(funcType(index), module.codes.codes.get(index));
+        module.codes.codes.get(index).expr.accept(ev);
+        return ev.getMaxes();
+    }
+
+    private TypeNode funcType(int index) {
+        if (module.funcs == null || module.codes == null) {
+            throw new IndexOutOfBoundsException(String.valueOf(index));
+        }
+        return ctx.resolveType(module.funcs.funcs.get(index).type);
+    }
+
+    private VerifCtx funcCtx(TypeNode type, CodeNode code) {
+        byte[] locals = Arrays.copyOf(type.params, type.params.length + code.locals.length);
+        System.arraycopy(code.locals, 0, locals, type.params.length, code.locals.length);
+        return ctx.deriveLocals(new ByteList(locals), new ByteList(type.returns));
+    }
+
+    private ExprValidator newValidator(TypeNode type, CodeNode code) {
+        VerifCtx ctx1 = funcCtx(type, code);
+        return new ExprValidator(ctx1, ctx1.returns, null);
+    }
+
+    /**
+     * Analyse a function body in the context of the module.
+     *
+     * @param type The type of the function.
+     * @param code The code of the function.
+     * @return The frames of the function.
+     * @throws ValidationException If the function is not well-typed.
+     */
+    public Frames analyze(@NotNull TypeNode type, @NotNull CodeNode code) {
+        VerifCtx ctx1 = funcCtx(type, code);
+        ExprNode expr = code.expr;
+        Recorder recorder = new Recorder(ctx1, ctx1.returns,
+                expr.instructions == null ? 1 : expr.instructions.size() + 1);
+        expr.accept(recorder);
+        return recorder.toFrames();
+    }
+
+    /**
+     * The operand stacks of a function, before every instruction.
+     * <p>
+     * Frame {@code i} is the stack before instruction {@code i} of {@link ExprNode#instructions},
+     * and there is one additional frame for the stack after the last instruction.
+     * The types of all frames are stored together in a single byte array.
+     */
+    public static final class Frames {
+        private final byte[] pool;
+        private final int[] offsets;
+        private final long[] unreachable;
+        private final StackMaxes maxes;
+
+        Frames(byte[] pool, int[] offsets, long[] unreachable, StackMaxes maxes) {
+            this.pool = pool;
+            this.offsets = offsets;
+            this.unreachable = unreachable;
+            this.maxes = maxes;
+        }
+
+        /**
+         * Get the maximum stack and control depths of the function.
+         *
+         * @return The maximums.
+         */
+        public StackMaxes getMaxes() {
+            return maxes;
+        }
+
+        /**
+         * Get the number of frames, one more than the number of instructions.
+         *
+         * @return The number of frames.
+         */
+        public int size() {
+            return offsets.length - 1;
+        }
+
+        /**
+         * Get the height of the operand stack before an instruction.
+         *
+         * @param insn The index of the instruction.
+         * @return The number of values on the stack.
+         */
+        public int getHeight(int insn) {
+            return offsets[insn + 1] - offsets[insn];
+        }
+
+        /**
+         * Get the type of a value on the operand stack before an instruction.
+         *
+         * @param insn  The index of the instruction.
+         * @param index The index of the value on the stack, where 0 is the bottom.
+         * @return The <a href="https://webassembly.github.io/spec/core/binary/types.html#binary-valtype">valtype</a>
+         * of the value, or {@link #UNKNOWN}.
+         */
+        public byte getStack(int insn, int index) {
+            if (index < 0 || index >= getHeight(insn)) throw new IndexOutOfBoundsException(String.valueOf(index));
+            return pool[offsets[insn] + index];
+        }
+
+        /**
+         * Get the type of a value on the operand stack before an instruction, counting from the top.
+         *
+         * @param insn  The index of the instruction.
+         * @param depth The depth of the value on the stack, where 0 is the top.
+         * @return The <a href="https://webassembly.github.io/spec/core/binary/types.html#binary-valtype">valtype</a>
+         * of the value, or {@link #UNKNOWN}.
+         */
+        public byte getTop(int insn, int depth) {
+            return getStack(insn, getHeight(insn) - depth - 1);
+        }
+
+        /**
+         * Get all the types on the operand stack before an instruction.
+         *
+         * @param insn The index of the instruction.
+         * @return A copy of the types on the stack, from the bottom up.
+         */
+        public byte[] getStack(int insn) {
+            return Arrays.copyOfRange(pool, offsets[insn], offsets[insn + 1]);
+        }
+
+        /**
+         * Get whether an instruction is unreachable, following an unconditional branch in its block.
+         * <p>
+         * The stack of an unreachable instruction is polymorphic, so it may hold fewer values
+         * than the instruction pops, and may hold values of {@link #UNKNOWN} type.
+         *
+         * @param insn The index of the instruction.
+         * @return Whether the instruction is unreachable.
+         */
+        public boolean isUnreachable(int insn) {
+            return BitsetDataflowAnalysis.get(unreachable, 0, insn);
+        }
+    }
+
+    private static class Recorder extends ExprValidator {
+        private byte[] pool = new byte[64];
+        private int poolSize = 0;
+        private int[] offsets;
+        private int frames = 0;
+        private long[] unreachable;
+
+        Recorder(VerifCtx ctx, List<Byte> expectedType, int expectedFrames) {
+            super(ctx, expectedType, null);
+            offsets = new int[expectedFrames + 1];
+            unreachable = new long[BitsetDataflowAnalysis.wordsFor(expectedFrames)];
+            record();
+        }
+
+        private void record() {
+            int height = vals.size();
+            if (poolSize + height > pool.length) {
+                pool = Arrays.copyOf(pool, Math.max(pool.length * 2, poolSize + height));
+            }
+            for (Byte val : vals) {
+                pool[poolSize++] = val == null ? UNKNOWN : val;
+            }
+            if (frames + 2 > offsets.length) offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            if (!ctrls.isEmpty() && ctrlsRef(0).unreachable) {
+                if ((frames >>> 6) >= unreachable.length) {
+                    unreachable = Arrays.copyOf(unreachable, unreachable.length * 2 + 1);
+                }
+                BitsetDataflowAnalysis.set(unreachable, 0, frames);
+            }
+            offsets[++frames] = poolSize;
+        }
+
+        @Override
+        protected void bumpI() {
+            super.bumpI();
+            record();
+        }
+
+        Frames toFrames() {
+            return new Frames(Arrays.copyOf(pool, poolSize),
+                    Arrays.copyOf(offsets, frames + 1),
+                    Arrays.copyOf(unreachable, BitsetDataflowAnalysis.wordsFor(frames)),
+                    getMaxes());
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package io.github.eutro.jwasm.tree.analysis;
+
+import io.github.eutro.jwasm.BlockType;
+import io.github.eutro.jwasm.ByteOutputStream;
+import io.github.eutro.jwasm.ExprWriter;
+import io.github.eutro.jwasm.tree.CodeNode;
+import io.github.eutro.jwasm.tree.GlobalTypeNode;
+import io.github.eutro.jwasm.tree.TypeNode;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+import static io.github.eutro.jwasm.Opcodes.*;
+
+/**
+ * Computes the {@link ValidationCache} key of a function body.
+ * <p>
+ * The key is a SHA-256 digest of the function's type, its locals, the bytes of its body,
+ * and the parts of the module context that the body refers to, resolved to what they are rather than where they are.
+ * A body that refers to something that does not exist still gets a key, but it will never be valid.
+ */
+final class FuncHasher extends ExprWriter {
+    private static final byte MISSING = -1;
+
+    private final VerifCtx ctx;
+    private final ByteOutputStream.BaosByteOutputStream refs = new ByteOutputStream.BaosByteOutputStream();
+
+    private FuncHasher(VerifCtx ctx) {
+        this.ctx = ctx;
+    }
+
+    static byte[] hash(VerifCtx ctx, TypeNode type, CodeNode code) {
+        FuncHasher hasher = new FuncHasher(ctx);
+        code.expr.accept(hasher);
+
+        ByteOutputStream.BaosByteOutputStream out = new ByteOutputStream.BaosByteOutputStream();
+        out.putByteArray(type.params);
+        out.putByteArray(type.returns);
+        out.putByteArray(code.locals);
+        out.putByteArray(hasher.toByteArray());
+        out.putVarUInt(ctx.mems.size());
+        out.putByteArray(hasher.refs.toByteArray());
+
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        return md.digest(out.toByteArray());
+    }
+
+    private void putType(List<TypeNode> list, int index) {
+        if (index < 0 || index >= list.size()) {
+            refs.put(MISSING);
+            return;
+        }
+        TypeNode type = list.get(index);
+        refs.putByteArray(type.params);
+        refs.putByteArray(type.returns);
+    }
+
+    private void putTable(int table) {
+        if (table < 0 || table >= ctx.tables.size()) {
+            refs.put(MISSING);
+            return;
+        }
+        refs.put(ctx.tables.get(table).type);
+    }
+
+    private void putElem(int elem) {
+        refs.put(elem < 0 || elem >= ctx.elems.size() ? MISSING : ctx.elems.get(elem));
+    }
+
+    @Override
+    public void visitFuncRefInsn(int function) {
+        super.visitFuncRefInsn(function);
+        refs.put((byte) (ctx.refs.contains(function) ? 1 : 0));
+        putType(ctx.funcs, function);
+    }
+
+    @Override
+    public void visitVariableInsn(byte opcode, int variable) {
+        super.visitVariableInsn(opcode, variable);
+        if (opcode == GLOBAL_GET || opcode == GLOBAL_SET) {
+            if (variable < 0 || variable >= ctx.globals.size()) {
+                refs.put(MISSING);
+            } else {
+                GlobalTypeNode global = ctx.globals.get(variable);
+                refs.put(global.mut);
+                refs.put(global.type);
+            }
+        }
+    }
+
+    @Override
+    public void visitTableInsn(byte opcode, int table) {
+        super.visitTableInsn(opcode, table);
+        putTable(table);
+    }
+
+    @Override
+    public void visitPrefixTableInsn(int opcode, int table) {
+        super.visitPrefixTableInsn(opcode, table);
+        if (opcode == ELEM_DROP) {
+            putElem(table);
+        } else {
+            putTable(table);
+        }
+    }
+
+    @Override
+    public void visitPrefixBinaryTableInsn(int opcode, int firstIndex, int secondIndex) {
+        super.visitPrefixBinaryTableInsn(opcode, firstIndex, secondIndex);
+        putTable(firstIndex);
+        if (opcode == TABLE_INIT) {
+            putElem(secondIndex);
+        } else {
+            putTable(secondIndex);
+        }
+    }
+
+    @Override
+    public void visitIndexedMemInsn(int opcode, int index) {
+        super.visitIndexedMemInsn(opcode, index);
+        refs.put((byte) (Integer.compareUnsigned(index, ctx.datas) < 0 ? 1 : 0));
+    }
+
+    @Override
+    public void visitBlockInsn(byte opcode, BlockType blockType) {
+        super.visitBlockInsn(opcode, blockType);
+        if (!blockType.isValtype()) putType(ctx.types, blockType.get());
+    }
+
+    @Override
+    public void visitCallInsn(int function) {
+        super.visitCallInsn(function);
+        putType(ctx.funcs, function);
+    }
+
+    @Override
+    public void visitCallIndirectInsn(int table, int type) {
+        super.visitCallIndirectInsn(table, type);
+        putTable(table);
+        putType(ctx.types, type);
+    }
+}
@@ -0,0 +1,101 @@
+package io.github.eutro.jwasm.tree.analysis;
+
+import io.github.eutro.jwasm.tree.AbstractInsnNode;
+import io.github.eutro.jwasm.tree.CodeNode;
+import io.github.eutro.jwasm.tree.TypeNode;
+import io.github.eutro.jwasm.tree.VariableInsnNode;
+import org.jetbrains.annotations.NotNull;
+
+import static io.github.eutro.jwasm.Opcodes.*;
+
+/**
+ * A backward dataflow analysis computing which locals are live, that is,
+ * which locals may be read by {@code local.get} before they are next written.
+ * <p>
+ * Sets are indexed by local index, parameters included.
+ */
+public final class LiveLocals extends BitsetDataflowAnalysis {
+    /**
+     * Compute the live locals of a function body.
+     *
+     * @param cfg        The control flow graph of the function body.
+     * @param localCount The number of locals of the function, including its parameters.
+     */
+    public LiveLocals(@NotNull ControlFlowGraph cfg, int localCount) {
+        super(cfg, Direction.BACKWARD, localCount);
+        for (int b = 0; b < cfg.blockCount(); b++) {
+            int off = b * words;
+            for (int i = cfg.blockEnd(b) - 1; i >= cfg.blockStart(b); i--) {
+                AbstractInsnNode insn = cfg.getInsn(i);
+                switch (insn.opcode) {
+                    case LOCAL_GET:
+                    case LOCAL_SET:
+                    case LOCAL_TEE: {
+                        int local = ((VariableInsnNode) insn).variable;
+                        ModuleValidator.assertExists(localCount, local, "local");
+                        if (insn.opcode == LOCAL_GET) {
+                            set(gen, off, local);
+                        } else {
+                            set(kill, off, local);
+                            clear(gen, off, local);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        solve();
+    }
+
+    /**
+     * Compute the live locals of a function.
+     *
+     * @param type The type of the function.
+     * @param code The code of the function.
+     * @return The solved analysis.
+     */
+    public static LiveLocals analyze(@NotNull TypeNode type, @NotNull CodeNode code) {
+        return new LiveLocals(ControlFlowGraph.build(code.expr), type.params.length + code.locals.length);
+    }
+
+    /**
+     * Test whether a local is live immediately after an instruction executes.
+     * <p>
+     * A {@code local.set} or {@code local.tee} to a local that is not live after it is a dead store.
+     *
+     * @param insn  The index of the instruction.
+     * @param local The index of the local.
+     * @return Whether the local is live after the instruction.
+     */
+    public boolean isLiveAfter(int insn, int local) {
+        int block = cfg.blockOf(insn);
+        for (int i = insn + 1; i < cfg.blockEnd(block); i++) {
+            AbstractInsnNode next = cfg.getInsn(i);
+            switch (next.opcode) {
+                case LOCAL_GET:
+                case LOCAL_SET:
+                case LOCAL_TEE:
+                    if (((VariableInsnNode) next).variable == local) return next.opcode == LOCAL_GET;
+            }
+        }
+        return isOut(block, local);
+    }
+
+    /**
+     * Test whether a local is live immediately before an instruction executes.
+     *
+     * @param insn  The index of the instruction.
+     * @param local The index of the local.
+     * @return Whether the local is live before the instruction.
+     */
+    public boolean isLiveBefore(int insn, int local) {
+        AbstractInsnNode node = cfg.getInsn(insn);
+        switch (node.opcode) {
+            case LOCAL_GET:
+            case LOCAL_SET:
+            case LOCAL_TEE:
+                if (((VariableInsnNode) node).variable == local) return node.opcode == LOCAL_GET;
+        }
+        return isLiveAfter(insn, local);
+    }
+}
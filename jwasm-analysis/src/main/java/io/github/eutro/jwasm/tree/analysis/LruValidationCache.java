@@ -0,0 +1,78 @@
+package io.github.eutro.jwasm.tree.analysis;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A thread-safe {@link ValidationCache} that holds a bounded number of keys,
+ * evicting the least recently used key when it is full.
+ */
+public final class LruValidationCache implements ValidationCache {
+    private final Map<ByteBuffer, Boolean> entries;
+    private long hits, misses;
+
+    /**
+     * Construct a cache that holds up to the given number of keys.
+     *
+     * @param maxEntries The maximum number of keys.
+     */
+    public LruValidationCache(int maxEntries) {
+        if (maxEntries <= 0) throw new IllegalArgumentException("maxEntries must be positive");
+        entries = new LinkedHashMap<ByteBuffer, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ByteBuffer, Boolean> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public synchronized boolean isValid(byte[] key) {
+        if (entries.get(ByteBuffer.wrap(key)) != null) {
+            hits++;
+            return true;
+        }
+        misses++;
+        return false;
+    }
+
+    @Override
+    public synchronized void putValid(byte[] key) {
+        entries.put(ByteBuffer.wrap(key.clone()), Boolean.TRUE);
+    }
+
+    /**
+     * Get the number of keys in the cache.
+     *
+     * @return The number of keys.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the number of lookups that found their key.
+     *
+     * @return The number of hits.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Get the number of lookups that did not find their key.
+     *
+     * @return The number of misses.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Remove all keys from the cache.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+}
@@ -0,0 +1,274 @@
+package io.github.eutro.jwasm.tree.analysis;
+
+import io.github.eutro.jwasm.ModuleReader;
+import io.github.eutro.jwasm.ModuleVisitor;
+import io.github.eutro.jwasm.ReadListener;
+import io.github.eutro.jwasm.ValidationException;
+import io.github.eutro.jwasm.tree.ModuleNode;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * A thread-safe cache of parsed and {@link ModuleValidator validated} modules, keyed by a SHA-256 digest
+ * of their bytes, so that reading the same module again returns the same {@link CachedModule}
+ * without parsing or validating it again.
+ * <p>
+ * The cache is bounded by an estimate of the heap that its modules retain, evicting the least recently used
+ * modules when it is full. A module that would take more than the whole cache is returned but not kept.
+ * <p>
+ * Modules returned by the cache are shared between everyone who reads the same bytes, so they are only
+ * exposed through {@link CachedModule#accept(ModuleVisitor)}, and a {@link CachedModule#copy() copy}
+ * must be made of one to modify it.
+ * <p>
+ * Invalid modules are not cached, and throw a {@link ValidationException} every time they are read.
+ * If several threads miss on the same module at once, only one of them parses it, and the others wait for it.
+ */
+public final class ModuleCache {
+    /**
+     * The estimated heap retained by each instruction of a parsed function body.
+     */
+    private static final long INSN_BYTES = 48;
+    /**
+     * The estimated heap retained by each function, besides its instructions.
+     */
+    private static final long FUNCTION_BYTES = 128;
+
+    private final long maxBytes;
+    private final Map<ByteBuffer, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<ByteBuffer, CompletableFuture<CachedModule>> pending = new HashMap<>();
+    private long bytes;
+    private long hits, misses, evictions;
+
+    private static final class Entry {
+        final CachedModule module;
+        final long size;
+
+        Entry(CachedModule module, long size) {
+            this.module = module;
+            this.size = size;
+        }
+    }
+
+    /**
+     * A module in the cache, which may be shared between threads, and cannot be modified.
+     */
+    public static final class CachedModule {
+        private final ModuleNode module;
+
+        private CachedModule(ModuleNode module) {
+            this.module = module;
+        }
+
+        /**
+         * Make the given {@link ModuleVisitor} visit this module.
+         *
+         * @param mv The visitor.
+         */
+        public void accept(ModuleVisitor mv) {
+            module.accept(mv);
+        }
+
+        /**
+         * Copy this module into a new {@link ModuleNode}, which can be modified.
+         *
+         * @return The copy.
+         */
+        public ModuleNode copy() {
+            ModuleNode copy = new ModuleNode();
+            accept(copy);
+            return copy;
+        }
+    }
+
+    /**
+     * Construct a cache that retains up to around the given number of bytes of modules.
+     *
+     * @param maxBytes The maximum estimated size of the cached modules, in bytes.
+     */
+    public ModuleCache(long maxBytes) {
+        if (maxBytes <= 0) throw new IllegalArgumentException("maxBytes must be positive");
+        this.maxBytes = maxBytes;
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Get the module with the given bytes, parsing and validating it if it is not cached.
+     *
+     * @param bytes The bytes of the module.
+     * @return The shared module.
+     * @throws ValidationException If the module is malformed or invalid.
+     */
+    public @NotNull CachedModule get(byte @NotNull [] bytes) {
+        return get(digest().digest(bytes), bytes);
+    }
+
+    /**
+     * Get the module read from the given stream, parsing and validating it if it is not cached.
+     * <p>
+     * The stream is read to its end, and its bytes are hashed as they are read.
+     *
+     * @param is The stream to read the module from, which is not closed.
+     * @return The shared module.
+     * @throws IOException         If reading from the stream fails.
+     * @throws ValidationException If the module is malformed or invalid.
+     */
+    public @NotNull CachedModule get(@NotNull InputStream is) throws IOException {
+        MessageDigest md = digest();
+        DigestInputStream dis = new DigestInputStream(is, md);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        byte[] buf = new byte[8192];
+        int read;
+        while ((read = dis.read(buf)) != -1) os.write(buf, 0, read);
+        return get(md.digest(), os.toByteArray());
+    }
+
+    private CachedModule get(byte[] digest, byte[] data) {
+        ByteBuffer key = ByteBuffer.wrap(digest);
+        CompletableFuture<CachedModule> future;
+        CompletableFuture<CachedModule> loading;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                hits++;
+                return entry.module;
+            }
+            loading = pending.get(key);
+            if (loading == null) {
+                misses++;
+                future = new CompletableFuture<>();
+                pending.put(key, future);
+            } else {
+                hits++;
+                future = loading;
+            }
+        }
+
+        if (loading != null) {
+            try {
+                return loading.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                if (cause instanceof Error) throw (Error) cause;
+                throw e;
+            }
+        }
+
+        try {
+            CachedModule cached = load(key, data);
+            future.complete(cached);
+            return cached;
+        } catch (RuntimeException | Error e) {
+            synchronized (this) {
+                pending.remove(key);
+            }
+            future.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private CachedModule load(ByteBuffer key, byte[] data) {
+        ModuleNode module = new ModuleNode();
+        long[] instructions = {0};
+        long[] functions = {0};
+        ModuleReader.fromBytes(data)
+                .setListener(new ReadListener() {
+                    @Override
+                    public void codeRead(int index, long offset, long size, int insns, long nanos) {
+                        functions[0]++;
+                        instructions[0] += insns;
+                    }
+                })
+                .accept(module);
+        module.accept(new ModuleValidator());
+        CachedModule cached = new CachedModule(module);
+        long size = data.length + instructions[0] * INSN_BYTES + functions[0] * FUNCTION_BYTES;
+
+        synchronized (this) {
+            pending.remove(key);
+            if (size > maxBytes) return cached;
+            entries.put(key, new Entry(cached, size));
+            bytes += size;
+            Iterator<Entry> it = entries.values().iterator();
+            while (bytes > maxBytes) {
+                bytes -= it.next().size;
+                it.remove();
+                evictions++;
+            }
+        }
+        return cached;
+    }
+
+    /**
+     * Get the number of modules in the cache.
+     *
+     * @return The number of modules.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the estimated heap retained by the modules in the cache.
+     *
+     * @return The estimated size, in bytes.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Get the number of reads that found their module in the cache, or waited for another read of it.
+     *
+     * @return The number of hits.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Get the number of reads that did not find their module in the cache.
+     *
+     * @return The number of misses.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Get the number of modules that have been evicted to make room for others.
+     *
+     * @return The number of evictions.
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Remove all modules from the cache.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+}
@@ -0,0 +1,263 @@
+package io.github.eutro.jwasm.tree.analysis;
+
+import io.github.eutro.jwasm.CodesVisitor;
+import io.github.eutro.jwasm.ExprVisitor;
+import io.github.eutro.jwasm.ModuleVisitor;
+import io.github.eutro.jwasm.Opcodes;
+import io.github.eutro.jwasm.ReadListener;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A {@link ModuleVisitor} that gathers statistics about the function bodies of the modules it visits,
+ * in a single pass, without building them into a tree.
+ * <p>
+ * The instructions of all function bodies are counted by an {@link ExprStatistics}, and if they were asked for,
+ * each function body also gets an {@link ExprStatistics} of its own. Functions are also counted
+ * by how many instructions and locals they have, in power-of-two buckets: bucket {@code 0} counts zeros,
+ * and bucket {@code i} counts values from {@code 2^(i-1)} up to but not including {@code 2^i}.
+ * <p>
+ * Sizes of sections and function bodies in bytes can't be known from visiting alone, so they are only counted
+ * if the statistics are also set as the {@link io.github.eutro.jwasm.ModuleReader#setListener(ReadListener) listener}
+ * of the reader that reads the module:
+ * <pre>{@code
+ * ModuleStatistics stats = new ModuleStatistics();
+ * ModuleReader.fromBytes(bytes).setListener(stats).accept(stats);
+ * }</pre>
+ * <p>
+ * The same statistics may visit any number of modules, one after another, and statistics gathered separately,
+ * such as on different threads, can be {@link #merge(ModuleStatistics) merged}.
+ * Statistics are not safe to update from multiple threads at once.
+ */
+public final class ModuleStatistics extends ModuleVisitor implements ReadListener {
+    /**
+     * The number of power-of-two buckets that function sizes and locals are counted in.
+     */
+    public static final int BUCKETS = 33;
+
+    private static final int SECTIONS = Opcodes.SECTION_DATA_COUNT + 1;
+
+    private final boolean perFunction;
+    private final ExprStatistics code = new ExprStatistics();
+    private final List<ExprStatistics> functions = new ArrayList<>();
+    private final int[] functionSizes = new int[BUCKETS];
+    private final int[] functionByteSizes = new int[BUCKETS];
+    private final int[] localsCounts = new int[BUCKETS];
+    private final long[] sectionSizes = new long[SECTIONS];
+    private final long[] sectionCounts = new long[SECTIONS];
+    private long modules;
+    private long locals;
+    private int maxLocals;
+
+    /**
+     * Construct statistics that have visited nothing, and don't keep statistics for each function.
+     */
+    public ModuleStatistics() {
+        this(false);
+    }
+
+    /**
+     * Construct statistics that have visited nothing.
+     *
+     * @param perFunction Whether to keep the {@link ExprStatistics} of each function body separately,
+     *                    as well as together.
+     */
+    public ModuleStatistics(boolean perFunction) {
+        this.perFunction = perFunction;
+    }
+
+    /**
+     * Get the power-of-two bucket that a value is counted in.
+     *
+     * @param value The value, which must not be negative.
+     * @return The bucket.
+     */
+    public static int bucket(long value) {
+        return Math.min(64 - Long.numberOfLeadingZeros(value), BUCKETS - 1);
+    }
+
+    @Override
+    public void visitHeader(int version) {
+        modules++;
+        super.visitHeader(version);
+    }
+
+    @Override
+    public @Nullable CodesVisitor visitCode() {
+        return new CodesVisitor() {
+            private long start = -1;
+
+            private void finish() {
+                if (start != -1) functionSizes[bucket(code.getInstructions() - start)]++;
+                start = -1;
+            }
+
+            @Override
+            public ExprVisitor visitCode(byte @NotNull [] locals) {
+                finish();
+                ModuleStatistics.this.locals += locals.length;
+                maxLocals = Math.max(maxLocals, locals.length);
+                localsCounts[bucket(locals.length)]++;
+                start = code.getInstructions();
+                if (!perFunction) return code;
+                ExprStatistics function = new ExprStatistics(code);
+                functions.add(function);
+                return function;
+            }
+
+            @Override
+            public void visitEnd() {
+                finish();
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * For sections that are not vectors, such as custom sections, the number of sections is counted instead.
+     */
+    @Override
+    public void sectionRead(byte id, long offset, long size, long count, long nanos) {
+        sectionSizes[id] += size;
+        sectionCounts[id] += count == -1 ? 1 : count;
+    }
+
+    @Override
+    public void codeRead(int index, long offset, long size, int instructions, long nanos) {
+        functionByteSizes[bucket(size)]++;
+    }
+
+    /**
+     * Get the number of modules visited.
+     *
+     * @return The number of modules.
+     */
+    public long getModules() {
+        return modules;
+    }
+
+    /**
+     * Get the statistics of all function bodies together.
+     * <p>
+     * These are updated as more modules are visited, so should not be visited by anything else.
+     *
+     * @return The statistics.
+     */
+    public ExprStatistics getCode() {
+        return code;
+    }
+
+    /**
+     * Get the statistics of each function body, in the order they were visited,
+     * if they were {@link #ModuleStatistics(boolean) asked for}.
+     *
+     * @return The statistics of each function, or an empty list if they were not kept.
+     */
+    public List<ExprStatistics> getFunctions() {
+        return Collections.unmodifiableList(functions);
+    }
+
+    /**
+     * Get the number of functions visited.
+     *
+     * @return The number of functions.
+     */
+    public long getFunctionCount() {
+        return code.getExpressions();
+    }
+
+    /**
+     * Get the number of function bodies with each number of instructions.
+     *
+     * @return A copy of the counts, indexed by {@link #bucket(long) bucket}.
+     */
+    public int[] getFunctionSizes() {
+        return functionSizes.clone();
+    }
+
+    /**
+     * Get the number of function bodies with each size in bytes, including their size and locals.
+     *
+     * @return A copy of the counts, indexed by {@link #bucket(long) bucket}.
+     */
+    public int[] getFunctionByteSizes() {
+        return functionByteSizes.clone();
+    }
+
+    /**
+     * Get the number of function bodies with each number of locals, not including parameters.
+     *
+     * @return A copy of the counts, indexed by {@link #bucket(long) bucket}.
+     */
+    public int[] getLocalsCounts() {
+        return localsCounts.clone();
+    }
+
+    /**
+     * Get the total number of locals of all function bodies, not including parameters.
+     *
+     * @return The number of locals.
+     */
+    public long getLocals() {
+        return locals;
+    }
+
+    /**
+     * Get the most locals of any function body, not including parameters.
+     *
+     * @return The maximum number of locals.
+     */
+    public int getMaxLocals() {
+        return maxLocals;
+    }
+
+    /**
+     * Get the total size of all sections with an id, including their ids and sizes.
+     *
+     * @param id The id of the section.
+     * @return The size in bytes.
+     */
+    public long getSectionSize(byte id) {
+        return sectionSizes[id];
+    }
+
+    /**
+     * Get the total number of elements in all sections with an id,
+     * or the number of sections for sections that are not vectors.
+     *
+     * @param id The id of the section.
+     * @return The number of elements.
+     */
+    public long getSectionCount(byte id) {
+        return sectionCounts[id];
+    }
+
+    /**
+     * Add the statistics gathered by another visitor to these.
+     * <p>
+     * The statistics of each function body of the other statistics are shared, not copied.
+     *
+     * @param other The other statistics, which are left unchanged.
+     * @return These statistics.
+     */
+    public ModuleStatistics merge(ModuleStatistics other) {
+        code.merge(other.code);
+        functions.addAll(other.functions);
+        ExprStatistics.add(functionSizes, other.functionSizes);
+        ExprStatistics.add(functionByteSizes, other.functionByteSizes);
+        ExprStatistics.add(localsCounts, other.localsCounts);
+        for (int i = 0; i < SECTIONS; i++) {
+            sectionSizes[i] += other.sectionSizes[i];
+            sectionCounts[i] += other.sectionCounts[i];
+        }
+        modules += other.modules;
+        locals += other.locals;
+        maxLocals = Math.max(maxLocals, other.maxLocals);
+        return this;
+    }
+}
@@ -19,6 +19,10 @@ public class ModuleValidator extends ModuleVisitor {
     @NotNull
     private final ModuleNode module;
 
+    private @Nullable List<StackMaxes> maxes;
+    private @Nullable ValidationCache cache;
+    private @Nullable ValidationBudget budget;
+
     /**
      * Construct a module validator with the given delegate.
      *
@@ -37,6 +41,62 @@ public class ModuleValidator extends ModuleVisitor {
         this(null);
     }
 
+    /**
+     * Set whether the maximum stack and control depths of each function body should be recorded during validation.
+     * <p>
+     * This is off by default.
+     *
+     * @param computeMaxes Whether to record the maximums.
+     * @see #getMaxes()
+     */
+    public void setComputeMaxes(boolean computeMaxes) {
+        maxes = computeMaxes ? new ArrayList<>() : null;
+    }
+
+    /**
+     * Get the maximum stack and control depths of each function body of the validated module,
+     * in the order the functions are defined in the module, excluding imports.
+     *
+     * @return The maximums, or {@code null} if {@link #setComputeMaxes(boolean)} has not been enabled.
+     */
+    public @Nullable List<StackMaxes> getMaxes() {
+        return maxes == null ? null : Collections.unmodifiableList(maxes);
+    }
+
+    /**
+     * Set the cache of valid function bodies to consult, or {@code null} to validate every body.
+     * <p>
+     * Bodies found in the cache are not validated again, and bodies that are validated are added to it.
+     * The cache is not used while {@link #setComputeMaxes(boolean) computing maximums},
+     * since those need every body to be validated.
+     *
+     * @param cache The cache, which may be shared between validators.
+     */
+    public void setCache(@Nullable ValidationCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Set the budget that validation draws from, or {@code null} to validate without limits.
+     * <p>
+     * If the budget is exceeded or cancelled while validating, a {@link ValidationAbortedException} is thrown
+     * from {@link #visitEnd()}, saying how much work had been done.
+     *
+     * @param budget The budget, which may be shared between validators.
+     */
+    public void setBudget(@Nullable ValidationBudget budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Get the budget that validation draws from.
+     *
+     * @return The budget, or {@code null} if validation is not limited.
+     */
+    public @Nullable ValidationBudget getBudget() {
+        return budget;
+    }
+
     @Contract("false, _, _ -> fail")
     static void assertMsg(boolean cond, String fmt, Object... args) {
         if (!cond) {
@@ -65,7 +125,7 @@ public class ModuleValidator extends ModuleVisitor {
         }
     }
 
-    private void checkLimit(int min, @Nullable Integer max, int k, String limitMsg) {
+    private static void checkLimit(int min, @Nullable Integer max, int k, String limitMsg) {
         assertMsg(Integer.compareUnsigned(min, 0) >= 0, "min must be positive");
         assertMsg1(Integer.compareUnsigned(min, k) <= 0, limitMsg, "min must not exceed %d", k);
         if (max != null) {
@@ -75,113 +135,42 @@ public class ModuleValidator extends ModuleVisitor {
         }
     }
 
-    private void checkFuncType(byte[] params, byte[] returns) {
+    private static void checkFuncType(byte[] params, byte[] returns) {
         checkTypes(params);
         checkTypes(returns);
     }
 
-    private void checkFuncType(TypeNode ty) {
+    private static void checkFuncType(TypeNode ty) {
         checkFuncType(ty.params, ty.returns);
     }
 
-    private void checkTypes(byte... tys) {
+    private static void checkTypes(byte... tys) {
         for (byte ty : tys) {
             assertMsg(isValType(ty), "0x%02x is not a value type", ty);
         }
     }
 
-    private void checkGlobalTy(GlobalTypeNode ty) {
+    private static void checkGlobalTy(GlobalTypeNode ty) {
         assertMsg(ty.mut == Opcodes.MUT_CONST || ty.mut == Opcodes.MUT_VAR,
                 "mut is neither const nor var");
         checkTypes(ty.type);
     }
 
-    private void checkMemTy(Limits limits) {
+    private static void checkMemTy(Limits limits) {
         checkLimit(limits.min, limits.max, 1 << 16, "memory size must be at most 65536 pages (4GiB)");
     }
 
-    private void checkTableTy(Limits limits, byte type) {
+    private static void checkTableTy(Limits limits, byte type) {
         checkLimit(limits.min, limits.max, -1, "table size must be at most 2^32 - 1");
         assertMsg(isRef(type), "0x%02x is not a reference type", type);
     }
 
     @Override
     public void visitEnd() {
+        if (budget != null) budget.check();
         VerifCtx ctx = new VerifCtx();
         VerifCtx ctx2 = new VerifCtx();
-        if (module.types != null) {
-            ctx.types.addAll(module.types.types);
-            for (TypeNode type : ctx.types) {
-                checkFuncType(type);
-            }
-        }
-
-        if (module.imports != null) {
-            for (AbstractImportNode theImport : module.imports) {
-                switch (theImport.importType()) {
-                    case Opcodes.IMPORTS_FUNC: {
-                        FuncImportNode fin = (FuncImportNode) theImport;
-                        ctx.funcs.add(ctx.resolveType(fin.type));
-                        break;
-                    }
-                    case Opcodes.IMPORTS_TABLE: {
-                        TableImportNode tin = (TableImportNode) theImport;
-                        checkTableTy(tin.limits, tin.type);
-                        ctx.tables.add(new TableNode(tin.limits, tin.type));
-                        break;
-                    }
-                    case Opcodes.IMPORTS_MEM: {
-                        MemImportNode min = (MemImportNode) theImport;
-                        checkMemTy(min.limits);
-                        ctx.mems.add(new MemoryNode(min.limits));
-                        break;
-                    }
-                    case Opcodes.IMPORTS_GLOBAL: {
-                        GlobalImportNode gin = (GlobalImportNode) theImport;
-                        checkGlobalTy(gin.type);
-                        ctx.globals.add(gin.type);
-                        ctx2.globals.add(gin.type);
-                        break;
-                    }
-                    default:
-                        throw new IllegalStateException();
-                }
-            }
-        }
-
-        if (module.funcs != null) {
-            for (FuncNode func : module.funcs) {
-                ctx.funcs.add(ctx.resolveType(func.type));
-            }
-        }
-        if (module.tables != null) {
-            for (TableNode table : module.tables) {
-                ctx.tables.add(table);
-            }
-        }
-        if (module.mems != null) {
-            for (MemoryNode mem : module.mems) {
-                ctx.mems.add(mem);
-            }
-        }
-        if (module.globals != null) {
-            for (GlobalNode global : module.globals) {
-                ctx.globals.add(global.type);
-            }
-        }
-
-        if (module.elems != null) {
-            for (ElementNode elem : module.elems) {
-                ctx.elems.add(elem.type);
-            }
-        }
-
-        ctx.datas = module.datas == null ? 0 : module.datas.datas.size();
-
-        collectRefs(ctx);
-
-        ctx2.funcs.addAll(ctx.funcs);
-        ctx2.refs.addAll(ctx.refs);
+        collectCtx(module, ctx, ctx2);
 
         { // under ctx
             int funcCount = 0, codeCount = 0;
@@ -304,7 +293,90 @@ public class ModuleValidator extends ModuleVisitor {
         }
     }
 
-    private void collectRefs(VerifCtx ctx) {
+    /**
+     * Collect the module-level context of a module, without validating function bodies or constant expressions.
+     *
+     * @param module The module.
+     * @param ctx    The context to collect into, for function bodies.
+     * @param ctx2   The context to collect into, for constant expressions, which only sees imported globals.
+     */
+    static void collectCtx(ModuleNode module, VerifCtx ctx, VerifCtx ctx2) {
+        if (module.types != null) {
+            ctx.types.addAll(module.types.types);
+            for (TypeNode type : ctx.types) {
+                checkFuncType(type);
+            }
+        }
+
+        if (module.imports != null) {
+            for (AbstractImportNode theImport : module.imports) {
+                switch (theImport.importType()) {
+                    case Opcodes.IMPORTS_FUNC: {
+                        FuncImportNode fin = (FuncImportNode) theImport;
+                        ctx.funcs.add(ctx.resolveType(fin.type));
+                        break;
+                    }
+                    case Opcodes.IMPORTS_TABLE: {
+                        TableImportNode tin = (TableImportNode) theImport;
+                        checkTableTy(tin.limits, tin.type);
+                        ctx.tables.add(new TableNode(tin.limits, tin.type));
+                        break;
+                    }
+                    case Opcodes.IMPORTS_MEM: {
+                        MemImportNode min = (MemImportNode) theImport;
+                        checkMemTy(min.limits);
+                        ctx.mems.add(new MemoryNode(min.limits));
+                        break;
+                    }
+                    case Opcodes.IMPORTS_GLOBAL: {
+                        GlobalImportNode gin = (GlobalImportNode) theImport;
+                        checkGlobalTy(gin.type);
+                        ctx.globals.add(gin.type);
+                        ctx2.globals.add(gin.type);
+                        break;
+                    }
+                    default:
+                        throw new IllegalStateException();
+                }
+            }
+        }
+
+        if (module.funcs != null) {
+            for (FuncNode func : module.funcs) {
+                ctx.funcs.add(ctx.resolveType(func.type));
+            }
+        }
+        if (module.tables != null) {
+            for (TableNode table : module.tables) {
+                ctx.tables.add(table);
+            }
+        }
+        if (module.mems != null) {
+            for (MemoryNode mem : module.mems) {
+                ctx.mems.add(mem);
+            }
+        }
+        if (module.globals != null) {
+            for (GlobalNode global : module.globals) {
+                ctx.globals.add(global.type);
+            }
+        }
+
+        if (module.elems != null) {
+            for (ElementNode elem : module.elems) {
+                ctx.elems.add(elem.type);
+            }
+        }
+
+        ctx.datas = module.datas == null ? 0 : module.datas.datas.size();
+
+        collectRefs(module, ctx);
+
+        ctx2.funcs.addAll(ctx.funcs);
+        ctx2.refs.addAll(ctx.refs);
+    }
+
+    private static void collectRefs(ModuleNode module, VerifCtx ctx) {
         ExprVisitor refCollector = new ExprVisitor() {
             @Override
             public void visitFuncRefInsn(int function) {
@@ -359,7 +431,18 @@ public class ModuleValidator extends ModuleVisitor {
                 new ByteList(ty.returns)
         );
         try {
-            code.expr.accept(new ExprValidator(ctx1, ctx1.returns, null));
+            if (budget != null) budget.check();
+            byte[] key = null;
+            if (cache != null && maxes == null) {
+                key = FuncHasher.hash(ctx, ty, code);
+                if (cache.isValid(key)) return;
+            }
+            ExprValidator ev = new ExprValidator(ctx1, ctx1.returns, null);
+            ev.budget = budget;
+            code.expr.accept(ev);
+            if (maxes != null) maxes.add(ev.getMaxes());
+            if (key != null) cache.putValid(key);
+            if (budget != null) budget.functionDone();
         } catch (Throwable t) {
             t.addSuppressed(new RuntimeException("in func " + index + " (local index)"));
             throw t;
@@ -0,0 +1,188 @@
+package io.github.eutro.jwasm.tree.analysis;
+
+import io.github.eutro.jwasm.tree.AbstractInsnNode;
+import io.github.eutro.jwasm.tree.CodeNode;
+import io.github.eutro.jwasm.tree.TypeNode;
+import io.github.eutro.jwasm.tree.VariableInsnNode;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+import static io.github.eutro.jwasm.Opcodes.*;
+
+/**
+ * A forward dataflow analysis computing which definitions of locals may reach each point of a function body.
+ * <p>
+ * Sets are indexed by definition. Definitions {@code 0} to {@code localCount - 1} are the implicit definitions
+ * of each local on entry to the function, either the argument for parameters or the default value for other locals.
+ * The following definitions are the {@code local.set} and {@code local.tee} instructions, in the order they appear.
+ */
+public final class ReachingDefinitions extends BitsetDataflowAnalysis {
+    private final int localCount;
+    private final int[] defInsns, defLocals;
+    private final int[] localDefOffsets, localDefs;
+
+    /**
+     * Compute the reaching definitions of a function body.
+     *
+     * @param cfg        The control flow graph of the function body.
+     * @param localCount The number of locals of the function, including its parameters.
+     */
+    public ReachingDefinitions(@NotNull ControlFlowGraph cfg, int localCount) {
+        this(cfg, localCount, countDefs(cfg, localCount));
+    }
+
+    private ReachingDefinitions(ControlFlowGraph cfg, int localCount, int defCount) {
+        super(cfg, Direction.FORWARD, defCount);
+        this.localCount = localCount;
+
+        defInsns = new int[defCount];
+        defLocals = new int[defCount];
+        localDefOffsets = new int[localCount + 1];
+        for (int l = 0; l < localCount; l++) {
+            defInsns[l] = -1;
+            defLocals[l] = l;
+            localDefOffsets[l + 1] = 1;
+        }
+        int def = localCount;
+        for (int i = 0; i < cfg.insnCount(); i++) {
+            AbstractInsnNode insn = cfg.getInsn(i);
+            if (insn.opcode == LOCAL_SET || insn.opcode == LOCAL_TEE) {
+                int local = ((VariableInsnNode) insn).variable;
+                defInsns[def] = i;
+                defLocals[def] = local;
+                localDefOffsets[local + 1]++;
+                def++;
+            }
+        }
+        for (int l = 0; l < localCount; l++) localDefOffsets[l + 1] += localDefOffsets[l];
+        localDefs = new int[defCount];
+        int[] fill = Arrays.copyOf(localDefOffsets, localCount);
+        for (int d = 0; d < defCount; d++) {
+            localDefs[fill[defLocals[d]]++] = d;
+        }
+
+        // each local's definitions only need killing once per block,
+        // after which only the previous definition in the block needs removing from gen
+        int[] killedIn = new int[localCount];
+        Arrays.fill(killedIn, -1);
+        int[] lastDef = new int[localCount];
+        def = localCount;
+        for (int b = 0; b < cfg.blockCount(); b++) {
+            int off = b * words;
+            for (int i = cfg.blockStart(b); i < cfg.blockEnd(b); i++) {
+                byte opcode = cfg.getInsn(i).opcode;
+                if (opcode == LOCAL_SET || opcode == LOCAL_TEE) {
+                    int local = defLocals[def];
+                    if (killedIn[local] == b) {
+                        clear(gen, off, lastDef[local]);
+                    } else {
+                        killedIn[local] = b;
+                        for (int j = localDefOffsets[local]; j < localDefOffsets[local + 1]; j++) {
+                            set(kill, off, localDefs[j]);
+                        }
+                    }
+                    set(gen, off, def);
+                    lastDef[local] = def;
+                    def++;
+                }
+            }
+        }
+        solve();
+    }
+
+    private static int countDefs(ControlFlowGraph cfg, int localCount) {
+        int count = localCount;
+        for (int i = 0; i < cfg.insnCount(); i++) {
+            AbstractInsnNode insn = cfg.getInsn(i);
+            if (insn.opcode == LOCAL_SET || insn.opcode == LOCAL_TEE) {
+                int local = ((VariableInsnNode) insn).variable;
+                ModuleValidator.assertExists(localCount, local, "local");
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Compute the reaching definitions of a function.
+     *
+     * @param type The type of the function.
+     * @param code The code of the function.
+     * @return The solved analysis.
+     */
+    public static ReachingDefinitions analyze(@NotNull TypeNode type, @NotNull CodeNode code) {
+        return new ReachingDefinitions(ControlFlowGraph.build(code.expr), type.params.length + code.locals.length);
+    }
+
+    @Override
+    protected void boundary(long[] set, int off) {
+        for (int l = 0; l < localCount; l++) {
+            set(set, off, l);
+        }
+    }
+
+    /**
+     * Get the number of definitions, including the implicit entry definitions.
+     *
+     * @return The number of definitions.
+     */
+    public int defCount() {
+        return bits;
+    }
+
+    /**
+     * Get the instruction of a definition.
+     *
+     * @param def The definition.
+     * @return The index of the defining instruction, or -1 if it is the implicit entry definition.
+     */
+    public int getDefInsn(int def) {
+        return defInsns[def];
+    }
+
+    /**
+     * Get the local defined by a definition.
+     *
+     * @param def The definition.
+     * @return The index of the local.
+     */
+    public int getDefLocal(int def) {
+        return defLocals[def];
+    }
+
+    /**
+     * Get the definitions of a local that may reach the point immediately before an instruction executes,
+     * such as the definitions that a {@code local.get} may read.
+     *
+     * @param insn  The index of the instruction.
+     * @param local The index of the local.
+     * @return The definitions, in ascending order.
+     */
+    public int[] reachingBefore(int insn, int local) {
+        int block = cfg.blockOf(insn);
+        int def = -1;
+        for (int i = insn - 1; i >= cfg.blockStart(block); i--) {
+            AbstractInsnNode prev = cfg.getInsn(i);
+            if ((prev.opcode == LOCAL_SET || prev.opcode == LOCAL_TEE)
+                    && ((VariableInsnNode) prev).variable == local) {
+                def = i;
+                break;
+            }
+        }
+        if (def != -1) {
+            int lo = localDefOffsets[local], hi = localDefOffsets[local + 1];
+            for (int j = lo; j < hi; j++) {
+                if (defInsns[localDefs[j]] == def) return new int[]{localDefs[j]};
+            }
+            throw new IllegalStateException();
+        }
+        int lo = localDefOffsets[local], hi = localDefOffsets[local + 1];
+        int[] result = new int[hi - lo];
+        int count = 0;
+        for (int j = lo; j < hi; j++) {
+            if (isIn(block, localDefs[j])) result[count++] = localDefs[j];
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
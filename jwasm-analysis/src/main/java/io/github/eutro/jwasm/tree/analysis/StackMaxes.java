@@ -0,0 +1,107 @@
+package io.github.eutro.jwasm.tree.analysis;
+
+import io.github.eutro.jwasm.Opcodes;
+
+import java.util.Arrays;
+
+/**
+ * The maximum operand stack height and control depth reached by a function body.
+ * <p>
+ * These are computed alongside validation, see {@link ModuleValidator#setComputeMaxes(boolean)}
+ * and {@link FrameAnalyzer#computeMaxes(int)}.
+ */
+public final class StackMaxes {
+    static final int TYPE_COUNT = 7;
+
+    private final int maxStack;
+    private final int maxControlDepth;
+    private final int[] maxByType;
+
+    StackMaxes(int maxStack, int maxControlDepth, int[] maxByType) {
+        this.maxStack = maxStack;
+        this.maxControlDepth = maxControlDepth;
+        this.maxByType = maxByType;
+    }
+
+    static int typeIndex(byte type) {
+        switch (type) {
+            case Opcodes.I32:
+                return 0;
+            case Opcodes.I64:
+                return 1;
+            case Opcodes.F32:
+                return 2;
+            case Opcodes.F64:
+                return 3;
+            case Opcodes.V128:
+                return 4;
+            case Opcodes.FUNCREF:
+                return 5;
+            case Opcodes.EXTERNREF:
+                return 6;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Get the maximum number of values on the operand stack at any point in the function.
+     *
+     * @return The maximum stack height.
+     */
+    public int getMaxStack() {
+        return maxStack;
+    }
+
+    /**
+     * Get the maximum number of values of a given type on the operand stack at any point in the function.
+     * <p>
+     * The maximums of different types need not be reached at the same point,
+     * so they may sum to more than {@link #getMaxStack()}.
+     *
+     * @param type The <a href="https://webassembly.github.io/spec/core/binary/types.html#binary-valtype">valtype</a>.
+     * @return The maximum number of values of that type, or 0 if it is not a value type.
+     */
+    public int getMaxStack(byte type) {
+        int idx = typeIndex(type);
+        return idx == -1 ? 0 : maxByType[idx];
+    }
+
+    /**
+     * Get the maximum number of nested control frames at any point in the function.
+     * <p>
+     * This includes the frame of the function body itself, so a function with no blocks has a depth of 1.
+     *
+     * @return The maximum control depth.
+     */
+    public int getMaxControlDepth() {
+        return maxControlDepth;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        StackMaxes that = (StackMaxes) o;
+        return maxStack == that.maxStack
+                && maxControlDepth == that.maxControlDepth
+                && Arrays.equals(maxByType, that.maxByType);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = maxStack;
+        result = 31 * result + maxControlDepth;
+        result = 31 * result + Arrays.hashCode(maxByType);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "StackMaxes{" +
+                "maxStack=" + maxStack +
+                ", maxControlDepth=" + maxControlDepth +
+                ", maxByType=" + Arrays.toString(maxByType) +
+                '}';
+    }
+}
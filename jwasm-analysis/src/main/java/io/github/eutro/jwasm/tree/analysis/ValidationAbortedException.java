@@ -0,0 +1,91 @@
+package io.github.eutro.jwasm.tree.analysis;
+
+import java.util.Locale;
+
+/**
+ * An exception thrown when validation is aborted because its {@link ValidationBudget} was exceeded or cancelled.
+ * <p>
+ * This says nothing about whether the module is valid, so it is deliberately not a
+ * {@link io.github.eutro.jwasm.ValidationException}.
+ */
+public class ValidationAbortedException extends RuntimeException {
+    /**
+     * Why validation was aborted.
+     */
+    public enum Reason {
+        /**
+         * The budget's instruction limit was exceeded.
+         */
+        INSTRUCTIONS,
+        /**
+         * The budget's time limit was exceeded.
+         */
+        TIME,
+        /**
+         * The budget was {@link ValidationBudget#cancel() cancelled}.
+         */
+        CANCELLED,
+        /**
+         * The validating thread was interrupted.
+         */
+        INTERRUPTED,
+    }
+
+    private final Reason reason;
+    private final long instructions;
+    private final long functions;
+    private final long nanos;
+
+    /**
+     * Construct an exception describing the work done before validation was aborted.
+     *
+     * @param reason       Why validation was aborted.
+     * @param instructions The number of instructions validated against the budget.
+     * @param functions    The number of function bodies validated against the budget.
+     * @param nanos        The time since the budget was constructed, in nanoseconds.
+     */
+    public ValidationAbortedException(Reason reason, long instructions, long functions, long nanos) {
+        super(String.format("Validation aborted (%s) after %d instructions in %d functions, in %dms",
+                reason.name().toLowerCase(Locale.ROOT), instructions, functions, nanos / 1_000_000));
+        this.reason = reason;
+        this.instructions = instructions;
+        this.functions = functions;
+        this.nanos = nanos;
+    }
+
+    /**
+     * Get why validation was aborted.
+     *
+     * @return The reason.
+     */
+    public Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * Get the number of instructions that had been validated against the budget.
+     *
+     * @return The number of instructions.
+     */
+    public long getInstructions() {
+        return instructions;
+    }
+
+    /**
+     * Get the number of function bodies that had been validated against the budget.
+     *
+     * @return The number of function bodies.
+     */
+    public long getFunctions() {
+        return functions;
+    }
+
+    /**
+     * Get how much time had passed since the budget was constructed.
+     *
+     * @return The time, in nanoseconds.
+     */
+    public long getNanos() {
+        return nanos;
+    }
+}
@@ -0,0 +1,158 @@
+package io.github.eutro.jwasm.tree.analysis;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A limit on how much work {@link ModuleValidator validation} may do, which can also be cancelled from another thread.
+ * <p>
+ * Validators check the budget every {@value #CHECK_INTERVAL} instructions, and between function bodies,
+ * and abort with a {@link ValidationAbortedException} if it has been exceeded or cancelled,
+ * or if the validating thread has been interrupted. This bounds how long validation can go on past the budget,
+ * without having to stop the thread that is validating.
+ * <p>
+ * A budget may be shared between validators, on any number of threads, which all draw from it,
+ * so that it can bound the work done for many modules at once. The time limit is measured from when
+ * the budget is constructed.
+ *
+ * @see ModuleValidator#setBudget(ValidationBudget)
+ */
+public final class ValidationBudget {
+    /**
+     * How many instructions a validator validates between checks of its budget.
+     */
+    public static final int CHECK_INTERVAL = 4096;
+
+    private final long maxInstructions;
+    private final long timeoutNanos;
+    private final long start = System.nanoTime();
+    private final AtomicLong instructions = new AtomicLong();
+    private final AtomicLong functions = new AtomicLong();
+    private volatile boolean cancelled;
+
+    /**
+     * Construct a budget with a limit on both instructions and time.
+     *
+     * @param maxInstructions The most instructions that may be validated, or {@link Long#MAX_VALUE} for no limit.
+     * @param timeout         The most time that may pass before validation is aborted,
+     *                        or {@link Long#MAX_VALUE} for no limit.
+     * @param unit            The unit of the timeout.
+     */
+    public ValidationBudget(long maxInstructions, long timeout, TimeUnit unit) {
+        if (maxInstructions < 0) throw new IllegalArgumentException("maxInstructions must not be negative");
+        if (timeout < 0) throw new IllegalArgumentException("timeout must not be negative");
+        this.maxInstructions = maxInstructions;
+        this.timeoutNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * Construct a budget that is only exceeded when cancelled.
+     */
+    public ValidationBudget() {
+        this(Long.MAX_VALUE, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Create a budget with a limit on only instructions.
+     *
+     * @param maxInstructions The most instructions that may be validated.
+     * @return The budget.
+     */
+    public static ValidationBudget ofInstructions(long maxInstructions) {
+        return new ValidationBudget(maxInstructions, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Create a budget with a limit on only time.
+     *
+     * @param timeout The most time that may pass before validation is aborted.
+     * @param unit    The unit of the timeout.
+     * @return The budget.
+     */
+    public static ValidationBudget ofTime(long timeout, TimeUnit unit) {
+        return new ValidationBudget(Long.MAX_VALUE, timeout, unit);
+    }
+
+    /**
+     * Cancel the budget, so that every validator using it aborts at its next check.
+     * <p>
+     * This may be called from any thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Get whether the budget has been {@link #cancel() cancelled}.
+     *
+     * @return Whether the budget has been cancelled.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Get how many instructions have been validated against this budget so far.
+     * <p>
+     * This lags behind by up to {@value #CHECK_INTERVAL} instructions for each function being validated.
+     *
+     * @return The number of instructions.
+     */
+    public long getInstructions() {
+        return instructions.get();
+    }
+
+    /**
+     * Get how many function bodies have been validated against this budget so far.
+     *
+     * @return The number of function bodies.
+     */
+    public long getFunctions() {
+        return functions.get();
+    }
+
+    /**
+     * Get how much time has passed since the budget was constructed.
+     *
+     * @return The time, in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Account for instructions that have been validated, then check the budget.
+     *
+     * @param count The number of instructions.
+     * @throws ValidationAbortedException If the budget has been exceeded.
+     */
+    void consume(long count) {
+        long total = instructions.addAndGet(count);
+        if (total > maxInstructions) abort(ValidationAbortedException.Reason.INSTRUCTIONS);
+        check();
+    }
+
+    /**
+     * Account for a function body that has been validated.
+     */
+    void functionDone() {
+        functions.incrementAndGet();
+    }
+
+    /**
+     * Check whether the budget has been exceeded or cancelled, or the current thread interrupted.
+     *
+     * @throws ValidationAbortedException If so.
+     */
+    void check() {
+        if (cancelled) abort(ValidationAbortedException.Reason.CANCELLED);
+        if (Thread.currentThread().isInterrupted()) abort(ValidationAbortedException.Reason.INTERRUPTED);
+        if (timeoutNanos != Long.MAX_VALUE && getElapsedNanos() > timeoutNanos) {
+            abort(ValidationAbortedException.Reason.TIME);
+        }
+    }
+
+    private void abort(ValidationAbortedException.Reason reason) {
+        throw new ValidationAbortedException(reason, instructions.get(), functions.get(), getElapsedNanos());
+    }
+}
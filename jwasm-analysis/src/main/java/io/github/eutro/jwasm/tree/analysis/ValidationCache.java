@@ -0,0 +1,31 @@
+package io.github.eutro.jwasm.tree.analysis;
+
+/**
+ * A cache of function bodies that are known to be valid, which {@link ModuleValidator} may consult
+ * to skip validating a body it, or another validator sharing the cache, has validated before.
+ * <p>
+ * Keys are SHA-256 digests of a function's type, locals and body, and of the types of everything in the module
+ * that the body refers to, so identical bodies in modules that agree on those share a key.
+ * Only keys of valid bodies are ever {@link #putValid(byte[]) put} in the cache.
+ * <p>
+ * Implementations must be safe to use from multiple threads if they are shared by validators on multiple threads.
+ *
+ * @see ModuleValidator#setCache(ValidationCache)
+ * @see LruValidationCache
+ */
+public interface ValidationCache {
+    /**
+     * Get whether the body with the given key is known to be valid.
+     *
+     * @param key The key of the body.
+     * @return Whether the body is valid.
+     */
+    boolean isValid(byte[] key);
+
+    /**
+     * Record that the body with the given key is valid.
+     *
+     * @param key The key of the body.
+     */
+    void putValid(byte[] key);
+}
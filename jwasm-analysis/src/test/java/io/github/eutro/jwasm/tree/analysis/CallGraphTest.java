@@ -0,0 +1,122 @@
+package io.github.eutro.jwasm.tree.analysis;
+
+import io.github.eutro.jwasm.ByteInputStream;
+import io.github.eutro.jwasm.ByteOutputStream;
+import io.github.eutro.jwasm.CodesVisitor;
+import io.github.eutro.jwasm.ExprVisitor;
+import io.github.eutro.jwasm.FunctionsVisitor;
+import io.github.eutro.jwasm.ModuleReader;
+import io.github.eutro.jwasm.ModuleWriter;
+import io.github.eutro.jwasm.TypesVisitor;
+import io.github.eutro.jwasm.test.ModuleTestBase;
+import io.github.eutro.jwasm.tree.CustomNode;
+import io.github.eutro.jwasm.tree.ModuleNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import static io.github.eutro.jwasm.Opcodes.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CallGraphTest extends ModuleTestBase {
+    @Test
+    void simple() {
+        ModuleNode mn = new ModuleNode();
+        TypesVisitor tv = mn.visitTypes();
+        assertNotNull(tv);
+        tv.visitFuncType(new byte[0], new byte[0]);
+        tv.visitEnd();
+        FunctionsVisitor fv = mn.visitFuncs();
+        CodesVisitor cv = mn.visitCode();
+        assertNotNull(fv);
+        assertNotNull(cv);
+        int[][] calls = {{3}, {1}, {}, {1}};
+        for (int[] callees : calls) {
+            fv.visitFunc(0);
+            ExprVisitor ev = cv.visitCode(new byte[0]);
+            assertNotNull(ev);
+            for (int callee : callees) {
+                ev.visitCallInsn(callee);
+            }
+            ev.visitEndInsn();
+            ev.visitEnd();
+        }
+        mn.visitExports().visitExport("main", EXPORTS_FUNC, 0);
+
+        ByteOutputStream.BaosByteOutputStream names = new ByteOutputStream.BaosByteOutputStream();
+        names.putVarUInt(4);
+        for (int i = 0; i < 4; i++) {
+            names.putVarUInt(i);
+            names.putName("f" + i);
+        }
+        ByteOutputStream.BaosByteOutputStream section = new ByteOutputStream.BaosByteOutputStream();
+        section.put((byte) 1);
+        section.putByteArray(names.toByteArray());
+        mn.visitCustom("name", section.toByteArray());
+
+        CallGraph graph = CallGraph.build(mn);
+        assertEquals(4, graph.funcCount());
+        assertTrue(graph.isRoot(0));
+        assertFalse(graph.isRoot(3));
+        assertTrue(graph.isReachable(3));
+        assertTrue(graph.isReachable(1));
+        assertFalse(graph.isReachable(2));
+        assertEquals(2, graph.callerCount(1));
+        assertEquals(1, graph.calleeCount(0));
+        assertEquals(3, graph.callee(0, 0));
+
+        assertArrayEquals(new int[]{0, 1, -1, 2}, DeadFunctionEliminator.eliminate(mn));
+        assertNotNull(mn.codes);
+        assertEquals(3, mn.codes.codes.size());
+        mn.accept(new ModuleValidator());
+
+        CustomNode custom = mn.customs[SECTION_EXPORT].get(0);
+        ByteInputStream<RuntimeException> in = new ByteInputStream.ByteBufferByteInputStream(ByteBuffer.wrap(custom.data));
+        assertEquals(1, in.expect());
+        in = in.sectionStream();
+        assertEquals(3, in.getVarUInt32());
+        assertEquals(0, in.getVarUInt32());
+        assertEquals("f0", in.getName());
+        assertEquals(1, in.getVarUInt32());
+        assertEquals("f1", in.getName());
+        assertEquals(2, in.getVarUInt32());
+        assertEquals("f3", in.getName());
+        in.expectEmpty();
+    }
+
+    void tryEliminate(String name) throws IOException {
+        ModuleNode mn = new ModuleNode();
+        try (InputStream is = openResource(name)) {
+            ModuleReader.fromInputStream(is).accept(mn);
+        }
+        CallGraph graph = CallGraph.build(mn);
+        int reachable = 0;
+        for (int i = 0; i < graph.funcCount(); i++) {
+            if (i < graph.importCount() || graph.isReachable(i)) reachable++;
+        }
+        DeadFunctionEliminator.eliminate(mn, graph);
+        mn.accept(new ModuleValidator());
+        assertEquals(reachable - graph.importCount(), mn.codes == null ? 0 : mn.codes.codes.size());
+
+        ModuleWriter mw = new ModuleWriter();
+        mn.accept(mw);
+        ModuleNode reread = new ModuleNode();
+        ModuleReader.fromBytes(mw.toByteArray()).accept(reread);
+        CallGraph newGraph = CallGraph.build(reread);
+        for (int i = 0; i < newGraph.funcCount(); i++) {
+            assertTrue(i < newGraph.importCount() || newGraph.isReachable(i));
+        }
+    }
+
+    @Test
+    void game_of_life() throws IOException {
+        tryEliminate(GAME_OF_LIFE);
+    }
+
+    @Test
+    void aoc() throws IOException {
+        tryEliminate(AOC_SOLNS);
+    }
+}
@@ -0,0 +1,110 @@
+package io.github.eutro.jwasm.tree.analysis;
+
+import io.github.eutro.jwasm.BlockType;
+import io.github.eutro.jwasm.ModuleReader;
+import io.github.eutro.jwasm.test.ModuleTestBase;
+import io.github.eutro.jwasm.tree.CodeNode;
+import io.github.eutro.jwasm.tree.ExprNode;
+import io.github.eutro.jwasm.tree.ModuleNode;
+import io.github.eutro.jwasm.tree.TypeNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+import static io.github.eutro.jwasm.Opcodes.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DataflowTest extends ModuleTestBase {
+    @Test
+    void block() {
+        ExprNode expr = new ExprNode();
+        expr.visitVariableInsn(LOCAL_GET, 0);
+        expr.visitVariableInsn(LOCAL_SET, 1);
+        expr.visitBlockInsn(BLOCK, BlockType.valtype(EMPTY_TYPE));
+        expr.visitVariableInsn(LOCAL_GET, 1);
+        expr.visitBreakInsn(BR_IF, 0);
+        expr.visitConstInsn(5);
+        expr.visitVariableInsn(LOCAL_SET, 1);
+        expr.visitEndInsn();
+        expr.visitVariableInsn(LOCAL_GET, 1);
+        expr.visitInsn(DROP);
+        expr.visitConstInsn(0);
+        expr.visitVariableInsn(LOCAL_SET, 0);
+        expr.visitEndInsn();
+
+        ControlFlowGraph cfg = ControlFlowGraph.build(expr);
+        assertEquals(13, cfg.insnCount());
+        assertTrue(cfg.isExit(cfg.blockOf(12)));
+
+        LiveLocals live = new LiveLocals(cfg, 2);
+        assertTrue(live.isLiveBefore(0, 0));
+        assertFalse(live.isLiveBefore(0, 1));
+        assertTrue(live.isLiveAfter(1, 1));
+        assertTrue(live.isLiveAfter(6, 1));
+        assertFalse(live.isLiveAfter(11, 0));
+
+        ReachingDefinitions defs = new ReachingDefinitions(cfg, 2);
+        assertEquals(5, defs.defCount());
+        assertArrayEquals(new int[]{0}, defs.reachingBefore(0, 0));
+        assertArrayEquals(new int[]{2}, defs.reachingBefore(3, 1));
+        assertArrayEquals(new int[]{2, 3}, defs.reachingBefore(8, 1));
+        assertEquals(6, defs.getDefInsn(3));
+        assertEquals(1, defs.getDefLocal(3));
+    }
+
+    @Test
+    void loop() {
+        ExprNode expr = new ExprNode();
+        expr.visitBlockInsn(LOOP, BlockType.valtype(EMPTY_TYPE));
+        expr.visitVariableInsn(LOCAL_GET, 0);
+        expr.visitConstInsn(1);
+        expr.visitInsn(I32_SUB);
+        expr.visitVariableInsn(LOCAL_TEE, 0);
+        expr.visitBreakInsn(BR_IF, 0);
+        expr.visitEndInsn();
+        expr.visitEndInsn();
+
+        ControlFlowGraph cfg = ControlFlowGraph.build(expr);
+        int body = cfg.blockOf(1);
+        boolean backEdge = false;
+        for (int i = 0; i < cfg.succCount(body); i++) {
+            backEdge |= cfg.succ(body, i) == body;
+        }
+        assertTrue(backEdge);
+
+        LiveLocals live = new LiveLocals(cfg, 1);
+        assertTrue(live.isIn(0, 0));
+        assertTrue(live.isLiveAfter(4, 0));
+
+        ReachingDefinitions defs = new ReachingDefinitions(cfg, 1);
+        assertArrayEquals(new int[]{0, 1}, defs.reachingBefore(1, 0));
+    }
+
+    void tryAnalyze(String name) throws IOException {
+        ModuleNode mn = new ModuleNode();
+        try (InputStream is = openResource(name)) {
+            ModuleReader.fromInputStream(is).accept(mn);
+        }
+        if (mn.codes == null || mn.funcs == null) return;
+        Iterator<CodeNode> codes = mn.codes.iterator();
+        assertNotNull(mn.types);
+        mn.funcs.forEach(func -> {
+            TypeNode type = mn.types.types.get(func.type);
+            CodeNode code = codes.next();
+            LiveLocals.analyze(type, code);
+            ReachingDefinitions.analyze(type, code);
+        });
+    }
+
+    @Test
+    void game_of_life() throws IOException {
+        tryAnalyze(GAME_OF_LIFE);
+    }
+
+    @Test
+    void aoc() throws IOException {
+        tryAnalyze(AOC_SOLNS);
+    }
+}
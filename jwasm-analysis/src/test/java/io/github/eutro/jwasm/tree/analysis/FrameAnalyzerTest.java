@@ -0,0 +1,90 @@
+package io.github.eutro.jwasm.tree.analysis;
+
+import io.github.eutro.jwasm.ExprVisitor;
+import io.github.eutro.jwasm.ModuleReader;
+import io.github.eutro.jwasm.TypesVisitor;
+import io.github.eutro.jwasm.test.ModuleTestBase;
+import io.github.eutro.jwasm.tree.ModuleNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static io.github.eutro.jwasm.Opcodes.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameAnalyzerTest extends ModuleTestBase {
+    @Test
+    void simple() {
+        ModuleNode mn = new ModuleNode();
+        TypesVisitor tv = mn.visitTypes();
+        assertNotNull(tv);
+        tv.visitFuncType(new byte[]{I32}, new byte[]{I64});
+        tv.visitEnd();
+        mn.visitFuncs().visitFunc(0);
+        ExprVisitor ev = mn.visitCode().visitCode(new byte[0]);
+        assertNotNull(ev);
+        ev.visitVariableInsn(LOCAL_GET, 0);
+        ev.visitInsn(I64_EXTEND_I32_U);
+        ev.visitInsn(RETURN);
+        ev.visitInsn(DROP);
+        ev.visitEndInsn();
+        ev.visitEnd();
+
+        FrameAnalyzer.Frames frames = new FrameAnalyzer(mn).analyze(0);
+        assertEquals(6, frames.size());
+        assertEquals(0, frames.getHeight(0));
+        assertArrayEquals(new byte[]{I32}, frames.getStack(1));
+        assertEquals(I64, frames.getTop(2, 0));
+        assertFalse(frames.isUnreachable(2));
+        assertTrue(frames.isUnreachable(3));
+        assertEquals(0, frames.getHeight(3));
+        assertArrayEquals(new byte[]{I64}, frames.getStack(5));
+
+        StackMaxes maxes = frames.getMaxes();
+        assertEquals(1, maxes.getMaxStack());
+        assertEquals(1, maxes.getMaxStack(I32));
+        assertEquals(1, maxes.getMaxStack(I64));
+        assertEquals(0, maxes.getMaxStack(F32));
+        assertEquals(1, maxes.getMaxControlDepth());
+    }
+
+    void tryAnalyze(String name) throws IOException {
+        ModuleValidator validator = new ModuleValidator();
+        validator.setComputeMaxes(true);
+        try (InputStream is = openResource(name)) {
+            ModuleReader.fromInputStream(is).accept(validator);
+        }
+        ModuleNode mn = new ModuleNode();
+        try (InputStream is = openResource(name)) {
+            ModuleReader.fromInputStream(is).accept(mn);
+        }
+        FrameAnalyzer analyzer = new FrameAnalyzer(mn);
+        assertNotNull(mn.codes);
+        List<StackMaxes> maxes = validator.getMaxes();
+        assertNotNull(maxes);
+        assertEquals(mn.codes.codes.size(), maxes.size());
+        for (int i = 0; i < mn.codes.codes.size(); i++) {
+            FrameAnalyzer.Frames frames = analyzer.analyze(i);
+            assertEquals(mn.codes.codes.get(i).expr.instructions.size() + 1, frames.size());
+            int maxHeight = 0;
+            for (int j = 0; j < frames.size(); j++) {
+                maxHeight = Math.max(maxHeight, frames.getHeight(j));
+            }
+            assertEquals(maxHeight, frames.getMaxes().getMaxStack());
+            assertEquals(maxes.get(i), frames.getMaxes());
+            assertEquals(maxes.get(i), analyzer.computeMaxes(i));
+        }
+    }
+
+    @Test
+    void game_of_life() throws IOException {
+        tryAnalyze(GAME_OF_LIFE);
+    }
+
+    @Test
+    void aoc() throws IOException {
+        tryAnalyze(AOC_SOLNS);
+    }
+}
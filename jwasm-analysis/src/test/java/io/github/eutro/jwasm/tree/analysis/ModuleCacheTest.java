@@ -0,0 +1,118 @@
+package io.github.eutro.jwasm.tree.analysis;
+
+import io.github.eutro.jwasm.ModuleReader;
+import io.github.eutro.jwasm.ModuleWriter;
+import io.github.eutro.jwasm.ValidationException;
+import io.github.eutro.jwasm.test.ModuleTestBase;
+import io.github.eutro.jwasm.tree.ModuleNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModuleCacheTest extends ModuleTestBase {
+    private static byte[] write(ModuleCache.CachedModule module) {
+        ModuleWriter mw = new ModuleWriter();
+        module.accept(mw);
+        return mw.toByteArray();
+    }
+
+    @Test
+    void hits() throws IOException {
+        ModuleCache cache = new ModuleCache(1L << 30);
+        byte[] bytes = readResource(GAME_OF_LIFE);
+        ModuleCache.CachedModule module = cache.get(bytes);
+        assertSame(module, cache.get(bytes.clone()));
+        assertSame(module, cache.get(new ByteArrayInputStream(bytes)));
+        assertEquals(1, cache.getMisses());
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.size());
+        assertTrue(cache.getBytes() > bytes.length);
+
+        ModuleWriter expected = new ModuleWriter();
+        ModuleReader.fromBytes(bytes).accept(expected);
+        assertArrayEquals(expected.toByteArray(), write(module));
+
+        // modifying a copy leaves the cached module alone
+        ModuleNode copy = module.copy();
+        assertNotNull(copy.funcs);
+        copy.funcs.funcs.clear();
+        assertNotNull(copy.codes);
+        copy.codes.codes.clear();
+        assertArrayEquals(expected.toByteArray(), write(cache.get(bytes)));
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getBytes());
+        assertNotSame(module, cache.get(bytes));
+    }
+
+    @Test
+    void evicts() throws IOException {
+        byte[] hello = readResource(HELLO_WORLD);
+        byte[] life = readResource(GAME_OF_LIFE);
+        ModuleCache sizer = new ModuleCache(Long.MAX_VALUE);
+        sizer.get(hello);
+        long helloSize = sizer.getBytes();
+        sizer.get(life);
+        long lifeSize = sizer.getBytes() - helloSize;
+
+        ModuleCache cache = new ModuleCache(Math.max(helloSize, lifeSize) + Math.min(helloSize, lifeSize) - 1);
+        cache.get(hello);
+        cache.get(life);
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(lifeSize, cache.getBytes());
+
+        ModuleCache tiny = new ModuleCache(1);
+        ModuleCache.CachedModule module = tiny.get(hello);
+        assertNotNull(module);
+        assertEquals(0, tiny.size());
+        assertNotSame(module, tiny.get(hello));
+    }
+
+    @Test
+    void concurrentMisses() throws Exception {
+        ModuleCache cache = new ModuleCache(1L << 30);
+        byte[] bytes = readResource(GAME_OF_LIFE);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<ModuleCache.CachedModule>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get(bytes);
+                }));
+            }
+            start.countDown();
+            ModuleCache.CachedModule module = futures.get(0).get();
+            for (Future<ModuleCache.CachedModule> future : futures) {
+                assertSame(module, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(1, cache.getMisses());
+        assertEquals(threads - 1, cache.getHits());
+    }
+
+    @Test
+    void invalid() {
+        ModuleCache cache = new ModuleCache(1L << 20);
+        byte[] bytes = {0, 'a', 's', 'n', 1, 0, 0, 0};
+        assertThrows(ValidationException.class, () -> cache.get(bytes));
+        assertThrows(ValidationException.class, () -> cache.get(bytes));
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getMisses());
+    }
+}
@@ -0,0 +1,117 @@
+package io.github.eutro.jwasm.tree.analysis;
+
+import io.github.eutro.jwasm.ModuleReader;
+import io.github.eutro.jwasm.test.ModuleGenerator;
+import io.github.eutro.jwasm.test.ModuleTestBase;
+import io.github.eutro.jwasm.tree.ModuleNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static io.github.eutro.jwasm.Opcodes.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ModuleStatisticsTest extends ModuleTestBase {
+    private static ModuleStatistics read(byte[] bytes, boolean perFunction) {
+        ModuleStatistics stats = new ModuleStatistics(perFunction);
+        ModuleReader.fromBytes(bytes).setListener(stats).accept(stats);
+        return stats;
+    }
+
+    @Test
+    void generated() {
+        byte[] bytes = new ModuleGenerator()
+                .functions(4)
+                .instructions(16)
+                .nesting(3)
+                .brTable(2)
+                .toByteArray();
+        ModuleStatistics stats = read(bytes, true);
+
+        assertEquals(1, stats.getModules());
+        assertEquals(4, stats.getFunctionCount());
+        assertEquals(4, stats.getSectionCount(SECTION_CODE));
+        assertEquals(bytes.length - 8, stats.getSectionSize(SECTION_TYPE)
+                + stats.getSectionSize(SECTION_FUNCTION)
+                + stats.getSectionSize(SECTION_CODE));
+
+        ExprStatistics code = stats.getCode();
+        // 3 blocks, 16 instructions, a constant and a br_table, and 4 ends
+        assertEquals(4 * 25, code.getInstructions());
+        assertEquals(3, code.getMaxDepth());
+        assertEquals(4 * 3, code.getCount(ExprStatistics.index(BLOCK)));
+        assertEquals(4, code.getCount(ExprStatistics.index(BR_TABLE)));
+        assertEquals(4 * 4, code.getCount(ExprStatistics.index(END)));
+        assertEquals(4, code.getCount(ExprStatistics.index(I32_EQZ)));
+
+        assertEquals(4, stats.getFunctions().size());
+        for (ExprStatistics function : stats.getFunctions()) {
+            assertEquals(25, function.getInstructions());
+            assertEquals(1, function.getExpressions());
+        }
+        assertEquals(4, stats.getFunctionSizes()[ModuleStatistics.bucket(25)]);
+        assertEquals(4, stats.getLocalsCounts()[0]);
+        assertEquals(0, stats.getMaxLocals());
+    }
+
+    @Test
+    void bundled() throws IOException {
+        byte[] bytes = readResource(GAME_OF_LIFE);
+        ModuleStatistics stats = read(bytes, true);
+
+        long sections = 0;
+        for (byte id = SECTION_CUSTOM; id <= SECTION_DATA_COUNT; id++) {
+            sections += stats.getSectionSize(id);
+        }
+        assertEquals(bytes.length - 8, sections);
+
+        ExprStatistics sum = new ExprStatistics();
+        for (ExprStatistics function : stats.getFunctions()) {
+            sum.merge(function);
+        }
+        assertArrayEquals(stats.getCode().getCounts(), sum.getCounts());
+        assertArrayEquals(stats.getCode().getAlignments(), sum.getAlignments());
+        assertEquals(stats.getCode().getMaxDepth(), sum.getMaxDepth());
+
+        int functions = 0;
+        for (int count : stats.getFunctionSizes()) functions += count;
+        assertEquals(stats.getFunctionCount(), functions);
+        assertEquals(stats.getSectionCount(SECTION_CODE), functions);
+        int[] byteSizes = stats.getFunctionByteSizes();
+        for (int count : byteSizes) functions -= count;
+        assertEquals(0, functions);
+
+        ModuleNode node = new ModuleNode();
+        ModuleReader.fromBytes(bytes).accept(node);
+        ModuleStatistics fromTree = new ModuleStatistics();
+        node.accept(fromTree);
+        assertArrayEquals(stats.getCode().getCounts(), fromTree.getCode().getCounts());
+        assertArrayEquals(stats.getFunctionSizes(), fromTree.getFunctionSizes());
+        assertArrayEquals(stats.getLocalsCounts(), fromTree.getLocalsCounts());
+        assertEquals(stats.getLocals(), fromTree.getLocals());
+    }
+
+    @Test
+    void merge() throws IOException {
+        byte[] first = readResource(HELLO_WORLD);
+        byte[] second = readResource(AOC_SOLNS);
+
+        ModuleStatistics together = new ModuleStatistics();
+        ModuleReader.fromBytes(first).setListener(together).accept(together);
+        ModuleReader.fromBytes(second).setListener(together).accept(together);
+
+        ModuleStatistics merged = read(first, false).merge(read(second, false));
+        assertEquals(2, merged.getModules());
+        assertArrayEquals(together.getCode().getCounts(), merged.getCode().getCounts());
+        assertArrayEquals(together.getCode().getAlignments(), merged.getCode().getAlignments());
+        assertEquals(together.getCode().getMaxDepth(), merged.getCode().getMaxDepth());
+        assertArrayEquals(together.getFunctionSizes(), merged.getFunctionSizes());
+        assertArrayEquals(together.getFunctionByteSizes(), merged.getFunctionByteSizes());
+        assertEquals(together.getMaxLocals(), merged.getMaxLocals());
+        for (byte id = SECTION_CUSTOM; id <= SECTION_DATA_COUNT; id++) {
+            assertEquals(together.getSectionSize(id), merged.getSectionSize(id));
+            assertEquals(together.getSectionCount(id), merged.getSectionCount(id));
+        }
+        assertTrue(merged.getFunctions().isEmpty());
+    }
+}
@@ -1,13 +1,23 @@
 package io.github.eutro.jwasm.tree.analysis;
 
+import io.github.eutro.jwasm.CodesVisitor;
+import io.github.eutro.jwasm.ExprVisitor;
+import io.github.eutro.jwasm.FunctionsVisitor;
 import io.github.eutro.jwasm.ModuleReader;
 import io.github.eutro.jwasm.ModuleVisitor;
+import io.github.eutro.jwasm.TypesVisitor;
+import io.github.eutro.jwasm.ValidationException;
+import io.github.eutro.jwasm.test.ModuleGenerator;
 import io.github.eutro.jwasm.test.ModuleTestBase;
+import io.github.eutro.jwasm.tree.ModuleNode;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.io.InputStream;
 
+import static io.github.eutro.jwasm.Opcodes.I32;
+import static org.junit.jupiter.api.Assertions.*;
+
 class ModuleValidatorTest extends ModuleTestBase {
     void tryValidate(String name) throws IOException {
         try (InputStream is = openResource(name)) {
@@ -35,4 +45,71 @@ class ModuleValidatorTest extends ModuleTestBase {
     void aoc() throws Throwable {
         tryValidate(AOC_SOLNS);
     }
-}
\ No newline at end of file
+
+    @Test
+    void cached() throws IOException {
+        LruValidationCache cache = new LruValidationCache(1 << 16);
+        long misses = 0;
+        for (int i = 0; i < 2; i++) {
+            misses = cache.getMisses();
+            try (InputStream is = openResource(AOC_SOLNS)) {
+                ModuleValidator mv = new ModuleValidator();
+                mv.setCache(cache);
+                ModuleReader.fromInputStream(is).accept(mv);
+            }
+        }
+        assertTrue(cache.size() > 0);
+        assertEquals(misses, cache.getMisses());
+    }
+
+    @Test
+    void generated() {
+        ModuleGenerator[] generators = {
+                new ModuleGenerator(),
+                new ModuleGenerator().functions(2000).types(300).imports(1000).exports(1000),
+                new ModuleGenerator().instructions(100_000).nesting(1000).brTable(10_000),
+                new ModuleGenerator().functions(0).data(16, 1 << 16),
+        };
+        for (ModuleGenerator generator : generators) {
+            byte[] bytes = generator.toByteArray();
+            assertArrayEquals(bytes, generator.toByteArray());
+            ModuleReader.fromBytes(bytes).accept(new ModuleValidator());
+        }
+    }
+
+    private static ModuleNode caller(byte[] calleeParams) {
+        ModuleNode mn = new ModuleNode();
+        TypesVisitor tv = mn.visitTypes();
+        assertNotNull(tv);
+        tv.visitFuncType(calleeParams, new byte[0]);
+        tv.visitFuncType(new byte[0], new byte[0]);
+        tv.visitEnd();
+        FunctionsVisitor fv = mn.visitFuncs();
+        CodesVisitor cv = mn.visitCode();
+        assertNotNull(fv);
+        assertNotNull(cv);
+        fv.visitFunc(0);
+        fv.visitFunc(1);
+        for (int i = 0; i < 2; i++) {
+            ExprVisitor ev = cv.visitCode(new byte[0]);
+            assertNotNull(ev);
+            if (i == 1) ev.visitCallInsn(0);
+            ev.visitEndInsn();
+            ev.visitEnd();
+        }
+        return mn;
+    }
+
+    @Test
+    void cachedContext() {
+        LruValidationCache cache = new LruValidationCache(16);
+        ModuleValidator mv = new ModuleValidator();
+        mv.setCache(cache);
+        caller(new byte[0]).accept(mv);
+        assertEquals(2, cache.size());
+
+        ModuleValidator mv2 = new ModuleValidator();
+        mv2.setCache(cache);
+        assertThrows(ValidationException.class, () -> caller(new byte[]{I32}).accept(mv2));
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.eutro.jwasm.tree.analysis;
+
+import io.github.eutro.jwasm.ModuleReader;
+import io.github.eutro.jwasm.test.ModuleGenerator;
+import io.github.eutro.jwasm.test.ModuleTestBase;
+import io.github.eutro.jwasm.tree.ModuleNode;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ValidationBudgetTest extends ModuleTestBase {
+    private static final ModuleNode MODULE = new ModuleNode();
+
+    static {
+        byte[] bytes = new ModuleGenerator().functions(20).instructions(50_000).toByteArray();
+        ModuleReader.fromBytes(bytes).accept(MODULE);
+    }
+
+    private static ValidationAbortedException abort(ValidationBudget budget) {
+        ModuleValidator mv = new ModuleValidator();
+        mv.setBudget(budget);
+        return assertThrows(ValidationAbortedException.class, () -> MODULE.accept(mv));
+    }
+
+    @Test
+    void withinBudget() {
+        ValidationBudget budget = ValidationBudget.ofInstructions(Long.MAX_VALUE);
+        ModuleValidator mv = new ModuleValidator();
+        mv.setBudget(budget);
+        MODULE.accept(mv);
+        assertEquals(20, budget.getFunctions());
+        assertTrue(budget.getInstructions() >= 50_000);
+
+        // the same budget is drawn from again
+        long instructions = budget.getInstructions();
+        MODULE.accept(mv);
+        assertEquals(40, budget.getFunctions());
+        assertEquals(2 * instructions, budget.getInstructions());
+    }
+
+    @Test
+    void instructionLimit() {
+        ValidationAbortedException e = abort(ValidationBudget.ofInstructions(10_000));
+        assertEquals(ValidationAbortedException.Reason.INSTRUCTIONS, e.getReason());
+        assertTrue(e.getInstructions() > 10_000);
+        assertTrue(e.getInstructions() <= 10_000 + ValidationBudget.CHECK_INTERVAL);
+        assertTrue(e.getFunctions() < 20);
+    }
+
+    @Test
+    void timeLimit() throws InterruptedException {
+        ValidationBudget budget = ValidationBudget.ofTime(1, TimeUnit.MILLISECONDS);
+        Thread.sleep(5);
+        ValidationAbortedException e = abort(budget);
+        assertEquals(ValidationAbortedException.Reason.TIME, e.getReason());
+        assertEquals(0, e.getFunctions());
+    }
+
+    @Test
+    void cancelled() throws InterruptedException {
+        ValidationBudget budget = new ValidationBudget();
+        Thread canceller = new Thread(budget::cancel);
+        canceller.start();
+        canceller.join();
+        assertTrue(budget.isCancelled());
+        assertEquals(ValidationAbortedException.Reason.CANCELLED, abort(budget).getReason());
+    }
+
+    @Test
+    void interrupted() {
+        Thread.currentThread().interrupt();
+        try {
+            assertEquals(ValidationAbortedException.Reason.INTERRUPTED, abort(new ValidationBudget()).getReason());
+        } finally {
+            assertTrue(Thread.interrupted());
+        }
+    }
+}
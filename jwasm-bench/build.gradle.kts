@@ -0,0 +1,25 @@
+dependencies {
+    implementation(project(":jwasm-tree"))
+    implementation(project(":jwasm-analysis"))
+    implementation(project(":jwasm-sexp"))
+    implementation(project(":jwasm-test"))
+    implementation("org.openjdk.jmh:jmh-core:1.37")
+    annotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+// the benchmarks are for measuring the other modules, not for depending on
+tasks.withType<AbstractPublishToMaven>().configureEach {
+    enabled = false
+}
+
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs the JMH benchmarks with the GC profiler, writing the results to build/jmh/results.json. " +
+            "Other JMH options, such as a benchmark filter, can be passed with -PjmhArgs=\"...\"."
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    val results = layout.buildDirectory.file("jmh/results.json")
+    doFirst { results.get().asFile.parentFile.mkdirs() }
+    args("-prof", "gc", "-rf", "json", "-rff", results.get().asFile.path)
+    (findProperty("jmhArgs") as String?)?.let { args(it.trim().split(Regex("\\s+"))) }
+}
@@ -0,0 +1,137 @@
+package io.github.eutro.jwasm.bench;
+
+import io.github.eutro.jwasm.*;
+import io.github.eutro.jwasm.tree.ModuleNode;
+import io.github.eutro.jwasm.tree.analysis.ModuleValidator;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the binary format, and of the tree.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryBenchmarks {
+    /**
+     * A visitor that visits every part of a module, so the whole module is decoded, but does nothing with it.
+     */
+    static final ModuleVisitor NOOP = new ModuleVisitor() {
+        @Override
+        public TypesVisitor visitTypes() {
+            return new TypesVisitor();
+        }
+
+        @Override
+        public ImportsVisitor visitImports() {
+            return new ImportsVisitor();
+        }
+
+        @Override
+        public FunctionsVisitor visitFuncs() {
+            return new FunctionsVisitor();
+        }
+
+        @Override
+        public TablesVisitor visitTables() {
+            return new TablesVisitor();
+        }
+
+        @Override
+        public MemoriesVisitor visitMems() {
+            return new MemoriesVisitor();
+        }
+
+        @Override
+        public GlobalsVisitor visitGlobals() {
+            return new GlobalsVisitor() {
+                @Override
+                public ExprVisitor visitGlobal(byte mut, byte type) {
+                    return new ExprVisitor();
+                }
+            };
+        }
+
+        @Override
+        public ExportsVisitor visitExports() {
+            return new ExportsVisitor();
+        }
+
+        @Override
+        public ElementSegmentsVisitor visitElems() {
+            return new ElementSegmentsVisitor() {
+                @Override
+                public ElementVisitor visitElem() {
+                    return new ElementVisitor() {
+                        @Override
+                        public ExprVisitor visitActiveMode(int table) {
+                            return new ExprVisitor();
+                        }
+
+                        @Override
+                        public ExprVisitor visitInit() {
+                            return new ExprVisitor();
+                        }
+                    };
+                }
+            };
+        }
+
+        @Override
+        public CodesVisitor visitCode() {
+            return new CodesVisitor() {
+                @Override
+                public ExprVisitor visitCode(byte @NotNull [] locals) {
+                    return new ExprVisitor();
+                }
+            };
+        }
+
+        @Override
+        public DataSegmentsVisitor visitDatas() {
+            return new DataSegmentsVisitor() {
+                @Override
+                public DataVisitor visitData() {
+                    return new DataVisitor() {
+                        @Override
+                        public ExprVisitor visitActive(int memory) {
+                            return new ExprVisitor();
+                        }
+                    };
+                }
+            };
+        }
+    };
+
+    @Benchmark
+    public void readNoop(Corpus corpus, Throughput throughput) {
+        ModuleReader.fromBytes(corpus.bytes).accept(NOOP);
+        throughput.add(corpus.bytes.length);
+    }
+
+    @Benchmark
+    public ModuleNode readTree(Corpus corpus, Throughput throughput) {
+        ModuleNode node = new ModuleNode();
+        ModuleReader.fromBytes(corpus.bytes).accept(node);
+        throughput.add(corpus.bytes.length);
+        return node;
+    }
+
+    @Benchmark
+    public byte[] writeTree(Corpus corpus, Throughput throughput) {
+        ModuleWriter writer = new ModuleWriter();
+        corpus.node.accept(writer);
+        throughput.add(corpus.bytes.length);
+        return writer.toByteArray();
+    }
+
+    @Benchmark
+    public void validate(Corpus corpus, Throughput throughput) {
+        corpus.node.accept(new ModuleValidator());
+        throughput.add(corpus.bytes.length);
+    }
+}
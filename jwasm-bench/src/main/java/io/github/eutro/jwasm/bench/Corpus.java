@@ -0,0 +1,63 @@
+package io.github.eutro.jwasm.bench;
+
+import io.github.eutro.jwasm.ModuleReader;
+import io.github.eutro.jwasm.sexp.Unparser;
+import io.github.eutro.jwasm.sexp.WatWriter;
+import io.github.eutro.jwasm.test.ModuleTestBase;
+import io.github.eutro.jwasm.tree.ModuleNode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One of the example modules bundled with jwasm-test, in each of the forms the benchmarks start from.
+ */
+@State(Scope.Benchmark)
+public class Corpus {
+    @Param({
+            ModuleTestBase.AOC_SOLNS,
+            ModuleTestBase.GAME_OF_LIFE,
+            ModuleTestBase.RAWG_ASMS,
+            ModuleTestBase.RAWG_RUST,
+    })
+    public String module;
+
+    /**
+     * The binary module.
+     */
+    public byte[] bytes;
+
+    /**
+     * The module as a tree.
+     */
+    public ModuleNode node;
+
+    /**
+     * The module as s-expressions, as {@link Unparser unparsed} from {@link #node}.
+     */
+    public Object sexp;
+
+    /**
+     * The module as text.
+     */
+    public String text;
+
+    /**
+     * The length of {@link #text} in UTF-8.
+     */
+    public int textBytes;
+
+    @Setup
+    public void load() throws IOException {
+        bytes = ModuleTestBase.readResource(module);
+        node = new ModuleNode();
+        ModuleReader.fromBytes(bytes).accept(node);
+        sexp = Unparser.unparse(node);
+        text = WatWriter.writeToString(sexp);
+        textBytes = text.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
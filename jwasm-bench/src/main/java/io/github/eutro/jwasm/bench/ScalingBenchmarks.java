@@ -0,0 +1,61 @@
+package io.github.eutro.jwasm.bench;
+
+import io.github.eutro.jwasm.ModuleReader;
+import io.github.eutro.jwasm.test.ModuleGenerator;
+import io.github.eutro.jwasm.tree.ModuleNode;
+import io.github.eutro.jwasm.tree.analysis.ModuleValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link ModuleGenerator generated} modules at increasing scales,
+ * whose throughput should stay about the same as the scale grows.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScalingBenchmarks {
+    @State(Scope.Benchmark)
+    public static class Generated {
+        /**
+         * The scale of the module, multiplying the number of functions, and the size of their bodies.
+         */
+        @Param({"1", "4", "16"})
+        public int scale;
+
+        public byte[] bytes;
+        public ModuleNode node;
+
+        @Setup
+        public void generate() {
+            bytes = new ModuleGenerator()
+                    .types(64 * scale)
+                    .imports(64 * scale)
+                    .exports(64 * scale)
+                    .functions(256 * scale)
+                    .instructions(256 * scale)
+                    .nesting(8 * scale)
+                    .brTable(64 * scale)
+                    .toByteArray();
+            node = new ModuleNode();
+            ModuleReader.fromBytes(bytes).accept(node);
+        }
+    }
+
+    @Benchmark
+    public ModuleNode readTree(Generated module, Throughput throughput) {
+        ModuleNode node = new ModuleNode();
+        ModuleReader.fromBytes(module.bytes).accept(node);
+        throughput.add(module.bytes.length);
+        return node;
+    }
+
+    @Benchmark
+    public void validate(Generated module, Throughput throughput) {
+        module.node.accept(new ModuleValidator());
+        throughput.add(module.bytes.length);
+    }
+}
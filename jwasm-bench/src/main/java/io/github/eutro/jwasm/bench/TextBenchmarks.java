@@ -0,0 +1,89 @@
+package io.github.eutro.jwasm.bench;
+
+import io.github.eutro.jwasm.ByteInputStream;
+import io.github.eutro.jwasm.sexp.Unparser;
+import io.github.eutro.jwasm.sexp.WatParser;
+import io.github.eutro.jwasm.sexp.WatReader;
+import io.github.eutro.jwasm.sexp.WatWriter;
+import io.github.eutro.jwasm.test.ModuleTestBase;
+import io.github.eutro.jwasm.tree.ModuleNode;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the text format.
+ * <p>
+ * Modules are measured as text {@link Unparser unparsed} from the binary modules in the {@link Corpus},
+ * and their throughput is counted in bytes of that text.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextBenchmarks {
+    /**
+     * The scripts of the WebAssembly test suite bundled with jwasm-test.
+     */
+    @State(Scope.Benchmark)
+    public static class TestSuite {
+        public List<byte[]> scripts;
+        public int totalBytes;
+
+        @Setup
+        public void load() throws IOException {
+            scripts = new ArrayList<>();
+            totalBytes = 0;
+            for (ModuleTestBase.TestSuiteEntry entry : (Iterable<ModuleTestBase.TestSuiteEntry>)
+                    ModuleTestBase.openTestSuite()::iterator) {
+                if (!entry.getName().endsWith(".wast")) continue;
+                byte[] script = ModuleTestBase.readAll(entry.getStream());
+                scripts.add(script);
+                totalBytes += script.length;
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Object> readText(Corpus corpus, Throughput throughput) {
+        List<Object> read = WatReader.readAll(corpus.text);
+        throughput.add(corpus.textBytes);
+        return read;
+    }
+
+    @Benchmark
+    public ModuleNode parseText(Corpus corpus, Throughput throughput) {
+        ModuleNode node = WatParser.DEFAULT.parseModule(corpus.sexp);
+        throughput.add(corpus.textBytes);
+        return node;
+    }
+
+    @Benchmark
+    public ModuleNode readAndParseText(Corpus corpus, Throughput throughput) {
+        ModuleNode node = WatParser.DEFAULT.parseModule(WatReader.readAll(corpus.text).get(0));
+        throughput.add(corpus.textBytes);
+        return node;
+    }
+
+    @Benchmark
+    public String unparse(Corpus corpus, Throughput throughput) {
+        String text = WatWriter.writeToString(Unparser.unparse(corpus.node));
+        throughput.add(corpus.textBytes);
+        return text;
+    }
+
+    @Benchmark
+    public int readTestSuite(TestSuite suite, Throughput throughput) {
+        int forms = 0;
+        for (byte[] script : suite.scripts) {
+            forms += WatReader.readAll(new ByteInputStream.ByteBufferByteInputStream(ByteBuffer.wrap(script))).size();
+        }
+        throughput.add(suite.totalBytes);
+        return forms;
+    }
+}
@@ -0,0 +1,40 @@
+package io.github.eutro.jwasm.bench;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Counts the bytes of input each benchmark thread processes, which JMH reports as a rate
+ * in the "megabytes" secondary result, alongside the operation rate.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class Throughput {
+    private long bytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        bytes = 0;
+    }
+
+    /**
+     * Count processed input.
+     *
+     * @param count The number of bytes processed.
+     */
+    public void add(int count) {
+        bytes += count;
+    }
+
+    /**
+     * Get the input processed so far this iteration, which JMH divides by the time taken.
+     *
+     * @return The number of megabytes processed.
+     */
+    public double megabytes() {
+        return bytes / 1e6;
+    }
+}
@@ -0,0 +1,6 @@
+/**
+ * JMH benchmarks for reading, writing, validating and printing modules.
+ * <p>
+ * Run them with {@code gradle :jwasm-bench:jmh}.
+ */
+package io.github.eutro.jwasm.bench;
@@ -5,3 +5,11 @@ dependencies {
     testImplementation(project(":jwasm-analysis"))
     testImplementation(project(":jwasm-test"))
 }
+
+tasks.register<JavaExec>("generateLexerTables") {
+    group = "build"
+    description = "Regenerates the lexer DFA tables in LexerTables.java from the regular expressions in LexerDFA."
+    classpath = sourceSets.main.get().runtimeClasspath
+    mainClass.set("io.github.eutro.jwasm.sexp.internal.LexerDFA")
+    args(file("src/main/java/io/github/eutro/jwasm/sexp/internal/LexerTables.java"))
+}
@@ -0,0 +1,346 @@
+package io.github.eutro.jwasm.sexp;
+
+import io.github.eutro.jwasm.ByteInputStream;
+import io.github.eutro.jwasm.ValidationException;
+import io.github.eutro.jwasm.tree.ModuleNode;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static io.github.eutro.jwasm.sexp.internal.ListParser.mark;
+
+/**
+ * A parser for the text of a single module that is edited over time, such as the buffer of an editor,
+ * which parses the module again after each edit while doing as little of the work again as it can.
+ * <p>
+ * The text may either be a single {@code (module ...)}, or the fields of a module written out on their own.
+ * The parser remembers where each module field ends in the text, and after an edit only the fields
+ * that the edit touched are read and parsed again. Functions are only resolved again if their field was edited,
+ * or if the edit changed what identifiers or types they may refer to, such as by adding or removing a function.
+ * <p>
+ * If an edit could change how the text around it is read, for example by opening a comment
+ * or unbalancing parentheses, or if it touches the {@code (module} header, the whole text is parsed again.
+ * <p>
+ * Offsets into the text are in bytes of its UTF-8 encoding, just like the positions in {@link SrcLoc}s.
+ * <p>
+ * The {@link io.github.eutro.jwasm.tree.FuncNode}s and {@link io.github.eutro.jwasm.tree.CodeNode}s
+ * of unchanged functions are shared between the modules that are returned, so they should not be modified.
+ *
+ * @see WatParser#parseModule(Object)
+ */
+public final class IncrementalWatParser {
+    private byte @Nullable [] text;
+
+    /**
+     * The fields of the module, in the order they are written, or null if the text must be parsed from scratch.
+     */
+    private @Nullable List<Field> fields;
+
+    /**
+     * The offset just after the {@code (module $id} header, or 0 if there is none.
+     */
+    private int headerEnd;
+
+    /**
+     * The offset of the closing parenthesis of the module, or the length of the text if there is none.
+     */
+    private int trailerStart;
+
+    private @Nullable WatParser.Resolution resolution;
+
+    /**
+     * Construct a parser with no text.
+     */
+    public IncrementalWatParser() {
+    }
+
+    /**
+     * A module field, which owns the text from the end of the field before it, or the header, to its own end.
+     */
+    private static class Field {
+        final Object sexp;
+        final List<WatParser.ModuleField> parsed = new ArrayList<>();
+        int end;
+
+        Field(Object sexp, int end) {
+            this.sexp = sexp;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Builds the s-expressions it visits into a list.
+     */
+    private static class Builder extends SexpVisitor {
+        final List<Object> list = new ArrayList<>();
+
+        @Override
+        public SexpVisitor visitList() {
+            Builder child = new Builder();
+            list.add(child.list);
+            return child;
+        }
+
+        @Override
+        public void visitAtom(@NotNull Object atom) {
+            list.add(atom);
+        }
+    }
+
+    /**
+     * Builds the s-expressions it visits into a list, recording where each of them ends,
+     * and where the list it builds is closed.
+     */
+    private static class EndsBuilder extends Builder {
+        private final WatReader<?> reader;
+        private final boolean nested;
+        final List<Integer> ends = new ArrayList<>();
+        int close = -1;
+        @Nullable EndsBuilder lastChild;
+
+        EndsBuilder(WatReader<?> reader, boolean nested) {
+            this.reader = reader;
+            this.nested = nested;
+        }
+
+        @Override
+        public SexpVisitor visitList() {
+            Builder child;
+            if (nested) {
+                child = lastChild = new EndsBuilder(reader, false);
+            } else {
+                child = new Builder();
+            }
+            list.add(child.list);
+            return new SexpVisitor(child) {
+                @Override
+                public void visitEnd() {
+                    super.visitEnd();
+                    int end = (int) reader.tokenEnd();
+                    if (child instanceof EndsBuilder) ((EndsBuilder) child).close = end - 1;
+                    ends.add(end);
+                }
+            };
+        }
+
+        @Override
+        public void visitAtom(@NotNull Object atom) {
+            super.visitAtom(atom);
+            ends.add((int) reader.tokenEnd());
+        }
+    }
+
+    /**
+     * Set the whole text of the module, and parse it from scratch.
+     *
+     * @param source The text of the module.
+     * @return The parsed module.
+     * @throws WatParser.ParseException If the text is not a syntactically valid module.
+     * @throws ValidationException      If the text could not be read as s-expressions.
+     */
+    public ModuleNode parse(CharSequence source) throws WatParser.ParseException {
+        text = source.toString().getBytes(StandardCharsets.UTF_8);
+        fields = null;
+        resolution = null;
+        return reparse();
+    }
+
+    /**
+     * Replace a range of the text, and parse the module again.
+     * <p>
+     * If parsing fails, the edit is still made, and the next edit will parse the whole text again.
+     *
+     * @param start       The offset of the first byte to replace.
+     * @param end         The offset just after the last byte to replace.
+     * @param replacement The text to replace the range with.
+     * @return The parsed module.
+     * @throws WatParser.ParseException  If the edited text is not a syntactically valid module.
+     * @throws ValidationException       If the edited text could not be read as s-expressions.
+     * @throws IllegalStateException     If no text has been {@link #parse(CharSequence) set}.
+     * @throws IndexOutOfBoundsException If the range is not within the text.
+     */
+    public ModuleNode edit(int start, int end, CharSequence replacement) throws WatParser.ParseException {
+        if (text == null) throw new IllegalStateException("No text to edit");
+        if (start < 0 || end < start || end > text.length) {
+            throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") out of bounds for length "
+                    + text.length);
+        }
+        byte[] inserted = replacement.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] newText = new byte[text.length - (end - start) + inserted.length];
+        System.arraycopy(text, 0, newText, 0, start);
+        System.arraycopy(inserted, 0, newText, start, inserted.length);
+        System.arraycopy(text, end, newText, start + inserted.length, text.length - end);
+        text = newText;
+
+        if (fields == null
+                || fields.isEmpty()
+                || start <= headerEnd && headerEnd != 0
+                || end > trailerStart) {
+            fields = null;
+            return reparse();
+        }
+
+        int delta = inserted.length - (end - start);
+        int first = fieldAt(start, false);
+        int last = Math.max(first, fieldAt(end, true));
+        int lo = first == 0 ? headerEnd : fields.get(first - 1).end;
+        int hi = last == fields.size() - 1 ? trailerStart : fields.get(last).end;
+
+        List<Field> read = readFields(lo, hi + delta);
+        if (read == null) {
+            fields = null;
+            return reparse();
+        }
+
+        List<Field> changed = fields.subList(first, last + 1);
+        changed.clear();
+        changed.addAll(read);
+        for (int i = first + read.size(); i < fields.size(); i++) {
+            fields.get(i).end += delta;
+        }
+        trailerStart += delta;
+        return resolve(read);
+    }
+
+    /**
+     * Find the field that owns an offset.
+     *
+     * @param offset    The offset.
+     * @param exclusive Whether the offset is the end of a range, so a field that ends at it owns it.
+     * @return The index of the field, or the last field if the offset is after all of them.
+     */
+    private int fieldAt(int offset, boolean exclusive) {
+        assert fields != null;
+        int lo = 0;
+        int hi = fields.size() - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int end = fields.get(mid).end;
+            if (exclusive ? end >= offset : end > offset) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    private WatReader<RuntimeException> reader(int from, int to) {
+        assert text != null;
+        return new WatReader<>(new ByteInputStream.ByteBufferByteInputStream(ByteBuffer.wrap(text, from, to - from)));
+    }
+
+    /**
+     * Read the fields in a range of the text that is being read again,
+     * if they can be read without looking at the text around the range.
+     *
+     * @param from The start of the range.
+     * @param to   The end of the range.
+     * @return The fields, or null if the whole text must be read again.
+     */
+    private @Nullable List<Field> readFields(int from, int to) {
+        assert text != null;
+        WatReader<RuntimeException> reader = reader(from, to);
+        EndsBuilder builder = new EndsBuilder(reader, false);
+        try {
+            reader.accept(builder);
+        } catch (RuntimeException e) {
+            // let reading the whole text report it
+            return null;
+        }
+
+        // anything after the last field must be whitespace,
+        // since a line comment could run on into the text after the range
+        int lastEnd = builder.ends.isEmpty() ? from : builder.ends.get(builder.ends.size() - 1);
+        for (int i = lastEnd; i < to; i++) {
+            if (text[i] == ';') return null;
+        }
+
+        List<Field> read = new ArrayList<>();
+        for (int i = 0; i < builder.list.size(); i++) {
+            Object sexp = builder.list.get(i);
+            // an atom could be a module id, and a (module ...) could wrap what used to be bare fields,
+            // either of which changes how the rest of the text is read
+            if (!(sexp instanceof List)) return null;
+            List<?> list = (List<?>) sexp;
+            if (!list.isEmpty() && "module".equals(list.get(0))) return null;
+            read.add(new Field(sexp, builder.ends.get(i)));
+        }
+        return read;
+    }
+
+    private ModuleNode reparse() {
+        assert text != null;
+        WatReader<RuntimeException> reader = reader(0, text.length);
+        EndsBuilder top = new EndsBuilder(reader, true);
+        reader.accept(top);
+
+        List<Field> read = new ArrayList<>();
+        Object sole = top.list.size() == 1 ? top.list.get(0) : null;
+        if (sole instanceof List
+                && !((List<?>) sole).isEmpty()
+                && "module".equals(((List<?>) sole).get(0))) {
+            List<?> module = (List<?>) sole;
+            EndsBuilder moduleBuilder = top.lastChild;
+            assert moduleBuilder != null;
+            int header = module.size() > 1 && isId(module.get(1)) ? 2 : 1;
+            headerEnd = moduleBuilder.ends.get(header - 1);
+            trailerStart = moduleBuilder.close;
+            for (int i = header; i < module.size(); i++) {
+                read.add(new Field(module.get(i), moduleBuilder.ends.get(i)));
+            }
+        } else {
+            headerEnd = 0;
+            trailerStart = text.length;
+            for (int i = 0; i < top.list.size(); i++) {
+                read.add(new Field(top.list.get(i), top.ends.get(i)));
+            }
+        }
+
+        fields = read;
+        resolution = null;
+        return resolve(read);
+    }
+
+    private static boolean isId(Object atom) {
+        return atom instanceof String && ((String) atom).startsWith("$");
+    }
+
+    /**
+     * Parse the fields that were read again, and resolve the whole module.
+     */
+    private ModuleNode resolve(List<Field> read) {
+        assert fields != null;
+        List<Object> module = new ArrayList<>(fields.size() + 1);
+        module.add("module");
+        for (Field field : fields) {
+            module.add(field.sexp);
+        }
+
+        try {
+            return mark(module, () -> {
+                for (Field field : read) {
+                    WatParser.parseModuleField(field.parsed, field.sexp);
+                }
+
+                List<WatParser.ModuleField> moduleFields = new ArrayList<>();
+                for (Field field : fields) {
+                    moduleFields.addAll(field.parsed);
+                }
+                moduleFields.sort(Comparator.comparing(WatParser.ModuleField::sortIndex));
+
+                resolution = WatParser.resolveFields(moduleFields, resolution);
+                return resolution.module;
+            });
+        } catch (RuntimeException e) {
+            fields = null;
+            resolution = null;
+            throw e;
+        }
+    }
+}
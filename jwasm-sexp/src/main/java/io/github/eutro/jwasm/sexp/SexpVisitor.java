@@ -0,0 +1,55 @@
+package io.github.eutro.jwasm.sexp;
+
+import io.github.eutro.jwasm.BaseVisitor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A visitor that visits a sequence of s-expressions, as {@link WatReader#accept(SexpVisitor) read} from text.
+ * <p>
+ * Methods are expected to be called in the order:
+ * <p>
+ * ( {@code visitList} | {@code visitAtom} )*
+ * {@code visitEnd}
+ * <p>
+ * Atoms are the same objects that {@link WatReader#readAll()} puts in its lists:
+ * strings for keywords and ids, byte arrays for strings, {@link WatReader.ParsedNumber}s for numbers
+ * and {@link WatReader.MemArgPart}s for memory arguments.
+ */
+public class SexpVisitor extends BaseVisitor<SexpVisitor> {
+    /**
+     * Construct a visitor with no delegate.
+     */
+    public SexpVisitor() {
+        super();
+    }
+
+    /**
+     * Construct a visitor with a delegate.
+     *
+     * @param dl The visitor to delegate all method calls to, or {@code null}.
+     */
+    public SexpVisitor(@Nullable SexpVisitor dl) {
+        super(dl);
+    }
+
+    /**
+     * Visit a list.
+     *
+     * @return A {@link SexpVisitor} to visit with the elements of the list, which will be ended when the list is,
+     * or {@code null} if this visitor is not interested in the elements of the list.
+     */
+    public @Nullable SexpVisitor visitList() {
+        if (dl != null) return dl.visitList();
+        return null;
+    }
+
+    /**
+     * Visit an atom.
+     *
+     * @param atom The atom.
+     */
+    public void visitAtom(@NotNull Object atom) {
+        if (dl != null) dl.visitAtom(atom);
+    }
+}
@@ -0,0 +1,138 @@
+package io.github.eutro.jwasm.sexp;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * A table of the source locations of s-expressions, as recorded by a {@link WatReader} with
+ * {@link WatReader#setSourceTable(SourceTable)}.
+ * <p>
+ * Unlike the map given to {@link WatReader#setSources(java.util.Map)}, s-expressions are keyed by identity,
+ * so recording the location of a list does not hash its elements, and equal lists at different locations
+ * are kept apart. Locations are stored packed in arrays, and only materialized as {@link SrcLoc}s when
+ * {@link #get(Object) looked up}.
+ * <p>
+ * Atoms that the reader shares between occurrences, if any, are located at their last occurrence.
+ *
+ * @see WatParser.ParseException#locate(SourceTable)
+ */
+public final class SourceTable {
+    private static final int MIN_CAPACITY = 16;
+
+    private Object[] keys = new Object[MIN_CAPACITY];
+    private long[] positions = new long[MIN_CAPACITY];
+    private long[] lineCols = new long[MIN_CAPACITY];
+    private int size;
+
+    /**
+     * Construct an empty source table.
+     */
+    public SourceTable() {
+    }
+
+    private static int slot(Object key, int mask) {
+        int h = System.identityHashCode(key) * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private int find(Object key) {
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+        while (keys[i] != null && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    /**
+     * Record the location of an s-expression, replacing any location it already had.
+     *
+     * @param node     The s-expression.
+     * @param position The offset of its first byte in the source.
+     * @param line     The line it starts on.
+     * @param col      The column it starts at.
+     */
+    public void put(@NotNull Object node, long position, int line, int col) {
+        int i = find(node);
+        if (keys[i] == null) {
+            if ((size + 1) * 4 > keys.length * 3) {
+                grow();
+                i = find(node);
+            }
+            keys[i] = node;
+            size++;
+        }
+        positions[i] = position;
+        lineCols[i] = (long) line << 32 | Integer.toUnsignedLong(col);
+    }
+
+    private void grow() {
+        Object[] oldKeys = keys;
+        long[] oldPositions = positions;
+        long[] oldLineCols = lineCols;
+        int capacity = oldKeys.length * 2;
+        keys = new Object[capacity];
+        positions = new long[capacity];
+        lineCols = new long[capacity];
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == null) continue;
+            int i = find(oldKeys[j]);
+            keys[i] = oldKeys[j];
+            positions[i] = oldPositions[j];
+            lineCols[i] = oldLineCols[j];
+        }
+    }
+
+    /**
+     * Get whether the location of an s-expression has been recorded.
+     *
+     * @param node The s-expression.
+     * @return Whether its location is known.
+     */
+    public boolean contains(@NotNull Object node) {
+        return keys[find(node)] != null;
+    }
+
+    /**
+     * Get the offset in the source of the first byte of an s-expression.
+     *
+     * @param node The s-expression.
+     * @return The offset, or -1 if its location was not recorded.
+     */
+    public long position(@NotNull Object node) {
+        int i = find(node);
+        return keys[i] == null ? -1 : positions[i];
+    }
+
+    /**
+     * Get the location of an s-expression.
+     *
+     * @param node The s-expression.
+     * @return The location, or null if it was not recorded.
+     */
+    public @Nullable SrcLoc get(@NotNull Object node) {
+        int i = find(node);
+        if (keys[i] == null) return null;
+        long lineCol = lineCols[i];
+        return new SrcLoc(positions[i], (int) (lineCol >>> 32), (int) lineCol);
+    }
+
+    /**
+     * Get the number of s-expressions with recorded locations.
+     *
+     * @return The number of s-expressions.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Forget all recorded locations.
+     */
+    public void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+}
@@ -382,7 +382,7 @@ public class Unparser {
 
             @Override
             public void visitBreakInsn(byte opcode, int label) {
-                t.add(Arrays.asList("br", ParsedNumber.of(label)));
+                t.add(Arrays.asList(InsnAttributes.lookup(opcode).getMnemonic(), ParsedNumber.of(label)));
             }
 
             @Override
@@ -0,0 +1,665 @@
+package io.github.eutro.jwasm.sexp;
+
+import io.github.eutro.jwasm.*;
+import io.github.eutro.jwasm.attrs.InsnAttributes;
+import io.github.eutro.jwasm.sexp.WatReader.ParsedNumber;
+import io.github.eutro.jwasm.tree.ModuleNode;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A {@link ModuleVisitor} that writes the module it visits as Wat text, directly to an {@link Appendable}.
+ * <p>
+ * The text written is the same as {@link WatWriter#write(Object) writing} the {@link Unparser#unparse(ModuleNode) unparsed}
+ * module, without building the s-expression, except that indices and limits are always written unsigned.
+ * Together with {@link ModuleReader}, this can disassemble a module
+ * without holding any more of it in memory than the types of its functions.
+ * <p>
+ * Nothing is written for custom sections.
+ * Writing to the {@link Appendable} is not buffered by this class,
+ * so it should be buffered itself if it is, for example, a {@link java.io.Writer} to a file.
+ * {@link IOException}s thrown by the {@link Appendable} are rethrown as {@link UncheckedIOException}s.
+ *
+ * @see Unparser
+ * @see WatWriter
+ */
+public class WatModuleWriter extends ModuleVisitor {
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private final Appendable out;
+    private int[] funcTypes = new int[0];
+    private int funcCount;
+    private int codeCount;
+
+    /**
+     * Construct a {@link WatModuleWriter} that writes to the given {@link Appendable}.
+     *
+     * @param out The {@link Appendable} to write to.
+     */
+    public WatModuleWriter(@NotNull Appendable out) {
+        this.out = out;
+    }
+
+    /**
+     * Write a module as Wat text to a string.
+     *
+     * @param node The module.
+     * @return The written text.
+     */
+    public static String writeToString(ModuleNode node) {
+        StringBuilder sb = new StringBuilder();
+        node.accept(new WatModuleWriter(sb));
+        return sb.toString();
+    }
+
+    private static void write(Appendable out, char c) {
+        try {
+            out.append(c);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void write(Appendable out, CharSequence s) {
+        try {
+            out.append(s);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeU32(Appendable out, int value) {
+        write(out, Integer.toUnsignedString(value));
+    }
+
+    private static void writeString(Appendable out, byte[] bytes) {
+        write(out, '"');
+        for (byte b : bytes) {
+            if (' ' <= b && b < 0x7F
+                    && b != '"'
+                    && b != '\\') write(out, (char) b);
+            else {
+                write(out, '\\');
+                write(out, HEX_DIGITS[(b >> 4) & 0xF]);
+                write(out, HEX_DIGITS[b & 0xF]);
+            }
+        }
+        write(out, '"');
+    }
+
+    private static void writeName(Appendable out, String name) {
+        writeString(out, name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeTypes(Appendable out, String kw, byte[] types) {
+        write(out, " (");
+        write(out, kw);
+        for (byte type : types) {
+            write(out, ' ');
+            write(out, Unparser.unparseType(type));
+        }
+        write(out, ')');
+    }
+
+    private static void writeTypeUse(Appendable out, int type) {
+        write(out, "(type ");
+        writeU32(out, type);
+        write(out, ')');
+    }
+
+    private static void writeLimits(Appendable out, int min, @Nullable Integer max) {
+        write(out, ' ');
+        writeU32(out, min);
+        if (max != null) {
+            write(out, ' ');
+            writeU32(out, max);
+        }
+    }
+
+    private void writeGlobalType(byte mut, byte type) {
+        if (mut == Opcodes.MUT_CONST) {
+            write(out, Unparser.unparseType(type));
+        } else {
+            write(out, "(mut ");
+            write(out, Unparser.unparseType(type));
+            write(out, ')');
+        }
+    }
+
+    @Override
+    public void visitHeader(int version) {
+        write(out, "(module");
+    }
+
+    @Override
+    public @Nullable TypesVisitor visitTypes() {
+        return new TypesVisitor() {
+            @Override
+            public void visitFuncType(byte @NotNull [] params, byte @NotNull [] returns) {
+                write(out, " (type (func");
+                if (params.length != 0) writeTypes(out, "param", params);
+                if (returns.length != 0) writeTypes(out, "result", returns);
+                write(out, "))");
+            }
+        };
+    }
+
+    @Override
+    public @Nullable ImportsVisitor visitImports() {
+        return new ImportsVisitor() {
+            private void importHead(String module, String name, String kind) {
+                write(out, " (import ");
+                writeName(out, module);
+                write(out, ' ');
+                writeName(out, name);
+                write(out, " (");
+                write(out, kind);
+            }
+
+            @Override
+            public void visitFuncImport(@NotNull String module, @NotNull String name, int type) {
+                importHead(module, name, "func");
+                write(out, ' ');
+                writeTypeUse(out, type);
+                write(out, "))");
+            }
+
+            @Override
+            public void visitTableImport(@NotNull String module, @NotNull String name, int min, @Nullable Integer max, byte type) {
+                importHead(module, name, "table");
+                writeLimits(out, min, max);
+                write(out, ' ');
+                write(out, Unparser.unparseType(type));
+                write(out, "))");
+            }
+
+            @Override
+            public void visitMemImport(@NotNull String module, @NotNull String name, int min, @Nullable Integer max) {
+                importHead(module, name, "memory");
+                writeLimits(out, min, max);
+                write(out, "))");
+            }
+
+            @Override
+            public void visitGlobalImport(@NotNull String module, @NotNull String name, byte mut, byte type) {
+                importHead(module, name, "global");
+                write(out, ' ');
+                writeGlobalType(mut, type);
+                write(out, "))");
+            }
+        };
+    }
+
+    @Override
+    public @Nullable FunctionsVisitor visitFuncs() {
+        return new FunctionsVisitor() {
+            @Override
+            public void visitFunc(int type) {
+                if (funcCount == funcTypes.length) {
+                    funcTypes = Arrays.copyOf(funcTypes, Math.max(16, funcCount * 2));
+                }
+                funcTypes[funcCount++] = type;
+            }
+        };
+    }
+
+    @Override
+    public @Nullable TablesVisitor visitTables() {
+        return new TablesVisitor() {
+            @Override
+            public void visitTable(int min, @Nullable Integer max, byte type) {
+                write(out, " (table");
+                writeLimits(out, min, max);
+                write(out, ' ');
+                write(out, Unparser.unparseType(type));
+                write(out, ')');
+            }
+        };
+    }
+
+    @Override
+    public @Nullable MemoriesVisitor visitMems() {
+        return new MemoriesVisitor() {
+            @Override
+            public void visitMemory(int min, @Nullable Integer max) {
+                write(out, " (memory");
+                writeLimits(out, min, max);
+                write(out, ')');
+            }
+        };
+    }
+
+    @Override
+    public @Nullable GlobalsVisitor visitGlobals() {
+        return new GlobalsVisitor() {
+            @Override
+            public @Nullable ExprVisitor visitGlobal(byte mut, byte type) {
+                write(out, " (global ");
+                writeGlobalType(mut, type);
+                return new InsnWriter(out, ")");
+            }
+        };
+    }
+
+    @Override
+    public @Nullable ExportsVisitor visitExports() {
+        return new ExportsVisitor() {
+            @Override
+            public void visitExport(@NotNull String name, byte type, int index) {
+                write(out, " (export ");
+                writeName(out, name);
+                switch (type) {
+                    // @formatter:off
+                    case Opcodes.EXPORTS_FUNC: write(out, " (func "); break;
+                    case Opcodes.EXPORTS_TABLE: write(out, " (table "); break;
+                    case Opcodes.EXPORTS_MEM: write(out, " (memory "); break;
+                    case Opcodes.EXPORTS_GLOBAL: write(out, " (global "); break;
+                    // @formatter:on
+                    default:
+                        throw new IllegalStateException();
+                }
+                writeU32(out, index);
+                write(out, "))");
+            }
+        };
+    }
+
+    @Override
+    public void visitStart(int func) {
+        write(out, " (start ");
+        writeU32(out, func);
+        write(out, ')');
+    }
+
+    @Override
+    public @Nullable ElementSegmentsVisitor visitElems() {
+        return new ElementSegmentsVisitor() {
+            @Override
+            public ElementVisitor visitElem() {
+                write(out, " (elem");
+                return new ElementVisitor() {
+                    private byte type;
+                    private boolean wroteType;
+
+                    @Override
+                    public void visitNonActiveMode(boolean passive) {
+                        if (!passive) write(out, " declare");
+                    }
+
+                    @Override
+                    public ExprVisitor visitActiveMode(int table) {
+                        write(out, " (table ");
+                        writeU32(out, table);
+                        write(out, ") (offset");
+                        return new InsnWriter(out, ")");
+                    }
+
+                    @Override
+                    public void visitType(byte type) {
+                        this.type = type;
+                    }
+
+                    @Override
+                    public void visitElemIndices(int[] indices) {
+                        write(out, " func");
+                        for (int index : indices) {
+                            write(out, ' ');
+                            writeU32(out, index);
+                        }
+                        wroteType = true;
+                    }
+
+                    private void writeType() {
+                        if (!wroteType) {
+                            write(out, ' ');
+                            write(out, Unparser.unparseType(type));
+                            wroteType = true;
+                        }
+                    }
+
+                    @Override
+                    public ExprVisitor visitInit() {
+                        writeType();
+                        StringBuilder item = new StringBuilder();
+                        return new InsnWriter(item, null) {
+                            @Override
+                            public void visitEnd() {
+                                if (items > 1) {
+                                    // single insn abbrev otherwise
+                                    write(out, " (item");
+                                    write(out, item);
+                                    write(out, ')');
+                                } else {
+                                    write(out, item);
+                                }
+                            }
+                        };
+                    }
+
+                    @Override
+                    public void visitEnd() {
+                        writeType();
+                        write(out, ')');
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public @Nullable CodesVisitor visitCode() {
+        return new CodesVisitor() {
+            @Override
+            public @Nullable ExprVisitor visitCode(byte @NotNull [] locals) {
+                if (codeCount >= funcCount) {
+                    throw new IllegalStateException("more codes than functions");
+                }
+                write(out, " (func ");
+                writeTypeUse(out, funcTypes[codeCount++]);
+                if (locals.length != 0) writeTypes(out, "local", locals);
+                return new InsnWriter(out, ")");
+            }
+        };
+    }
+
+    @Override
+    public @Nullable DataSegmentsVisitor visitDatas() {
+        return new DataSegmentsVisitor() {
+            @Override
+            public DataVisitor visitData() {
+                write(out, " (data");
+                return new DataVisitor() {
+                    @Override
+                    public @Nullable ExprVisitor visitActive(int memory) {
+                        write(out, " (memory ");
+                        writeU32(out, memory);
+                        write(out, ") (offset");
+                        return new InsnWriter(out, ")");
+                    }
+
+                    @Override
+                    public void visitInit(byte[] init) {
+                        write(out, ' ');
+                        writeString(out, init);
+                    }
+
+                    @Override
+                    public void visitEnd() {
+                        write(out, ')');
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public void visitEnd() {
+        write(out, ')');
+    }
+
+    /**
+     * Writes instructions, each preceded by a space, omitting the {@code end} that closes the expression.
+     */
+    private static class InsnWriter extends ExprVisitor {
+        private final Appendable out;
+        private final @Nullable String close;
+        private boolean pendingEnd;
+        protected int items;
+
+        InsnWriter(Appendable out, @Nullable String close) {
+            this.out = out;
+            this.close = close;
+        }
+
+        private void item(String atom) {
+            flushEnd();
+            items++;
+            write(out, ' ');
+            write(out, atom);
+        }
+
+        private void open(String mnemonic) {
+            flushEnd();
+            items++;
+            write(out, " (");
+            write(out, mnemonic);
+        }
+
+        private void arg(int value) {
+            write(out, ' ');
+            write(out, Integer.toString(value));
+        }
+
+        private void u32Arg(int value) {
+            write(out, ' ');
+            writeU32(out, value);
+        }
+
+        private void close() {
+            write(out, ')');
+        }
+
+        private void flushEnd() {
+            if (pendingEnd) {
+                pendingEnd = false;
+                items++;
+                write(out, " end");
+            }
+        }
+
+        private void memArg(int align, int offset) {
+            if (offset != 0) {
+                write(out, " offset=");
+                writeU32(out, offset);
+            }
+            write(out, " align=");
+            write(out, align < 63 ? Long.toString(1L << align) : BigInteger.ONE.shiftLeft(align).toString());
+        }
+
+        @Override
+        public void visitInsn(byte opcode) {
+            item(InsnAttributes.lookup(opcode).getMnemonic());
+        }
+
+        @Override
+        public void visitPrefixInsn(int opcode) {
+            item(InsnAttributes.lookupPrefix(opcode).getMnemonic());
+        }
+
+        @Override
+        public void visitConstInsn(Object v) {
+            if (v instanceof Integer) open("i32.const");
+            else if (v instanceof Long) open("i64.const");
+            else if (v instanceof Float) open("f32.const");
+            else if (v instanceof Double) open("f64.const");
+            else throw new IllegalArgumentException();
+            write(out, ' ');
+            write(out, v instanceof Integer || v instanceof Long ? v.toString() : ParsedNumber.of(v).toString());
+            close();
+        }
+
+        @Override
+        public void visitNullInsn(byte type) {
+            open("ref.null");
+            write(out, type == Opcodes.EXTERNREF ? " extern" : " func");
+            close();
+        }
+
+        @Override
+        public void visitFuncRefInsn(int function) {
+            open("ref.func");
+            u32Arg(function);
+            close();
+        }
+
+        @Override
+        public void visitSelectInsn(byte[] type) {
+            open("select");
+            writeTypes(out, "result", type);
+            close();
+        }
+
+        @Override
+        public void visitVariableInsn(byte opcode, int variable) {
+            open(InsnAttributes.lookup(opcode).getMnemonic());
+            u32Arg(variable);
+            close();
+        }
+
+        @Override
+        public void visitTableInsn(byte opcode, int table) {
+            open(InsnAttributes.lookup(opcode).getMnemonic());
+            u32Arg(table);
+            close();
+        }
+
+        @Override
+        public void visitPrefixTableInsn(int opcode, int table) {
+            open(InsnAttributes.lookupPrefix(opcode).getMnemonic());
+            u32Arg(table);
+            close();
+        }
+
+        @Override
+        public void visitPrefixBinaryTableInsn(int opcode, int firstIndex, int secondIndex) {
+            open(InsnAttributes.lookupPrefix(opcode).getMnemonic());
+            u32Arg(firstIndex);
+            u32Arg(secondIndex);
+            close();
+        }
+
+        @Override
+        public void visitMemInsn(byte opcode, int align, int offset) {
+            open(InsnAttributes.lookup(opcode).getMnemonic());
+            memArg(align, offset);
+            close();
+        }
+
+        @Override
+        public void visitIndexedMemInsn(int opcode, int index) {
+            open(InsnAttributes.lookupPrefix(opcode).getMnemonic());
+            u32Arg(index);
+            close();
+        }
+
+        @Override
+        public void visitBlockInsn(byte opcode, BlockType blockType) {
+            switch (opcode) {
+                // @formatter:off
+                case Opcodes.IF: item("if"); break;
+                case Opcodes.LOOP: item("loop"); break;
+                case Opcodes.BLOCK: item("block"); break;
+                // @formatter:on
+                default:
+                    throw new IllegalArgumentException();
+            }
+            if (blockType.kind == BlockType.Kind.VALTYPE) {
+                if (blockType.type != Opcodes.EMPTY_TYPE) {
+                    open("result ");
+                    write(out, Unparser.unparseType((byte) blockType.type));
+                    close();
+                }
+            } else {
+                items++;
+                write(out, ' ');
+                writeTypeUse(out, blockType.type);
+            }
+        }
+
+        @Override
+        public void visitElseInsn() {
+            item("else");
+        }
+
+        @Override
+        public void visitEndInsn() {
+            flushEnd();
+            pendingEnd = true;
+        }
+
+        @Override
+        public void visitBreakInsn(byte opcode, int label) {
+            open(InsnAttributes.lookup(opcode).getMnemonic());
+            u32Arg(label);
+            close();
+        }
+
+        @Override
+        public void visitTableBreakInsn(int[] labels, int defaultLabel) {
+            open("br_table");
+            for (int label : labels) {
+                u32Arg(label);
+            }
+            u32Arg(defaultLabel);
+            close();
+        }
+
+        @Override
+        public void visitCallInsn(int function) {
+            open("call");
+            u32Arg(function);
+            close();
+        }
+
+        @Override
+        public void visitCallIndirectInsn(int table, int type) {
+            open("call_indirect");
+            u32Arg(table);
+            write(out, ' ');
+            writeTypeUse(out, type);
+            close();
+        }
+
+        @Override
+        public void visitVectorInsn(int opcode) {
+            item(InsnAttributes.lookupVector(opcode).getMnemonic());
+        }
+
+        @Override
+        public void visitVectorMemInsn(int opcode, int align, int offset) {
+            open(InsnAttributes.lookupVector(opcode).getMnemonic());
+            memArg(align, offset);
+            close();
+        }
+
+        @Override
+        public void visitVectorMemLaneInsn(int opcode, int align, int offset, byte lane) {
+            open(InsnAttributes.lookupVector(opcode).getMnemonic());
+            memArg(align, offset);
+            arg(lane);
+            close();
+        }
+
+        @Override
+        public void visitVectorConstOrShuffleInsn(int opcode, byte[] bytes) {
+            if (opcode == Opcodes.V128_CONST) {
+                open("v128.const");
+                write(out, " i8x16");
+            } else {
+                open("i8x16.shuffle");
+            }
+            for (byte b : bytes) {
+                arg(b);
+            }
+            close();
+        }
+
+        @Override
+        public void visitVectorLaneInsn(int opcode, byte lane) {
+            open(InsnAttributes.lookupVector(opcode).getMnemonic());
+            arg(lane);
+            close();
+        }
+
+        @Override
+        public void visitEnd() {
+            if (close != null) write(out, close);
+        }
+    }
+}
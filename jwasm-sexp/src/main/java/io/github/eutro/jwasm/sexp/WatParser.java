@@ -1,8 +1,11 @@
 package io.github.eutro.jwasm.sexp;
 
 import io.github.eutro.jwasm.BlockType;
+import io.github.eutro.jwasm.CodesVisitor;
+import io.github.eutro.jwasm.ExprVisitor;
 import io.github.eutro.jwasm.Limits;
 import io.github.eutro.jwasm.ModuleReader;
+import io.github.eutro.jwasm.ModuleVisitor;
 import io.github.eutro.jwasm.ValidationException;
 import io.github.eutro.jwasm.attrs.InsnAttributes;
 import io.github.eutro.jwasm.attrs.Opcode;
@@ -16,6 +19,8 @@ import java.io.ByteArrayOutputStream;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.function.*;
 
 import static io.github.eutro.jwasm.Opcodes.*;
@@ -35,6 +40,34 @@ public class WatParser {
      */
     public static WatParser DEFAULT = new WatParser();
 
+    /**
+     * The number of module fields below which fields are not parsed in parallel,
+     * and the number of fields each parallel task parses at least.
+     */
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    private final @Nullable ForkJoinPool pool;
+
+    /**
+     * Construct a parser that parses module fields on the current thread.
+     */
+    public WatParser() {
+        this(null);
+    }
+
+    /**
+     * Construct a parser that parses the fields of large modules, such as function bodies, in parallel on a pool.
+     * <p>
+     * Only the syntax of each field is parsed in parallel. Identifiers are still resolved and the
+     * {@link ModuleNode} is still assembled on the calling thread, in order, since resolving fields can
+     * add inline types to the module, so modules are parsed exactly as they would be without a pool.
+     *
+     * @param pool The pool to parse fields on, or null to parse them on the current thread.
+     */
+    public WatParser(@Nullable ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
     /**
      * Parse a {@link ModuleNode} from a parsed s-expression as obtained from {@link WatReader#readAll(CharSequence)}.
      * <p>
@@ -46,18 +79,50 @@ public class WatParser {
      */
     public ModuleNode parseModule(Object obj) throws ParseException {
         return mark(obj, () -> {
-            List<?> list = expectList(obj);
-            ListParser lp = new ListParser(list);
-            expectEq("module", lp.expect());
-            lp.maybeParseId();
+            List<ModuleField> fields = parseModuleFields(obj);
 
-            List<ModuleField> fields = new ArrayList<>();
+            IdCtx idcx = new IdCtx();
+            for (ModuleField field : fields) {
+                field.idc(idcx);
+            }
 
-            while (lp.iter.hasNext()) {
-                parseModuleField(fields, lp.iter.next());
+            ModuleNode module = new ModuleNode();
+            for (ModuleField field : fields) {
+                field.mod(idcx, module);
+            }
+
+            if (module.datas != null) {
+                module.dataCount = module.datas.datas.size();
             }
 
-            fields.sort(Comparator.comparing(ModuleField::sortIndex));
+            return module;
+        });
+    }
+
+    /**
+     * Parse a module from a parsed s-expression as obtained from {@link WatReader#readAll(CharSequence)},
+     * making the given {@link ModuleVisitor} visit it, without resolving every function body up front.
+     * <p>
+     * The whole s-expression is still needed, and every section other than the code section is still resolved
+     * into a {@link ModuleNode} before any of it is visited. Only function bodies are resolved lazily,
+     * one at a time as the code section is visited, and discarded once visited, so at most one resolved body
+     * is alive at once. Function bodies may add inline types to the type section, which must be visited first,
+     * so the inline type uses of each body are recorded while it is parsed and settled before anything is visited.
+     * Each body is still resolved only once.
+     * <p>
+     * This does no more work than {@link #parseModule(Object)}, and is worthwhile for modules with large
+     * code sections that are going straight to a {@link io.github.eutro.jwasm.ModuleWriter}.
+     * It does not reduce the memory taken by the s-expression itself.
+     * <p>
+     * Much like {@link #parseModule(Object)}, this does <i>not</i> validate the module.
+     *
+     * @param obj The read s-expression representation of the module.
+     * @param mv  The visitor to visit the module with.
+     * @throws ParseException If obj is not a syntactically valid module.
+     */
+    public void parseModule(Object obj, ModuleVisitor mv) throws ParseException {
+        mark(obj, () -> {
+            List<ModuleField> fields = parseModuleFields(obj);
 
             IdCtx idcx = new IdCtx();
             for (ModuleField field : fields) {
@@ -65,18 +130,209 @@ public class WatParser {
             }
 
             ModuleNode module = new ModuleNode();
+            List<FuncField> funcs = new ArrayList<>();
             for (ModuleField field : fields) {
-                field.mod(idcx, module);
+                if (field instanceof FuncField) {
+                    FuncField func = (FuncField) field;
+                    func.declare(idcx, module);
+                    func.settleTypes(idcx, module);
+                    funcs.add(func);
+                } else {
+                    field.mod(idcx, module);
+                }
             }
 
             if (module.datas != null) {
                 module.dataCount = module.datas.datas.size();
             }
 
-            return module;
+            if (!funcs.isEmpty()) {
+                module.codes = new CodesNode() {
+                    @Override
+                    public void accept(CodesVisitor cv) {
+                        for (FuncField func : funcs) {
+                            CodeNode code = func.resolveCode(idcx, module);
+                            ExprVisitor ev = cv.visitCode(code.locals);
+                            if (ev != null) code.expr.accept(ev);
+                        }
+                        cv.visitEnd();
+                    }
+                };
+            }
+
+            module.accept(mv);
+            return null;
         });
     }
 
+    private List<ModuleField> parseModuleFields(Object obj) {
+        List<?> list = expectList(obj);
+        ListParser lp = new ListParser(list);
+        expectEq("module", lp.expect());
+        lp.maybeParseId();
+
+        List<?> fieldExprs = list.subList(lp.iter.nextIndex(), list.size());
+        List<ModuleField> fields;
+        if (pool != null && fieldExprs.size() >= PARALLEL_THRESHOLD) {
+            fields = pool.invoke(new ParseFieldsTask(fieldExprs));
+        } else {
+            fields = new ArrayList<>();
+            for (Object fieldExpr : fieldExprs) {
+                parseModuleField(fields, fieldExpr);
+            }
+        }
+
+        fields.sort(Comparator.comparing(ModuleField::sortIndex));
+        return fields;
+    }
+
+    /**
+     * Parses a range of module fields, splitting it in half until it is small enough.
+     * The fields are returned in the order they were written, so sorting them is unaffected.
+     */
+    private static class ParseFieldsTask extends RecursiveTask<List<ModuleField>> {
+        private final List<?> fieldExprs;
+
+        ParseFieldsTask(List<?> fieldExprs) {
+            this.fieldExprs = fieldExprs;
+        }
+
+        @Override
+        protected List<ModuleField> compute() {
+            int size = fieldExprs.size();
+            if (size <= PARALLEL_THRESHOLD) {
+                List<ModuleField> fields = new ArrayList<>();
+                for (Object fieldExpr : fieldExprs) {
+                    parseModuleField(fields, fieldExpr);
+                }
+                return fields;
+            }
+            ParseFieldsTask right = new ParseFieldsTask(fieldExprs.subList(size / 2, size));
+            right.fork();
+            List<ModuleField> fields = new ParseFieldsTask(fieldExprs.subList(0, size / 2)).compute();
+            fields.addAll(right.join());
+            return fields;
+        }
+    }
+
+    /**
+     * The result of resolving the fields of a module, which remembers how each function was resolved,
+     * so that {@link IncrementalWatParser} can reuse the functions when the same fields are resolved again.
+     */
+    static final class Resolution {
+        final ModuleNode module = new ModuleNode();
+        private final EnumMap<IdCtx.Field, List<@Nullable String>> ids = new EnumMap<>(IdCtx.Field.class);
+        private final List<TypeNode> typedefs;
+        private final List<TypeNode> types = new ArrayList<>();
+        private final Map<FuncField, ResolvedFunc> funcs = new IdentityHashMap<>();
+
+        private Resolution(IdCtx idcx) {
+            for (IdCtx.Field field : IdCtx.Field.values()) {
+                ids.put(field, new ArrayList<>(idcx.f(field)));
+            }
+            typedefs = new ArrayList<>(idcx.typedefs);
+        }
+    }
+
+    private static class ResolvedFunc {
+        final FuncNode func;
+        final CodeNode code;
+        final int typesBefore;
+        final int typesAfter;
+
+        ResolvedFunc(FuncNode func, CodeNode code, int typesBefore, int typesAfter) {
+            this.func = func;
+            this.code = code;
+            this.typesBefore = typesBefore;
+            this.typesAfter = typesAfter;
+        }
+    }
+
+    /**
+     * Resolve the fields of a module, reusing the {@link FuncNode}s and {@link CodeNode}s of a previous resolution
+     * for the same function fields where resolving them again would give the same result.
+     * <p>
+     * A function resolves the same if every identifier in the module still refers to the same index,
+     * and the type section is the same up to the function, since that is everything that resolving it looks at.
+     *
+     * @param fields   The fields, sorted.
+     * @param previous The previous resolution, or null.
+     * @return The resolution.
+     */
+    static Resolution resolveFields(List<ModuleField> fields, @Nullable Resolution previous) {
+        IdCtx idcx = new IdCtx();
+        for (ModuleField field : fields) {
+            field.idc(idcx);
+        }
+
+        Resolution res = new Resolution(idcx);
+        ModuleNode module = res.module;
+        boolean reuse = previous != null
+                && previous.ids.equals(res.ids)
+                && previous.typedefs.equals(res.typedefs);
+        int sameTypes = 0;
+        for (ModuleField field : fields) {
+            if (!(field instanceof FuncField)) {
+                field.mod(idcx, module);
+                continue;
+            }
+
+            FuncField func = (FuncField) field;
+            int typesBefore = module.types == null ? 0 : module.types.types.size();
+            ResolvedFunc resolved = null;
+            if (reuse) {
+                resolved = previous.funcs.get(func);
+                if (resolved != null && resolved.typesBefore == typesBefore) {
+                    while (sameTypes < typesBefore
+                            && module.types.types.get(sameTypes).equals(previous.types.get(sameTypes))) {
+                        sameTypes++;
+                    }
+                    // types are only ever appended, so once they differ nothing after can be reused
+                    if (sameTypes < typesBefore) {
+                        reuse = false;
+                        resolved = null;
+                    }
+                } else {
+                    resolved = null;
+                }
+            }
+
+            if (module.funcs == null) module.funcs = new FunctionsNode();
+            if (module.codes == null) module.codes = new CodesNode();
+            if (resolved != null) {
+                // add the inline types the function added last time, as its type uses would
+                for (TypeNode type : previous.types.subList(resolved.typesBefore, resolved.typesAfter)) {
+                    if (module.types == null) module.types = new TypesNode();
+                    idcx.addIdx(TYPE, null);
+                    idcx.typedefs.add(type);
+                    module.types.types.add(type);
+                }
+                module.funcs.funcs.add(resolved.func);
+                module.codes.codes.add(resolved.code);
+            } else {
+                func.declare(idcx, module);
+                CodeNode code = func.resolveCode(idcx, module);
+                module.codes.codes.add(code);
+                resolved = new ResolvedFunc(
+                        module.funcs.funcs.get(module.funcs.funcs.size() - 1),
+                        code,
+                        typesBefore,
+                        module.types == null ? 0 : module.types.types.size()
+                );
+            }
+            res.funcs.put(func, resolved);
+        }
+
+        if (module.datas != null) {
+            module.dataCount = module.datas.datas.size();
+        }
+        if (module.types != null) {
+            res.types.addAll(module.types.types);
+        }
+
+        return res;
+    }
+
     /**
      * Parse a {@link ModuleNode} from a module written as (module id? binary ...), which may appear in WAST scripts.
      * <p>
@@ -185,6 +441,26 @@ public class WatParser {
         public ParseException(String message, Object in) {
             this(message, in, null);
         }
+
+        /**
+         * Find where in the source parsing failed, from the s-expressions this exception
+         * and the parse exceptions that caused it were thrown in.
+         *
+         * @param sources The table the s-expressions' locations were recorded in when they were read.
+         * @return The location of the innermost s-expression with a recorded location, or null if there is none.
+         * @see WatReader#setSourceTable(SourceTable)
+         */
+        public @Nullable SrcLoc locate(SourceTable sources) {
+            SrcLoc loc = null;
+            for (Throwable t = this; t != null; t = t.getCause()) {
+                if (!(t instanceof ParseException)) continue;
+                Object in = ((ParseException) t).in;
+                if (in == null) continue;
+                SrcLoc inLoc = sources.get(in);
+                if (inLoc != null) loc = inLoc;
+            }
+            return loc;
+        }
     }
 
     enum SortIndex implements Comparable<SortIndex> {
@@ -309,7 +585,7 @@ public class WatParser {
         }
     }
 
-    private interface ModuleField {
+    interface ModuleField {
         void idc(IdCtx idcx);
 
         void mod(IdCtx idcx, ModuleNode module);
@@ -319,7 +595,7 @@ public class WatParser {
         }
     }
 
-    private static void parseModuleField(List<ModuleField> fields, Object field) {
+    static void parseModuleField(List<ModuleField> fields, Object field) {
         List<?> list = expectList(field);
         String sym = expectClass(String.class, new ListParser(list).expect());
         mark(field, () -> {
@@ -502,7 +778,7 @@ public class WatParser {
         Optional<String> maybeId = dLp.maybeParseId();
         switch (type) {
             case "func": {
-                TypeUse tu = parseTypeUse(dLp);
+                TypeUse tu = parseTypeUse(dLp, null);
                 dLp.expectEnd();
                 fields.add(new ImportField(
                         FUNCTION,
@@ -592,7 +868,15 @@ public class WatParser {
         return Optional.empty();
     }
 
-    private static TypeUse parseTypeUse(ListParser lp) {
+    /**
+     * Parse a type use.
+     *
+     * @param lp       The parser of the terms the type use starts at.
+     * @param typeUses The list to add the type use to if it is only written inline, and so could add a type to
+     *                 the module when it is resolved, or null if it is resolved along with the rest of the module.
+     * @return The type use.
+     */
+    private static TypeUse parseTypeUse(ListParser lp, @Nullable List<TypeUse> typeUses) {
         Optional<Object> maybeType = lp.maybeParse(it -> isMacroList(it, "type").isPresent());
         if (maybeType.isPresent()) {
             List<?> type = (List<?>) maybeType.get();
@@ -639,13 +923,19 @@ public class WatParser {
                     return idx;
                 }
             };
-            return new TypeUse(id, locals);
+            TypeUse tu = new TypeUse(id, locals);
+            if (typeUses != null) typeUses.add(tu);
+            return tu;
         }
     }
 
     private static IdVal<Integer> parseIdx(IdCtx.Field field, Object o) {
         if (o instanceof WatReader.ParsedNumber) {
-            int i = ((WatReader.ParsedNumber) o).toBigInt().intValueExact();
+            WatReader.ParsedNumber num = (WatReader.ParsedNumber) o;
+            int i = num.isSmallInteger() && num.sign > 0
+                    && Long.compareUnsigned(num.getMagnitude(), Integer.MAX_VALUE) <= 0
+                    ? (int) num.getMagnitude()
+                    : num.toBigInt().intValueExact();
             return (m, idcx) -> i;
         } else if (o instanceof String) {
             String id = parseId(o);
@@ -734,9 +1024,9 @@ public class WatParser {
                 maybeId.orElse(null),
                 fields,
                 lp,
-                () -> parseTypeUse(lp).fmap(ty -> (moduleName, name) -> new FuncImportNode(moduleName, name, ty)),
+                () -> parseTypeUse(lp, null).fmap(ty -> (moduleName, name) -> new FuncImportNode(moduleName, name, ty)),
                 () -> {
-                    TypeUse tu = parseTypeUse(lp);
+                    TypeUse tu = parseTypeUse(lp, null);
 
                     List<Byte> localTys = new ArrayList<>();
                     List<@Nullable String> localNames = new ArrayList<>();
@@ -762,74 +1052,132 @@ public class WatParser {
                         }
                     }
 
-                    IdVal<List<AbstractInsnNode>> instrs = parseInstrs(lp);
+                    List<TypeUse> inlineTypeUses = new ArrayList<>();
+                    IdVal<List<AbstractInsnNode>> instrs = parseInstrs(lp, inlineTypeUses);
 
-                    fields.add(new ModuleField() {
-                        @Override
-                        public void idc(IdCtx idcx) {
-                            idcx.addIdx(FUNCTION, maybeId.orElse(null));
-                        }
+                    fields.add(new FuncField(list, maybeId.orElse(null), tu, localTys, localNames, instrs,
+                            inlineTypeUses));
+                });
+    }
 
-                        @Override
-                        public void mod(IdCtx idcx, ModuleNode module) {
-                            if (module.funcs == null) module.funcs = new FunctionsNode();
+    private static class FuncField implements ModuleField {
+        private final List<?> list;
+        private final @Nullable String id;
+        private final TypeUse tu;
+        private final List<Byte> localTys;
+        private final List<@Nullable String> localNames;
+        private final IdVal<List<AbstractInsnNode>> instrs;
+        private final List<TypeUse> inlineTypeUses;
+        private TypeNode funcType;
+
+        FuncField(
+                List<?> list,
+                @Nullable String id,
+                TypeUse tu,
+                List<Byte> localTys,
+                List<@Nullable String> localNames,
+                IdVal<List<AbstractInsnNode>> instrs,
+                List<TypeUse> inlineTypeUses
+        ) {
+            this.list = list;
+            this.id = id;
+            this.tu = tu;
+            this.localTys = localTys;
+            this.localNames = localNames;
+            this.instrs = instrs;
+            this.inlineTypeUses = inlineTypeUses;
+        }
+
+        @Override
+        public void idc(IdCtx idcx) {
+            idcx.addIdx(FUNCTION, id);
+        }
+
+        @Override
+        public void mod(IdCtx idcx, ModuleNode module) {
+            declare(idcx, module);
+            if (module.codes == null) module.codes = new CodesNode();
+            module.codes.codes.add(resolveCode(idcx, module));
+        }
 
-                            if (module.codes == null) module.codes = new CodesNode();
+        void declare(IdCtx idcx, ModuleNode module) {
+            if (module.funcs == null) module.funcs = new FunctionsNode();
 
-                            int type = tu.resolve(module, idcx);
+            int type = tu.resolve(module, idcx);
 
-                            if (module.types == null) throw new IllegalStateException();
+            if (module.types == null) throw new IllegalStateException();
 
-                            TypeNode funcType = module.types.types.get(type);
+            funcType = module.types.types.get(type);
 
-                            if (!(tu.locals == null || tu.locals.size() == funcType.params.length)) {
-                                throw new ParseException(
-                                        "local count does not match function type "
-                                                + "(locals: " + tu.locals.size()
-                                                + ", params: " + funcType.params.length + ")",
-                                        list
-                                );
-                            }
+            if (!(tu.locals == null || tu.locals.size() == funcType.params.length)) {
+                throw new ParseException(
+                        "local count does not match function type "
+                                + "(locals: " + tu.locals.size()
+                                + ", params: " + funcType.params.length + ")",
+                        list
+                );
+            }
 
-                            Supplier<RuntimeException> duplicateLocal = () ->
-                                    new ParseException("Duplicate local variable", list,
-                                            new RuntimeException("duplicate local"));
+            module.funcs.funcs.add(new FuncNode(type));
+        }
 
-                            IdCtx localIdcx = idcx.deriveLocals();
-                            if (tu.locals == null) {
-                                for (int j = 0; j < funcType.params.length; j++) {
-                                    localIdcx.f(LOCAL).add(null);
-                                }
-                            } else {
-                                localIdcx.f(LOCAL).addAllOrThrow(tu.locals, duplicateLocal);
-                            }
+        /**
+         * Add the inline types that resolving the body would add to the module, without resolving the body,
+         * so that resolving it later adds nothing.
+         */
+        void settleTypes(IdCtx idcx, ModuleNode module) {
+            for (TypeUse use : inlineTypeUses) {
+                use.resolve(module, idcx);
+            }
+        }
 
-                            localIdcx.f(LOCAL).addAllOrThrow(localNames, duplicateLocal);
+        CodeNode resolveCode(IdCtx idcx, ModuleNode module) {
+            Supplier<RuntimeException> duplicateLocal = () ->
+                    new ParseException("Duplicate local variable", list,
+                            new RuntimeException("duplicate local"));
 
-                            module.funcs.funcs.add(new FuncNode(type));
+            IdCtx localIdcx = idcx.deriveLocals();
+            if (tu.locals == null) {
+                for (int j = 0; j < funcType.params.length; j++) {
+                    localIdcx.f(LOCAL).add(null);
+                }
+            } else {
+                localIdcx.f(LOCAL).addAllOrThrow(tu.locals, duplicateLocal);
+            }
 
-                            List<AbstractInsnNode> realInstrs = instrs.resolve(module, localIdcx);
-                            ExprNode expr = new ExprNode();
-                            expr.instructions = new ArrayList<>(realInstrs);
-                            expr.instructions.add(new EndInsnNode());
+            localIdcx.f(LOCAL).addAllOrThrow(localNames, duplicateLocal);
 
-                            byte[] locals = new byte[localTys.size()];
-                            int i = 0;
-                            for (byte localTy : localTys) {
-                                locals[i++] = localTy;
-                            }
+            List<AbstractInsnNode> realInstrs = instrs.resolve(module, localIdcx);
+            ExprNode expr = new ExprNode();
+            expr.instructions = new ArrayList<>(realInstrs);
+            expr.instructions.add(new EndInsnNode());
 
-                            module.codes.codes.add(new CodeNode(locals, expr));
-                        }
-                    });
-                });
+            byte[] locals = new byte[localTys.size()];
+            int i = 0;
+            for (byte localTy : localTys) {
+                locals[i++] = localTy;
+            }
+
+            return new CodeNode(locals, expr);
+        }
     }
 
     private interface InstrParser {
         IdVal<AbstractInsnNode> parse(ListParser lp);
     }
 
+    /**
+     * A parser of an instruction with a type use, which must be added to {@code typeUses}
+     * if it could add a type to the module.
+     *
+     * @see #parseTypeUse(ListParser, List)
+     */
+    private interface TypeUseInstrParser {
+        IdVal<AbstractInsnNode> parse(ListParser lp, List<TypeUse> typeUses);
+    }
+
     private static final Map<String, InstrParser> OPCODES = new HashMap<>();
+    private static final Map<String, TypeUseInstrParser> TYPE_USE_OPCODES = new HashMap<>();
 
     static {
         OPCODES.put("unreachable", lp -> pure(new InsnNode(UNREACHABLE)));
@@ -855,9 +1203,9 @@ public class WatParser {
         });
         OPCODES.put("return", lp -> pure(new InsnNode(RETURN)));
         OPCODES.put("call", lp -> parseIdx(FUNCTION, lp.expect()).fmap(CallInsnNode::new));
-        OPCODES.put("call_indirect", lp -> {
+        TYPE_USE_OPCODES.put("call_indirect", (lp, typeUses) -> {
             IdVal<Integer> idx = maybeParseIdx(TABLE, lp);
-            TypeUse tu = parseTypeUse(lp);
+            TypeUse tu = parseTypeUse(lp, typeUses);
             if (tu.locals != null && !tu.locals.index.isEmpty()) {
                 throw new ParseException("call_indirect typeuse with parameter names", lp.list,
                         new RuntimeException("unexpected token"));
@@ -996,7 +1344,7 @@ public class WatParser {
             byte opc = opcode.opcode;
             int iOpc = opcode.intOpcode;
             String mnemonic = attrs.getMnemonic();
-            if (OPCODES.containsKey(mnemonic)) continue;
+            if (OPCODES.containsKey(mnemonic) || TYPE_USE_OPCODES.containsKey(mnemonic)) continue;
             switch (attrs.getVisitTarget()) {
                 case Insn:
                     OPCODES.put(mnemonic, lp -> pure(new InsnNode(opc)));
@@ -1097,7 +1445,7 @@ public class WatParser {
         return baos.toByteArray();
     }
 
-    private static IdVal<BlockType> parseBlockType(ListParser lp) {
+    private static IdVal<BlockType> parseBlockType(ListParser lp, List<TypeUse> typeUses) {
         IdVal<BlockType> blockTy;
         Optional<Object> maybeTypeUse = lp.maybeParse(it -> isMacroList(it, "type", "param", "result").isPresent());
         if (!maybeTypeUse.isPresent()) {
@@ -1118,7 +1466,7 @@ public class WatParser {
             }
             lp.iter.previous();
 
-            TypeUse tu = parseTypeUse(lp);
+            TypeUse tu = parseTypeUse(lp, typeUses);
             if (tu.locals != null && !tu.locals.index.isEmpty()) {
                 throw new ParseException("Binding locals in a blocktype is illegal", lp.list,
                         new RuntimeException("unexpected token"));
@@ -1128,17 +1476,24 @@ public class WatParser {
         return blockTy;
     }
 
-    private static IdVal<AbstractInsnNode> parsePlainInstr(ListParser lp) {
+    private static IdVal<AbstractInsnNode> parsePlainInstr(ListParser lp, List<TypeUse> typeUses) {
         String op = expectClass(String.class, lp.expect());
+        TypeUseInstrParser typeUseParser = TYPE_USE_OPCODES.get(op);
+        if (typeUseParser != null) return typeUseParser.parse(lp, typeUses);
         if (!OPCODES.containsKey(op)) throw new ParseException("unrecognised instruction", op,
                 new RuntimeException("unknown operator"));
         return OPCODES.get(op).parse(lp);
     }
 
-    private static InstrSeq parseFlatInstr(ListParser lp) {
+    /*
+     * The instruction parsers below add the inline type uses of the instructions they parse to typeUses
+     * in the order that the instructions are resolved in, which is not always the order they are written in.
+     */
+
+    private static InstrSeq parseFlatInstr(ListParser lp, List<TypeUse> typeUses) {
         Optional<Object> maybeBlockOpcode = lp.maybeParse(it -> it instanceof String && isBlockOpcode((String) it));
         if (!maybeBlockOpcode.isPresent()) {
-            IdVal<AbstractInsnNode> idv = parsePlainInstr(lp);
+            IdVal<AbstractInsnNode> idv = parsePlainInstr(lp, typeUses);
             return (insns, mod, idcx) -> insns.add(idv.resolve(mod, idcx));
         } else {
             String op = (String) maybeBlockOpcode.get();
@@ -1154,8 +1509,8 @@ public class WatParser {
             }
 
             Optional<String> maybeLabelId = lp.maybeParseId();
-            IdVal<BlockType> blockTy = parseBlockType(lp);
-            InstrSeq ins = parseInstrs0(lp);
+            IdVal<BlockType> blockTy = parseBlockType(lp, typeUses);
+            InstrSeq ins = parseInstrs0(lp, typeUses);
 
             Consumer<Optional<String>> checkRepeatLabel = (otherLabel) -> {
                 if (otherLabel.isPresent()) {
@@ -1174,7 +1529,7 @@ public class WatParser {
                 if (lp.maybeParse("else"::equals).isPresent()) {
                     checkRepeatLabel.accept(lp.maybeParseId());
                     InstrSeq thens = ins;
-                    InstrSeq elses = parseInstrs0(lp);
+                    InstrSeq elses = parseInstrs0(lp, typeUses);
                     ins = (insns, mod, idcx) -> {
                         thens.resolveInsns(insns, mod, idcx);
                         insns.add(new ElseInsnNode());
@@ -1198,36 +1553,39 @@ public class WatParser {
         }
     }
 
-    private static InstrSeq parseFoldedInstr(List<?> sexpList) {
+    private static InstrSeq parseFoldedInstr(List<?> sexpList, List<TypeUse> typeUses) {
         return mark(sexpList, () -> {
             if (isMacroList(sexpList, "block", "loop").isPresent()) {
                 List<Object> flatList = new ArrayList<>(sexpList);
                 flatList.add("end");
-                return parseFlatInstr(new ListParser(flatList));
+                return parseFlatInstr(new ListParser(flatList), typeUses);
             }
 
             ListParser sLp = new ListParser(sexpList);
             if (sLp.maybeParse("if"::equals).isPresent()) {
                 Optional<String> maybeLabelId = sLp.maybeParseId();
-                IdVal<BlockType> blockTy = parseBlockType(sLp);
+                // the block type is written before the condition, but resolved after it
+                List<TypeUse> blockTypeUses = new ArrayList<>();
+                IdVal<BlockType> blockTy = parseBlockType(sLp, blockTypeUses);
 
                 List<InstrSeq> condInstrs = new ArrayList<>();
 
                 Optional<Object> maybeThen;
                 while (!(maybeThen = sLp.maybeParse(it -> isMacroList(it, "then").isPresent())).isPresent()) {
-                    condInstrs.add(parseFoldedInstr(expectList(sLp.expect())));
+                    condInstrs.add(parseFoldedInstr(expectList(sLp.expect()), typeUses));
                 }
+                typeUses.addAll(blockTypeUses);
                 List<?> thenBlock = (List<?>) maybeThen.get();
                 ListParser thenLp = new ListParser(thenBlock, 1);
 
-                InstrSeq thenInstrs = parseInstrs0(thenLp);
+                InstrSeq thenInstrs = parseInstrs0(thenLp, typeUses);
 
                 InstrSeq elseInstrs;
                 if (sLp.iter.hasNext()) {
                     List<?> elseBlock = expectList(sLp.iter.next());
                     ListParser elseLp = new ListParser(elseBlock);
                     expectEq("else", elseLp.expect());
-                    elseInstrs = parseInstrs0(elseLp);
+                    elseInstrs = parseInstrs0(elseLp, typeUses);
                 } else {
                     elseInstrs = (insns, mod, idcx) -> {
                     };
@@ -1250,11 +1608,14 @@ public class WatParser {
                 };
             }
 
-            IdVal<AbstractInsnNode> f = parsePlainInstr(sLp);
+            // the instruction is written before its operands, but resolved after them
+            List<TypeUse> instrTypeUses = new ArrayList<>();
+            IdVal<AbstractInsnNode> f = parsePlainInstr(sLp, instrTypeUses);
             List<InstrSeq> args = new ArrayList<>();
             while (sLp.iter.hasNext()) {
-                args.add(parseFoldedInstr(expectList(sLp.expect())));
+                args.add(parseFoldedInstr(expectList(sLp.expect()), typeUses));
             }
+            typeUses.addAll(instrTypeUses);
             return (insns, mod, idcx) -> {
                 for (InstrSeq arg : args) {
                     arg.resolveInsns(insns, mod, idcx);
@@ -1264,23 +1625,23 @@ public class WatParser {
         });
     }
 
-    private static InstrSeq parseSingleInsn(ListParser lp) {
+    private static InstrSeq parseSingleInsn(ListParser lp, List<TypeUse> typeUses) {
         Optional<Object> maybeFolded = lp.maybeParse(List.class::isInstance);
         if (maybeFolded.isPresent()) {
-            return parseFoldedInstr((List<?>) maybeFolded.get());
+            return parseFoldedInstr((List<?>) maybeFolded.get(), typeUses);
         } else {
-            return parseFlatInstr(lp);
+            return parseFlatInstr(lp, typeUses);
         }
     }
 
-    private static InstrSeq parseInstrs0(ListParser lp) {
+    private static InstrSeq parseInstrs0(ListParser lp, List<TypeUse> typeUses) {
         List<InstrSeq> recInsns = new ArrayList<>();
         while (lp.iter.hasNext()) {
             if (lp.maybeParse(it -> "end".equals(it) || "else".equals(it)).isPresent()) {
                 lp.iter.previous();
                 break;
             }
-            recInsns.add(parseSingleInsn(lp));
+            recInsns.add(parseSingleInsn(lp, typeUses));
         }
         return (insns, mod, idcx) -> {
             for (InstrSeq recInsn : recInsns) {
@@ -1289,8 +1650,8 @@ public class WatParser {
         };
     }
 
-    private static IdVal<List<AbstractInsnNode>> parseInstrs(ListParser lp) {
-        InstrSeq iseq = parseInstrs0(lp);
+    private static IdVal<List<AbstractInsnNode>> parseInstrs(ListParser lp, List<TypeUse> typeUses) {
+        InstrSeq iseq = parseInstrs0(lp, typeUses);
         return (mod, idcx) -> {
             List<AbstractInsnNode> realInstrs = new ArrayList<>();
             iseq.resolveInsns(realInstrs, mod, idcx);
@@ -1299,7 +1660,8 @@ public class WatParser {
     }
 
     private static IdVal<ExprNode> parseExpr(ListParser lp) {
-        IdVal<List<AbstractInsnNode>> instrs = parseInstrs(lp);
+        // expressions outside of function bodies are always resolved along with the rest of the module
+        IdVal<List<AbstractInsnNode>> instrs = parseInstrs(lp, new ArrayList<>());
         return (mod, idcx) -> {
             ExprNode en = new ExprNode();
             en.instructions = new ArrayList<>(instrs.resolve(mod, idcx));
@@ -1747,7 +2109,8 @@ public class WatParser {
             expr = parseExpr(lp);
         } else {
             InstrSeq singleInsn = parseSingleInsn(
-                    new ListParser(Collections.singletonList(lp.list))
+                    new ListParser(Collections.singletonList(lp.list)),
+                    new ArrayList<>()
             );
             expr = (mod, idcx) -> {
                 ExprNode node = new ExprNode();
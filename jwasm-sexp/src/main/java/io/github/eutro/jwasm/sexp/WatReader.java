@@ -3,9 +3,11 @@ package io.github.eutro.jwasm.sexp;
 import io.github.eutro.jwasm.ByteInputStream;
 import io.github.eutro.jwasm.ValidationException;
 import io.github.eutro.jwasm.sexp.internal.DFA;
+import io.github.eutro.jwasm.sexp.internal.Lexer;
 import io.github.eutro.jwasm.sexp.internal.LexerDFA;
 import io.github.eutro.jwasm.sexp.internal.LineCountingPushbackByteInputStream;
 import io.github.eutro.jwasm.sexp.internal.Token;
+import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
@@ -15,10 +17,9 @@ import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.function.Function;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import static io.github.eutro.jwasm.sexp.internal.Token.Type.T_BR_CLOSE;
-
 /**
  * A class for reading s-expressions from text.
  * These can then be {@link WatParser parsed} into something more meaningful.
@@ -27,20 +28,25 @@ import static io.github.eutro.jwasm.sexp.internal.Token.Type.T_BR_CLOSE;
  * @see WatWriter
  */
 public class WatReader<E extends Exception> {
-    private final LineCountingPushbackByteInputStream<E> stream;
+    private final Lexer<E> stream;
 
     /**
      * Map from object to position for things with identity.
      */
     private @Nullable Map<Object, SrcLoc> sources;
 
+    /**
+     * Identity-keyed table of positions.
+     */
+    private @Nullable SourceTable sourceTable;
+
     /**
      * Construct a reader over the given stream.
      *
      * @param stream The stream to read s-expressions from.
      */
     public WatReader(ByteInputStream<E> stream) {
-        this.stream = new LineCountingPushbackByteInputStream<>(stream);
+        this.stream = new Lexer<>(LEXER_DFA, new LineCountingPushbackByteInputStream<>(stream));
     }
 
     /**
@@ -72,16 +78,9 @@ public class WatReader<E extends Exception> {
      * @throws E If reading from the stream fails.
      */
     public List<Object> readAll() throws E {
-        List<Object> res = new ArrayList<>();
-        while (true) {
-            List<Token> toks = tokenise(stream);
-            if (toks.isEmpty()) break;
-            ListIterator<Token> li = toks.listIterator();
-            while (li.hasNext()) {
-                res.add(read0(li));
-            }
-        }
-        return res;
+        ListBuilder builder = new ListBuilder(null);
+        accept(builder);
+        return builder.list;
     }
 
     /**
@@ -91,9 +90,114 @@ public class WatReader<E extends Exception> {
      * @throws E If reading from the stream fails.
      */
     public Optional<Object> readNext() throws E {
-        List<Token> toks = tokenise(stream);
-        if (toks.isEmpty()) return Optional.empty();
-        return Optional.of(read0(toks.listIterator()));
+        ListBuilder builder = new ListBuilder(null);
+        if (!acceptNext(builder)) return Optional.empty();
+        return Optional.of(builder.list.get(0));
+    }
+
+    /**
+     * Read all s-expressions from the stream, visiting them with the given visitor as they are read,
+     * then {@link SexpVisitor#visitEnd() end} the visitor.
+     * <p>
+     * No s-expression is held in memory unless the visitor holds on to it,
+     * so memory use is bounded by the nesting depth of the text, rather than its size.
+     *
+     * @param sv The visitor.
+     * @throws E If reading from the stream fails.
+     */
+    public void accept(SexpVisitor sv) throws E {
+        while (acceptNext(sv)) ;
+        sv.visitEnd();
+    }
+
+    /**
+     * Read a single s-expression from the stream, if there is one, visiting it with the given visitor as it is read.
+     *
+     * @param sv The visitor.
+     * @return Whether there was an s-expression, or false if the end of the stream has been reached.
+     * @throws E If reading from the stream fails.
+     */
+    public boolean acceptNext(SexpVisitor sv) throws E {
+        Token.Type ty = nextToken();
+        if (ty == null) return false;
+        ArrayList<SexpVisitor> parents = new ArrayList<>();
+        SexpVisitor cur = sv;
+        while (true) {
+            if (ty == null) throw new ValidationException("Unclosed list");
+            switch (ty) {
+                case T_BR_OPEN:
+                    parents.add(cur);
+                    cur = cur == null ? null : cur.visitList();
+                    break;
+                case T_BR_CLOSE:
+                    if (parents.isEmpty()) throw new ValidationException("Unexpected )");
+                    if (cur != null) cur.visitEnd();
+                    cur = parents.remove(parents.size() - 1);
+                    break;
+                default:
+                    if (cur != null) cur.visitAtom(stream.interpret());
+                    break;
+            }
+            if (parents.isEmpty()) return true;
+            ty = nextToken();
+        }
+    }
+
+    /**
+     * Get the offset in the stream just after the last token read.
+     *
+     * @return The offset.
+     */
+    long tokenEnd() {
+        return stream.end();
+    }
+
+    private Token.Type nextToken() throws E {
+        try {
+            Token.Type ty = stream.next();
+            if (ty == null) return null;
+            switch (ty) {
+                case T_RESERVED:
+                    throwReserved(stream.text());
+                    break;
+                case T_INVALID:
+                    throw new ValidationException("Illegal token: " + stream.text());
+            }
+            return ty;
+        } catch (ValidationException e) {
+            LineCountingPushbackByteInputStream<E> pis = stream.getStream();
+            throw new ValidationException("Error on line: " + pis.getLine() + ", byte: " + pis.getCol(), e);
+        }
+    }
+
+    private class ListBuilder extends SexpVisitor {
+        private final List<Object> list = new ArrayList<>();
+        private final @Nullable SrcLoc loc;
+
+        ListBuilder(@Nullable SrcLoc loc) {
+            this.loc = loc;
+        }
+
+        @Override
+        public SexpVisitor visitList() {
+            ListBuilder child = new ListBuilder(sources == null ? null : stream.srcLoc());
+            list.add(child.list);
+            if (sourceTable != null) sourceTable.put(child.list, stream.start(), stream.line(), stream.col());
+            return child;
+        }
+
+        @Override
+        public void visitAtom(@NotNull Object atom) {
+            list.add(atom);
+            if (sources != null) sources.put(atom, stream.srcLoc());
+            if (sourceTable != null) sourceTable.put(atom, stream.start(), stream.line(), stream.col());
+        }
+
+        @Override
+        public void visitEnd() {
+            // lists are only complete, and so safe to hash, once they have been ended
+            if (sources != null && loc != null) sources.put(list, loc);
+        }
     }
 
     /**
@@ -129,36 +233,6 @@ public class WatReader<E extends Exception> {
         return fromInputStream(stream).readAll();
     }
 
-    Object read0(ListIterator<Token> tokens) {
-        Object result;
-        Token firstTok = tokens.next();
-        switch (firstTok.ty) {
-            case T_BR_OPEN: {
-                ArrayList<Object> ls = new ArrayList<>();
-                done:
-                {
-                    while (tokens.hasNext()) {
-                        if (tokens.next().ty == T_BR_CLOSE) break done;
-                        tokens.previous();
-                        ls.add(read0(tokens));
-                    }
-                    throw new ValidationException("Unclosed list");
-                }
-                result = ls;
-                break;
-            }
-            case T_BR_CLOSE:
-                throw new ValidationException("Unexpected )");
-            default:
-                result = firstTok.interpret();
-                break;
-        }
-        if (sources != null) {
-            sources.put(result, firstTok.loc);
-        }
-        return result;
-    }
-
     /**
      * Retrieve the sources map last set with {@link #setSources(Map)}, or null if it hasn't been called.
      *
@@ -178,6 +252,28 @@ public class WatReader<E extends Exception> {
         this.sources = sources;
     }
 
+    /**
+     * Retrieve the source table last set with {@link #setSourceTable(SourceTable)}, or null if it hasn't been called.
+     *
+     * @return The source table.
+     */
+    public @Nullable SourceTable getSourceTable() {
+        return sourceTable;
+    }
+
+    /**
+     * Set the source table, further {@link #readNext() reads} will record the locations of new lists,
+     * strings and numbers in it.
+     * <p>
+     * This is much cheaper than {@link #setSources(Map) a sources map} for large inputs,
+     * since the table is keyed by identity and does not hash lists.
+     *
+     * @param sourceTable The source table.
+     */
+    public void setSourceTable(@Nullable SourceTable sourceTable) {
+        this.sourceTable = sourceTable;
+    }
+
     public static class MemArgPart {
         public MemArgPart(Type type, BigInteger value) {
             this.type = type;
@@ -205,40 +301,39 @@ public class WatReader<E extends Exception> {
     private static final DFA LEXER_DFA = LexerDFA.getDFA();
 
     static <E extends Exception> List<Token> tokenise(LineCountingPushbackByteInputStream<E> pis) throws E {
+        return tokenise(new Lexer<>(LEXER_DFA, pis));
+    }
+
+    static <E extends Exception> List<Token> tokenise(Lexer<E> lexer) throws E {
         List<Token> tokens = new ArrayList<>();
-        Token tok;
+        Token.Type ty;
         int depth = 0;
         boolean hasTok = false;
         try {
             do {
-                tok = LEXER_DFA.readNext(pis);
-                if (tok == null) break;
-                switch (tok.ty) {
-                    case T_SPACE:
-                    case T_LINE_COMMENT:
-                        break;
-                    case T_COMMENT_START:
-                        comment(pis);
-                        break;
+                ty = lexer.next();
+                if (ty == null) break;
+                switch (ty) {
                     case T_RESERVED:
-                        throwReserved(tok.value);
+                        throwReserved(lexer.text());
                         break;
                     case T_INVALID:
-                        throw new ValidationException("Illegal token: " + tok.value);
+                        throw new ValidationException("Illegal token: " + lexer.text());
                     case T_BR_OPEN:
-                        tokens.add(tok);
+                        tokens.add(lexer.token());
                         hasTok = true;
                         depth++;
                         break;
                     case T_BR_CLOSE:
                         depth--;
                     default:
-                        tokens.add(tok);
+                        tokens.add(lexer.token());
                         hasTok = true;
                         break;
                 }
             } while (!hasTok || depth > 0);
         } catch (ValidationException e) {
+            LineCountingPushbackByteInputStream<E> pis = lexer.getStream();
             throw new ValidationException("Error on line: " + pis.getLine() + ", byte: " + pis.getCol(), e);
         }
         return tokens;
@@ -249,42 +344,162 @@ public class WatReader<E extends Exception> {
                 new RuntimeException("unknown operator"));
     }
 
-    private static <E extends Exception> void comment(LineCountingPushbackByteInputStream<E> pis) throws E {
-        int depth = 1;
-        while (true) {
-            int c = pis.get();
-            if (c == ';' && pis.get() == ')') {
-                if (--depth <= 0) return;
-            } else if (c == '(' && pis.get() == ';') {
-                depth++;
-            }
-        }
-    }
-
     public static class ParsedNumber extends Number {
         public final boolean hasSign;
         public final int sign;
-        public final BigInteger mantissa, exponent;
         public final ExpType expType;
         public final NanType nanType;
         public final String token;
 
+        /**
+         * The mantissa and exponent of this number, as returned by {@link #getMantissa()} and {@link #getExponent()},
+         * except that both are null for a {@link #isSmallInteger() small integer}, which is held as an unsigned
+         * {@code long} so that reading it does not allocate.
+         *
+         * @deprecated Use {@link #getMantissa()} and {@link #getExponent()} instead, which work for every number,
+         * since these fields will be removed in a later release.
+         */
+        @Deprecated
+        public final BigInteger mantissa, exponent;
+        /**
+         * Whether this is an integer with an unsigned 64-bit magnitude, which is held in {@link #magnitude}.
+         */
+        private final boolean small;
+        private final long magnitude;
+
         public ParsedNumber(String token, int sign, BigInteger mantissa, BigInteger exponent, ExpType expType, boolean hasSign) {
             this(token, hasSign, sign, mantissa, exponent, expType, null);
         }
 
         public ParsedNumber(String token, boolean hasSign, int sign, BigInteger mantissa, BigInteger exponent, ExpType expType, NanType nanType) {
+            this(token, hasSign, sign, expType, nanType, mantissa, exponent, false, 0);
+        }
+
+        private ParsedNumber(String token, boolean hasSign, int sign, ExpType expType, NanType nanType,
+                             BigInteger mantissa, BigInteger exponent, boolean small, long magnitude) {
             this.token = token;
             this.hasSign = hasSign;
             this.sign = sign;
-            this.mantissa = mantissa;
-            this.exponent = exponent;
             this.expType = expType;
             this.nanType = nanType;
+            this.mantissa = mantissa;
+            this.exponent = exponent;
+            this.small = small;
+            this.magnitude = magnitude;
+        }
+
+        /**
+         * Create a decimal or hexadecimal number from its token, working out its mantissa and exponent.
+         *
+         * @param token    The token, without underscores.
+         * @param hasSign  Whether the token has an explicit sign.
+         * @param sign     The sign, 1 or -1.
+         * @param expType  {@link ExpType#DEC} or {@link ExpType#HEX}.
+         * @param digits   The index in the token of the first digit, after any sign and {@code 0x}.
+         * @return The number.
+         */
+        public static ParsedNumber ofDigits(String token, boolean hasSign, int sign, ExpType expType, int digits) {
+            Matcher matcher = expType.expMarker.matcher(token);
+            String base;
+            BigInteger exponent;
+            if (matcher.region(digits, token.length()).find()) {
+                base = token.substring(digits, matcher.start());
+                exponent = new BigInteger(token.substring(matcher.end()));
+            } else {
+                base = token.substring(digits);
+                exponent = BigInteger.ZERO;
+            }
+
+            String[] parts = base.split("\\.", 2);
+            String whole = parts[0];
+
+            BigInteger mantissa = new BigInteger(whole, expType.radix);
+            if (parts.length == 2) {
+                String frac = parts[1];
+                if (frac.length() != 0) {
+                    BigInteger fracPart = new BigInteger(frac, expType.radix);
+                    if (expType == ExpType.DEC) {
+                        mantissa = mantissa.multiply(BigInteger.TEN.pow(frac.length()));
+                        exponent = exponent.subtract(BigInteger.valueOf(frac.length()));
+                    } else {
+                        int LOG_2_SIXTEEN = 4;
+                        mantissa = mantissa.shiftLeft(frac.length() * LOG_2_SIXTEEN);
+                        exponent = exponent.subtract(BigInteger.valueOf(frac.length())
+                                .multiply(BigInteger.valueOf(LOG_2_SIXTEEN)));
+                    }
+                    mantissa = mantissa.add(fracPart);
+                }
+            }
+            return new ParsedNumber(token, hasSign, sign, expType, null, mantissa, exponent, false, 0);
+        }
+
+        /**
+         * Create an integer whose magnitude fits in an unsigned 64-bit integer.
+         * <p>
+         * This does not parse the token again, and does not build a {@link BigInteger} unless one is asked for,
+         * so the deprecated {@link #mantissa} and {@link #exponent} fields of the number are null.
+         *
+         * @param token     The token, without underscores.
+         * @param hasSign   Whether the token has an explicit sign.
+         * @param sign      The sign, 1 or -1.
+         * @param expType   {@link ExpType#DEC} or {@link ExpType#HEX}.
+         * @param digits    The index in the token of the first digit, after any sign and {@code 0x}.
+         * @param magnitude The magnitude, as an unsigned integer.
+         * @return The number.
+         */
+        public static ParsedNumber ofMagnitude(String token, boolean hasSign, int sign, ExpType expType, int digits,
+                                               long magnitude) {
+            return new ParsedNumber(token, hasSign, sign, expType, null, null, null, true, magnitude);
+        }
+
+        private static BigInteger unsignedBigInt(long value) {
+            return value >= 0
+                    ? BigInteger.valueOf(value)
+                    : BigInteger.valueOf(value & Long.MAX_VALUE).setBit(Long.SIZE - 1);
+        }
+
+        /**
+         * Get the mantissa of this number, which is its value scaled by its {@link #getExponent() exponent}.
+         *
+         * @return The mantissa, or null if this is an infinity or a NaN without a payload.
+         */
+        public BigInteger getMantissa() {
+            return small ? unsignedBigInt(magnitude) : mantissa;
+        }
+
+        /**
+         * Get the exponent of this number, in the base of its {@link #expType}.
+         *
+         * @return The exponent, or null if this is an infinity or a NaN.
+         */
+        public BigInteger getExponent() {
+            return small ? BigInteger.ZERO : exponent;
+        }
+
+        /**
+         * Get whether this is an integer whose magnitude fits in an unsigned 64-bit integer,
+         * which can be read with {@link #getMagnitude()} without going through a {@link BigInteger}.
+         *
+         * @return Whether this is a small integer.
+         */
+        public boolean isSmallInteger() {
+            return small;
+        }
+
+        /**
+         * Get the magnitude of a {@link #isSmallInteger() small integer}.
+         *
+         * @return The magnitude, as an unsigned integer.
+         */
+        public long getMagnitude() {
+            if (!small) throw new IllegalStateException("not a small integer");
+            return magnitude;
         }
 
         public boolean isInteger() {
-            return mantissa != null && exponent != null && exponent.equals(BigInteger.ZERO);
+            if (small) return true;
+            BigInteger exponent = getExponent();
+            return getMantissa() != null && exponent != null && exponent.equals(BigInteger.ZERO);
         }
 
         @Override
@@ -363,6 +578,10 @@ public class WatReader<E extends Exception> {
         public BigInteger toBigInt() {
             if (!isInteger()) throw new WatParser.ParseException("Expected integer", this,
                     new RuntimeException("unexpected token"));
+            if (small) {
+                BigInteger bigInt = unsignedBigInt(magnitude);
+                return sign < 0 ? bigInt.negate() : bigInt;
+            }
             return mantissa.multiply(BigInteger.valueOf(sign));
         }
 
@@ -398,6 +617,11 @@ public class WatReader<E extends Exception> {
                     break;
                 case DEC:
                 case HEX: {
+                    if (small && magnitude >= 0) {
+                        // long to float conversion rounds to nearest, like parsing does
+                        v = sign < 0 ? -(float) magnitude : (float) magnitude;
+                        break;
+                    }
                     v = Float.parseFloat(toParsableString());
                     break;
                 }
@@ -443,6 +667,10 @@ public class WatReader<E extends Exception> {
                     break;
                 case DEC:
                 case HEX: {
+                    if (small && magnitude >= 0) {
+                        v = sign < 0 ? -(double) magnitude : (double) magnitude;
+                        break;
+                    }
                     v = Double.parseDouble(toParsableString());
                     break;
                 }
@@ -2,6 +2,7 @@ package io.github.eutro.jwasm.sexp;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Iterator;
 import java.util.List;
 
@@ -11,6 +12,8 @@ import java.util.List;
  * @see WatReader
  */
 public class WatWriter {
+    private static final byte[] HEX_DIGITS = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
     private final PrintStream ps;
 
     /**
@@ -68,7 +71,9 @@ public class WatWriter {
                     && b != '"'
                     && b != '\\') ps.write(b);
             else {
-                ps.printf("\\%02X", b);
+                ps.write('\\');
+                ps.write(HEX_DIGITS[(b >> 4) & 0xF]);
+                ps.write(HEX_DIGITS[b & 0xF]);
             }
         }
         ps.write('"');
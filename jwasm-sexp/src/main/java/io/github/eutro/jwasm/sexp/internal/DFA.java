@@ -1,70 +1,47 @@
 package io.github.eutro.jwasm.sexp.internal;
 
-import io.github.eutro.jwasm.ByteInputStream;
-import io.github.eutro.jwasm.ByteOutputStream;
-import io.github.eutro.jwasm.ValidationException;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.ByteArrayOutputStream;
-import java.nio.ByteBuffer;
-import java.nio.CharBuffer;
-import java.nio.charset.CharacterCodingException;
-import java.nio.charset.CodingErrorAction;
-import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 public class DFA {
     public final int start;
-    public final State[] states;
 
-    DFA(int start, State[] states) {
+    /**
+     * The transitions of all states, flattened so that the transition of state {@code s} on symbol {@code sym}
+     * is at {@code s * NFA.ALPHABET_SIZE + sym}, or -1 if there is none.
+     */
+    private final int[] table;
+    private final Token.Type[] types;
+
+    DFA(int start, int[] table, Token.Type[] types) {
         this.start = start;
-        this.states = states;
+        this.table = table;
+        this.types = types;
     }
 
-    public int step(int state, int sym) {
-        return states[state].transitions[sym];
+    DFA(int start, State[] states) {
+        this(start, new int[states.length * NFA.ALPHABET_SIZE], new Token.Type[states.length]);
+        Arrays.fill(table, -1);
+        for (int i = 0; i < states.length; i++) {
+            int[] transitions = states[i].transitions;
+            System.arraycopy(transitions, 0, table, i * NFA.ALPHABET_SIZE,
+                    Math.min(transitions.length, NFA.ALPHABET_SIZE));
+            types[i] = states[i].type;
+        }
     }
 
-    @Nullable
-    public Token.Type checkType(int state) {
-        return states[state].type;
+    public int stateCount() {
+        return types.length;
+    }
+
+    public int step(int state, int sym) {
+        return table[state * NFA.ALPHABET_SIZE + sym];
     }
 
     @Nullable
-    public <E extends Exception> Token readNext(LineCountingPushbackByteInputStream<E> pis) throws E {
-        int state = start;
-        if (state == -1) return null;
-
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        while (true) {
-            int c = pis.get();
-            int nextState = step(state, c == -1 ? NFA.EOF : c);
-            if (nextState == -1) {
-                if (c != -1) pis.unread(c);
-                break;
-            }
-            baos.write(c);
-            state = nextState;
-        }
-        if (baos.size() == 0) return null;
-        Token.Type type = checkType(state);
-        if (type == null) type = Token.Type.T_INVALID;
-
-        CharBuffer decoded;
-        try {
-            decoded = StandardCharsets.UTF_8
-                    .newDecoder()
-                    .onMalformedInput(CodingErrorAction.REPORT)
-                    .onUnmappableCharacter(CodingErrorAction.REPORT)
-                    .decode(ByteBuffer.wrap(baos.toByteArray()));
-        } catch (CharacterCodingException e) {
-            ValidationException ve = new ValidationException("Input stream contains invalid UTF-8",
-                    new RuntimeException("malformed UTF-8 encoding"));
-            ve.addSuppressed(e);
-            throw ve;
-        }
-        return new Token(type, decoded.toString(), pis.srcLoc());
+    public Token.Type checkType(int state) {
+        return types[state];
     }
 
     public static class State {
@@ -80,71 +57,110 @@ public class DFA {
             this(type, new int[NFA.ALPHABET_SIZE]);
             Arrays.fill(transitions, -1);
         }
+    }
 
-        static <E extends Exception> State readFrom(ByteInputStream<E> stream) throws E {
-            int typeIndex = stream.getVarSInt32();
-            Token.Type type = typeIndex < 0 ? null : Token.Type.values()[typeIndex];
-            int len = stream.getVarUInt32();
-            int[] transitions = new int[len];
-            for (int i = 0; i < transitions.length; i++) {
-                transitions[i] = stream.getVarSInt32();
-            }
-            return new State(type, transitions);
+    /**
+     * Encode the token types of the states as a string, one character per state,
+     * which is the ordinal of its type plus one, or zero if it has none.
+     *
+     * @return The encoded types.
+     */
+    String encodeTypes() {
+        StringBuilder sb = new StringBuilder(types.length);
+        for (Token.Type type : types) {
+            sb.append((char) (type == null ? 0 : type.ordinal() + 1));
         }
+        return sb.toString();
+    }
 
-        <E extends Exception> void writeTo(ByteOutputStream<E> stream) throws E {
-            stream.putVarSInt(type == null ? -1 : type.ordinal());
-            stream.putVarUInt(transitions.length);
-            for (int trans : transitions) {
-                stream.putVarSInt(trans);
-            }
+    /**
+     * Encode the transition table as a string of runs, each of two characters:
+     * the length of the run, and the target of its transitions plus one.
+     *
+     * @return The encoded transitions.
+     */
+    String encodeTransitions() {
+        StringBuilder sb = new StringBuilder();
+        int i = 0;
+        while (i < table.length) {
+            int target = table[i];
+            int run = 1;
+            while (i + run < table.length && table[i + run] == target && run < Character.MAX_VALUE) run++;
+            sb.append((char) run).append((char) (target + 1));
+            i += run;
         }
+        return sb.toString();
     }
 
-    public static <E extends Exception> DFA readFrom(ByteInputStream<E> stream) throws E {
-        int start = stream.getVarUInt32();
-        int len = stream.getVarUInt32();
-        State[] states = new State[len];
-        for (int i = 0; i < states.length; i++) {
-            states[i] = State.readFrom(stream);
+    /**
+     * Decode a DFA from the encoding of {@link #encodeTypes()} and {@link #encodeTransitions()}.
+     *
+     * @param start       The start state.
+     * @param types       The encoded types.
+     * @param transitions The encoded transitions.
+     * @return The DFA.
+     */
+    static DFA decode(int start, String types, String transitions) {
+        Token.Type[] values = Token.Type.values();
+        Token.Type[] decodedTypes = new Token.Type[types.length()];
+        for (int i = 0; i < decodedTypes.length; i++) {
+            char c = types.charAt(i);
+            decodedTypes[i] = c == 0 ? null : values[c - 1];
         }
-        return new DFA(start, states);
+        int[] table = new int[decodedTypes.length * NFA.ALPHABET_SIZE];
+        int j = 0;
+        for (int i = 0; i < transitions.length(); i += 2) {
+            int run = transitions.charAt(i);
+            int target = transitions.charAt(i + 1) - 1;
+            Arrays.fill(table, j, j + run, target);
+            j += run;
+        }
+        if (j != table.length) throw new IllegalArgumentException("transition table has wrong length");
+        return new DFA(start, table, decodedTypes);
     }
 
-    <E extends Exception> void writeTo(ByteOutputStream<E> stream) throws E {
-        stream.putVarUInt(start);
-        stream.putVarUInt(states.length);
-        for (State state : states) {
-            state.writeTo(stream);
-        }
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        DFA dfa = (DFA) o;
+        return start == dfa.start && Arrays.equals(table, dfa.table) && Arrays.equals(types, dfa.types);
     }
 
+    @Override
+    public int hashCode() {
+        int result = start;
+        result = 31 * result + Arrays.hashCode(table);
+        result = 31 * result + Arrays.hashCode(types);
+        return result;
+    }
 
     public DFA minimise() {
+        int n = stateCount();
         // states are distinguishable iff there exists a string for which they produce a different match
 
         // we will be starting with this optimistic "all states are indistinguishable" to
         // the more pessimistic (and realistic) result that some states just aren't indistinguishable
 
         // table of which states are distinguishable from each other; the extra cells represent a failed match
-        boolean[][] distinguishable = new boolean[states.length + 1][states.length + 1];
+        boolean[][] distinguishable = new boolean[n + 1][n + 1];
 
         // the diagonal is already set to false (all states are indistinguishable from themselves)
 
         // states with differing finish types are distinguishable
-        for (int i = 0; i < states.length; ++i) {
-            for (int j = i + 1; j < states.length; ++j) {
+        for (int i = 0; i < n; ++i) {
+            for (int j = i + 1; j < n; ++j) {
                 distinguishable[i][j] = distinguishable[j][i]
-                        = states[i].type != states[j].type;
+                        = types[i] != types[j];
             }
         }
 
         // all states are distinguishable from failure (except failure itself)
-        for (int i = 0; i < states.length; i++) {
-            distinguishable[i][states.length] = true;
-            distinguishable[states.length][i] = true;
+        for (int i = 0; i < n; i++) {
+            distinguishable[i][n] = true;
+            distinguishable[n][i] = true;
         }
-        distinguishable[states.length][states.length] = false;
+        distinguishable[n][n] = false;
 
         // then just iterate until fixed point...
         boolean changed;
@@ -153,17 +169,17 @@ public class DFA {
             // check every "indistinguishable" state pair
             // and see if they transition to distinguishable states,
             // in which case they too are distinguishable
-            for (int i = 0; i < states.length - 1; i++) {
-                for (int j = i + 1; j < states.length; ++j) {
+            for (int i = 0; i < n - 1; i++) {
+                for (int j = i + 1; j < n; ++j) {
                     if (distinguishable[i][j]) continue;
 
                     // check every symbol
                     for (int sym = 0; sym < NFA.ALPHABET_SIZE; ++sym) {
-                        int iNext = states[i].transitions[sym];
-                        int iTrans = iNext == -1 ? states.length : iNext;
+                        int iNext = step(i, sym);
+                        int iTrans = iNext == -1 ? n : iNext;
 
-                        int jNext = states[j].transitions[sym];
-                        int jTrans = jNext == -1 ? states.length : jNext;
+                        int jNext = step(j, sym);
+                        int jTrans = jNext == -1 ? n : jNext;
 
                         if (distinguishable[iTrans][jTrans]) {
                             distinguishable[i][j] = distinguishable[j][i] = true;
@@ -179,8 +195,8 @@ public class DFA {
         List<State> mergedStates = new ArrayList<>();
         Map<Integer, Integer> grouped = new HashMap<>();
         iLoop:
-        for (int i = 0; i < states.length; i++) {
-            for (int j = 0; j < states.length; j++) {
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
                 if (distinguishable[i][j]) continue;
                 Integer jGrouped = grouped.get(j);
                 if (jGrouped != null) {
@@ -190,15 +206,14 @@ public class DFA {
             }
             int newState = mergedStates.size();
             grouped.put(i, newState);
-            mergedStates.add(new State(states[i].type));
+            mergedStates.add(new State(types[i]));
         }
 
         // rebuild transitions
-        for (int i = 0; i < states.length; i++) {
+        for (int i = 0; i < n; i++) {
             int groupedI = grouped.get(i);
-            int[] transitions = states[i].transitions;
-            for (int sym = 0; sym < transitions.length; sym++) {
-                int target = transitions[sym];
+            for (int sym = 0; sym < NFA.ALPHABET_SIZE; sym++) {
+                int target = step(i, sym);
                 if (target == -1) continue;
                 mergedStates.get(groupedI).transitions[sym] = grouped.get(target);
             }
@@ -0,0 +1,239 @@
+package io.github.eutro.jwasm.sexp.internal;
+
+import io.github.eutro.jwasm.ValidationException;
+import io.github.eutro.jwasm.sexp.SrcLoc;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A lexer that scans tokens from a stream with a {@link DFA}, one at a time.
+ * <p>
+ * The bytes of the current token are kept in a buffer that is reused for every token,
+ * and are only decoded to a string if {@link #text()} is called.
+ * Whitespace and comments are skipped without being reported.
+ */
+public final class Lexer<E extends Exception> {
+    private final DFA dfa;
+    private final LineCountingPushbackByteInputStream<E> pis;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8
+            .newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+
+    private byte[] buf = new byte[64];
+    private int len;
+    private boolean ascii;
+    private @Nullable Token.Type type;
+    private long start;
+    private int line, col;
+
+    public Lexer(DFA dfa, LineCountingPushbackByteInputStream<E> pis) {
+        this.dfa = dfa;
+        this.pis = pis;
+    }
+
+    public LineCountingPushbackByteInputStream<E> getStream() {
+        return pis;
+    }
+
+    /**
+     * Scan the next token that is not whitespace or a comment.
+     *
+     * @return The type of the token, or null if the end of the stream has been reached.
+     * @throws E If reading from the stream fails.
+     */
+    public @Nullable Token.Type next() throws E {
+        while (true) {
+            Token.Type ty = scan();
+            if (ty == null) return type = null;
+            switch (ty) {
+                case T_SPACE:
+                case T_LINE_COMMENT:
+                    continue;
+                case T_COMMENT_START:
+                    skipBlockComment();
+                    continue;
+                default:
+                    return type = ty;
+            }
+        }
+    }
+
+    private @Nullable Token.Type scan() throws E {
+        int state = dfa.start;
+        if (state == -1) return null;
+        start = pis.position();
+        line = pis.getLine();
+        col = pis.getCol();
+        len = 0;
+        ascii = true;
+        while (true) {
+            int c = pis.get();
+            int nextState = dfa.step(state, c == -1 ? NFA.EOF : c);
+            if (nextState == -1) {
+                if (c != -1) pis.unread(c);
+                break;
+            }
+            if (len == buf.length) buf = Arrays.copyOf(buf, len * 2);
+            buf[len++] = (byte) c;
+            ascii &= c < 0x80;
+            state = nextState;
+        }
+        if (len == 0) return null;
+        Token.Type ty = dfa.checkType(state);
+        return ty == null ? Token.Type.T_INVALID : ty;
+    }
+
+    private void skipBlockComment() throws E {
+        int depth = 1;
+        int c = pis.get();
+        while (true) {
+            if (c == -1) {
+                throw new ValidationException("Unclosed block comment",
+                        new RuntimeException("unclosed comment"));
+            }
+            int next = pis.get();
+            if (c == ';' && next == ')') {
+                if (--depth <= 0) return;
+                next = pis.get();
+            } else if (c == '(' && next == ';') {
+                depth++;
+                next = pis.get();
+            }
+            c = next;
+        }
+    }
+
+    /**
+     * Get the type of the current token.
+     *
+     * @return The type, or null if the end of the stream has been reached.
+     */
+    public @Nullable Token.Type type() {
+        return type;
+    }
+
+    /**
+     * Get the offset in the stream of the first byte of the current token.
+     *
+     * @return The start offset.
+     */
+    public long start() {
+        return start;
+    }
+
+    /**
+     * Get the offset in the stream just after the last byte of the current token.
+     *
+     * @return The end offset.
+     */
+    public long end() {
+        return start + len;
+    }
+
+    /**
+     * Get the number of bytes in the current token.
+     *
+     * @return The length.
+     */
+    public int length() {
+        return len;
+    }
+
+    /**
+     * Get a byte of the current token.
+     *
+     * @param i The index of the byte, less than {@link #length()}.
+     * @return The byte.
+     */
+    public byte byteAt(int i) {
+        return buf[i];
+    }
+
+    /**
+     * Get whether the current token is exactly the given ASCII text, without decoding it.
+     *
+     * @param s The text.
+     * @return Whether the token matches.
+     */
+    public boolean textEquals(String s) {
+        if (s.length() != len) return false;
+        for (int i = 0; i < len; i++) {
+            if (buf[i] != s.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Decode the current token.
+     *
+     * @return The text of the token.
+     * @throws ValidationException If the token is not valid UTF-8.
+     */
+    public String text() {
+        if (ascii) return new String(buf, 0, len, StandardCharsets.ISO_8859_1);
+        CharBuffer decoded;
+        try {
+            decoded = decoder.reset().decode(ByteBuffer.wrap(buf, 0, len));
+        } catch (CharacterCodingException e) {
+            ValidationException ve = new ValidationException("Input stream contains invalid UTF-8",
+                    new RuntimeException("malformed UTF-8 encoding"));
+            ve.addSuppressed(e);
+            throw ve;
+        }
+        return decoded.toString();
+    }
+
+    /**
+     * Get the line of the start of the current token.
+     *
+     * @return The line number.
+     */
+    public int line() {
+        return line;
+    }
+
+    /**
+     * Get the column of the start of the current token.
+     *
+     * @return The column number.
+     */
+    public int col() {
+        return col;
+    }
+
+    /**
+     * Get the source location of the start of the current token.
+     *
+     * @return The location.
+     */
+    public SrcLoc srcLoc() {
+        return new SrcLoc(start, line, col);
+    }
+
+    /**
+     * Interpret the current token as an atom, as by {@link Token#interpret()}.
+     *
+     * @return The atom.
+     */
+    public Object interpret() {
+        assert type != null;
+        return type.interpret.apply(text());
+    }
+
+    /**
+     * Materialize the current token.
+     *
+     * @return The token.
+     */
+    public Token token() {
+        return new Token(type, text(), srcLoc());
+    }
+}
@@ -1,59 +1,99 @@
 package io.github.eutro.jwasm.sexp.internal;
 
-import io.github.eutro.jwasm.ByteInputStream;
-import io.github.eutro.jwasm.ByteOutputStream;
-
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.util.Base64;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.BitSet;
 import java.util.function.Supplier;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 import static io.github.eutro.jwasm.sexp.internal.RegExp.*;
 import static io.github.eutro.jwasm.sexp.internal.Token.Type.*;
 
 public class LexerDFA {
+    /**
+     * Get the lexer DFA from its {@link LexerTables generated tables}.
+     *
+     * @return The DFA.
+     */
     public static DFA getDFA() {
-        try {
-            return DFA.readFrom(new ByteInputStream.InputStreamByteInputStream(
-                    new GZIPInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(getData())))
-            ));
-        } catch (IOException e) {
-            throw new AssertionError(e);
-        }
+        return DFA.decode(LexerTables.START, LexerTables.TYPES, LexerTables.TRANSITIONS);
     }
 
     /**
-     * Print out the compiled DFA data as base 64 for inclusion in {@link #getData()}.
+     * Build the minimised lexer DFA from its regular expressions,
+     * which is what the {@link LexerTables generated tables} hold.
      *
-     * @param args Program arguments (ignored)
+     * @return The DFA.
      */
-    public static void main(String[] args) {
-        byte[] rawBytes;
-        {
-            ByteOutputStream.BaosByteOutputStream bos = new ByteOutputStream.BaosByteOutputStream();
-            buildNfa().toDfa().minimise().writeTo(bos);
-            rawBytes = bos.toByteArray();
-        }
+    public static DFA buildDFA() {
+        return buildNfa().toDfa().minimise();
+    }
 
-        byte[] compressedBytes;
-        {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            try (OutputStream os = new GZIPOutputStream(baos)) {
-                os.write(rawBytes);
-            } catch (IOException e) {
-                throw new AssertionError(e);
+    /**
+     * Generate the source of {@link LexerTables}.
+     *
+     * @param args The file to write the source to, or nothing to print it to stdout.
+     * @throws IOException If writing the file fails.
+     */
+    public static void main(String[] args) throws IOException {
+        String source = generateTables(buildDFA());
+        if (args.length == 0) {
+            System.out.print(source);
+        } else {
+            try (Writer w = new OutputStreamWriter(new FileOutputStream(args[0]), StandardCharsets.UTF_8)) {
+                w.write(source);
             }
-            compressedBytes = baos.toByteArray();
         }
+    }
+
+    static String generateTables(DFA dfa) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("package io.github.eutro.jwasm.sexp.internal;\n")
+                .append("\n")
+                .append("// GENERATED by LexerDFA.main, run the generateLexerTables task to regenerate. Do not edit.\n")
+                .append("final class LexerTables {\n")
+                .append("    static final int START = ").append(dfa.start).append(";\n")
+                .append("\n")
+                .append("    static final String TYPES =");
+        appendStringConstant(sb, dfa.encodeTypes());
+        sb.append("\n")
+                .append("    static final String TRANSITIONS =");
+        appendStringConstant(sb, dfa.encodeTransitions());
+        sb.append("}\n");
+        return sb.toString();
+    }
 
-        System.out.printf("Raw: %d bytes\n", rawBytes.length);
-        System.out.printf("Compressed: %d bytes\n", compressedBytes.length);
-        System.out.println(Base64.getEncoder().encodeToString(compressedBytes));
+    private static void appendStringConstant(StringBuilder sb, String s) {
+        int perLine = 16;
+        for (int i = 0; i < s.length(); i += perLine) {
+            sb.append(i == 0 ? "\n            \"" : "\n            + \"");
+            for (int j = i; j < Math.min(s.length(), i + perLine); j++) {
+                char c = s.charAt(j);
+                // \\u escapes are translated before lexing, so line terminators, quotes and backslashes can't use them
+                switch (c) {
+                    case '\n':
+                        sb.append("\\n");
+                        break;
+                    case '\r':
+                        sb.append("\\r");
+                        break;
+                    case '"':
+                        sb.append("\\\"");
+                        break;
+                    case '\\':
+                        sb.append("\\\\");
+                        break;
+                    default:
+                        sb.append(String.format("\\u%04x", (int) c));
+                        break;
+                }
+            }
+            sb.append('"');
+        }
+        if (s.isEmpty()) sb.append(" \"\"");
+        sb.append(";\n");
     }
 
     private static NFA buildNfa() {
@@ -163,10 +203,4 @@ public class LexerDFA {
         nfa.starts.set(statePair.start);
         nfa.states.get(statePair.end).type = type;
     }
-
-    private static String getData() {
-        // Raw: 32641 bytes
-        // Compressed: 1160 bytes
-        return "H4sIAAAAAAAAAO2ch3abMBSGscggo3XbtE3adDdd6d47eag+AMdv1nTvme6993yCgouJZZCudIFrYfTr2MfW5RL9n69kICTOGb/B/JZqteDhJ1RjHlvMGFuyjI35Y4wtn2yJnWZy+UFj7Kwzx7Ub8avbzqeOWKuFmcmhUGukYcAguqwBBQbM/f9x+6z5gXMVoFIh8jiBSUgN5so3cF2XuVj1wZv46J3noyYDmJMbP4Xqj8V1iDO5uNt8RDsbgH82hfTXAw7hQgeUgBwfhfQZDMbiOqAE5PgoVDiDAWnciPJoME++ged5Qx5Ww/AmPnrn+Sj4HOx3o9pc8OKnUCOxuA5xJhf3mo9oZ6O4Mect/fWgvYzaOqAE5PgopM9gUSyuA0pAjo9ChTMYlcZNKA+V84W6Ww8VvKj7dU4dbxPygS3COIFJQDXLwO/LdO68NLdxdFND9vqB328ZYK6htF1l0ztO3BQ+bTHvOJHpMljBJtMYjAsZrBHF15aWAWMrYykxgOIEJiF/hTNYbTwDvfVgwp9gbFWsHjlvRKyJPccAMRc0GUwYzwBRB6nrQaXqIL/vRmMYIOoglUGZ6wDBYF2syGH0RshAHicwCfnTZbAeZDDOe1wLxAlMQv7062BDrIhB9EbgEYoTmIT8Fc5go/EMEOsBxIDxHqE4gUlA5PcfbK4wgylRnMAk5M/+ro2kDrZaBry2mccg01zYXtm5sKPdgwqDXexwrzHgPKgwEGi6xAx2xoocRm+EDORxApOQv8IZTBvPoCtzYXd1GexJjROYBNSlNXFvRRnsS48TmAREXQf7K8zggDBOYBJQl9aDg1VlcCg1TmASEA2D1AsolWJwRBonMAmIfD04ahkwdswyON4ZJzAJiJLBidQ4gUlANAxOSuIEJgFRMDgljROYBES8Hkwl4wQmIWW6V3cmt2F0VQ02E2t2poqaHbb3bPuO7now5zDR/zIIlR6TN1+223NgKgElQMZDhFMJKAEyGOJ5CzEbxAu2EvOpxIV2sUIQLzlVXRQRh+uXnSuJhr/Aa9SBu6dPI8lCkcZVRxS95lgeRpYHYrKgcUBxAruAEDSuO8kWeeW6hExUtiKwDggxbTKSCZaMcqApxaHPTcO/tI2EeKtkRz7aN3vZc+qkDKrEOxZikZV413CIeU3ne3Y6y9UJ8X4xlfgwePmqMhBFfkgrcb7kEB84ydaCyPdpQcSmElCCABkCcb7MEEs1nR9ZiLoQH9tKLKISw/bEQlSH+FQ5lYASIGMhLrRnFqI+xOeaqQSUABkIUd5eWIg6EF/aSsRBVL8cayGmQnyNTCWgBMggiOIN3liI2SHOOW8txKwQ39lKxEJ8r5hKQAmQYRA/IFIJKAEyCOJHZCoBJUAGQUwPyo8cLUQhxM+2ErND/GIhZocobl8tRDWI3zRTCSgBMhCivH3vcYg/7F8VSNRxA+xP51ei9ciN0oP6NJIsFGn8Ft5F/8eYvyowg4cx5YGYLGgcUJzALiAEjb9OskVeuS4hE5WtCKwDQkybjGSCJaMcaP4BBuxwT4F/AAA=";
-    }
 }
@@ -0,0 +1,328 @@
+package io.github.eutro.jwasm.sexp.internal;
+
+// GENERATED by LexerDFA.main, run the generateLexerTables task to regenerate. Do not edit.
+final class LexerTables {
+    static final int START = 0;
+
+    static final String TYPES =
+            "\u0000\u000c\u0007\u0000\u0000\u0000\u0000\u0000\u0000\u0004\u0000\u0000\u0000\u0000\u0007\u0002"
+            + "\u0005\n\u0006\u0007\u0003\u0003\u0003\u0007\u0007\u0003\u0007\u0003\u0007\u0007\u0003\u0003"
+            + "\u0003\u0007\u0007\u0007\u0003\u0007\u0007\u0003\u0007\u0007\u0007\u0003\u0007\u0007\u0007\u0007"
+            + "\u0007\u0007\u0007\u0007\u0007\u0007\u0007\u0007\u0007\u0007\u0007\u0007\u0007\u0000\u0000\u000b"
+            + "\u0001\u0001\u0001\u0001\u0001\u0001\u0007\u0009\u0009\u0007\u0007\u0009\u0001\u0001\u0003\u0001"
+            + "\u0001\u0003\u0001\u0001\u0001\u0003\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0001"
+            + "\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0001\u0007\u0008\u0008"
+            + "\u0007\u0007\u0008";
+
+    static final String TRANSITIONS =
+            "\u0009\u0000\u0002\u0002\u0002\u0000\u0001\u0002\u0012\u0000\u0001\u0002\u0001\u0003\u0001\u0009"
+            + "\u0001\u0003\u0001\u000f\u0003\u0003\u0001\u0011\u0001\u0013\u0001\u0003\u0001\u0014\u0001\u0000"
+            + "\u0001\u0014\u0002\u0003\u0001\u0015\u0009\u001c\u0001\u0003\u0001\u003e\u001f\u0003\u0001\u0000"
+            + "\u0001\u0003\u0001\u0000\u0003\u0003\u0001\u0041\u0007\u0042\u0001\u004d\u0004\u0042\u0001\u0050"
+            + "\u0001\u0068\u000b\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u01a4\u0000\u0001\u0003"
+            + "\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u000e\u0003\u0001\u0000\u001f\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u001d\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003"
+            + "\u0082\u0000\u0001\u0004\u001e\u0000\u0003\u0004\u0001\u0003\u0039\u0004\u0001\u0005\"\u0004"
+            + "\u0001\u0000\u007f\u0004\u0024\u0000\u0001\u0004\u0004\u0000\u0001\u0004\u0008\u0000\n\u0006"
+            + "\u0007\u0000\u0006\u0006\u0015\u0000\u0001\u0004\u0004\u0000\u0006\u0006\u0007\u0000\u0001\u0004"
+            + "\u0003\u0000\u0001\u0004\u0001\u0000\u0001\u0004\u0006\u0000\u0001\u0007\u00b5\u0000\n\u0004"
+            + "\u0007\u0000\u0006\u0004\u001a\u0000\u0006\u0004\u00ca\u0000\n\u0008\u0007\u0000\u0006\u0008"
+            + "\u001a\u0000\u0006\u0008\u00ca\u0000\n\u0008\u0007\u0000\u0006\u0008\u0018\u0000\u0001\u0007"
+            + "\u0001\u0000\u0006\u0008\u0016\u0000\u0001\u0004\u0083\u0000\u0001\u0009\u001e\u0000\u0003\u0009"
+            + "\u0001\n\u0039\u0009\u0001\u000b\"\u0009\u0001\u0000\u007f\u0009\u0023\u0000\u0001\u0003"
+            + "\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u000e\u0003\u0001\u0000\u001f\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u001d\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003"
+            + "\u00a4\u0000\u0001\u0009\u0004\u0000\u0001\u0009\u0008\u0000\n\u000c\u0007\u0000\u0006\u000c"
+            + "\u0015\u0000\u0001\u0009\u0004\u0000\u0006\u000c\u0007\u0000\u0001\u0009\u0003\u0000\u0001\u0009"
+            + "\u0001\u0000\u0001\u0009\u0006\u0000\u0001\r\u00b5\u0000\n\u0009\u0007\u0000\u0006\u0009"
+            + "\u001a\u0000\u0006\u0009\u00ca\u0000\n\u000e\u0007\u0000\u0006\u000e\u001a\u0000\u0006\u000e"
+            + "\u00ca\u0000\n\u000e\u0007\u0000\u0006\u000e\u0018\u0000\u0001\r\u0001\u0000\u0006\u000e"
+            + "\u0016\u0000\u0001\u0009\u00a4\u0000\u0001\u0010\u0001\u0004\u0005\u0010\u0002\u0000\u0002\u0010"
+            + "\u0001\u0000\u000e\u0010\u0001\u0000\u001f\u0010\u0001\u0000\u0001\u0010\u0001\u0000\u001d\u0010"
+            + "\u0001\u0000\u0001\u0010\u0001\u0000\u0001\u0010\u00a3\u0000\u0001\u0010\u0001\u0004\u0005\u0010"
+            + "\u0002\u0000\u0002\u0010\u0001\u0000\u000e\u0010\u0001\u0000\u001f\u0010\u0001\u0000\u0001\u0010"
+            + "\u0001\u0000\u001d\u0010\u0001\u0000\u0001\u0010\u0001\u0000\u0001\u0010\u00bd\u0000\u0001\u0012"
+            + "\u02e8\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0003\u0003"
+            + "\u0001\u0015\u0009\u001c\u0001\u0003\u0001\u0000\u001f\u0003\u0001\u0000\u0001\u0003\u0001\u0000"
+            + "\u000b\u0003\u0001\u0023\u0004\u0003\u0001\u0026\u000c\u0003\u0001\u0000\u0001\u0003\u0001\u0000"
+            + "\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000"
+            + "\u0001\u0003\u0001\u0016\u0001\u0003\n\u001c\u0001\u0003\u0001\u0000\u0009\u0003\u0001\u0018"
+            + "\u0015\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u001d\u0005\u0003\u0001\u0018"
+            + "\u0012\u0003\u0001\u001e\u0002\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000"
+            + "\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0003\u0003\n\u0017"
+            + "\u0001\u0003\u0001\u0000\u0009\u0003\u0001\u0018\u0015\u0003\u0001\u0000\u0001\u0003\u0001\u0000"
+            + "\u0007\u0003\u0001\u0018\u0015\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000"
+            + "\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0003\u0003\n\u0017"
+            + "\u0001\u0003\u0001\u0000\u0009\u0003\u0001\u0018\u0015\u0003\u0001\u0000\u0001\u0003\u0001\u0000"
+            + "\u0001\u0003\u0001\u001b\u0005\u0003\u0001\u0018\u0015\u0003\u0001\u0000\u0001\u0003\u0001\u0000"
+            + "\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0001\u0003\u0001\u0019"
+            + "\u0001\u0000\u0001\u0019\u0002\u0003\n\u001a\u0001\u0003\u0001\u0000\u001f\u0003\u0001\u0000"
+            + "\u0001\u0003\u0001\u0000\u001d\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000"
+            + "\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0003\u0003\n\u001a"
+            + "\u0001\u0003\u0001\u0000\u001f\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u001d\u0003\u0001\u0000"
+            + "\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000"
+            + "\u0002\u0003\u0001\u0000\u0003\u0003\n\u001a\u0001\u0003\u0001\u0000\u001f\u0003\u0001\u0000"
+            + "\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0019\u001b\u0003\u0001\u0000\u0001\u0003\u0001\u0000"
+            + "\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000"
+            + "\u0003\u0003\n\u0017\u0001\u0003\u0001\u0000\u001f\u0003\u0001\u0000\u0001\u0003\u0001\u0000"
+            + "\u001d\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004"
+            + "\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003\u0001\u0016\u0001\u0003\n\u001c"
+            + "\u0001\u0003\u0001\u0000\u0009\u0003\u0001\u0018\u0015\u0003\u0001\u0000\u0001\u0003\u0001\u0000"
+            + "\u0001\u0003\u0001\u001d\u0005\u0003\u0001\u0018\u0015\u0003\u0001\u0000\u0001\u0003\u0001\u0000"
+            + "\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000"
+            + "\u0003\u0003\n\u001c\u0001\u0003\u0001\u0000\u001f\u0003\u0001\u0000\u0001\u0003\u0001\u0000"
+            + "\u001d\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004"
+            + "\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0003\u0003\n\u001f\u0001\u0003\u0001\u0000"
+            + "\u0005\u0003\u0006\u001f\u0014\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0003\u0003\u0006\u001f"
+            + "\u0014\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004"
+            + "\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003\u0001\u0020\u0001\u0003\n\u001f"
+            + "\u0001\u0003\u0001\u0000\u0005\u0003\u0006\u001f\u0009\u0003\u0001\u0018\n\u0003\u0001\u0000"
+            + "\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u001e\u0001\u0003\u0006\u001f\u0009\u0003\u0001\u0018"
+            + "\n\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004"
+            + "\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0003\u0003\n\u0021\u0001\u0003\u0001\u0000"
+            + "\u0005\u0003\u0006\u0021\u0009\u0003\u0001\u0018\n\u0003\u0001\u0000\u0001\u0003\u0001\u0000"
+            + "\u0003\u0003\u0006\u0021\u0009\u0003\u0001\u0018\n\u0003\u0001\u0000\u0001\u0003\u0001\u0000"
+            + "\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000"
+            + "\u0003\u0003\n\u0021\u0001\u0003\u0001\u0000\u0005\u0003\u0006\u0021\u0009\u0003\u0001\u0018"
+            + "\n\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u0001\"\u0001\u0003\u0006\u0021"
+            + "\u0009\u0003\u0001\u0018\n\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000"
+            + "\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0003\u0003\n\u0021"
+            + "\u0001\u0003\u0001\u0000\u0005\u0003\u0006\u0021\u0014\u0003\u0001\u0000\u0001\u0003\u0001\u0000"
+            + "\u0003\u0003\u0006\u0021\u0014\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000"
+            + "\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u000e\u0003\u0001\u0000"
+            + "\u001f\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0010\u0003\u0001\u0024\u000c\u0003\u0001\u0000"
+            + "\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000"
+            + "\u0002\u0003\u0001\u0000\u000e\u0003\u0001\u0000\u001f\u0003\u0001\u0000\u0001\u0003\u0001\u0000"
+            + "\u0008\u0003\u0001\u0025\u0014\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000"
+            + "\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u000e\u0003\u0001\u0000"
+            + "\u001f\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u001d\u0003\u0001\u0000\u0001\u0003\u0001\u0000"
+            + "\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000"
+            + "\u000e\u0003\u0001\u0000\u001f\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0003\u0003\u0001\u0027"
+            + "\u0019\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004"
+            + "\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u000e\u0003\u0001\u0000\u001f\u0003\u0001\u0000"
+            + "\u0001\u0003\u0001\u0000\u0010\u0003\u0001\u0028\u000c\u0003\u0001\u0000\u0001\u0003\u0001\u0000"
+            + "\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000"
+            + "\r\u0003\u0001\u0029\u0001\u0000\u001f\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u001d\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003"
+            + "\u0002\u0000\u0002\u0003\u0001\u0000\u0003\u0003\u0001\u002a\n\u0003\u0001\u0000\u001f\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u0003\u0003\u0001\u002d\u0001\u0003\u0001\u0036\u0017\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003"
+            + "\u0002\u0000\u0002\u0003\u0001\u0000\u000e\u0003\u0001\u0000\u001f\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0000\u001a\u0003\u0001\u002b\u0002\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003"
+            + "\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0003\u0003"
+            + "\n\u002c\u0001\u0003\u0001\u0000\u0005\u0003\u0006\u002c\u0014\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0000\u0003\u0003\u0006\u002c\u0014\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003"
+            + "\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0003\u0003"
+            + "\n\u002c\u0001\u0003\u0001\u0000\u0005\u0003\u0006\u002c\u0014\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u002b\u0001\u0003\u0006\u002c\u0014\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003"
+            + "\u0001\u0000\u000e\u0003\u0001\u0000\u001f\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0014\u0003"
+            + "\u0001\u002e\u0008\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003"
+            + "\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u000e\u0003\u0001\u0000\u001f\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u000b\u0003\u0001\u002f\u0011\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003"
+            + "\u0001\u0000\u000e\u0003\u0001\u0000\u001f\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0016\u0003"
+            + "\u0001\u0030\u0006\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003"
+            + "\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u000e\u0003\u0001\u0000\u001f\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\n\u0003\u0001\u0031\u0012\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003"
+            + "\u0001\u0000\u000e\u0003\u0001\u0000\u001f\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u000f\u0003"
+            + "\u0001\u0032\r\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003"
+            + "\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u000e\u0003\u0001\u0000\u001f\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u0007\u0003\u0001\u0033\u0015\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003"
+            + "\u0001\u0000\u000e\u0003\u0001\u0000\u001f\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0016\u0003"
+            + "\u0001\u0034\u0006\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003"
+            + "\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u000e\u0003\u0001\u0000\u001f\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u000b\u0003\u0001\u0035\u0011\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003"
+            + "\u0001\u0000\u000e\u0003\u0001\u0000\u001f\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0005\u0003"
+            + "\u0001\u0025\u0017\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003"
+            + "\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u000e\u0003\u0001\u0000\u001f\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u0003\u0003\u0001\u0037\u0019\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003"
+            + "\u0001\u0000\u000e\u0003\u0001\u0000\u001f\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0010\u0003"
+            + "\u0001\u0038\u000c\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003"
+            + "\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u000e\u0003\u0001\u0000\u001f\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u0011\u0003\u0001\u0039\u000b\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003"
+            + "\u0001\u0000\u000e\u0003\u0001\u0000\u001f\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0010\u0003"
+            + "\u0001\u003a\u000c\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003"
+            + "\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u000e\u0003\u0001\u0000\u001f\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u000b\u0003\u0001\u003b\u0011\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003"
+            + "\u0001\u0000\u000e\u0003\u0001\u0000\u001f\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0005\u0003"
+            + "\u0001\u003c\u0017\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003"
+            + "\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u000e\u0003\u0001\u0000\u001f\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u0003\u0003\u0001\u003d\u0019\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003"
+            + "\u0001\u0000\u000e\u0003\u0001\u0000\u001f\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u000e\u0003"
+            + "\u0001\u0025\u000e\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00bd\u0000\u0001\u003f"
+            + "\u00c5\u0000\n\u003f\u0001\u0040\u00f5\u003f\u0001\u0040\u0122\u0000\u0001\u0003\u0001\u0004"
+            + "\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u000b\u0042"
+            + "\u0001\u0000\u0005\u0003\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0042"
+            + "\u0001\u0003\u000b\u0042\u0001\u0043\u000e\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003"
+            + "\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0042\u0001\u0003\u000b\u0042\u0001\u0000\u0005\u0003\u001a\u0042\u0001\u0000\u0001\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000"
+            + "\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000"
+            + "\u0001\u0003\u0001\u0042\u0001\u0003\u000b\u0042\u0001\u0000\u0005\u0003\u001a\u0042\u0001\u0000"
+            + "\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u0008\u0042\u0001\u0044\u0011\u0042"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003"
+            + "\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u000b\u0042\u0001\u0000"
+            + "\u0005\u0003\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003"
+            + "\u0006\u0042\u0001\u0045\u0013\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000"
+            + "\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003\u0001\u0042"
+            + "\u0001\u0003\u000b\u0042\u0001\u0000\u0005\u0003\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000"
+            + "\u0001\u0003\u0001\u0042\u0001\u0003\r\u0042\u0001\u0046\u000c\u0042\u0001\u0000\u0001\u0003"
+            + "\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u000b\u0042\u0001\u0000\u0001\u0003\u0001\u0047"
+            + "\u0003\u0003\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003"
+            + "\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004"
+            + "\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0003\u0003\u0001\u0048\u0009\u0049\u0001\u0003"
+            + "\u0001\u0000\u001f\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u001d\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003"
+            + "\u0001\u0000\u0003\u0003\n\u0049\u0001\u0003\u0001\u0000\u001f\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u004a\u0018\u0003\u0001\u004b\u0002\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003"
+            + "\u0001\u0000\u0003\u0003\n\u0049\u0001\u0003\u0001\u0000\u001f\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u004a\u001b\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003"
+            + "\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0003\u0003"
+            + "\n\u0049\u0001\u0003\u0001\u0000\u001f\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u001d\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003"
+            + "\u0002\u0000\u0002\u0003\u0001\u0000\u0003\u0003\n\u004c\u0001\u0003\u0001\u0000\u0005\u0003"
+            + "\u0006\u004c\u0014\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0003\u0003\u0006\u004c\u0014\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003"
+            + "\u0002\u0000\u0002\u0003\u0001\u0000\u0003\u0003\n\u004c\u0001\u0003\u0001\u0000\u0005\u0003"
+            + "\u0006\u004c\u0014\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u004b\u0001\u0003"
+            + "\u0006\u004c\u0014\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003"
+            + "\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003"
+            + "\u000b\u0042\u0001\u0000\u0005\u0003\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0042\u0001\u0003\r\u0042\u0001\u004e\u000c\u0042\u0001\u0000\u0001\u0003\u0001\u0000"
+            + "\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000"
+            + "\u0001\u0003\u0001\u0042\u0001\u0003\u000b\u0042\u0001\u0000\u0005\u0003\u001a\u0042\u0001\u0000"
+            + "\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u0005\u0042\u0001\u004f\u0014\u0042"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003"
+            + "\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u000b\u0042\u0001\u0000"
+            + "\u0005\u0003\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003"
+            + "\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004"
+            + "\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u000b\u0042"
+            + "\u0001\u0000\u0005\u0003\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0042"
+            + "\u0001\u0003\u0001\u0051\u0019\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000"
+            + "\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003\u0001\u0042"
+            + "\u0001\u0003\u000b\u0042\u0001\u0000\u0005\u0003\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000"
+            + "\u0001\u0003\u0001\u0042\u0001\u0003\r\u0042\u0001\u0052\u000c\u0042\u0001\u0000\u0001\u0003"
+            + "\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\n\u0042\u0001\u0053\u0001\u0000\u0005\u0003"
+            + "\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u001a\u0042"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003"
+            + "\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u0001\u0054\n\u0042"
+            + "\u0001\u0000\u0005\u0003\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0042"
+            + "\u0001\u0003\u0001\u0057\u0001\u0042\u0001\u0060\u0017\u0042\u0001\u0000\u0001\u0003\u0001\u0000"
+            + "\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000"
+            + "\u0001\u0003\u0001\u0042\u0001\u0003\u000b\u0042\u0001\u0000\u0005\u0003\u001a\u0042\u0001\u0000"
+            + "\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u0017\u0042\u0001\u0055\u0002\u0042"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003"
+            + "\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\n\u0056\u0001\u0042"
+            + "\u0001\u0000\u0005\u0003\u0006\u0056\u0014\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0042\u0001\u0003\u0006\u0056\u0014\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003"
+            + "\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0042\u0001\u0003\n\u0056\u0001\u0042\u0001\u0000\u0005\u0003\u0006\u0056\u0014\u0042"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0055\u0001\u0003\u0006\u0056\u0014\u0042"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003"
+            + "\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u000b\u0042\u0001\u0000"
+            + "\u0005\u0003\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003"
+            + "\u0011\u0042\u0001\u0058\u0008\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000"
+            + "\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003\u0001\u0042"
+            + "\u0001\u0003\u000b\u0042\u0001\u0000\u0005\u0003\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000"
+            + "\u0001\u0003\u0001\u0042\u0001\u0003\u0008\u0042\u0001\u0059\u0011\u0042\u0001\u0000\u0001\u0003"
+            + "\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u000b\u0042\u0001\u0000\u0005\u0003\u001a\u0042"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u0013\u0042\u0001\u005a"
+            + "\u0006\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004"
+            + "\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u000b\u0042"
+            + "\u0001\u0000\u0005\u0003\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0042"
+            + "\u0001\u0003\u0007\u0042\u0001\u005b\u0012\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003"
+            + "\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0042\u0001\u0003\u000b\u0042\u0001\u0000\u0005\u0003\u001a\u0042\u0001\u0000\u0001\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u000c\u0042\u0001\\\r\u0042\u0001\u0000"
+            + "\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000"
+            + "\u0002\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u000b\u0042\u0001\u0000\u0005\u0003"
+            + "\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u0004\u0042"
+            + "\u0001\u005d\u0015\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003"
+            + "\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003"
+            + "\u000b\u0042\u0001\u0000\u0005\u0003\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0042\u0001\u0003\u0013\u0042\u0001\u005e\u0006\u0042\u0001\u0000\u0001\u0003\u0001\u0000"
+            + "\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000"
+            + "\u0001\u0003\u0001\u0042\u0001\u0003\u000b\u0042\u0001\u0000\u0005\u0003\u001a\u0042\u0001\u0000"
+            + "\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u0008\u0042\u0001\u005f\u0011\u0042"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003"
+            + "\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u000b\u0042\u0001\u0000"
+            + "\u0005\u0003\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003"
+            + "\u0002\u0042\u0001\u004f\u0017\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000"
+            + "\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003\u0001\u0042"
+            + "\u0001\u0003\u000b\u0042\u0001\u0000\u0005\u0003\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000"
+            + "\u0001\u0003\u0001\u0042\u0001\u0003\u0001\u0061\u0019\u0042\u0001\u0000\u0001\u0003\u0001\u0000"
+            + "\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000"
+            + "\u0001\u0003\u0001\u0042\u0001\u0003\u000b\u0042\u0001\u0000\u0005\u0003\u001a\u0042\u0001\u0000"
+            + "\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\r\u0042\u0001\u0062\u000c\u0042"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003"
+            + "\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u000b\u0042\u0001\u0000"
+            + "\u0005\u0003\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003"
+            + "\u000e\u0042\u0001\u0063\u000b\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000"
+            + "\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003\u0001\u0042"
+            + "\u0001\u0003\u000b\u0042\u0001\u0000\u0005\u0003\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000"
+            + "\u0001\u0003\u0001\u0042\u0001\u0003\r\u0042\u0001\u0064\u000c\u0042\u0001\u0000\u0001\u0003"
+            + "\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u000b\u0042\u0001\u0000\u0005\u0003\u001a\u0042"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u0008\u0042\u0001\u0065"
+            + "\u0011\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004"
+            + "\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u000b\u0042"
+            + "\u0001\u0000\u0005\u0003\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0042"
+            + "\u0001\u0003\u0002\u0042\u0001\u0066\u0017\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003"
+            + "\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0042\u0001\u0003\u000b\u0042\u0001\u0000\u0005\u0003\u001a\u0042\u0001\u0000\u0001\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u0001\u0067\u0019\u0042\u0001\u0000\u0001\u0003"
+            + "\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u000b\u0042\u0001\u0000\u0005\u0003\u001a\u0042"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u000b\u0042\u0001\u004f"
+            + "\u000e\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004"
+            + "\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u000b\u0042"
+            + "\u0001\u0000\u0005\u0003\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0042"
+            + "\u0001\u0003\u0005\u0042\u0001\u0069\u0014\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003"
+            + "\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0042\u0001\u0003\u000b\u0042\u0001\u0000\u0005\u0003\u001a\u0042\u0001\u0000\u0001\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u0005\u0042\u0001\u006a\u0014\u0042\u0001\u0000"
+            + "\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000"
+            + "\u0002\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u000b\u0042\u0001\u0000\u0005\u0003"
+            + "\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u0012\u0042"
+            + "\u0001\u006b\u0007\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003"
+            + "\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003"
+            + "\u000b\u0042\u0001\u0000\u0005\u0003\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0042\u0001\u0003\u0004\u0042\u0001\u006c\u0015\u0042\u0001\u0000\u0001\u0003\u0001\u0000"
+            + "\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000"
+            + "\u0001\u0003\u0001\u0042\u0001\u0003\u000b\u0042\u0001\u0000\u0005\u0003\u001a\u0042\u0001\u0000"
+            + "\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u0013\u0042\u0001\u006d\u0006\u0042"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003"
+            + "\u0002\u0000\u0002\u0003\u0001\u0000\u0001\u0003\u0001\u0042\u0001\u0003\u000b\u0042\u0001\u0000"
+            + "\u0001\u0003\u0001\u006e\u0003\u0003\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0042\u0001\u0003\u001a\u0042\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000"
+            + "\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0003\u0003\u0001\u006f"
+            + "\u0009\u0070\u0001\u0003\u0001\u0000\u001f\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u001d\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003"
+            + "\u0002\u0000\u0002\u0003\u0001\u0000\u0003\u0003\n\u0070\u0001\u0003\u0001\u0000\u001f\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0071\u0018\u0003\u0001\u0072\u0002\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003"
+            + "\u0002\u0000\u0002\u0003\u0001\u0000\u0003\u0003\n\u0070\u0001\u0003\u0001\u0000\u001f\u0003"
+            + "\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u0001\u0071\u001b\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003"
+            + "\u0001\u0000\u0003\u0003\n\u0070\u0001\u0003\u0001\u0000\u001f\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0000\u001d\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003"
+            + "\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0003\u0003\n\u0073\u0001\u0003"
+            + "\u0001\u0000\u0005\u0003\u0006\u0073\u0014\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0003\u0003"
+            + "\u0006\u0073\u0014\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003\u00a3\u0000\u0001\u0003"
+            + "\u0001\u0004\u0005\u0003\u0002\u0000\u0002\u0003\u0001\u0000\u0003\u0003\n\u0073\u0001\u0003"
+            + "\u0001\u0000\u0005\u0003\u0006\u0073\u0014\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003"
+            + "\u0001\u0072\u0001\u0003\u0006\u0073\u0014\u0003\u0001\u0000\u0001\u0003\u0001\u0000\u0001\u0003"
+            + "\u0082\u0000";
+}
@@ -23,15 +23,18 @@ public class LineCountingPushbackByteInputStream<E extends Exception> {
     }
 
     public long position() {
-        return bis.position();
+        return hasPushback ? bis.position() - 1 : bis.position();
     }
 
     public int get() throws E {
+        int c;
         if (hasPushback) {
             hasPushback = false;
-            return pushback;
+            c = pushback;
+        } else {
+            c = bis.get();
         }
-        int c = bis.get();
+        // count pushed back bytes again, since unread uncounted them
         if (c == '\n') {
             line++;
             lastCol = col;
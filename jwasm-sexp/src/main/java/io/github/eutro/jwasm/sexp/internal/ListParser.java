@@ -133,7 +133,16 @@ public class ListParser {
     }
 
     private static long parseIX(Object obj, int x) {
-        BigInteger bigInt = expectBigInt(obj);
+        WatReader.ParsedNumber num = expectClass(WatReader.ParsedNumber.class, obj);
+        if (num.isSmallInteger()) {
+            long magnitude = num.getMagnitude();
+            // signed values down to -2^(x-1), unsigned values up to 2^x-1
+            boolean inRange = num.sign < 0
+                    ? Long.compareUnsigned(magnitude, 1L << (x - 1)) <= 0
+                    : x == 64 || Long.compareUnsigned(magnitude, (1L << x) - 1) <= 0;
+            if (inRange) return num.sign < 0 ? -magnitude : magnitude;
+        }
+        BigInteger bigInt = num.toBigInt();
         if (bigInt.compareTo(BigInteger.ONE.shiftLeft(x - 1).negate()) < 0
                 || bigInt.compareTo(BigInteger.ONE.shiftLeft(x).subtract(BigInteger.ONE)) > 0) {
             throw new WatParser.ParseException("i" + x + " constant out of range", bigInt,
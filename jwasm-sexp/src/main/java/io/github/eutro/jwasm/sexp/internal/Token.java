@@ -8,7 +8,6 @@ import java.io.ByteArrayOutputStream;
 import java.math.BigInteger;
 import java.util.Objects;
 import java.util.function.Function;
-import java.util.regex.Matcher;
 
 public class Token {
     public final Type ty;
@@ -68,39 +67,23 @@ public class Token {
             }
         }
 
-        Matcher matcher = expType.expMarker.matcher(num);
-        String base;
-        BigInteger exponent;
-        if (matcher.region(i, num.length()).find()) {
-            base = num.substring(i, matcher.start());
-            exponent = new BigInteger(num.substring(matcher.end()));
-        } else {
-            base = num.substring(i);
-            exponent = BigInteger.ZERO;
+        // most numbers are plain integers, which need no BigInteger
+        int radix = expType.radix;
+        long limit = Long.divideUnsigned(-1L, radix);
+        long magnitude = 0;
+        int j = i;
+        for (; j < num.length(); j++) {
+            int digit = Character.digit(num.charAt(j), radix);
+            if (digit < 0 || Long.compareUnsigned(magnitude, limit) > 0) break;
+            long next = magnitude * radix + digit;
+            if (Long.compareUnsigned(next, magnitude * radix) < 0) break;
+            magnitude = next;
         }
-
-        String[] parts = base.split("\\.", 2);
-        String whole = parts[0];
-
-        BigInteger mantissa = new BigInteger(whole, expType.radix);
-        if (parts.length == 2) {
-            String frac = parts[1];
-            if (frac.length() != 0) {
-                BigInteger fracPart = new BigInteger(frac, expType.radix);
-                if (expType == ParsedNumber.ExpType.DEC) {
-                    mantissa = mantissa.multiply(BigInteger.TEN.pow(frac.length()));
-                    exponent = exponent.subtract(BigInteger.valueOf(frac.length()));
-                } else {
-                    int LOG_2_SIXTEEN = 4;
-                    mantissa = mantissa.shiftLeft(frac.length() * LOG_2_SIXTEEN);
-                    exponent = exponent.subtract(BigInteger.valueOf(frac.length())
-                            .multiply(BigInteger.valueOf(LOG_2_SIXTEEN)));
-                }
-                mantissa = mantissa.add(fracPart);
-            }
+        if (j == num.length() && j > i) {
+            return ParsedNumber.ofMagnitude(num, hasSign, sign, expType, i, magnitude);
         }
 
-        return new WatReader.ParsedNumber(num, sign, mantissa, exponent, expType, hasSign);
+        return ParsedNumber.ofDigits(num, hasSign, sign, expType, i);
     }
 
     public static Object parseString(String str) {
@@ -0,0 +1,328 @@
+package io.github.eutro.jwasm.sexp.wast;
+
+import io.github.eutro.jwasm.sexp.WatParser;
+import io.github.eutro.jwasm.sexp.WatWriter;
+import io.github.eutro.jwasm.tree.ModuleNode;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Runs many wast scripts concurrently, each with its own {@link WastVisitor}, and reports how each went.
+ * <p>
+ * Scripts are independent of each other, so a visitor should not share mutable state with the visitors
+ * of other scripts, unless that state is safe to share between threads.
+ * <p>
+ * Many scripts define the same modules, so visitors can {@link #parseModule(Object) parse} modules through
+ * the runner, which parses each distinct module only once, however many scripts define it.
+ *
+ * @see WastReader
+ */
+public final class WastRunner {
+    private final Executor executor;
+    private final ConcurrentMap<String, CompletableFuture<ModuleNode>> modules = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong(), misses = new AtomicLong();
+
+    /**
+     * Construct a runner that runs scripts on the given executor.
+     *
+     * @param executor The executor to run each script on.
+     */
+    public WastRunner(@NotNull Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Parse a {@link WastModuleVisitor#visitWatModule(Object) module} of a script with {@link WatParser#DEFAULT},
+     * sharing the result with every other script of this runner that defines the same module.
+     * <p>
+     * Modules are keyed by their source text, as {@link WatWriter#writeToString(Object) written} from their
+     * s-expression, and kept for as long as the runner is, or until {@link #clearModules()}.
+     * If several threads parse the same module at once, only one parses it and the others wait for it.
+     * Modules that fail to parse are not kept, and throw every time they are parsed.
+     * <p>
+     * This may be called from any thread.
+     *
+     * @param module The s-expression of the module.
+     * @return The shared module, which must not be modified.
+     * @throws WatParser.ParseException If the module is not syntactically valid.
+     */
+    public ModuleNode parseModule(Object module) {
+        String key = WatWriter.writeToString(module);
+        CompletableFuture<ModuleNode> parsed = new CompletableFuture<>();
+        CompletableFuture<ModuleNode> existing = modules.putIfAbsent(key, parsed);
+        if (existing != null) {
+            hits.incrementAndGet();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                if (cause instanceof Error) throw (Error) cause;
+                throw e;
+            }
+        }
+        misses.incrementAndGet();
+        try {
+            ModuleNode node = WatParser.DEFAULT.parseModule(module);
+            parsed.complete(node);
+            return node;
+        } catch (RuntimeException | Error e) {
+            modules.remove(key, parsed);
+            parsed.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Get the number of {@link #parseModule(Object) parsed} modules that were shared from another parse.
+     *
+     * @return The number of hits.
+     */
+    public long getModuleHits() {
+        return hits.get();
+    }
+
+    /**
+     * Get the number of {@link #parseModule(Object) parsed} modules that had to be parsed.
+     *
+     * @return The number of misses.
+     */
+    public long getModuleMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Forget every module that has been {@link #parseModule(Object) parsed}.
+     */
+    public void clearModules() {
+        modules.clear();
+    }
+
+    /**
+     * A named wast script that can be opened for reading.
+     */
+    public interface Script {
+        /**
+         * Get the name of the script.
+         *
+         * @return The name.
+         */
+        String getName();
+
+        /**
+         * Open a stream to read the source of the script.
+         *
+         * @return The stream.
+         * @throws IOException If opening the script fails.
+         */
+        InputStream open() throws IOException;
+
+        /**
+         * Create a script from a source string.
+         *
+         * @param name   The name of the script.
+         * @param source The source of the script.
+         * @return The script.
+         */
+        static Script of(String name, CharSequence source) {
+            byte[] bytes = source.toString().getBytes(StandardCharsets.UTF_8);
+            return of(name, () -> new ByteArrayInputStream(bytes));
+        }
+
+        /**
+         * Create a script from a URL.
+         *
+         * @param name The name of the script.
+         * @param url  The URL to read the script from.
+         * @return The script.
+         */
+        static Script of(String name, URL url) {
+            return of(name, url::openStream);
+        }
+
+        /**
+         * Create a script from a function that opens a stream.
+         *
+         * @param name   The name of the script.
+         * @param opener The function that opens a stream to the source of the script.
+         * @return The script.
+         */
+        static Script of(String name, Opener opener) {
+            return new Script() {
+                @Override
+                public String getName() {
+                    return name;
+                }
+
+                @Override
+                public InputStream open() throws IOException {
+                    return opener.open();
+                }
+
+                @Override
+                public String toString() {
+                    return name;
+                }
+            };
+        }
+
+        /**
+         * A function that opens a stream to the source of a script.
+         */
+        @FunctionalInterface
+        interface Opener {
+            /**
+             * Open the stream.
+             *
+             * @return The stream.
+             * @throws IOException If opening the stream fails.
+             */
+            InputStream open() throws IOException;
+        }
+    }
+
+    /**
+     * The outcome of running a single script.
+     */
+    public static final class Result {
+        private final Script script;
+        private final @Nullable Throwable failure;
+        private final long nanos;
+
+        Result(Script script, @Nullable Throwable failure, long nanos) {
+            this.script = script;
+            this.failure = failure;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Get the script that was run.
+         *
+         * @return The script.
+         */
+        public Script getScript() {
+            return script;
+        }
+
+        /**
+         * Get whether the script was read and visited without anything being thrown.
+         *
+         * @return Whether the script passed.
+         */
+        public boolean passed() {
+            return failure == null;
+        }
+
+        /**
+         * Get what was thrown while reading or visiting the script.
+         *
+         * @return The failure, or null if the script passed.
+         */
+        public @Nullable Throwable getFailure() {
+            return failure;
+        }
+
+        /**
+         * Get how long it took to read and visit the script.
+         *
+         * @return The time taken, in nanoseconds.
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return script.getName() + ": " + (failure == null ? "passed" : "failed (" + failure + ")")
+                    + " in " + nanos / 1_000_000 + "ms";
+        }
+    }
+
+    /**
+     * Read a manifest of scripts, which lists the path of one script per line,
+     * relative to the manifest itself.
+     *
+     * @param manifest The URL of the manifest.
+     * @return The scripts, in the order they are listed.
+     * @throws IOException If reading the manifest fails.
+     */
+    public static List<Script> readManifest(URL manifest) throws IOException {
+        List<Script> scripts = new ArrayList<>();
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(manifest.openStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = br.readLine()) != null) {
+                if (line.isEmpty()) continue;
+                scripts.add(Script.of(line, new URL(manifest, line)));
+            }
+        }
+        return scripts;
+    }
+
+    /**
+     * Run a script on the calling thread.
+     *
+     * @param script  The script to run.
+     * @param visitor The visitor to visit the script with.
+     * @return The result of running the script.
+     */
+    public static Result runScript(Script script, WastVisitor visitor) {
+        long start = System.nanoTime();
+        Throwable failure = null;
+        try {
+            WastReader reader;
+            try (InputStream is = script.open()) {
+                reader = WastReader.fromSource(is);
+            }
+            reader.accept(visitor);
+        } catch (Exception | Error e) {
+            failure = e;
+        }
+        return new Result(script, failure, System.nanoTime() - start);
+    }
+
+    /**
+     * Run scripts concurrently, waiting until all of them have finished.
+     *
+     * @param scripts  The scripts to run.
+     * @param visitors A function that creates the visitor to visit each script with.
+     * @return The results of running each script, in the same order as the scripts.
+     */
+    public List<Result> run(Collection<? extends Script> scripts,
+                            Function<? super Script, ? extends WastVisitor> visitors) {
+        List<CompletableFuture<Result>> futures = new ArrayList<>(scripts.size());
+        for (Script script : scripts) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                WastVisitor visitor;
+                try {
+                    visitor = visitors.apply(script);
+                } catch (RuntimeException | Error e) {
+                    return new Result(script, e, 0);
+                }
+                return runScript(script, visitor);
+            }, executor));
+        }
+        List<Result> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<Result> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+}
@@ -0,0 +1,174 @@
+package io.github.eutro.jwasm.sexp;
+
+import io.github.eutro.jwasm.ModuleWriter;
+import io.github.eutro.jwasm.ValidationException;
+import io.github.eutro.jwasm.tree.ModuleNode;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementalWatParserTest {
+    private static final String MODULE = "(module $m\n" +
+            "  (type $t (func (param i32) (result i32)))\n" +
+            "  (func $a (export \"a\") (type $t) local.get 0 call $b)\n" +
+            "  (func $b (param i32) (result i32) (i32.add (local.get 0) (i32.const 1)))\n" +
+            "  ;; a comment\n" +
+            "  (func $c (param i64) (result i64) (block (result i64) local.get 0))\n" +
+            ")";
+
+    /**
+     * Tracks the text alongside an {@link IncrementalWatParser}, checking each edit against a full parse.
+     */
+    private static class Editor {
+        final IncrementalWatParser parser = new IncrementalWatParser();
+        String text;
+        ModuleNode module;
+
+        Editor(String text) {
+            this.text = text;
+            module = parser.parse(text);
+            assertSameBytes(fullParse(text), module);
+        }
+
+        ModuleNode replace(String target, String replacement) {
+            int start = bytes(text.substring(0, text.indexOf(target)));
+            return edit(start, start + bytes(target), replacement);
+        }
+
+        ModuleNode edit(int start, int end, String replacement) {
+            byte[] old = text.getBytes(StandardCharsets.UTF_8);
+            text = new String(old, 0, start, StandardCharsets.UTF_8)
+                    + replacement
+                    + new String(old, end, old.length - end, StandardCharsets.UTF_8);
+            module = parser.edit(start, end, replacement);
+            assertSameBytes(fullParse(text), module);
+            return module;
+        }
+
+        static int bytes(String s) {
+            return s.getBytes(StandardCharsets.UTF_8).length;
+        }
+    }
+
+    private static ModuleNode fullParse(String text) {
+        List<Object> read = WatReader.readAll(text);
+        if (read.size() == 1 && ((List<?>) read.get(0)).get(0).equals("module")) {
+            return WatParser.DEFAULT.parseModule(read.get(0));
+        }
+        List<Object> module = new ArrayList<>();
+        module.add("module");
+        module.addAll(read);
+        return WatParser.DEFAULT.parseModule(module);
+    }
+
+    private static void assertSameBytes(ModuleNode expected, ModuleNode actual) {
+        ModuleWriter expectedWriter = new ModuleWriter();
+        expected.accept(expectedWriter);
+        ModuleWriter actualWriter = new ModuleWriter();
+        actual.accept(actualWriter);
+        assertArrayEquals(expectedWriter.toByteArray(), actualWriter.toByteArray());
+    }
+
+    @Test
+    void editFunctionBody() {
+        Editor editor = new Editor(MODULE);
+        ModuleNode before = editor.module;
+        assertNotNull(before.codes);
+
+        ModuleNode after = editor.replace("i32.const 1", "i32.const 2");
+        assertNotNull(after.codes);
+        assertSame(before.codes.codes.get(0), after.codes.codes.get(0));
+        assertNotSame(before.codes.codes.get(1), after.codes.codes.get(1));
+        assertSame(before.codes.codes.get(2), after.codes.codes.get(2));
+        assertNotNull(before.funcs);
+        assertNotNull(after.funcs);
+        assertSame(before.funcs.funcs.get(2), after.funcs.funcs.get(2));
+
+        ModuleNode again = editor.replace("  ;; a comment\n", "  ;; another comment\n");
+        assertNotNull(again.codes);
+        assertSame(after.codes.codes.get(1), again.codes.codes.get(1));
+    }
+
+    @Test
+    void editIdentifiers() {
+        Editor editor = new Editor(MODULE);
+        // every function index after $b changes
+        editor.replace("(func $b", "(func $new (param i32) (result i32) local.get 0) (func $b");
+        // an inline type is added, so types after it change
+        editor.replace("(func $c (param i64) (result i64)", "(func $c (param i64) (result i64) (local f32)");
+        editor.replace("(param i64)", "(param f64)");
+        editor.replace("call $b", "call $new");
+        editor.replace("call $new", "call $b");
+        // removing a function entirely
+        editor.replace("(func $new (param i32) (result i32) local.get 0) ", "");
+        assertThrows(WatParser.ParseException.class, () -> editor.replace("call $b", "call $none"));
+        editor.replace("call $none", "call $a");
+    }
+
+    @Test
+    void editAcrossFields() {
+        Editor editor = new Editor(MODULE);
+        int start = Editor.bytes(MODULE.substring(0, MODULE.indexOf("local.get 0 call")));
+        int end = Editor.bytes(MODULE.substring(0, MODULE.indexOf("(i32.add")));
+        editor.edit(start, end, "i32.const 0) (func $b (param i32) (result i32) ");
+        // appending a field at the end of the module
+        int close = Editor.bytes(editor.text) - 1;
+        editor.edit(close, close, "(memory 1) (data (i32.const 0) \"\\00\")\n");
+        // inserting between fields
+        editor.replace("  ;; a comment\n", "  (global i32 (i32.const 0))\n");
+    }
+
+    @Test
+    void editComments() {
+        Editor editor = new Editor(MODULE);
+        // a line comment that runs into the next field
+        assertThrows(WatParser.ParseException.class,
+                () -> editor.replace("local.get 0 call $b)\n", "local.get 0 call $b) ;;"));
+        editor.replace(";;", ";;\n");
+        // a block comment swallowing a field
+        assertThrows(ValidationException.class, () -> editor.replace("  ;; a comment\n", "(;"));
+        assertThrows(ValidationException.class, () -> editor.edit(0, 0, ""));
+        editor.replace("(;", "(; ;)");
+    }
+
+    @Test
+    void editHeader() {
+        Editor editor = new Editor(MODULE);
+        editor.replace("(module $m\n", "(module\n");
+        editor.replace("(module\n", "(module $n\n");
+        int close = Editor.bytes(editor.text) - 1;
+        assertThrows(ValidationException.class, () -> editor.edit(close, close + 1, ""));
+        ModuleNode module = editor.replace("(module $n", "");
+        assertNotNull(module.codes);
+        assertEquals(3, module.codes.codes.size());
+
+        // an id inserted after the header, which is read as part of the first field
+        Editor unnamed = new Editor("(module (func $f) (func $g))");
+        unnamed.edit(8, 8, "$m ");
+        unnamed.replace("$m ", "");
+    }
+
+    @Test
+    void editBareFields() {
+        Editor editor = new Editor("(func $f (result i32) i32.const 0)\n(func $g (result i64) i64.const 0)");
+        ModuleNode before = editor.module;
+        ModuleNode after = editor.replace("i64.const 0", "i64.const 1");
+        assertNotNull(before.codes);
+        assertNotNull(after.codes);
+        assertSame(before.codes.codes.get(0), after.codes.codes.get(0));
+        editor.edit(0, 0, "(memory 1)");
+        assertThrows(ValidationException.class, () -> editor.replace(")", ""));
+        assertThrows(ValidationException.class, () -> editor.edit(0, 0, " "));
+        editor.replace("(memory 1", "(memory 1)");
+
+        // wrapping the fields in a module
+        ModuleNode module = editor.edit(0, Editor.bytes(editor.text), "(module (func $g))");
+        assertNotNull(module.funcs);
+        assertEquals(1, module.funcs.funcs.size());
+        editor.edit(0, Editor.bytes(editor.text), "(func $f) (func $g)");
+    }
+}
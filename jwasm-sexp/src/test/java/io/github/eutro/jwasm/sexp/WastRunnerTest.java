@@ -0,0 +1,127 @@
+package io.github.eutro.jwasm.sexp;
+
+import io.github.eutro.jwasm.sexp.wast.WastModuleVisitor;
+import io.github.eutro.jwasm.sexp.wast.WastRunner;
+import io.github.eutro.jwasm.sexp.wast.WastVisitor;
+import io.github.eutro.jwasm.tree.analysis.ModuleValidator;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WastRunnerTest {
+    static class ValidatingVisitor extends WastVisitor {
+        private final WastRunner runner;
+
+        ValidatingVisitor(WastRunner runner) {
+            this.runner = runner;
+        }
+
+        @Override
+        public @Nullable WastModuleVisitor visitModule(@Nullable String name) {
+            return new WastModuleVisitor() {
+                @Override
+                public void visitWatModule(Object module) {
+                    runner.parseModule(module).accept(new ModuleValidator());
+                }
+            };
+        }
+    }
+
+    @Test
+    void runConcurrently() {
+        List<WastRunner.Script> scripts = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            scripts.add(WastRunner.Script.of("ok" + i,
+                    "(module (func (export \"f\") (result i32) i32.const " + i % 5 + "))\n" +
+                            "(assert_return (invoke \"f\") (i32.const " + i % 5 + "))"));
+        }
+        scripts.add(WastRunner.Script.of("invalid", "(module (func (result i32) i64.const 0))"));
+        scripts.add(WastRunner.Script.of("unreadable", "(module"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        WastRunner runner = new WastRunner(executor);
+        List<WastRunner.Result> results;
+        try {
+            results = runner.run(scripts, script -> new ValidatingVisitor(runner));
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(scripts.size(), results.size());
+        for (int i = 0; i < 20; i++) {
+            WastRunner.Result result = results.get(i);
+            assertSame(scripts.get(i), result.getScript());
+            assertTrue(result.passed(), result::toString);
+            assertTrue(result.getNanos() > 0);
+        }
+        assertFalse(results.get(20).passed());
+        assertNotNull(results.get(20).getFailure());
+        assertFalse(results.get(21).passed());
+
+        // five distinct valid modules and the invalid one, which still parses
+        assertEquals(6, runner.getModuleMisses());
+        assertEquals(15, runner.getModuleHits());
+        runner.clearModules();
+        runner.parseModule(WatReader.readAll("(module)").get(0));
+        assertEquals(7, runner.getModuleMisses());
+    }
+
+    @Test
+    void sharesParsedModules() {
+        WastRunner runner = new WastRunner(Runnable::run);
+        Object module = WatReader.readAll("(module (func (export \"f\")))").get(0);
+        assertSame(runner.parseModule(module),
+                runner.parseModule(WatReader.readAll("(module\n  (func (export \"f\"))\n)").get(0)));
+        assertNotSame(runner.parseModule(module),
+                runner.parseModule(WatReader.readAll("(module (func (export \"g\")))").get(0)));
+
+        Object unparseable = WatReader.readAll("(module (func (export)))").get(0);
+        assertThrows(WatParser.ParseException.class, () -> runner.parseModule(unparseable));
+        assertThrows(WatParser.ParseException.class, () -> runner.parseModule(unparseable));
+        assertEquals(4, runner.getModuleMisses());
+        assertEquals(2, runner.getModuleHits());
+    }
+
+    @Test
+    void readManifest() throws IOException {
+        Path dir = Files.createTempDirectory("wast");
+        try {
+            Files.createDirectory(dir.resolve("sub"));
+            Files.write(dir.resolve("a.wast"), "(module $a)".getBytes(StandardCharsets.UTF_8));
+            Files.write(dir.resolve("sub/b.wast"), "(module $b)".getBytes(StandardCharsets.UTF_8));
+            Path manifest = dir.resolve("manifest.txt");
+            Files.write(manifest, Arrays.asList("a.wast", "", "sub/b.wast"), StandardCharsets.UTF_8);
+
+            List<WastRunner.Script> scripts = WastRunner.readManifest(manifest.toUri().toURL());
+            assertEquals(Arrays.asList("a.wast", "sub/b.wast"),
+                    scripts.stream().map(WastRunner.Script::getName).collect(Collectors.toList()));
+            assertEquals("(module $a)", read(scripts.get(0)));
+            assertEquals("(module $b)", read(scripts.get(1)));
+        } finally {
+            List<Path> paths = Files.walk(dir).collect(Collectors.toList());
+            Collections.reverse(paths);
+            for (Path path : paths) Files.delete(path);
+        }
+    }
+
+    private static String read(WastRunner.Script script) throws IOException {
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(script.open(), StandardCharsets.UTF_8))) {
+            return br.lines().collect(Collectors.joining("\n"));
+        }
+    }
+}
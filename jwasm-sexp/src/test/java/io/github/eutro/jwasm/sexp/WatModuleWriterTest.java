@@ -0,0 +1,56 @@
+package io.github.eutro.jwasm.sexp;
+
+import io.github.eutro.jwasm.ModuleReader;
+import io.github.eutro.jwasm.test.ModuleTestBase;
+import io.github.eutro.jwasm.tree.ModuleNode;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class WatModuleWriterTest extends ModuleTestBase {
+    @TestFactory
+    Stream<DynamicTest> writeTestSuite() {
+        return new UnparserTest().runTestSuite(module ->
+                assertEquals(WatWriter.writeToString(Unparser.unparse(module)),
+                        WatModuleWriter.writeToString(module)));
+    }
+
+    void assertWritesSame(String name) throws IOException {
+        ModuleNode node = new ModuleNode();
+        StringBuilder streamed = new StringBuilder();
+        try (InputStream is = openResource(name)) {
+            ModuleReader.fromInputStream(is).accept(new WatModuleWriter(streamed));
+        }
+        try (InputStream is = openResource(name)) {
+            ModuleReader.fromInputStream(is).accept(node);
+        }
+        String written = streamed.toString();
+        assertEquals(WatWriter.writeToString(Unparser.unparse(node)), written);
+
+        List<Object> read = WatReader.readAll(written);
+        assertEquals(1, read.size());
+        WatParser.DEFAULT.parseModule(read.get(0));
+    }
+
+    @Test
+    void helloWorld() throws IOException {
+        assertWritesSame(HELLO_WORLD);
+    }
+
+    @Test
+    void gameOfLife() throws IOException {
+        assertWritesSame(GAME_OF_LIFE);
+    }
+
+    @Test
+    void aoc() throws IOException {
+        assertWritesSame(AOC_SOLNS);
+    }
+}
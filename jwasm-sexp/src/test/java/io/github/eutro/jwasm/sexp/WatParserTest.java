@@ -1,5 +1,6 @@
 package io.github.eutro.jwasm.sexp;
 
+import io.github.eutro.jwasm.ModuleWriter;
 import io.github.eutro.jwasm.tree.ModuleNode;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.DynamicTest;
@@ -12,9 +13,12 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class WatParserTest {
     @TestFactory
@@ -62,4 +66,72 @@ public class WatParserTest {
 
         WatParser.DEFAULT.parseModule(script.get(0));
     }
+
+    @Test
+    void parseModuleToVisitor() throws Throwable {
+        String src = new String(Files.readAllBytes(
+                Paths.get(Objects.requireNonNull(WatParserTest.class.getResource("/wat/basic.wat"))
+                        .toURI())
+        ), StandardCharsets.UTF_8);
+        assertParsesToSameBytes(WatReader.readAll(src).get(0));
+        assertParsesToSameBytes(WatReader.readAll("(module" +
+                " (table 1 funcref)" +
+                " (memory 1)" +
+                " (func $f (export \"f\") (param i32) (result i32 i32)" +
+                "  (block (param i32) (result i32 i32) local.get 0)" +
+                "  call_indirect (param i32 i32) (result i32 i32) (i32.const 0))" +
+                " (func $g (param i64) (result i64) local.get 0)" +
+                " (elem (i32.const 0) $g)" +
+                " (data (i32.const 0) \"hi\"))").get(0));
+        // folded operands are resolved before the instruction, so their inline types come first
+        assertParsesToSameBytes(WatReader.readAll("(module" +
+                " (table 1 funcref)" +
+                " (func (result i32)" +
+                "  (call_indirect (param i64 i64) (result i32)" +
+                "   (block (result i64 i64) (i64.const 1) (i64.const 2))" +
+                "   (i32.const 0)))" +
+                " (func (param i32) (result f32)" +
+                "  (if (result f32) (block (result i32 i32 i32) (i32.const 0) (i32.const 1) (i32.const 2)) (drop) (drop)" +
+                "   (then (f32.const 0)) (else (f32.const 1)))))").get(0));
+    }
+
+    private static void assertParsesToSameBytes(Object module) {
+        ModuleWriter viaNode = new ModuleWriter();
+        WatParser.DEFAULT.parseModule(module).accept(viaNode);
+
+        ModuleWriter direct = new ModuleWriter();
+        WatParser.DEFAULT.parseModule(module, direct);
+
+        assertArrayEquals(viaNode.toByteArray(), direct.toByteArray());
+    }
+
+    @Test
+    void parseModuleInParallel() {
+        StringBuilder sb = new StringBuilder("(module (memory 1)");
+        for (int i = 0; i < 500; i++) {
+            sb.append(" (func $f").append(i).append(" (param i32) (result i32)")
+                    .append(" (block (param i32) (result i32 i").append(i % 2 == 0 ? "32" : "64").append(")")
+                    .append(" local.get 0 i").append(i % 2 == 0 ? "32" : "64").append(".const ").append(i)
+                    .append(") drop call $f").append((i + 1) % 500).append(")");
+            if (i % 100 == 0) sb.append(" (data (i32.const ").append(i).append(") \"x\")");
+        }
+        sb.append(")");
+        Object module = WatReader.readAll(sb).get(0);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            WatParser parallel = new WatParser(pool);
+            ModuleWriter sequential = new ModuleWriter();
+            WatParser.DEFAULT.parseModule(module).accept(sequential);
+            ModuleWriter parsed = new ModuleWriter();
+            parallel.parseModule(module).accept(parsed);
+            assertArrayEquals(sequential.toByteArray(), parsed.toByteArray());
+
+            List<Object> broken = new ArrayList<>((List<?>) module);
+            broken.set(300, WatReader.readAll("(func i32.bogus)").get(0));
+            assertThrows(WatParser.ParseException.class, () -> parallel.parseModule(broken));
+        } finally {
+            pool.shutdown();
+        }
+    }
 }
@@ -1,9 +1,14 @@
 package io.github.eutro.jwasm.sexp;
 
 import io.github.eutro.jwasm.ByteInputStream;
+import io.github.eutro.jwasm.ValidationException;
+import io.github.eutro.jwasm.sexp.internal.Lexer;
+import io.github.eutro.jwasm.sexp.internal.LexerDFA;
 import io.github.eutro.jwasm.sexp.internal.LineCountingPushbackByteInputStream;
+import io.github.eutro.jwasm.sexp.internal.ListParser;
 import io.github.eutro.jwasm.sexp.internal.Token;
 import io.github.eutro.jwasm.test.ModuleTestBase;
+import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.DynamicTest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
@@ -18,6 +23,7 @@ import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Random;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -42,6 +48,30 @@ class WatReaderTest {
         );
     }
 
+    @Test
+    void testGeneratedTables() {
+        assertEquals(LexerDFA.buildDFA(), LexerDFA.getDFA());
+    }
+
+    @Test
+    void testLexerOffsets() {
+        Lexer<RuntimeException> lexer = new Lexer<>(LexerDFA.getDFA(),
+                new LineCountingPushbackByteInputStream<>(new ByteInputStream.ByteBufferByteInputStream(
+                        ByteBuffer.wrap("(ab ;; x\n (; (; ;) ;) \"\u00e9\")".getBytes(StandardCharsets.UTF_8)))));
+        assertEquals(Type.T_BR_OPEN, lexer.next());
+        assertEquals(0, lexer.start());
+        assertEquals(Type.T_KEYWORD, lexer.next());
+        assertEquals(1, lexer.start());
+        assertEquals(3, lexer.end());
+        assertTrue(lexer.textEquals("ab"));
+        assertEquals(Type.T_STRING, lexer.next());
+        assertEquals(22, lexer.start());
+        assertEquals(26, lexer.end());
+        assertEquals("\"\u00e9\"", lexer.text());
+        assertEquals(Type.T_BR_CLOSE, lexer.next());
+        assertNull(lexer.next());
+    }
+
     @Test
     void testList() {
         assertEquals(
@@ -52,6 +82,114 @@ class WatReaderTest {
         );
     }
 
+    @Test
+    void testVisitor() {
+        StringBuilder sb = new StringBuilder();
+        WatReader.fromCharSequence("(a (b c) (skip (d)) e) f").accept(new SexpVisitor() {
+            @Override
+            public SexpVisitor visitList() {
+                sb.append('(');
+                return this;
+            }
+
+            @Override
+            public void visitAtom(@NotNull Object atom) {
+                if ("skip".equals(atom)) {
+                    sb.append("skip");
+                } else {
+                    sb.append(atom).append(' ');
+                }
+            }
+
+            @Override
+            public void visitEnd() {
+                sb.append(')');
+            }
+        });
+        assertEquals("(a (b c )(skip(d ))e )f )", sb.toString());
+        assertThrows(ValidationException.class, () -> WatReader.readAll("(a (b)"));
+        assertThrows(ValidationException.class, () -> WatReader.readAll("a)"));
+    }
+
+    @Test
+    void testSourceTable() {
+        WatReader<RuntimeException> reader = WatReader.fromCharSequence("(module\n" +
+                "  (func (i32.const 1) drop\n" +
+                "        (i32.const 1) drop\n" +
+                "        (i32.bogus)))");
+        SourceTable table = new SourceTable();
+        reader.setSourceTable(table);
+        List<?> module = (List<?>) reader.readNext().orElseThrow(AssertionError::new);
+        List<?> func = (List<?>) module.get(1);
+
+        assertEquals(WatWriter.writeToString(func.get(1)), WatWriter.writeToString(func.get(3)));
+        SrcLoc first = table.get(func.get(1));
+        SrcLoc second = table.get(func.get(3));
+        assertNotNull(first);
+        assertNotNull(second);
+        assertEquals(2, first.line);
+        assertEquals(8, first.col);
+        assertEquals(3, second.line);
+        assertEquals(8, second.col);
+        assertEquals(0, table.position(module));
+        assertEquals(-1, table.position(Collections.emptyList()));
+
+        WatParser.ParseException e = assertThrows(WatParser.ParseException.class,
+                () -> WatParser.DEFAULT.parseModule(module));
+        SrcLoc loc = e.locate(table);
+        assertNotNull(loc);
+        assertEquals(4, loc.line);
+    }
+
+    @Test
+    void testSmallNumbers() {
+        assertEquals(-1, ListParser.parseI32(Token.parseNumber("4294967295")));
+        assertEquals(Integer.MIN_VALUE, ListParser.parseI32(Token.parseNumber("-2147483648")));
+        assertEquals(Integer.MIN_VALUE, ListParser.parseI32(Token.parseNumber("0x8000_0000")));
+        assertThrows(WatParser.ParseException.class, () -> ListParser.parseI32(Token.parseNumber("4294967296")));
+        assertThrows(WatParser.ParseException.class, () -> ListParser.parseI32(Token.parseNumber("-2147483649")));
+        assertEquals(-1L, ListParser.parseI64(Token.parseNumber("0xffff_ffff_ffff_ffff")));
+        assertEquals(Long.MIN_VALUE, ListParser.parseI64(Token.parseNumber("-9223372036854775808")));
+        assertThrows(WatParser.ParseException.class,
+                () -> ListParser.parseI64(Token.parseNumber("18446744073709551616")));
+        assertThrows(WatParser.ParseException.class,
+                () -> ListParser.parseI64(Token.parseNumber("-9223372036854775809")));
+
+        assertTrue(Token.parseNumber("+1_000").isSmallInteger());
+        assertEquals(BigInteger.valueOf(1000), Token.parseNumber("+1_000").toBigInt());
+        assertEquals(new BigInteger("ffffffffffffffff", 16), Token.parseNumber("0xffffffffffffffff").toBigInt());
+        assertFalse(Token.parseNumber("18446744073709551616").isSmallInteger());
+        assertFalse(Token.parseNumber("1.5").isSmallInteger());
+        assertFalse(Token.parseNumber("1e3").isInteger());
+        assertTrue(Token.parseNumber("1.").isInteger());
+
+        WatReader.ParsedNumber small = Token.parseNumber("0x10");
+        WatReader.ParsedNumber frac = Token.parseNumber("1.5e2");
+        assertEquals(BigInteger.valueOf(16), small.getMantissa());
+        assertEquals(BigInteger.valueOf(15), frac.getMantissa());
+        assertEquals(BigInteger.ONE, frac.getExponent());
+        assertEquals(BigInteger.ZERO, small.getExponent());
+
+        assertEquals(16777216f, ListParser.parseF32(Token.parseNumber("16777217")));
+        assertEquals(Float.floatToRawIntBits(-0f), Float.floatToRawIntBits(ListParser.parseF32(Token.parseNumber("-0"))));
+        assertEquals(9007199254740992d, ListParser.parseF64(Token.parseNumber("9007199254740993")));
+        assertEquals(1.8446744073709552E19, ListParser.parseF64(Token.parseNumber("0xffffffffffffffff")));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void testDeprecatedNumberFields() {
+        // small integers don't build a BigInteger, so the old fields are left null
+        WatReader.ParsedNumber small = Token.parseNumber("100");
+        assertNull(small.mantissa);
+        assertNull(small.exponent);
+        assertEquals(BigInteger.valueOf(100), small.getMantissa());
+
+        WatReader.ParsedNumber frac = Token.parseNumber("1.5e2");
+        assertSame(frac.getMantissa(), frac.mantissa);
+        assertSame(frac.getExponent(), frac.exponent);
+    }
+
     @Test
     void testStrings() {
         assertArrayEquals(
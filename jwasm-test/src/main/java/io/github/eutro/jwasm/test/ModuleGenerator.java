@@ -0,0 +1,305 @@
+package io.github.eutro.jwasm.test;
+
+import io.github.eutro.jwasm.*;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import static io.github.eutro.jwasm.Opcodes.*;
+
+/**
+ * A generator of synthetic, valid modules of configurable scale, for testing and benchmarking
+ * how things scale with the size of their input.
+ * <p>
+ * Generated modules are deterministic: the same settings and seed always generate the same module.
+ * <p>
+ * Every function returns an {@code i32}, and its body is a chain of {@code i32} arithmetic on constants,
+ * wrapped in {@link #nesting(int) nested blocks}, optionally ending with a {@link #brTable(int) br_table}
+ * that branches out of them. Types each have a distinct list of parameters, and functions, imports and exports
+ * cycle through them.
+ */
+public final class ModuleGenerator {
+    private static final byte[] VALTYPES = {I32, I64, F32, F64};
+    private static final byte[] ARITHMETIC = {I32_ADD, I32_MUL, I32_XOR};
+    private static final int PAGE_SIZE = 1 << 16;
+
+    private long seed;
+    private int types = 1;
+    private int imports;
+    private int functions = 1;
+    private int instructions = 16;
+    private int nesting;
+    private int brTable;
+    private int exports;
+    private int dataSegments;
+    private int dataSegmentSize;
+
+    /**
+     * Construct a generator that generates a single small function.
+     */
+    public ModuleGenerator() {
+    }
+
+    /**
+     * Set the seed that constants and data are generated from.
+     *
+     * @param seed The seed.
+     * @return This generator.
+     */
+    public ModuleGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    /**
+     * Set the number of distinct function types.
+     *
+     * @param types The number of types, at least 1.
+     * @return This generator.
+     */
+    public ModuleGenerator types(int types) {
+        if (types < 1) throw new IllegalArgumentException("types must be at least 1");
+        this.types = types;
+        return this;
+    }
+
+    /**
+     * Set the number of imported functions.
+     *
+     * @param imports The number of imports.
+     * @return This generator.
+     */
+    public ModuleGenerator imports(int imports) {
+        this.imports = checkCount("imports", imports);
+        return this;
+    }
+
+    /**
+     * Set the number of functions defined in the module.
+     *
+     * @param functions The number of functions.
+     * @return This generator.
+     */
+    public ModuleGenerator functions(int functions) {
+        this.functions = checkCount("functions", functions);
+        return this;
+    }
+
+    /**
+     * Set the number of instructions in each function body, not counting blocks and branches.
+     *
+     * @param instructions The number of instructions, at least 1.
+     * @return This generator.
+     */
+    public ModuleGenerator instructions(int instructions) {
+        if (instructions < 1) throw new IllegalArgumentException("instructions must be at least 1");
+        this.instructions = instructions;
+        return this;
+    }
+
+    /**
+     * Set how many blocks each function body is nested in.
+     *
+     * @param nesting The nesting depth.
+     * @return This generator.
+     */
+    public ModuleGenerator nesting(int nesting) {
+        this.nesting = checkCount("nesting", nesting);
+        return this;
+    }
+
+    /**
+     * Set the number of labels in the {@code br_table} at the end of each function body,
+     * or 0 to not end bodies with one.
+     *
+     * @param labels The number of labels, not counting the default.
+     * @return This generator.
+     */
+    public ModuleGenerator brTable(int labels) {
+        this.brTable = checkCount("brTable", labels);
+        return this;
+    }
+
+    /**
+     * Set the number of function exports.
+     *
+     * @param exports The number of exports.
+     * @return This generator.
+     */
+    public ModuleGenerator exports(int exports) {
+        this.exports = checkCount("exports", exports);
+        return this;
+    }
+
+    /**
+     * Set the number and size of active data segments, which are laid out one after another in a single memory.
+     *
+     * @param segments The number of segments.
+     * @param size     The size of each segment, in bytes.
+     * @return This generator.
+     */
+    public ModuleGenerator data(int segments, int size) {
+        checkCount("segments", segments);
+        checkCount("size", size);
+        if ((long) segments * size > 1L << 32) {
+            throw new IllegalArgumentException("data does not fit in a memory");
+        }
+        this.dataSegments = segments;
+        this.dataSegmentSize = size;
+        return this;
+    }
+
+    private static int checkCount(String name, int count) {
+        if (count < 0) throw new IllegalArgumentException(name + " must not be negative");
+        return count;
+    }
+
+    /**
+     * Generate the module, making the given visitor visit it.
+     *
+     * @param mv The visitor to visit the module with.
+     * @throws IllegalStateException If there are exports, but no functions to export.
+     */
+    public void accept(ModuleVisitor mv) {
+        if (exports > 0 && imports + functions == 0) {
+            throw new IllegalStateException("there are no functions to export");
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+
+        mv.visitHeader(VERSION);
+
+        TypesVisitor tv = mv.visitTypes();
+        if (tv != null) {
+            for (int i = 0; i < types; i++) {
+                tv.visitFuncType(params(i), new byte[]{I32});
+            }
+            tv.visitEnd();
+        }
+
+        if (imports > 0) {
+            ImportsVisitor iv = mv.visitImports();
+            if (iv != null) {
+                for (int i = 0; i < imports; i++) {
+                    iv.visitFuncImport("env", "f" + i, i % types);
+                }
+                iv.visitEnd();
+            }
+        }
+
+        if (functions > 0) {
+            FunctionsVisitor fv = mv.visitFuncs();
+            if (fv != null) {
+                for (int i = 0; i < functions; i++) {
+                    fv.visitFunc(i % types);
+                }
+                fv.visitEnd();
+            }
+        }
+
+        if (dataSegments > 0) {
+            MemoriesVisitor mmv = mv.visitMems();
+            if (mmv != null) {
+                long bytes = (long) dataSegments * dataSegmentSize;
+                mmv.visitMemory((int) ((bytes + PAGE_SIZE - 1) / PAGE_SIZE), null);
+                mmv.visitEnd();
+            }
+        }
+
+        if (exports > 0) {
+            ExportsVisitor ev = mv.visitExports();
+            if (ev != null) {
+                for (int i = 0; i < exports; i++) {
+                    ev.visitExport("e" + i, EXPORTS_FUNC, i % (imports + functions));
+                }
+                ev.visitEnd();
+            }
+        }
+
+        if (functions > 0) {
+            CodesVisitor cv = mv.visitCode();
+            if (cv != null) {
+                for (int i = 0; i < functions; i++) {
+                    ExprVisitor ev = cv.visitCode(new byte[0]);
+                    if (ev != null) body(ev, random);
+                }
+                cv.visitEnd();
+            }
+        }
+
+        if (dataSegments > 0) {
+            DataSegmentsVisitor dsv = mv.visitDatas();
+            if (dsv != null) {
+                Random dataRandom = new Random(seed);
+                for (int i = 0; i < dataSegments; i++) {
+                    DataVisitor dv = dsv.visitData();
+                    if (dv == null) continue;
+                    ExprVisitor ev = dv.visitActive(0);
+                    if (ev != null) {
+                        ev.visitConstInsn((int) ((long) i * dataSegmentSize));
+                        ev.visitEndInsn();
+                        ev.visitEnd();
+                    }
+                    byte[] init = new byte[dataSegmentSize];
+                    dataRandom.nextBytes(init);
+                    dv.visitInit(init);
+                    dv.visitEnd();
+                }
+                dsv.visitEnd();
+            }
+        }
+
+        mv.visitEnd();
+    }
+
+    /**
+     * Get the parameters of a type, which are the digits of its index in base 4, one value type per digit.
+     */
+    private static byte[] params(int type) {
+        int digits = 0;
+        for (int i = type; i > 0; i >>>= 2) digits++;
+        byte[] params = new byte[digits];
+        for (int i = 0, t = type; i < digits; i++, t >>>= 2) {
+            params[i] = VALTYPES[t & 3];
+        }
+        return params;
+    }
+
+    private void body(ExprVisitor ev, SplittableRandom random) {
+        BlockType result = BlockType.valtype(I32);
+        for (int i = 0; i < nesting; i++) {
+            ev.visitBlockInsn(BLOCK, result);
+        }
+        ev.visitConstInsn(random.nextInt());
+        for (int i = 1; i + 1 < instructions; i += 2) {
+            ev.visitConstInsn(random.nextInt());
+            ev.visitInsn(ARITHMETIC[random.nextInt(ARITHMETIC.length)]);
+        }
+        if (instructions % 2 == 0) {
+            ev.visitInsn(I32_EQZ);
+        }
+        if (brTable > 0) {
+            int[] labels = new int[brTable];
+            for (int i = 0; i < brTable; i++) {
+                labels[i] = random.nextInt(nesting + 1);
+            }
+            ev.visitConstInsn(random.nextInt());
+            ev.visitTableBreakInsn(labels, nesting);
+        }
+        for (int i = 0; i < nesting; i++) {
+            ev.visitEndInsn();
+        }
+        ev.visitEndInsn();
+        ev.visitEnd();
+    }
+
+    /**
+     * Generate the module as bytes.
+     *
+     * @return The bytes of the module.
+     */
+    public byte[] toByteArray() {
+        ModuleWriter mw = new ModuleWriter();
+        accept(mw);
+        return mw.toByteArray();
+    }
+}
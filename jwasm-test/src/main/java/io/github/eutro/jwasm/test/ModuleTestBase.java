@@ -44,6 +44,36 @@ public class ModuleTestBase {
         return new BufferedInputStream(url.openStream());
     }
 
+    /**
+     * Read the whole of a named resource in the class loader of this class.
+     *
+     * @param resource The resource.
+     * @return The bytes of the resource.
+     * @throws IOException If an error occurs reading the resource.
+     */
+    public static byte[] readResource(String resource) throws IOException {
+        return readAll(openResource(resource));
+    }
+
+    /**
+     * Read an input stream to its end, and close it.
+     *
+     * @param is The input stream.
+     * @return The bytes read from the stream.
+     * @throws IOException If an error occurs reading the stream.
+     */
+    public static byte[] readAll(InputStream is) throws IOException {
+        try (InputStream in = is) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            byte[] buf = new byte[8192];
+            int read;
+            while ((read = in.read(buf)) != -1) {
+                baos.write(buf, 0, read);
+            }
+            return baos.toByteArray();
+        }
+    }
+
     /**
      * An entry of the WebAssembly test suite.
      */
@@ -0,0 +1,88 @@
+package io.github.eutro.jwasm.tree.test;
+
+import io.github.eutro.jwasm.ModuleReader;
+import io.github.eutro.jwasm.ModuleVisitor;
+import io.github.eutro.jwasm.ModuleWriter;
+import io.github.eutro.jwasm.test.ModuleTestBase;
+import io.github.eutro.jwasm.tree.ModuleNode;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks that decoding the bundled modules allocates no more bytes per input byte
+ * than the budgets in {@code allocation-budgets.properties}.
+ * <p>
+ * Budgets should be raised deliberately, when a change is known to need more allocation,
+ * and lowered when a change is known to need less.
+ */
+public class AllocationBudgetTest extends ModuleTestBase {
+    private static final String[] MODULES = {HELLO_WORLD, GAME_OF_LIFE, RAWG_ASMS, RAWG_RUST, AOC_SOLNS};
+    private static final int RUNS = 5;
+
+    /**
+     * Measure the fewest bytes allocated by the current thread over a few runs of reading a module.
+     */
+    private static long allocatedBytes(com.sun.management.ThreadMXBean threads, byte[] module,
+                                       Supplier<ModuleVisitor> visitors) {
+        long thread = Thread.currentThread().getId();
+        long fewest = Long.MAX_VALUE;
+        // the first run also loads classes, so don't count it
+        ModuleReader.fromBytes(module).accept(visitors.get());
+        for (int i = 0; i < RUNS; i++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            ModuleReader.fromBytes(module).accept(visitors.get());
+            fewest = Math.min(fewest, threads.getThreadAllocatedBytes(thread) - before);
+        }
+        return fewest;
+    }
+
+    @TestFactory
+    List<DynamicTest> withinBudget() throws IOException {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean, "allocation is not measurable on this JVM");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "allocation is not measurable on this JVM");
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        Properties budgets = new Properties();
+        try (InputStream is = AllocationBudgetTest.class.getResourceAsStream("/allocation-budgets.properties")) {
+            assertNotNull(is, "allocation-budgets.properties is missing");
+            budgets.load(is);
+        }
+
+        List<DynamicTest> tests = new ArrayList<>();
+        for (String name : MODULES) {
+            byte[] module = readResource(name);
+            tests.add(budgetTest(threads, budgets, "skip", name, module, ModuleVisitor::new));
+            tests.add(budgetTest(threads, budgets, "tree", name, module, ModuleNode::new));
+            tests.add(budgetTest(threads, budgets, "write", name, module, ModuleWriter::new));
+        }
+        return tests;
+    }
+
+    private static DynamicTest budgetTest(com.sun.management.ThreadMXBean threads, Properties budgets,
+                                          String path, String name, byte[] module,
+                                          Supplier<ModuleVisitor> visitors) {
+        String key = path + "." + name;
+        return DynamicTest.dynamicTest(key, () -> {
+            double perByte = (double) allocatedBytes(threads, module, visitors) / module.length;
+            String budget = budgets.getProperty(key);
+            assertNotNull(budget, String.format("no budget for %s, which allocated %.2f bytes per input byte",
+                    key, perByte));
+            assertTrue(perByte <= Double.parseDouble(budget),
+                    String.format("%s allocated %.2f bytes per input byte, over its budget of %s",
+                            key, perByte, budget));
+        });
+    }
+}
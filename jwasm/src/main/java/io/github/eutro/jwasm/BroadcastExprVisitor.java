@@ -0,0 +1,191 @@
+package io.github.eutro.jwasm;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An {@link ExprVisitor} that passes everything it visits on to several other visitors, in order.
+ * <p>
+ * Arguments are passed to each visitor as they are, so visitors should not modify arrays they are given.
+ *
+ * @see BroadcastModuleVisitor
+ */
+public class BroadcastExprVisitor extends ExprVisitor {
+    private final ExprVisitor[] visitors;
+
+    /**
+     * Construct a visitor that passes everything it visits on to the given visitors.
+     *
+     * @param visitors The visitors, none of which may be {@code null}.
+     */
+    public BroadcastExprVisitor(@NotNull ExprVisitor @NotNull ... visitors) {
+        this.visitors = visitors.clone();
+    }
+
+    /**
+     * Get a visitor that passes everything it visits on to the given visitors, ignoring {@code null}s.
+     *
+     * @param visitors The visitors, which may include {@code null}s.
+     * @return The sole visitor if there is only one, {@code null} if there are none,
+     * or a {@link BroadcastExprVisitor} to all of them otherwise.
+     */
+    public static @Nullable ExprVisitor of(@Nullable ExprVisitor @NotNull ... visitors) {
+        return of(Arrays.asList(visitors));
+    }
+
+    /**
+     * Get a visitor that passes everything it visits on to the given visitors, ignoring {@code null}s.
+     *
+     * @param visitors The visitors, which may include {@code null}s.
+     * @return The sole visitor if there is only one, {@code null} if there are none,
+     * or a {@link BroadcastExprVisitor} to all of them otherwise.
+     */
+    public static @Nullable ExprVisitor of(@NotNull List<? extends ExprVisitor> visitors) {
+        List<ExprVisitor> present = new ArrayList<>(visitors.size());
+        for (ExprVisitor visitor : visitors) {
+            if (visitor != null) present.add(visitor);
+        }
+        switch (present.size()) {
+            case 0:
+                return null;
+            case 1:
+                return present.get(0);
+            default:
+                return new BroadcastExprVisitor(present.toArray(new ExprVisitor[0]));
+        }
+    }
+
+    @Override
+    public void visitPc(long pc) {
+        for (ExprVisitor visitor : visitors) visitor.visitPc(pc);
+    }
+
+    @Override
+    public void visitInsn(byte opcode) {
+        for (ExprVisitor visitor : visitors) visitor.visitInsn(opcode);
+    }
+
+    @Override
+    public void visitPrefixInsn(int opcode) {
+        for (ExprVisitor visitor : visitors) visitor.visitPrefixInsn(opcode);
+    }
+
+    @Override
+    public void visitConstInsn(Object v) {
+        for (ExprVisitor visitor : visitors) visitor.visitConstInsn(v);
+    }
+
+    @Override
+    public void visitNullInsn(byte type) {
+        for (ExprVisitor visitor : visitors) visitor.visitNullInsn(type);
+    }
+
+    @Override
+    public void visitFuncRefInsn(int function) {
+        for (ExprVisitor visitor : visitors) visitor.visitFuncRefInsn(function);
+    }
+
+    @Override
+    public void visitSelectInsn(byte[] type) {
+        for (ExprVisitor visitor : visitors) visitor.visitSelectInsn(type);
+    }
+
+    @Override
+    public void visitVariableInsn(byte opcode, int variable) {
+        for (ExprVisitor visitor : visitors) visitor.visitVariableInsn(opcode, variable);
+    }
+
+    @Override
+    public void visitTableInsn(byte opcode, int table) {
+        for (ExprVisitor visitor : visitors) visitor.visitTableInsn(opcode, table);
+    }
+
+    @Override
+    public void visitPrefixTableInsn(int opcode, int table) {
+        for (ExprVisitor visitor : visitors) visitor.visitPrefixTableInsn(opcode, table);
+    }
+
+    @Override
+    public void visitPrefixBinaryTableInsn(int opcode, int firstIndex, int secondIndex) {
+        for (ExprVisitor visitor : visitors) visitor.visitPrefixBinaryTableInsn(opcode, firstIndex, secondIndex);
+    }
+
+    @Override
+    public void visitMemInsn(byte opcode, int align, int offset) {
+        for (ExprVisitor visitor : visitors) visitor.visitMemInsn(opcode, align, offset);
+    }
+
+    @Override
+    public void visitIndexedMemInsn(int opcode, int index) {
+        for (ExprVisitor visitor : visitors) visitor.visitIndexedMemInsn(opcode, index);
+    }
+
+    @Override
+    public void visitBlockInsn(byte opcode, BlockType blockType) {
+        for (ExprVisitor visitor : visitors) visitor.visitBlockInsn(opcode, blockType);
+    }
+
+    @Override
+    public void visitElseInsn() {
+        for (ExprVisitor visitor : visitors) visitor.visitElseInsn();
+    }
+
+    @Override
+    public void visitEndInsn() {
+        for (ExprVisitor visitor : visitors) visitor.visitEndInsn();
+    }
+
+    @Override
+    public void visitBreakInsn(byte opcode, int label) {
+        for (ExprVisitor visitor : visitors) visitor.visitBreakInsn(opcode, label);
+    }
+
+    @Override
+    public void visitTableBreakInsn(int[] labels, int defaultLabel) {
+        for (ExprVisitor visitor : visitors) visitor.visitTableBreakInsn(labels, defaultLabel);
+    }
+
+    @Override
+    public void visitCallInsn(int function) {
+        for (ExprVisitor visitor : visitors) visitor.visitCallInsn(function);
+    }
+
+    @Override
+    public void visitCallIndirectInsn(int table, int type) {
+        for (ExprVisitor visitor : visitors) visitor.visitCallIndirectInsn(table, type);
+    }
+
+    @Override
+    public void visitVectorInsn(int opcode) {
+        for (ExprVisitor visitor : visitors) visitor.visitVectorInsn(opcode);
+    }
+
+    @Override
+    public void visitVectorMemInsn(int opcode, int align, int offset) {
+        for (ExprVisitor visitor : visitors) visitor.visitVectorMemInsn(opcode, align, offset);
+    }
+
+    @Override
+    public void visitVectorMemLaneInsn(int opcode, int align, int offset, byte lane) {
+        for (ExprVisitor visitor : visitors) visitor.visitVectorMemLaneInsn(opcode, align, offset, lane);
+    }
+
+    @Override
+    public void visitVectorConstOrShuffleInsn(int opcode, byte[] bytes) {
+        for (ExprVisitor visitor : visitors) visitor.visitVectorConstOrShuffleInsn(opcode, bytes);
+    }
+
+    @Override
+    public void visitVectorLaneInsn(int opcode, byte lane) {
+        for (ExprVisitor visitor : visitors) visitor.visitVectorLaneInsn(opcode, lane);
+    }
+
+    @Override
+    public void visitEnd() {
+        for (ExprVisitor visitor : visitors) visitor.visitEnd();
+    }
+}
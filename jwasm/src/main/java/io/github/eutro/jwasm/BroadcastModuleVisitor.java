@@ -0,0 +1,419 @@
+package io.github.eutro.jwasm;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A {@link ModuleVisitor} that passes everything it visits on to several other visitors, in order,
+ * so that a module can be read once for all of them.
+ * <p>
+ * The visitors that the visitors return, such as the {@link CodesVisitor} from {@link #visitCode()},
+ * are broadcast to in the same way. Visitors that return {@code null} are left out of the broadcast,
+ * and if only one visitor returns something, that is returned as is, without broadcasting.
+ * If none of them do, {@code null} is returned, so the reader can skip what nobody is interested in.
+ * <p>
+ * Arguments are passed to each visitor as they are, so visitors should not modify arrays they are given.
+ *
+ * @see BroadcastExprVisitor
+ */
+public class BroadcastModuleVisitor extends ModuleVisitor {
+    private final List<ModuleVisitor> visitors;
+
+    /**
+     * Construct a visitor that passes everything it visits on to the given visitors.
+     *
+     * @param visitors The visitors, none of which may be {@code null}.
+     */
+    public BroadcastModuleVisitor(@NotNull ModuleVisitor @NotNull ... visitors) {
+        this(Arrays.asList(visitors));
+    }
+
+    /**
+     * Construct a visitor that passes everything it visits on to the given visitors.
+     *
+     * @param visitors The visitors, none of which may be {@code null}.
+     */
+    public BroadcastModuleVisitor(@NotNull List<? extends ModuleVisitor> visitors) {
+        this.visitors = new ArrayList<>(visitors);
+    }
+
+    /**
+     * Get a visitor that passes everything it visits on to the given visitors, ignoring {@code null}s.
+     *
+     * @param visitors The visitors, which may include {@code null}s.
+     * @return The sole visitor if there is only one, {@code null} if there are none,
+     * or a {@link BroadcastModuleVisitor} to all of them otherwise.
+     */
+    public static @Nullable ModuleVisitor of(@Nullable ModuleVisitor @NotNull ... visitors) {
+        return broadcast(Arrays.asList(visitors), Function.identity(), BroadcastModuleVisitor::new);
+    }
+
+    /**
+     * Visit each of the visitors, and broadcast to what they return.
+     *
+     * @param visitors    The visitors to visit.
+     * @param visit       The function that visits each visitor, returning a visitor or {@code null}.
+     * @param broadcaster The constructor of a broadcast to more than one visitor.
+     * @param <V>         The type of the visitors to visit.
+     * @param <R>         The type of the visitors they return.
+     * @return The broadcast, the sole visitor returned, or {@code null} if no visitors were returned.
+     */
+    private static <V, R> @Nullable R broadcast(List<? extends V> visitors,
+                                                Function<? super V, ? extends R> visit,
+                                                Function<List<R>, ? extends R> broadcaster) {
+        List<R> present = new ArrayList<>(visitors.size());
+        for (V visitor : visitors) {
+            if (visitor == null) continue;
+            R r = visit.apply(visitor);
+            if (r != null) present.add(r);
+        }
+        switch (present.size()) {
+            case 0:
+                return null;
+            case 1:
+                return present.get(0);
+            default:
+                return broadcaster.apply(present);
+        }
+    }
+
+    private static ExprVisitor broadcastExpr(List<ExprVisitor> visitors) {
+        return new BroadcastExprVisitor(visitors.toArray(new ExprVisitor[0]));
+    }
+
+    @Override
+    public void visitHeader(int version) {
+        for (ModuleVisitor visitor : visitors) visitor.visitHeader(version);
+    }
+
+    @Override
+    public void visitCustom(@NotNull String name, byte @NotNull [] data) {
+        for (ModuleVisitor visitor : visitors) visitor.visitCustom(name, data);
+    }
+
+    @Override
+    public @Nullable TypesVisitor visitTypes() {
+        return broadcast(visitors, ModuleVisitor::visitTypes, Types::new);
+    }
+
+    @Override
+    public @Nullable ImportsVisitor visitImports() {
+        return broadcast(visitors, ModuleVisitor::visitImports, Imports::new);
+    }
+
+    @Override
+    public @Nullable FunctionsVisitor visitFuncs() {
+        return broadcast(visitors, ModuleVisitor::visitFuncs, Functions::new);
+    }
+
+    @Override
+    public @Nullable TablesVisitor visitTables() {
+        return broadcast(visitors, ModuleVisitor::visitTables, Tables::new);
+    }
+
+    @Override
+    public @Nullable MemoriesVisitor visitMems() {
+        return broadcast(visitors, ModuleVisitor::visitMems, Memories::new);
+    }
+
+    @Override
+    public @Nullable GlobalsVisitor visitGlobals() {
+        return broadcast(visitors, ModuleVisitor::visitGlobals, Globals::new);
+    }
+
+    @Override
+    public @Nullable ExportsVisitor visitExports() {
+        return broadcast(visitors, ModuleVisitor::visitExports, Exports::new);
+    }
+
+    @Override
+    public void visitStart(int func) {
+        for (ModuleVisitor visitor : visitors) visitor.visitStart(func);
+    }
+
+    @Override
+    public @Nullable ElementSegmentsVisitor visitElems() {
+        return broadcast(visitors, ModuleVisitor::visitElems, ElementSegments::new);
+    }
+
+    @Override
+    public void visitDataCount(int count) {
+        for (ModuleVisitor visitor : visitors) visitor.visitDataCount(count);
+    }
+
+    @Override
+    public @Nullable CodesVisitor visitCode() {
+        return broadcast(visitors, ModuleVisitor::visitCode, Codes::new);
+    }
+
+    @Override
+    public @Nullable DataSegmentsVisitor visitDatas() {
+        return broadcast(visitors, ModuleVisitor::visitDatas, DataSegments::new);
+    }
+
+    @Override
+    public void visitEnd() {
+        for (ModuleVisitor visitor : visitors) visitor.visitEnd();
+    }
+
+    private static class Types extends TypesVisitor {
+        private final List<TypesVisitor> visitors;
+
+        Types(List<TypesVisitor> visitors) {
+            this.visitors = visitors;
+        }
+
+        @Override
+        public void visitFuncType(byte @NotNull [] params, byte @NotNull [] returns) {
+            for (TypesVisitor visitor : visitors) visitor.visitFuncType(params, returns);
+        }
+
+        @Override
+        public void visitEnd() {
+            for (TypesVisitor visitor : visitors) visitor.visitEnd();
+        }
+    }
+
+    private static class Imports extends ImportsVisitor {
+        private final List<ImportsVisitor> visitors;
+
+        Imports(List<ImportsVisitor> visitors) {
+            this.visitors = visitors;
+        }
+
+        @Override
+        public void visitFuncImport(@NotNull String module, @NotNull String name, int type) {
+            for (ImportsVisitor visitor : visitors) visitor.visitFuncImport(module, name, type);
+        }
+
+        @Override
+        public void visitTableImport(@NotNull String module, @NotNull String name, int min, @Nullable Integer max, byte type) {
+            for (ImportsVisitor visitor : visitors) visitor.visitTableImport(module, name, min, max, type);
+        }
+
+        @Override
+        public void visitMemImport(@NotNull String module, @NotNull String name, int min, @Nullable Integer max) {
+            for (ImportsVisitor visitor : visitors) visitor.visitMemImport(module, name, min, max);
+        }
+
+        @Override
+        public void visitGlobalImport(@NotNull String module, @NotNull String name, byte mut, byte type) {
+            for (ImportsVisitor visitor : visitors) visitor.visitGlobalImport(module, name, mut, type);
+        }
+
+        @Override
+        public void visitEnd() {
+            for (ImportsVisitor visitor : visitors) visitor.visitEnd();
+        }
+    }
+
+    private static class Functions extends FunctionsVisitor {
+        private final List<FunctionsVisitor> visitors;
+
+        Functions(List<FunctionsVisitor> visitors) {
+            this.visitors = visitors;
+        }
+
+        @Override
+        public void visitFunc(int type) {
+            for (FunctionsVisitor visitor : visitors) visitor.visitFunc(type);
+        }
+
+        @Override
+        public void visitEnd() {
+            for (FunctionsVisitor visitor : visitors) visitor.visitEnd();
+        }
+    }
+
+    private static class Tables extends TablesVisitor {
+        private final List<TablesVisitor> visitors;
+
+        Tables(List<TablesVisitor> visitors) {
+            this.visitors = visitors;
+        }
+
+        @Override
+        public void visitTable(int min, @Nullable Integer max, byte type) {
+            for (TablesVisitor visitor : visitors) visitor.visitTable(min, max, type);
+        }
+
+        @Override
+        public void visitEnd() {
+            for (TablesVisitor visitor : visitors) visitor.visitEnd();
+        }
+    }
+
+    private static class Memories extends MemoriesVisitor {
+        private final List<MemoriesVisitor> visitors;
+
+        Memories(List<MemoriesVisitor> visitors) {
+            this.visitors = visitors;
+        }
+
+        @Override
+        public void visitMemory(int min, @Nullable Integer max) {
+            for (MemoriesVisitor visitor : visitors) visitor.visitMemory(min, max);
+        }
+
+        @Override
+        public void visitEnd() {
+            for (MemoriesVisitor visitor : visitors) visitor.visitEnd();
+        }
+    }
+
+    private static class Globals extends GlobalsVisitor {
+        private final List<GlobalsVisitor> visitors;
+
+        Globals(List<GlobalsVisitor> visitors) {
+            this.visitors = visitors;
+        }
+
+        @Override
+        public @Nullable ExprVisitor visitGlobal(byte mut, byte type) {
+            return broadcast(visitors, visitor -> visitor.visitGlobal(mut, type), BroadcastModuleVisitor::broadcastExpr);
+        }
+
+        @Override
+        public void visitEnd() {
+            for (GlobalsVisitor visitor : visitors) visitor.visitEnd();
+        }
+    }
+
+    private static class Exports extends ExportsVisitor {
+        private final List<ExportsVisitor> visitors;
+
+        Exports(List<ExportsVisitor> visitors) {
+            this.visitors = visitors;
+        }
+
+        @Override
+        public void visitExport(@NotNull String name, byte type, int index) {
+            for (ExportsVisitor visitor : visitors) visitor.visitExport(name, type, index);
+        }
+
+        @Override
+        public void visitEnd() {
+            for (ExportsVisitor visitor : visitors) visitor.visitEnd();
+        }
+    }
+
+    private static class ElementSegments extends ElementSegmentsVisitor {
+        private final List<ElementSegmentsVisitor> visitors;
+
+        ElementSegments(List<ElementSegmentsVisitor> visitors) {
+            this.visitors = visitors;
+        }
+
+        @Override
+        public ElementVisitor visitElem() {
+            return broadcast(visitors, ElementSegmentsVisitor::visitElem, Element::new);
+        }
+
+        @Override
+        public void visitEnd() {
+            for (ElementSegmentsVisitor visitor : visitors) visitor.visitEnd();
+        }
+    }
+
+    private static class Element extends ElementVisitor {
+        private final List<ElementVisitor> visitors;
+
+        Element(List<ElementVisitor> visitors) {
+            this.visitors = visitors;
+        }
+
+        @Override
+        public void visitNonActiveMode(boolean passive) {
+            for (ElementVisitor visitor : visitors) visitor.visitNonActiveMode(passive);
+        }
+
+        @Override
+        public ExprVisitor visitActiveMode(int table) {
+            return broadcast(visitors, visitor -> visitor.visitActiveMode(table), BroadcastModuleVisitor::broadcastExpr);
+        }
+
+        @Override
+        public void visitType(byte type) {
+            for (ElementVisitor visitor : visitors) visitor.visitType(type);
+        }
+
+        @Override
+        public void visitElemIndices(int[] indices) {
+            for (ElementVisitor visitor : visitors) visitor.visitElemIndices(indices);
+        }
+
+        @Override
+        public ExprVisitor visitInit() {
+            return broadcast(visitors, ElementVisitor::visitInit, BroadcastModuleVisitor::broadcastExpr);
+        }
+
+        @Override
+        public void visitEnd() {
+            for (ElementVisitor visitor : visitors) visitor.visitEnd();
+        }
+    }
+
+    private static class Codes extends CodesVisitor {
+        private final List<CodesVisitor> visitors;
+
+        Codes(List<CodesVisitor> visitors) {
+            this.visitors = visitors;
+        }
+
+        @Override
+        public @Nullable ExprVisitor visitCode(byte @NotNull [] locals) {
+            return broadcast(visitors, visitor -> visitor.visitCode(locals), BroadcastModuleVisitor::broadcastExpr);
+        }
+
+        @Override
+        public void visitEnd() {
+            for (CodesVisitor visitor : visitors) visitor.visitEnd();
+        }
+    }
+
+    private static class DataSegments extends DataSegmentsVisitor {
+        private final List<DataSegmentsVisitor> visitors;
+
+        DataSegments(List<DataSegmentsVisitor> visitors) {
+            this.visitors = visitors;
+        }
+
+        @Override
+        public DataVisitor visitData() {
+            return broadcast(visitors, DataSegmentsVisitor::visitData, Data::new);
+        }
+
+        @Override
+        public void visitEnd() {
+            for (DataSegmentsVisitor visitor : visitors) visitor.visitEnd();
+        }
+    }
+
+    private static class Data extends DataVisitor {
+        private final List<DataVisitor> visitors;
+
+        Data(List<DataVisitor> visitors) {
+            this.visitors = visitors;
+        }
+
+        @Override
+        public @Nullable ExprVisitor visitActive(int memory) {
+            return broadcast(visitors, visitor -> visitor.visitActive(memory), BroadcastModuleVisitor::broadcastExpr);
+        }
+
+        @Override
+        public void visitInit(byte[] init) {
+            for (DataVisitor visitor : visitors) visitor.visitInit(init);
+        }
+
+        @Override
+        public void visitEnd() {
+            for (DataVisitor visitor : visitors) visitor.visitEnd();
+        }
+    }
+}
@@ -32,6 +32,17 @@ public interface ByteInputStream<E extends Exception> {
      */
     long position();
 
+    /**
+     * Get how many bytes are left in the stream, if that is known.
+     * <p>
+     * Defaults to -1, for streams that can't know how many bytes are left until they are read.
+     *
+     * @return The number of bytes left, or -1 if unknown.
+     */
+    default long remaining() {
+        return -1;
+    }
+
     /**
      * Get bytes in bulk from the stream.
      * <p>
@@ -348,6 +359,11 @@ public interface ByteInputStream<E extends Exception> {
      */
     default byte[] getByteArray() throws E {
         int size = getVarUInt32();
+        long remaining = remaining();
+        if (size < 0 || remaining != -1 && size > remaining) {
+            throw new ValidationException("Unexpected end of input",
+                    new RuntimeException("unexpected end"));
+        }
         byte[] ret = new byte[size];
         if (get(ret, 0, size) < size) {
             throw new ValidationException("Unexpected end of input",
@@ -508,6 +524,16 @@ public interface ByteInputStream<E extends Exception> {
             return source.position();
         }
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long remaining() {
+            long left = Math.max(0, length - gotten);
+            long sourceLeft = source.remaining();
+            return sourceLeft == -1 ? left : Math.min(left, sourceLeft);
+        }
+
         /**
          * {@inheritDoc}
          */
@@ -577,6 +603,14 @@ public interface ByteInputStream<E extends Exception> {
             return bb.position();
         }
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public long remaining() {
+            return bb.remaining();
+        }
+
         /**
          * {@inheritDoc}
          */
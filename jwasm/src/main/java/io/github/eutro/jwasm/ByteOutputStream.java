@@ -201,6 +201,17 @@ public interface ByteOutputStream<E extends Exception> {
         public void put(byte[] bytes) throws RuntimeException {
             baos.write(bytes, 0, bytes.length);
         }
+
+        /**
+         * Write a range of an array of bytes to the stream.
+         *
+         * @param bytes The array.
+         * @param off   The offset of the first byte to write.
+         * @param len   The number of bytes to write.
+         */
+        void put(byte[] bytes, int off, int len) {
+            baos.write(bytes, off, len);
+        }
     }
 
     /**
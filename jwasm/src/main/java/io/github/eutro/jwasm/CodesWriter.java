@@ -13,7 +13,12 @@ public class CodesWriter extends CodesVisitor implements VectorWriter {
     /**
      * The {@link ByteOutputStream} that this visitor will write raw bytes to.
      */
-    private final ByteOutputStream.BaosByteOutputStream out = new ByteOutputStream.BaosByteOutputStream();
+    private final ByteOutputStream.BaosByteOutputStream out;
+
+    /**
+     * The buffers that function bodies are written into before their size is known.
+     */
+    private final WriteBuffers buffers;
 
     /**
      * Records number of elements in the vector.
@@ -29,6 +34,7 @@ public class CodesWriter extends CodesVisitor implements VectorWriter {
      * Constructs a writer with no {@link #onEnd end callback}.
      */
     public CodesWriter() {
+        this(null);
     }
 
     /**
@@ -37,7 +43,20 @@ public class CodesWriter extends CodesVisitor implements VectorWriter {
      * @param onEnd A callback that is called from {@link #visitEnd()}, or {@code null}.
      */
     public CodesWriter(@Nullable Consumer<CodesWriter> onEnd) {
+        this(onEnd, new ByteOutputStream.BaosByteOutputStream(), new WriteBuffers());
+    }
+
+    /**
+     * Constructs a writer that writes to an existing stream, with an optional {@link #onEnd end callback}.
+     *
+     * @param onEnd   A callback that is called from {@link #visitEnd()}, or {@code null}.
+     * @param out     The stream to write raw bytes to.
+     * @param buffers The buffers to write function bodies into.
+     */
+    CodesWriter(@Nullable Consumer<CodesWriter> onEnd, ByteOutputStream.BaosByteOutputStream out, WriteBuffers buffers) {
         this.onEnd = onEnd;
+        this.out = out;
+        this.buffers = buffers;
     }
 
     @Override
@@ -53,38 +72,34 @@ public class CodesWriter extends CodesVisitor implements VectorWriter {
     @Override
     public @Nullable ExprVisitor visitCode(byte @NotNull [] locals) {
         ++count;
-        ByteOutputStream.BaosByteOutputStream fout = new ByteOutputStream.BaosByteOutputStream();
+        WriteBuffers.Buffer body = buffers.take();
 
         if (locals.length == 0) {
-            fout.putVarUInt(0);
+            body.out.putVarUInt(0);
         } else {
-            ByteOutputStream.BaosByteOutputStream lout = new ByteOutputStream.BaosByteOutputStream();
             int compressedCount = 1;
-            byte last = locals[0];
-            int lastc = 1;
             for (int i = 1; i < locals.length; i++) {
-                if (locals[i] == last) {
-                    ++lastc;
-                } else {
-                    ++compressedCount;
-                    lout.putVarUInt(lastc);
-                    lout.put(last);
-                    last = locals[i];
-                    lastc = 1;
+                if (locals[i] != locals[i - 1]) ++compressedCount;
+            }
+            body.out.putVarUInt(compressedCount);
+            int start = 0;
+            for (int i = 1; i <= locals.length; i++) {
+                if (i == locals.length || locals[i] != locals[start]) {
+                    body.out.putVarUInt(i - start);
+                    body.out.put(locals[start]);
+                    start = i;
                 }
             }
-            lout.putVarUInt(lastc);
-            lout.put(last);
-            fout.putVarUInt(compressedCount);
-            fout.put(lout.toByteArray());
         }
 
-        return new ExprWriter(b -> {
-            fout.put(b);
-            byte[] fbytes = fout.toByteArray();
-            out.putVarUInt(fbytes.length);
-            out.put(fbytes);
-        });
+        return new ExprWriter(body.out) {
+            @Override
+            public void visitEnd() {
+                CodesWriter.this.out.putVarUInt(body.size());
+                body.copyTo(CodesWriter.this.out);
+                buffers.release(body);
+            }
+        };
     }
 
     @Override
@@ -12,7 +12,7 @@ public class DataSegmentsWriter extends DataSegmentsVisitor implements VectorWri
     /**
      * The {@link ByteOutputStream} that this visitor will write raw bytes to.
      */
-    private final ByteOutputStream.BaosByteOutputStream out = new ByteOutputStream.BaosByteOutputStream();
+    private final ByteOutputStream.BaosByteOutputStream out;
 
     /**
      * Records number of elements in the vector.
@@ -28,6 +28,7 @@ public class DataSegmentsWriter extends DataSegmentsVisitor implements VectorWri
      * Constructs a writer with no {@link #onEnd end callback}.
      */
     public DataSegmentsWriter() {
+        this(null);
     }
 
     /**
@@ -36,7 +37,18 @@ public class DataSegmentsWriter extends DataSegmentsVisitor implements VectorWri
      * @param onEnd A callback that is called from {@link #visitEnd()}, or {@code null}.
      */
     public DataSegmentsWriter(@Nullable Consumer<DataSegmentsWriter> onEnd) {
+        this(onEnd, new ByteOutputStream.BaosByteOutputStream());
+    }
+
+    /**
+     * Constructs a writer that writes to an existing stream, with an optional {@link #onEnd end callback}.
+     *
+     * @param onEnd A callback that is called from {@link #visitEnd()}, or {@code null}.
+     * @param out   The stream to write raw bytes to.
+     */
+    DataSegmentsWriter(@Nullable Consumer<DataSegmentsWriter> onEnd, ByteOutputStream.BaosByteOutputStream out) {
         this.onEnd = onEnd;
+        this.out = out;
     }
 
     @Override
@@ -52,7 +64,7 @@ public class DataSegmentsWriter extends DataSegmentsVisitor implements VectorWri
     @Override
     public DataVisitor visitData() {
         ++count;
-        return new DataWriter(out::put);
+        return new DataWriter(out);
     }
 
     @Override
@@ -12,7 +12,7 @@ public class DataWriter extends DataVisitor implements ByteArrayConvertible {
     /**
      * The {@link ByteOutputStream} that this visitor will write raw bytes to.
      */
-    private final ByteOutputStream.BaosByteOutputStream out = new ByteOutputStream.BaosByteOutputStream();
+    private final ByteOutputStream.BaosByteOutputStream out;
 
     /**
      * Whether {@link #visitActive(int)} has been called.
@@ -28,6 +28,7 @@ public class DataWriter extends DataVisitor implements ByteArrayConvertible {
      * Constructs a writer with no {@link #onEnd end callback}.
      */
     public DataWriter() {
+        this(new ByteOutputStream.BaosByteOutputStream());
     }
 
     /**
@@ -36,9 +37,20 @@ public class DataWriter extends DataVisitor implements ByteArrayConvertible {
      * @param onEnd A callback that is called from {@link #visitEnd()}, or {@code null}.
      */
     public DataWriter(Consumer<byte[]> onEnd) {
+        this();
         this.onEnd = onEnd;
     }
 
+    /**
+     * Constructs a writer with no {@link #onEnd end callback}, which writes straight to an existing stream,
+     * such as that of the data section.
+     *
+     * @param out The stream to write raw bytes to.
+     */
+    DataWriter(ByteOutputStream.BaosByteOutputStream out) {
+        this.out = out;
+    }
+
     @Override
     public byte[] toByteArray() {
         return out.toByteArray();
@@ -53,7 +65,7 @@ public class DataWriter extends DataVisitor implements ByteArrayConvertible {
             out.put((byte) Opcodes.DATA_EXPLICIT);
             out.putVarUInt(memory);
         }
-        return new ExprWriter(out::put);
+        return new ExprWriter(out);
     }
 
     @Override
@@ -11,7 +11,7 @@ public class ExprWriter extends ExprVisitor implements ByteArrayConvertible {
     /**
      * The {@link ByteOutputStream} that this visitor will write raw bytes to.
      */
-    private final ByteOutputStream.BaosByteOutputStream out = new ByteOutputStream.BaosByteOutputStream();
+    private final ByteOutputStream.BaosByteOutputStream out;
 
     /**
      * A callback that is called from {@link #visitEnd()}, or {@code null}.
@@ -22,6 +22,7 @@ public class ExprWriter extends ExprVisitor implements ByteArrayConvertible {
      * Constructs a writer with no {@link #onEnd end callback}.
      */
     public ExprWriter() {
+        this(new ByteOutputStream.BaosByteOutputStream());
     }
 
     /**
@@ -30,9 +31,20 @@ public class ExprWriter extends ExprVisitor implements ByteArrayConvertible {
      * @param onEnd A callback that is called from {@link #visitEnd()}, or {@code null}.
      */
     public ExprWriter(Consumer<byte[]> onEnd) {
+        this();
         this.onEnd = onEnd;
     }
 
+    /**
+     * Constructs a writer with no {@link #onEnd end callback}, which writes straight to an existing stream,
+     * such as that of the section or segment that contains the expression.
+     *
+     * @param out The stream to write raw bytes to.
+     */
+    ExprWriter(ByteOutputStream.BaosByteOutputStream out) {
+        this.out = out;
+    }
+
     @Override
     public byte[] toByteArray() {
         return out.toByteArray();
@@ -12,7 +12,7 @@ public class GlobalsWriter extends GlobalsVisitor implements VectorWriter {
     /**
      * The {@link ByteOutputStream} that this visitor will write raw bytes to.
      */
-    private final ByteOutputStream.BaosByteOutputStream out = new ByteOutputStream.BaosByteOutputStream();
+    private final ByteOutputStream.BaosByteOutputStream out;
 
     /**
      * Records number of elements in the vector.
@@ -28,6 +28,7 @@ public class GlobalsWriter extends GlobalsVisitor implements VectorWriter {
      * Constructs a writer with no {@link #onEnd end callback}.
      */
     public GlobalsWriter() {
+        this(null);
     }
 
     /**
@@ -36,7 +37,18 @@ public class GlobalsWriter extends GlobalsVisitor implements VectorWriter {
      * @param onEnd A callback that is called from {@link #visitEnd()}, or {@code null}.
      */
     public GlobalsWriter(@Nullable Consumer<GlobalsWriter> onEnd) {
+        this(onEnd, new ByteOutputStream.BaosByteOutputStream());
+    }
+
+    /**
+     * Constructs a writer that writes to an existing stream, with an optional {@link #onEnd end callback}.
+     *
+     * @param onEnd A callback that is called from {@link #visitEnd()}, or {@code null}.
+     * @param out   The stream to write raw bytes to.
+     */
+    GlobalsWriter(@Nullable Consumer<GlobalsWriter> onEnd, ByteOutputStream.BaosByteOutputStream out) {
         this.onEnd = onEnd;
+        this.out = out;
     }
 
     @Override
@@ -54,7 +66,7 @@ public class GlobalsWriter extends GlobalsVisitor implements VectorWriter {
         ++count;
         out.put(type);
         out.put(mut);
-        return new ExprWriter(out::put);
+        return new ExprWriter(out);
     }
 
     @Override
@@ -13,7 +13,7 @@ public class ImportsWriter extends ImportsVisitor implements VectorWriter {
     /**
      * The {@link ByteOutputStream} that this visitor will write raw bytes to.
      */
-    private final ByteOutputStream.BaosByteOutputStream out = new ByteOutputStream.BaosByteOutputStream();
+    private final ByteOutputStream.BaosByteOutputStream out;
 
     /**
      * Records number of elements in the vector.
@@ -29,6 +29,7 @@ public class ImportsWriter extends ImportsVisitor implements VectorWriter {
      * Constructs a writer with no {@link #onEnd end callback}.
      */
     public ImportsWriter() {
+        this(null);
     }
 
     /**
@@ -37,7 +38,18 @@ public class ImportsWriter extends ImportsVisitor implements VectorWriter {
      * @param onEnd A callback that is called from {@link #visitEnd()}, or {@code null}.
      */
     public ImportsWriter(@Nullable Consumer<ImportsWriter> onEnd) {
+        this(onEnd, new ByteOutputStream.BaosByteOutputStream());
+    }
+
+    /**
+     * Constructs a writer that writes to an existing stream, with an optional {@link #onEnd end callback}.
+     *
+     * @param onEnd A callback that is called from {@link #visitEnd()}, or {@code null}.
+     * @param out   The stream to write raw bytes to.
+     */
+    ImportsWriter(@Nullable Consumer<ImportsWriter> onEnd, ByteOutputStream.BaosByteOutputStream out) {
         this.onEnd = onEnd;
+        this.out = out;
     }
 
     @Override
@@ -0,0 +1,422 @@
+package io.github.eutro.jwasm;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Reads, transforms and writes many modules concurrently, with a bounded number of modules in memory at once.
+ * <p>
+ * Each module is read with a {@link ModuleReader} into a pipeline of visitors, which is made for each module
+ * by a function given the {@link ModuleWriter} that the module can be written to. The pipeline may delegate
+ * to the writer, possibly after transforming or validating the module, or ignore it if no output is wanted.
+ * <p>
+ * At most {@link #ModuleBatch(Executor, int) maxInFlight} modules are being processed at once, and sources
+ * are not opened until there is room for them, so a batch can process an unbounded stream of sources.
+ * The buffers that modules are read into and written to, including those that the {@link ModuleWriter}
+ * writes each section and function body into, are reused between modules.
+ * <p>
+ * With a {@link #setMaxModuleBytes(int) limit} on the size of each module, the input buffers in memory
+ * are bounded by {@code maxInFlight} times that limit. Modules over the limit fail without being read in full.
+ * <p>
+ * Results are passed back on the thread that {@link #run(Iterator, Function, Consumer) runs} the batch,
+ * in the order the modules finish.
+ */
+public final class ModuleBatch {
+    /**
+     * Buffers larger than this are not kept for reuse, so one huge module doesn't hold on to memory forever.
+     */
+    private static final int MAX_KEPT_BUFFER = 16 << 20;
+    private static final int INITIAL_BUFFER = 64 << 10;
+
+    private final Executor executor;
+    private final int maxInFlight;
+    private final BlockingQueue<Buffers> buffers;
+    private int maxModuleBytes = Integer.MAX_VALUE;
+
+    /**
+     * Construct a batch that processes modules on the given executor.
+     *
+     * @param executor    The executor to process each module on.
+     * @param maxInFlight The most modules to process at once.
+     */
+    public ModuleBatch(@NotNull Executor executor, int maxInFlight) {
+        if (maxInFlight < 1) throw new IllegalArgumentException("maxInFlight must be at least 1");
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.buffers = new ArrayBlockingQueue<>(maxInFlight);
+    }
+
+    /**
+     * Set the most bytes that a module may have, above which it fails with an {@link IOException}.
+     * <p>
+     * This is checked against the {@link Source#size() size} of the source before it is opened, if it is known,
+     * and against the bytes read from it otherwise. This should be set before the batch is {@link #run run}.
+     *
+     * @param maxModuleBytes The most bytes that a module may have.
+     * @return This batch.
+     */
+    public ModuleBatch setMaxModuleBytes(int maxModuleBytes) {
+        if (maxModuleBytes < 0) throw new IllegalArgumentException("maxModuleBytes must not be negative");
+        this.maxModuleBytes = maxModuleBytes;
+        return this;
+    }
+
+    /**
+     * Get the most bytes that a module may have.
+     *
+     * @return The limit, which is {@link Integer#MAX_VALUE} if none has been set.
+     */
+    public int getMaxModuleBytes() {
+        return maxModuleBytes;
+    }
+
+    /**
+     * Get an executor suitable for processing modules: one that runs each task in a new virtual thread
+     * if the running Java supports them, or otherwise a pool of as many threads as there are processors.
+     * <p>
+     * The executor should be {@link ExecutorService#shutdown() shut down} when it is no longer needed.
+     *
+     * @return The executor.
+     */
+    public static ExecutorService defaultExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        }
+    }
+
+    /**
+     * A named module that can be opened for reading.
+     */
+    public interface Source {
+        /**
+         * Get the name of the module.
+         *
+         * @return The name.
+         */
+        String getName();
+
+        /**
+         * Open a stream to read the bytes of the module.
+         *
+         * @return The stream.
+         * @throws IOException If opening the module fails.
+         */
+        InputStream open() throws IOException;
+
+        /**
+         * Get the number of bytes in the module, if it is known without opening it.
+         *
+         * @return The size, or -1 if it is not known.
+         * @throws IOException If finding the size fails.
+         */
+        default long size() throws IOException {
+            return -1;
+        }
+
+        /**
+         * Create a source from bytes.
+         *
+         * @param name  The name of the module.
+         * @param bytes The bytes of the module.
+         * @return The source.
+         */
+        static Source of(String name, byte[] bytes) {
+            return of(name, bytes.length, () -> new ByteArrayInputStream(bytes));
+        }
+
+        /**
+         * Create a source from a file.
+         *
+         * @param path The path of the file, which is also the name of the module.
+         * @return The source.
+         */
+        static Source of(Path path) {
+            return new Source() {
+                @Override
+                public String getName() {
+                    return path.toString();
+                }
+
+                @Override
+                public InputStream open() throws IOException {
+                    return Files.newInputStream(path);
+                }
+
+                @Override
+                public long size() throws IOException {
+                    return Files.size(path);
+                }
+
+                @Override
+                public String toString() {
+                    return getName();
+                }
+            };
+        }
+
+        /**
+         * Create a source from a function that opens a stream.
+         *
+         * @param name   The name of the module.
+         * @param opener The function that opens a stream to the bytes of the module.
+         * @return The source.
+         */
+        static Source of(String name, Opener opener) {
+            return of(name, -1, opener);
+        }
+
+        /**
+         * Create a source of a known size from a function that opens a stream.
+         *
+         * @param name   The name of the module.
+         * @param size   The number of bytes in the module, or -1 if it is not known.
+         * @param opener The function that opens a stream to the bytes of the module.
+         * @return The source.
+         */
+        static Source of(String name, long size, Opener opener) {
+            return new Source() {
+                @Override
+                public String getName() {
+                    return name;
+                }
+
+                @Override
+                public long size() {
+                    return size;
+                }
+
+                @Override
+                public InputStream open() throws IOException {
+                    return opener.open();
+                }
+
+                @Override
+                public String toString() {
+                    return name;
+                }
+            };
+        }
+
+        /**
+         * A function that opens a stream to the bytes of a module.
+         */
+        @FunctionalInterface
+        interface Opener {
+            /**
+             * Open the stream.
+             *
+             * @return The stream.
+             * @throws IOException If opening the stream fails.
+             */
+            InputStream open() throws IOException;
+        }
+    }
+
+    /**
+     * The outcome of processing a single module.
+     */
+    public static final class Result {
+        private final Source source;
+        private final long index;
+        private final byte @Nullable [] output;
+        private final @Nullable Throwable failure;
+        private final long nanos;
+
+        Result(Source source, long index, byte @Nullable [] output, @Nullable Throwable failure, long nanos) {
+            this.source = source;
+            this.index = index;
+            this.output = output;
+            this.failure = failure;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Get the source of the module.
+         *
+         * @return The source.
+         */
+        public Source getSource() {
+            return source;
+        }
+
+        /**
+         * Get the index of the source among all the sources of the batch.
+         *
+         * @return The index.
+         */
+        public long getIndex() {
+            return index;
+        }
+
+        /**
+         * Get whether the module was read, visited and written without anything being thrown.
+         *
+         * @return Whether processing the module succeeded.
+         */
+        public boolean passed() {
+            return failure == null;
+        }
+
+        /**
+         * Get the bytes of the module that were written by the {@link ModuleWriter} given to the pipeline.
+         *
+         * @return The bytes, or {@code null} if processing failed or nothing was written.
+         */
+        public byte @Nullable [] getOutput() {
+            return output;
+        }
+
+        /**
+         * Get what was thrown while processing the module.
+         *
+         * @return The failure, or null if processing succeeded.
+         */
+        public @Nullable Throwable getFailure() {
+            return failure;
+        }
+
+        /**
+         * Get how long it took to process the module.
+         *
+         * @return The time taken, in nanoseconds.
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        @Override
+        public String toString() {
+            return source.getName() + ": " + (failure == null ? "passed" : "failed (" + failure + ")")
+                    + " in " + nanos / 1_000_000 + "ms";
+        }
+    }
+
+    /**
+     * The buffers of a module in flight.
+     */
+    private static class Buffers {
+        byte[] input = new byte[INITIAL_BUFFER];
+        ByteArrayOutputStream output = new ByteArrayOutputStream(INITIAL_BUFFER);
+        final WriteBuffers scratch = new WriteBuffers();
+    }
+
+    /**
+     * Process modules from a stream of sources.
+     *
+     * @param sources  The sources of the modules.
+     * @param pipeline The function that makes the visitor to read each module into,
+     *                 given the writer that the module can be written to.
+     * @param results  The consumer of the result of each module, which is called on the current thread.
+     * @throws InterruptedException If the current thread is interrupted while waiting for modules to finish,
+     *                              in which case modules already started may still be processed.
+     * @see #run(Iterator, Function, Consumer)
+     */
+    public void run(Stream<? extends Source> sources,
+                    Function<? super ModuleWriter, ? extends ModuleVisitor> pipeline,
+                    Consumer<? super Result> results) throws InterruptedException {
+        run(sources.iterator(), pipeline, results);
+    }
+
+    /**
+     * Process modules from an iterator of sources, waiting until all of them have finished.
+     * <p>
+     * The next source is only taken from the iterator once there is room for it,
+     * and results are passed to the consumer while waiting.
+     *
+     * @param sources  The sources of the modules.
+     * @param pipeline The function that makes the visitor to read each module into,
+     *                 given the writer that the module can be written to.
+     * @param results  The consumer of the result of each module, which is called on the current thread.
+     * @throws InterruptedException If the current thread is interrupted while waiting for modules to finish,
+     *                              in which case modules already started may still be processed.
+     */
+    public void run(Iterator<? extends Source> sources,
+                    Function<? super ModuleWriter, ? extends ModuleVisitor> pipeline,
+                    Consumer<? super Result> results) throws InterruptedException {
+        BlockingQueue<Result> done = new LinkedBlockingQueue<>();
+        int inFlight = 0;
+        long index = 0;
+        while (sources.hasNext()) {
+            while (inFlight >= maxInFlight) {
+                results.accept(done.take());
+                inFlight--;
+            }
+            Source source = sources.next();
+            long thisIndex = index++;
+            try {
+                executor.execute(() -> done.add(process(source, thisIndex, pipeline)));
+            } catch (RejectedExecutionException e) {
+                done.add(new Result(source, thisIndex, null, e, 0));
+            }
+            inFlight++;
+            for (Result result; (result = done.poll()) != null; inFlight--) {
+                results.accept(result);
+            }
+        }
+        for (; inFlight > 0; inFlight--) {
+            results.accept(done.take());
+        }
+    }
+
+    private Result process(Source source, long index, Function<? super ModuleWriter, ? extends ModuleVisitor> pipeline) {
+        long start = System.nanoTime();
+        Buffers buf = buffers.poll();
+        if (buf == null) buf = new Buffers();
+        byte[] output = null;
+        Throwable failure = null;
+        try {
+            long size = source.size();
+            if (size > maxModuleBytes) throw tooLarge(size);
+            int length;
+            try (InputStream is = source.open()) {
+                length = readFully(buf, is, maxModuleBytes);
+            }
+            buf.output.reset();
+            ModuleVisitor mv = pipeline.apply(new ModuleWriter(buf.output, buf.scratch));
+            if (mv != null) ModuleReader.fromBytes(buf.input, 0, length).accept(mv);
+            if (buf.output.size() != 0) output = buf.output.toByteArray();
+        } catch (Exception | Error e) {
+            failure = e;
+        } finally {
+            if (buf.input.length > MAX_KEPT_BUFFER) buf.input = new byte[INITIAL_BUFFER];
+            if (buf.output.size() > MAX_KEPT_BUFFER) buf.output = new ByteArrayOutputStream(INITIAL_BUFFER);
+            buffers.offer(buf);
+        }
+        return new Result(source, index, output, failure, System.nanoTime() - start);
+    }
+
+    private static IOException tooLarge(long size) {
+        return new IOException("Module too large: " + size + " bytes");
+    }
+
+    private static int readFully(Buffers buf, InputStream is, int limit) throws IOException {
+        int length = 0;
+        while (true) {
+            if (length == buf.input.length) {
+                if (length == Integer.MAX_VALUE) throw tooLarge(length);
+                // one byte past the limit is enough to tell that a module is over it
+                buf.input = Arrays.copyOf(buf.input, (int) Math.min(Math.min(Integer.MAX_VALUE, limit + 1L), length * 2L));
+            }
+            int read = is.read(buf.input, length, buf.input.length - length);
+            if (read == -1) return length;
+            length += read;
+            if (length > limit) throw tooLarge(length);
+        }
+    }
+}
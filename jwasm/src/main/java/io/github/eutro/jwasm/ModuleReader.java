@@ -1,6 +1,7 @@
 package io.github.eutro.jwasm;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -24,6 +25,16 @@ public class ModuleReader<E extends Exception> {
      */
     private final Supplier<ByteInputStream<E>> source;
 
+    /**
+     * The listener to report how reading went to, or {@code null}.
+     */
+    private @Nullable ReadListener listener;
+
+    /**
+     * The limits on what is read.
+     */
+    private ReaderLimits limits = ReaderLimits.UNLIMITED;
+
     /**
      * Construct a {@link ModuleReader} with the given source of bytes.
      *
@@ -33,6 +44,46 @@ public class ModuleReader<E extends Exception> {
         this.source = source;
     }
 
+    /**
+     * Set the listener to report how reading each section and function body of the module went to.
+     *
+     * @param listener The listener, or {@code null} to not measure anything.
+     * @return This reader.
+     */
+    public ModuleReader<E> setListener(@Nullable ReadListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * Get the listener that reading is reported to.
+     *
+     * @return The listener, or {@code null} if there is none.
+     */
+    public @Nullable ReadListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Set the limits on what is read, which should be set when reading modules from untrusted sources.
+     *
+     * @param limits The limits.
+     * @return This reader.
+     */
+    public ModuleReader<E> setLimits(@NotNull ReaderLimits limits) {
+        this.limits = limits;
+        return this;
+    }
+
+    /**
+     * Get the limits on what is read, which are {@link ReaderLimits#UNLIMITED} by default.
+     *
+     * @return The limits.
+     */
+    public ReaderLimits getLimits() {
+        return limits;
+    }
+
     /**
      * Construct a {@link ModuleReader} that reads from the given byte array.
      *
@@ -83,6 +134,7 @@ public class ModuleReader<E extends Exception> {
      *                             only those errors that prevent the parsing.
      */
     public void accept(ModuleVisitor mv) throws E {
+        ReaderLimits.Budget budget = new ReaderLimits.Budget(limits);
         ByteInputStream<E> bb = source.get();
         if (bb.getUInt32() != Opcodes.MAGIC) throw new ValidationException("Wrong magic",
                 new RuntimeException("magic header not detected"));
@@ -93,46 +145,55 @@ public class ModuleReader<E extends Exception> {
         int section = bb.get();
         ByteInputStream<E> sbb;
 
-        section = acceptCustoms(mv, bb, section);
+        section = acceptCustoms(mv, bb, section, budget);
 
         if (section == Opcodes.SECTION_TYPE) {
+            long offset = bb.position() - 1;
+            long start = startTime();
             sbb = bb.sectionStream();
 
             TypesVisitor tv = mv.visitTypes();
+            long count;
             if (tv == null) {
-                sbb.skipAll();
+                count = skipVector(sbb);
             } else {
-                int typeCount = sbb.getVarUInt32();
+                int typeCount = getCount(sbb);
+                count = Integer.toUnsignedLong(typeCount);
                 for (int i = 0; Integer.compareUnsigned(i, typeCount) < 0; i++) {
                     if (sbb.expect() != Opcodes.TYPES_FUNCTION) {
                         throw new ValidationException(String.format("Malformed functype 0x%02x", Opcodes.TYPES_FUNCTION),
                                 new RuntimeException("malformed functype")
                         );
                     }
-                    byte[] params = sbb.getByteArray();
-                    byte[] returns = sbb.getByteArray();
+                    byte[] params = getByteArray(sbb, budget);
+                    byte[] returns = getByteArray(sbb, budget);
                     tv.visitFuncType(params, returns);
                 }
 
                 tv.visitEnd();
                 sbb.expectEmpty();
             }
+            sectionRead(Opcodes.SECTION_TYPE, offset, bb.position(), count, start);
             section = bb.get();
         }
 
-        section = acceptCustoms(mv, bb, section);
+        section = acceptCustoms(mv, bb, section, budget);
 
         if (section == Opcodes.SECTION_IMPORT) {
+            long offset = bb.position() - 1;
+            long start = startTime();
             sbb = bb.sectionStream();
 
             ImportsVisitor iv = mv.visitImports();
+            long count;
             if (iv == null) {
-                sbb.skipAll();
+                count = skipVector(sbb);
             } else {
-                int importCount = sbb.getVarUInt32();
+                int importCount = getCount(sbb);
+                count = Integer.toUnsignedLong(importCount);
                 for (int i = 0; Integer.compareUnsigned(i, importCount) < 0; i++) {
-                    String module = sbb.getName();
-                    String name = sbb.getName();
+                    String module = getName(sbb, budget);
+                    String name = getName(sbb, budget);
                     byte importType = sbb.expect();
                     switch (importType) {
                         case Opcodes.IMPORTS_FUNC: {
@@ -166,17 +227,22 @@ public class ModuleReader<E extends Exception> {
                 iv.visitEnd();
                 sbb.expectEmpty();
             }
+            sectionRead(Opcodes.SECTION_IMPORT, offset, bb.position(), count, start);
             section = bb.get();
         }
 
-        section = acceptCustoms(mv, bb, section);
+        section = acceptCustoms(mv, bb, section, budget);
 
         long funcCount = 0;
         if (section == Opcodes.SECTION_FUNCTION) {
+            long offset = bb.position() - 1;
+            long start = startTime();
             sbb = bb.sectionStream();
 
             FunctionsVisitor fv = mv.visitFuncs();
-            funcCount = Integer.toUnsignedLong(sbb.getVarUInt32());
+            int funcs = getCount(sbb);
+            ReaderLimits.Budget.check("functions", funcs, limits.getMaxFunctions());
+            funcCount = Integer.toUnsignedLong(funcs);
             if (fv == null) {
                 sbb.skipAll();
             } else {
@@ -187,19 +253,24 @@ public class ModuleReader<E extends Exception> {
                 fv.visitEnd();
                 sbb.expectEmpty();
             }
+            sectionRead(Opcodes.SECTION_FUNCTION, offset, bb.position(), funcCount, start);
             section = bb.get();
         }
 
-        section = acceptCustoms(mv, bb, section);
+        section = acceptCustoms(mv, bb, section, budget);
 
         if (section == Opcodes.SECTION_TABLE) {
+            long offset = bb.position() - 1;
+            long start = startTime();
             sbb = bb.sectionStream();
 
             TablesVisitor tv = mv.visitTables();
+            long count;
             if (tv == null) {
-                sbb.skipAll();
+                count = skipVector(sbb);
             } else {
-                int tableCount = sbb.getVarUInt32();
+                int tableCount = getCount(sbb);
+                count = Integer.toUnsignedLong(tableCount);
                 for (int i = 0; Integer.compareUnsigned(i, tableCount) < 0; i++) {
                     byte type = expectRefType(sbb.expect());
                     Limits limit = sbb.getLimits();
@@ -209,19 +280,24 @@ public class ModuleReader<E extends Exception> {
                 tv.visitEnd();
                 sbb.expectEmpty();
             }
+            sectionRead(Opcodes.SECTION_TABLE, offset, bb.position(), count, start);
             section = bb.get();
         }
 
-        section = acceptCustoms(mv, bb, section);
+        section = acceptCustoms(mv, bb, section, budget);
 
         if (section == Opcodes.SECTION_MEMORY) {
+            long offset = bb.position() - 1;
+            long start = startTime();
             sbb = bb.sectionStream();
 
             MemoriesVisitor mmv = mv.visitMems();
+            long count;
             if (mmv == null) {
-                sbb.skipAll();
+                count = skipVector(sbb);
             } else {
-                int memCount = sbb.getVarUInt32();
+                int memCount = getCount(sbb);
+                count = Integer.toUnsignedLong(memCount);
                 for (int i = 0; Integer.compareUnsigned(i, memCount) < 0; i++) {
                     Limits limit = sbb.getLimits();
                     mmv.visitMemory(limit.min, limit.max);
@@ -230,43 +306,53 @@ public class ModuleReader<E extends Exception> {
                 mmv.visitEnd();
                 sbb.expectEmpty();
             }
+            sectionRead(Opcodes.SECTION_MEMORY, offset, bb.position(), count, start);
             section = bb.get();
         }
 
-        section = acceptCustoms(mv, bb, section);
+        section = acceptCustoms(mv, bb, section, budget);
 
         if (section == Opcodes.SECTION_GLOBAL) {
+            long offset = bb.position() - 1;
+            long start = startTime();
             sbb = bb.sectionStream();
 
             GlobalsVisitor gv = mv.visitGlobals();
+            long count;
             if (gv == null) {
-                sbb.skipAll();
+                count = skipVector(sbb);
             } else {
-                int globCount = sbb.getVarUInt32();
+                int globCount = getCount(sbb);
+                count = Integer.toUnsignedLong(globCount);
                 for (int i = 0; Integer.compareUnsigned(i, globCount) < 0; i++) {
                     byte type = sbb.expect();
                     byte mut = expectMut(sbb.expect());
-                    acceptExpr(sbb, gv.visitGlobal(mut, type));
+                    acceptExpr(sbb, gv.visitGlobal(mut, type), budget);
                 }
 
                 gv.visitEnd();
                 sbb.expectEmpty();
             }
+            sectionRead(Opcodes.SECTION_GLOBAL, offset, bb.position(), count, start);
             section = bb.get();
         }
 
-        section = acceptCustoms(mv, bb, section);
+        section = acceptCustoms(mv, bb, section, budget);
 
         if (section == Opcodes.SECTION_EXPORT) {
+            long offset = bb.position() - 1;
+            long start = startTime();
             sbb = bb.sectionStream();
 
             ExportsVisitor ev = mv.visitExports();
+            long count;
             if (ev == null) {
-                sbb.skipAll();
+                count = skipVector(sbb);
             } else {
-                int expCount = sbb.getVarUInt32();
+                int expCount = getCount(sbb);
+                count = Integer.toUnsignedLong(expCount);
                 for (int i = 0; Integer.compareUnsigned(i, expCount) < 0; i++) {
-                    String name = sbb.getName();
+                    String name = getName(sbb, budget);
                     byte type = sbb.expect();
                     int index = sbb.getVarUInt32();
                     ev.visitExport(name, type, index);
@@ -275,18 +361,22 @@ public class ModuleReader<E extends Exception> {
                 ev.visitEnd();
                 sbb.expectEmpty();
             }
+            sectionRead(Opcodes.SECTION_EXPORT, offset, bb.position(), count, start);
             section = bb.get();
         }
 
-        section = acceptCustoms(mv, bb, section);
+        section = acceptCustoms(mv, bb, section, budget);
 
         if (section == Opcodes.SECTION_START) {
+            long offset = bb.position() - 1;
+            long start = startTime();
             sbb = bb.sectionStream();
 
             int index = sbb.getVarUInt32();
             mv.visitStart(index);
 
             sbb.expectEmpty();
+            sectionRead(Opcodes.SECTION_START, offset, bb.position(), -1, start);
             section = bb.get();
         }
         if (section == Opcodes.SECTION_START) {
@@ -294,16 +384,20 @@ public class ModuleReader<E extends Exception> {
                     new RuntimeException("multiple start sections"));
         }
 
-        section = acceptCustoms(mv, bb, section);
+        section = acceptCustoms(mv, bb, section, budget);
 
         if (section == Opcodes.SECTION_ELEMENT) {
+            long offset = bb.position() - 1;
+            long start = startTime();
             sbb = bb.sectionStream();
 
             ElementSegmentsVisitor ev = mv.visitElems();
+            long count;
             if (ev == null) {
-                sbb.skipAll();
+                count = skipVector(sbb);
             } else {
-                int elemCount = sbb.getVarUInt32();
+                int elemCount = getCount(sbb);
+                count = Integer.toUnsignedLong(elemCount);
                 for (int i = 0; Integer.compareUnsigned(i, elemCount) < 0; i++) {
                     ElementVisitor elv = ev.visitElem();
                     int elemType = sbb.getVarUInt32();
@@ -316,7 +410,7 @@ public class ModuleReader<E extends Exception> {
                         if (elv != null) elv.visitNonActiveMode((elemType & Opcodes.ELEM_TABLE_INDEX) != 0);
                     } else {
                         int table = (elemType & Opcodes.ELEM_TABLE_INDEX) != 0 ? sbb.getVarUInt32() : 0;
-                        acceptExpr(sbb, elv == null ? null : elv.visitActiveMode(table));
+                        acceptExpr(sbb, elv == null ? null : elv.visitActiveMode(table), budget);
                     }
 
                     boolean implicitFuncref = (elemType & 0b011) == 0;
@@ -327,9 +421,9 @@ public class ModuleReader<E extends Exception> {
                             if (elv != null) elv.visitType(type);
                         }
 
-                        int initLen = sbb.getVarUInt32();
+                        int initLen = getCount(sbb);
                         for (int j = 0; Integer.compareUnsigned(j, initLen) < 0; j++) {
-                            acceptExpr(sbb, elv == null ? null : elv.visitInit());
+                            acceptExpr(sbb, elv == null ? null : elv.visitInit(), budget);
                         }
                     } else {
                         if (!implicitFuncref) {
@@ -340,8 +434,9 @@ public class ModuleReader<E extends Exception> {
                             if (elv != null) elv.visitType(Opcodes.FUNCREF);
                         }
 
-                        int funcIndices = sbb.getVarUInt32();
+                        int funcIndices = getCount(sbb);
                         if (funcIndices < 0) throw new ValidationException("Too many elements");
+                        budget.allocate(4L * funcIndices);
                         int[] indices = new int[funcIndices];
                         for (int j = 0; j < funcIndices; j++) {
                             indices[j] = sbb.getVarUInt32();
@@ -354,28 +449,36 @@ public class ModuleReader<E extends Exception> {
                 ev.visitEnd();
                 sbb.expectEmpty();
             }
+            sectionRead(Opcodes.SECTION_ELEMENT, offset, bb.position(), count, start);
             section = bb.get();
         }
 
-        section = acceptCustoms(mv, bb, section);
+        section = acceptCustoms(mv, bb, section, budget);
 
         long dataCount = -1;
         if (section == Opcodes.SECTION_DATA_COUNT) {
+            long offset = bb.position() - 1;
+            long start = startTime();
             sbb = bb.sectionStream();
             dataCount = Integer.toUnsignedLong(sbb.getVarUInt32());
             mv.visitDataCount((int) dataCount);
             sbb.expectEmpty();
+            sectionRead(Opcodes.SECTION_DATA_COUNT, offset, bb.position(), -1, start);
             section = bb.get();
         }
 
-        section = acceptCustoms(mv, bb, section);
+        section = acceptCustoms(mv, bb, section, budget);
 
         long codeCount = 0;
         if (section == Opcodes.SECTION_CODE) {
+            long offset = bb.position() - 1;
+            long start = startTime();
             sbb = bb.sectionStream();
 
             CodesVisitor cv = mv.visitCode();
-            codeCount = Integer.toUnsignedLong(sbb.getVarUInt32());
+            int codes = getCount(sbb);
+            ReaderLimits.Budget.check("functions", codes, limits.getMaxFunctions());
+            codeCount = Integer.toUnsignedLong(codes);
 
             DataUse use = DataUse.NO_USE;
 
@@ -383,16 +486,21 @@ public class ModuleReader<E extends Exception> {
                 sbb.skipAll();
             } else {
                 for (long i = 0; i < codeCount; i++) {
-                    ByteInputStream<E> fbb = sbb.sectionStream();
+                    long bodyOffset = sbb.position();
+                    long bodyStart = startTime();
+                    int bodySize = sbb.getVarUInt32();
+                    ReaderLimits.Budget.check("bytes in function body", bodySize, limits.getMaxBodySize());
+                    ByteInputStream<E> fbb = sbb.sectionStream(bodySize);
 
                     byte[] locals;
-                    int localsCount = fbb.getVarUInt32();
+                    int localsCount = getCount(fbb);
                     if (localsCount < 0) throw new ValidationException("Too many local variables");
 
                     if (localsCount == 0) {
                         locals = new byte[0];
                     } else {
                         int nsum = 0;
+                        budget.allocate(5L * localsCount);
                         int[] ns = new int[localsCount];
                         byte[] ts = new byte[localsCount];
                         for (int l = 0; l < localsCount; l++) {
@@ -405,7 +513,9 @@ public class ModuleReader<E extends Exception> {
                                 throw new ValidationException("Too many local variables",
                                         new RuntimeException("too many locals"));
                             }
+                            ReaderLimits.Budget.check("local variables", nsum, limits.getMaxLocals());
                         }
+                        budget.allocate(nsum);
                         locals = new byte[nsum];
                         int index = 0;
                         for (int l = 0; l < localsCount; l++) {
@@ -415,17 +525,24 @@ public class ModuleReader<E extends Exception> {
                     }
 
                     ExprVisitor ev = cv.visitCode(locals);
+                    InsnCounter counter = null;
                     if (ev == null) {
                         fbb.skipAll();
                     } else {
-                        use = use.or(acceptExpr(fbb, ev));
+                        if (listener != null) ev = counter = new InsnCounter(ev);
+                        use = use.or(acceptExpr(fbb, ev, budget));
                         fbb.expectEmpty();
                     }
+                    if (listener != null) {
+                        listener.codeRead((int) i, bodyOffset, sbb.position() - bodyOffset,
+                                counter == null ? -1 : counter.count, System.nanoTime() - bodyStart);
+                    }
                 }
                 cv.visitEnd();
 
                 sbb.expectEmpty();
             }
+            sectionRead(Opcodes.SECTION_CODE, offset, bb.position(), codeCount, start);
             section = bb.get();
 
             if (use != DataUse.NO_USE) {
@@ -436,16 +553,20 @@ public class ModuleReader<E extends Exception> {
             }
         }
 
-        section = acceptCustoms(mv, bb, section);
+        section = acceptCustoms(mv, bb, section, budget);
 
         if (section == Opcodes.SECTION_DATA) {
+            long offset = bb.position() - 1;
+            long start = startTime();
             sbb = bb.sectionStream();
 
             DataSegmentsVisitor dv = mv.visitDatas();
+            long count;
             if (dv == null) {
-                sbb.skipAll();
+                count = skipVector(sbb);
             } else {
-                long dataLen = Integer.toUnsignedLong(sbb.getVarUInt32());
+                long dataLen = Integer.toUnsignedLong(getCount(sbb));
+                count = dataLen;
                 if (dataCount != -1 && dataCount != dataLen) {
                     throw new ValidationException("Data section length does not match data count",
                             new RuntimeException("data count and data section have inconsistent lengths"));
@@ -458,9 +579,9 @@ public class ModuleReader<E extends Exception> {
                     }
                     if ((dataType & Opcodes.DATA_PASSIVE) == 0) {
                         int memory = (dataType & Opcodes.DATA_EXPLICIT) == 0 ? 0 : sbb.getVarUInt32();
-                        acceptExpr(sbb, ddv.visitActive(memory));
+                        acceptExpr(sbb, ddv.visitActive(memory), budget);
                     }
-                    byte[] init = sbb.getByteArray();
+                    byte[] init = getByteArray(sbb, budget);
                     if (ddv != null) {
                         ddv.visitInit(init);
                         ddv.visitEnd();
@@ -470,10 +591,11 @@ public class ModuleReader<E extends Exception> {
                 dv.visitEnd();
                 sbb.expectEmpty();
             }
+            sectionRead(Opcodes.SECTION_DATA, offset, bb.position(), count, start);
             section = bb.get();
         }
 
-        section = acceptCustoms(mv, bb, section);
+        section = acceptCustoms(mv, bb, section, budget);
 
         if (section != -1) throw new ValidationException(String.format("Unexpected section: 0x%02x", section),
                 new RuntimeException("malformed section id"));
@@ -486,6 +608,82 @@ public class ModuleReader<E extends Exception> {
         mv.visitEnd();
     }
 
+    /**
+     * Read the length of a vector, which can't be more than the bytes left in the stream,
+     * since every element takes at least one byte.
+     */
+    private static <E extends Exception> int getCount(ByteInputStream<E> bb) throws E {
+        int count = bb.getVarUInt32();
+        long remaining = bb.remaining();
+        if (remaining != -1 && Integer.toUnsignedLong(count) > remaining) {
+            throw new ValidationException("Vector length exceeds the bytes left",
+                    new RuntimeException("unexpected end"));
+        }
+        return count;
+    }
+
+    private static <E extends Exception> byte[] getByteArray(ByteInputStream<E> bb,
+                                                             ReaderLimits.Budget budget) throws E {
+        return getByteArray(bb, budget, null);
+    }
+
+    private static <E extends Exception> byte[] getByteArray(ByteInputStream<E> bb,
+                                                             ReaderLimits.Budget budget,
+                                                             @Nullable String name) throws E {
+        int size = getCount(bb);
+        if (name != null) ReaderLimits.Budget.check(name, size, budget.limits.getMaxNameLength());
+        if (size < 0) {
+            throw new ValidationException("Unexpected end of input",
+                    new RuntimeException("unexpected end"));
+        }
+        budget.allocate(size);
+        byte[] ret = new byte[size];
+        if (bb.get(ret, 0, size) < size) {
+            throw new ValidationException("Unexpected end of input",
+                    new RuntimeException("unexpected end"));
+        }
+        return ret;
+    }
+
+    private static <E extends Exception> String getName(ByteInputStream<E> bb, ReaderLimits.Budget budget) throws E {
+        return ByteInputStream.decodeName(getByteArray(bb, budget, "bytes in name"));
+    }
+
+    private long startTime() {
+        return listener == null ? 0 : System.nanoTime();
+    }
+
+    private void sectionRead(byte id, long offset, long end, long count, long start) {
+        if (listener != null) listener.sectionRead(id, offset, end - offset, count, System.nanoTime() - start);
+    }
+
+    /**
+     * Skip a section that starts with a vector, reading its length only if it will be reported.
+     */
+    private long skipVector(ByteInputStream<E> sbb) throws E {
+        long count = -1;
+        if (listener != null) count = Integer.toUnsignedLong(sbb.getVarUInt32());
+        sbb.skipAll();
+        return count;
+    }
+
+    /**
+     * Counts the instructions of a function body, for reporting them to the {@link #listener}.
+     */
+    private static class InsnCounter extends ExprVisitor {
+        int count;
+
+        InsnCounter(ExprVisitor dl) {
+            super(dl);
+        }
+
+        @Override
+        public void visitPc(long pc) {
+            count++;
+            super.visitPc(pc);
+        }
+    }
+
     private static byte expectMut(byte mut) {
         if (mut != Opcodes.MUT_VAR && mut != Opcodes.MUT_CONST) {
             throw new ValidationException("Malformed global mutability",
@@ -513,7 +711,7 @@ public class ModuleReader<E extends Exception> {
         return ty;
     }
 
-    private DataUse acceptExpr(ByteInputStream<E> bb, ExprVisitor ev) throws E {
+    private DataUse acceptExpr(ByteInputStream<E> bb, ExprVisitor ev, ReaderLimits.Budget budget) throws E {
         int depth = 0;
         if (ev == null) ev = new ExprVisitor();
         byte opcode;
@@ -549,7 +747,9 @@ public class ModuleReader<E extends Exception> {
                     ev.visitBreakInsn(opcode, bb.getVarUInt32());
                     break;
                 case Opcodes.BR_TABLE: {
-                    int indexCount = bb.getVarUInt32();
+                    int indexCount = getCount(bb);
+                    ReaderLimits.Budget.check("br_table labels", indexCount, limits.getMaxBrTableSize());
+                    budget.allocate(4L * indexCount);
                     int[] indices = new int[indexCount];
                     for (int i = 0; i < indexCount; i++) {
                         indices[i] = bb.getVarUInt32();
@@ -573,7 +773,7 @@ public class ModuleReader<E extends Exception> {
                     ev.visitFuncRefInsn(bb.getVarUInt32());
                     break;
                 case Opcodes.SELECTT:
-                    ev.visitSelectInsn(bb.getByteArray());
+                    ev.visitSelectInsn(getByteArray(bb, budget));
                     break;
                 case Opcodes.LOCAL_GET:
                 case Opcodes.LOCAL_SET:
@@ -748,19 +948,26 @@ public class ModuleReader<E extends Exception> {
                 new RuntimeException("zero byte expected"));
     }
 
-    private int acceptCustoms(ModuleVisitor mv, ByteInputStream<E> bb, int section) throws E {
+    private int acceptCustoms(ModuleVisitor mv, ByteInputStream<E> bb, int section, ReaderLimits.Budget budget) throws E {
         ByteInputStream.SectionInputStream<E> sbb;
         for (; section == Opcodes.SECTION_CUSTOM; section = bb.get()) {
+            long offset = bb.position() - 1;
+            long start = startTime();
             int length = bb.getVarUInt32();
             sbb = (ByteInputStream.SectionInputStream<E>) bb.sectionStream(length);
 
-            byte[] stringBytes = sbb.getByteArray();
-            String name = ByteInputStream.decodeName(stringBytes);
+            String name = getName(sbb, budget);
             int payloadLength = length - sbb.gotten;
             if (payloadLength < 0) {
                 throw new ValidationException("Expected more bytes",
                         new RuntimeException("unexpected end"));
             }
+            long remaining = sbb.remaining();
+            if (remaining != -1 && payloadLength > remaining) {
+                throw new ValidationException("Expected more bytes",
+                        new RuntimeException("length out of bounds"));
+            }
+            budget.allocate(payloadLength);
             byte[] payload = new byte[payloadLength];
             if (sbb.get(payload, 0, payloadLength) < payloadLength) {
                 throw new ValidationException("Expected more bytes",
@@ -768,6 +975,7 @@ public class ModuleReader<E extends Exception> {
             }
             mv.visitCustom(name, payload);
             sbb.expectEmpty();
+            sectionRead(Opcodes.SECTION_CUSTOM, offset, bb.position(), -1, start);
         }
         return section;
     }
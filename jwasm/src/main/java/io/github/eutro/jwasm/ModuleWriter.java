@@ -3,6 +3,7 @@ package io.github.eutro.jwasm;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
 import java.util.function.Consumer;
 
@@ -15,7 +16,42 @@ public class ModuleWriter extends ModuleVisitor implements ByteArrayConvertible
     /**
      * The {@link ByteOutputStream} that this visitor will write raw bytes to.
      */
-    private final ByteOutputStream.BaosByteOutputStream out = new ByteOutputStream.BaosByteOutputStream();
+    private final ByteOutputStream.BaosByteOutputStream out;
+
+    /**
+     * The buffers that sections and function bodies are written into before their size is known.
+     */
+    private final WriteBuffers buffers;
+
+    /**
+     * Construct a writer that writes to a new buffer.
+     */
+    public ModuleWriter() {
+        this(new ByteArrayOutputStream());
+    }
+
+    /**
+     * Construct a writer that writes to an existing buffer, after anything already written to it.
+     * <p>
+     * This allows a buffer to be {@link ByteArrayOutputStream#reset() reset} and reused for writing many modules.
+     *
+     * @param baos The buffer to write to.
+     */
+    public ModuleWriter(ByteArrayOutputStream baos) {
+        this(baos, new WriteBuffers());
+    }
+
+    /**
+     * Construct a writer that writes to an existing buffer, writing sections and function bodies
+     * into the given scratch buffers, so they can be reused for writing many modules too.
+     *
+     * @param baos    The buffer to write to.
+     * @param buffers The scratch buffers, which must not be used by another writer at the same time.
+     */
+    ModuleWriter(ByteArrayOutputStream baos, WriteBuffers buffers) {
+        out = new ByteOutputStream.BaosByteOutputStream(baos);
+        this.buffers = buffers;
+    }
 
     @Override
     public byte[] toByteArray() {
@@ -38,50 +74,59 @@ public class ModuleWriter extends ModuleVisitor implements ByteArrayConvertible
         out.put(data);
     }
 
-    private <T extends VectorWriter> Consumer<T> putVectorSection(byte section) {
+    private <T extends VectorWriter> Consumer<T> putVectorSection(byte section, WriteBuffers.Buffer buf) {
         return v -> {
-            if (v.count() != 0) {
+            int count = v.count();
+            if (count != 0) {
                 out.put(section);
-                byte[] bytes = v.toByteArray();
-                out.putVarUInt(bytes.length);
-                out.put(bytes);
+                out.putVarUInt(ByteOutputStream.DUMMY.putVarUInt(count) + buf.size());
+                out.putVarUInt(count);
+                buf.copyTo(out);
             }
+            buffers.release(buf);
         };
     }
 
     @Override
     public @Nullable TypesVisitor visitTypes() {
-        return new TypesWriter(putVectorSection(Opcodes.SECTION_TYPE));
+        WriteBuffers.Buffer buf = buffers.take();
+        return new TypesWriter(putVectorSection(Opcodes.SECTION_TYPE, buf), buf.out);
     }
 
     @Override
     public @Nullable ImportsVisitor visitImports() {
-        return new ImportsWriter(putVectorSection(Opcodes.SECTION_IMPORT));
+        WriteBuffers.Buffer buf = buffers.take();
+        return new ImportsWriter(putVectorSection(Opcodes.SECTION_IMPORT, buf), buf.out);
     }
 
     @Override
     public @Nullable FunctionsVisitor visitFuncs() {
-        return new FunctionsWriter(putVectorSection(Opcodes.SECTION_FUNCTION));
+        WriteBuffers.Buffer buf = buffers.take();
+        return new FunctionsWriter(putVectorSection(Opcodes.SECTION_FUNCTION, buf), buf.out);
     }
 
     @Override
     public @Nullable TablesVisitor visitTables() {
-        return new TablesWriter(putVectorSection(Opcodes.SECTION_TABLE));
+        WriteBuffers.Buffer buf = buffers.take();
+        return new TablesWriter(putVectorSection(Opcodes.SECTION_TABLE, buf), buf.out);
     }
 
     @Override
     public @Nullable MemoriesVisitor visitMems() {
-        return new MemoriesWriter(putVectorSection(Opcodes.SECTION_MEMORY));
+        WriteBuffers.Buffer buf = buffers.take();
+        return new MemoriesWriter(putVectorSection(Opcodes.SECTION_MEMORY, buf), buf.out);
     }
 
     @Override
     public @Nullable GlobalsVisitor visitGlobals() {
-        return new GlobalsWriter(putVectorSection(Opcodes.SECTION_GLOBAL));
+        WriteBuffers.Buffer buf = buffers.take();
+        return new GlobalsWriter(putVectorSection(Opcodes.SECTION_GLOBAL, buf), buf.out);
     }
 
     @Override
     public @Nullable ExportsVisitor visitExports() {
-        return new ExportsWriter(putVectorSection(Opcodes.SECTION_EXPORT));
+        WriteBuffers.Buffer buf = buffers.take();
+        return new ExportsWriter(putVectorSection(Opcodes.SECTION_EXPORT, buf), buf.out);
     }
 
     @Override
@@ -92,7 +137,8 @@ public class ModuleWriter extends ModuleVisitor implements ByteArrayConvertible
 
     @Override
     public @Nullable ElementSegmentsVisitor visitElems() {
-        return new ElementSegmentsWriter(putVectorSection(Opcodes.SECTION_ELEMENT));
+        WriteBuffers.Buffer buf = buffers.take();
+        return new ElementSegmentsWriter(putVectorSection(Opcodes.SECTION_ELEMENT, buf), buf.out);
     }
 
     @Override
@@ -103,11 +149,13 @@ public class ModuleWriter extends ModuleVisitor implements ByteArrayConvertible
 
     @Override
     public @Nullable CodesVisitor visitCode() {
-        return new CodesWriter(putVectorSection(Opcodes.SECTION_CODE));
+        WriteBuffers.Buffer buf = buffers.take();
+        return new CodesWriter(putVectorSection(Opcodes.SECTION_CODE, buf), buf.out, buffers);
     }
 
     @Override
     public @Nullable DataSegmentsVisitor visitDatas() {
-        return new DataSegmentsWriter(putVectorSection(Opcodes.SECTION_DATA));
+        WriteBuffers.Buffer buf = buffers.take();
+        return new DataSegmentsWriter(putVectorSection(Opcodes.SECTION_DATA, buf), buf.out);
     }
 }
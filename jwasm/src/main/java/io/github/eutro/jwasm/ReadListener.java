@@ -0,0 +1,45 @@
+package io.github.eutro.jwasm;
+
+/**
+ * A listener that is told how reading each part of a module went, as it is read by a {@link ModuleReader}.
+ * <p>
+ * This is meant for collecting metrics, such as finding which sections of a module take the longest to read,
+ * or which modules are unusually large or expensive to read. A reader with no listener
+ * {@link ModuleReader#setListener(ReadListener) set} does no measuring at all.
+ * <p>
+ * Offsets are in bytes from the start of the module, and times are as measured by {@link System#nanoTime()}.
+ * Times include the time spent in the visitors that the module is read into, since reading and visiting
+ * are interleaved.
+ *
+ * @see ModuleReader#setListener(ReadListener)
+ */
+public interface ReadListener {
+    /**
+     * Called when a section has been read, or skipped, after it has been visited.
+     *
+     * @param id     The {@link Opcodes#SECTION_CUSTOM id} of the section.
+     * @param offset The offset of the section, at its id byte.
+     * @param size   The size of the section in bytes, including its id and size.
+     * @param count  The number of elements in the section, such as types or functions,
+     *               or -1 if the section is not a vector, like the start or a custom section.
+     * @param nanos  The time taken to read the section, in nanoseconds.
+     */
+    default void sectionRead(byte id, long offset, long size, long count, long nanos) {
+    }
+
+    /**
+     * Called when a function body in the code section has been read, after it has been visited.
+     * <p>
+     * This is not called for bodies in a code section that is skipped entirely,
+     * and is called before the code section itself is reported to {@link #sectionRead(byte, long, long, long, long)}.
+     *
+     * @param index        The index of the body in the code section, not counting imported functions.
+     * @param offset       The offset of the body, at its size.
+     * @param size         The size of the body in bytes, including its size and locals.
+     * @param instructions The number of instructions in the body, including the final {@code end},
+     *                     or -1 if the body was skipped.
+     * @param nanos        The time taken to read the body, in nanoseconds.
+     */
+    default void codeRead(int index, long offset, long size, int instructions, long nanos) {
+    }
+}
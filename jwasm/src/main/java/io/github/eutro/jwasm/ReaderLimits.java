@@ -0,0 +1,223 @@
+package io.github.eutro.jwasm;
+
+/**
+ * Limits on what a {@link ModuleReader} will read, to bound the time and memory that reading
+ * an untrusted module can take.
+ * <p>
+ * Limits are checked as soon as the size of something is read, before anything is allocated for it,
+ * and reading fails with a {@link ValidationException} if any are exceeded.
+ * <p>
+ * Independently of these limits, a reader never believes a count or length that could not fit in what is left
+ * of the section it is in, if it can know how much is left. A module read from an {@link java.io.InputStream}
+ * can't know how much of it is left until it has read it, so only these limits bound what it allocates.
+ * <p>
+ * Limits are immutable, and so can be shared between readers on different threads.
+ *
+ * @see ModuleReader#setLimits(ReaderLimits)
+ */
+public final class ReaderLimits {
+    /**
+     * No limits at all, which readers have by default.
+     */
+    public static final ReaderLimits UNLIMITED = new ReaderLimits(
+            Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE,
+            Long.MAX_VALUE);
+
+    /**
+     * Limits suitable for modules from untrusted sources,
+     * which allow anything that web browsers will load, except modules that need over 1GiB of memory to read.
+     */
+    public static final ReaderLimits UNTRUSTED = new ReaderLimits(
+            1_000_000, 50_000, 65_520, 7_654_321, 100_000,
+            1L << 30);
+
+    private final int maxFunctions;
+    private final int maxLocals;
+    private final int maxBrTableSize;
+    private final int maxBodySize;
+    private final int maxNameLength;
+    private final long maxAllocation;
+
+    private ReaderLimits(int maxFunctions,
+                         int maxLocals,
+                         int maxBrTableSize,
+                         int maxBodySize,
+                         int maxNameLength,
+                         long maxAllocation) {
+        this.maxFunctions = maxFunctions;
+        this.maxLocals = maxLocals;
+        this.maxBrTableSize = maxBrTableSize;
+        this.maxBodySize = maxBodySize;
+        this.maxNameLength = maxNameLength;
+        this.maxAllocation = maxAllocation;
+    }
+
+    private static int checkLimit(String name, int limit) {
+        if (limit < 0) throw new IllegalArgumentException(name + " must not be negative");
+        return limit;
+    }
+
+    /**
+     * Get the most functions that may be declared in the function or code section.
+     *
+     * @return The limit.
+     */
+    public int getMaxFunctions() {
+        return maxFunctions;
+    }
+
+    /**
+     * Get these limits, with a different number of functions that may be declared in the function or code section.
+     *
+     * @param maxFunctions The limit.
+     * @return The new limits.
+     */
+    public ReaderLimits withMaxFunctions(int maxFunctions) {
+        return new ReaderLimits(checkLimit("maxFunctions", maxFunctions),
+                maxLocals, maxBrTableSize, maxBodySize, maxNameLength, maxAllocation);
+    }
+
+    /**
+     * Get the most locals that a function body may declare, not counting parameters.
+     *
+     * @return The limit.
+     */
+    public int getMaxLocals() {
+        return maxLocals;
+    }
+
+    /**
+     * Get these limits, with a different number of locals that a function body may declare.
+     *
+     * @param maxLocals The limit.
+     * @return The new limits.
+     */
+    public ReaderLimits withMaxLocals(int maxLocals) {
+        return new ReaderLimits(maxFunctions, checkLimit("maxLocals", maxLocals),
+                maxBrTableSize, maxBodySize, maxNameLength, maxAllocation);
+    }
+
+    /**
+     * Get the most labels that a {@code br_table} instruction may have, not counting the default.
+     *
+     * @return The limit.
+     */
+    public int getMaxBrTableSize() {
+        return maxBrTableSize;
+    }
+
+    /**
+     * Get these limits, with a different number of labels that a {@code br_table} instruction may have.
+     *
+     * @param maxBrTableSize The limit.
+     * @return The new limits.
+     */
+    public ReaderLimits withMaxBrTableSize(int maxBrTableSize) {
+        return new ReaderLimits(maxFunctions, maxLocals, checkLimit("maxBrTableSize", maxBrTableSize),
+                maxBodySize, maxNameLength, maxAllocation);
+    }
+
+    /**
+     * Get the largest that a function body may be, in bytes.
+     *
+     * @return The limit.
+     */
+    public int getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    /**
+     * Get these limits, with a different largest size of function bodies.
+     *
+     * @param maxBodySize The limit, in bytes.
+     * @return The new limits.
+     */
+    public ReaderLimits withMaxBodySize(int maxBodySize) {
+        return new ReaderLimits(maxFunctions, maxLocals, maxBrTableSize, checkLimit("maxBodySize", maxBodySize),
+                maxNameLength, maxAllocation);
+    }
+
+    /**
+     * Get the longest that a name may be, in bytes of UTF-8, such as that of an import, export or custom section.
+     *
+     * @return The limit.
+     */
+    public int getMaxNameLength() {
+        return maxNameLength;
+    }
+
+    /**
+     * Get these limits, with a different longest length of names.
+     *
+     * @param maxNameLength The limit, in bytes.
+     * @return The new limits.
+     */
+    public ReaderLimits withMaxNameLength(int maxNameLength) {
+        return new ReaderLimits(maxFunctions, maxLocals, maxBrTableSize, maxBodySize,
+                checkLimit("maxNameLength", maxNameLength), maxAllocation);
+    }
+
+    /**
+     * Get the most bytes that reading a module may allocate for arrays whose sizes are read from the module,
+     * such as names, locals, data and {@code br_table} labels, in total.
+     * <p>
+     * This does not include what the visitors that the module is read into allocate.
+     *
+     * @return The limit.
+     */
+    public long getMaxAllocation() {
+        return maxAllocation;
+    }
+
+    /**
+     * Get these limits, with a different number of bytes that reading a module may allocate in total.
+     *
+     * @param maxAllocation The limit, in bytes.
+     * @return The new limits.
+     */
+    public ReaderLimits withMaxAllocation(long maxAllocation) {
+        if (maxAllocation < 0) throw new IllegalArgumentException("maxAllocation must not be negative");
+        return new ReaderLimits(maxFunctions, maxLocals, maxBrTableSize, maxBodySize, maxNameLength, maxAllocation);
+    }
+
+    /**
+     * Tracks what has been allocated while reading a single module.
+     */
+    static final class Budget {
+        final ReaderLimits limits;
+        private long allocated;
+
+        Budget(ReaderLimits limits) {
+            this.limits = limits;
+        }
+
+        /**
+         * Account for an allocation, before making it.
+         *
+         * @param bytes The number of bytes about to be allocated.
+         * @throws ValidationException If this would allocate more than the limit.
+         */
+        void allocate(long bytes) {
+            allocated += bytes;
+            if (allocated > limits.maxAllocation) {
+                throw new ValidationException("Reading the module would allocate more than "
+                        + limits.maxAllocation + " bytes");
+            }
+        }
+
+        /**
+         * Check a value against a limit, before allocating anything for it.
+         *
+         * @param what  What the value is, for the message.
+         * @param value The value, which is treated as unsigned.
+         * @param limit The limit.
+         * @throws ValidationException If the value exceeds the limit.
+         */
+        static void check(String what, int value, int limit) {
+            if (Integer.compareUnsigned(value, limit) > 0) {
+                throw new ValidationException(String.format("Too many %s: %d exceeds the limit of %d",
+                        what, Integer.toUnsignedLong(value), limit));
+            }
+        }
+    }
+}
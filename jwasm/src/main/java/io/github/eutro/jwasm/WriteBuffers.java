@@ -0,0 +1,56 @@
+package io.github.eutro.jwasm;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayDeque;
+
+/**
+ * A pool of scratch buffers that a {@link ModuleWriter} and its section and code writers write into,
+ * so that writing many sections, function bodies or modules doesn't allocate a buffer for each of them.
+ * <p>
+ * This is not thread-safe, and should be owned by one writer at a time.
+ */
+final class WriteBuffers {
+    /**
+     * Buffers larger than this are not kept, so one huge section doesn't hold on to memory forever.
+     */
+    static final int MAX_KEPT_BUFFER = 16 << 20;
+
+    private final ArrayDeque<Buffer> free = new ArrayDeque<>();
+
+    /**
+     * A buffer that can be copied into a stream without an intermediate array.
+     */
+    static final class Buffer extends ByteArrayOutputStream {
+        final ByteOutputStream.BaosByteOutputStream out = new ByteOutputStream.BaosByteOutputStream(this);
+
+        /**
+         * Write the contents of this buffer to a stream.
+         *
+         * @param to The stream to write to.
+         */
+        void copyTo(ByteOutputStream.BaosByteOutputStream to) {
+            to.put(buf, 0, count);
+        }
+    }
+
+    /**
+     * Take an empty buffer from the pool, or make one if there are none.
+     *
+     * @return The buffer.
+     */
+    Buffer take() {
+        Buffer buf = free.poll();
+        return buf == null ? new Buffer() : buf;
+    }
+
+    /**
+     * Return a buffer to the pool, once nothing will write to it or read from it again.
+     *
+     * @param buf The buffer.
+     */
+    void release(Buffer buf) {
+        if (buf.size() > MAX_KEPT_BUFFER) return;
+        buf.reset();
+        free.push(buf);
+    }
+}
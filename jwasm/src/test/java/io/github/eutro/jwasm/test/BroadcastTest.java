@@ -0,0 +1,85 @@
+package io.github.eutro.jwasm.test;
+
+import io.github.eutro.jwasm.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BroadcastTest extends ModuleTestBase {
+    private static ModuleWriter write(ModuleVisitor... visitors) throws IOException {
+        ModuleWriter mw = new ModuleWriter();
+        ModuleVisitor[] all = new ModuleVisitor[visitors.length + 1];
+        all[0] = mw;
+        System.arraycopy(visitors, 0, all, 1, visitors.length);
+        ModuleVisitor broadcast = BroadcastModuleVisitor.of(all);
+        assertNotNull(broadcast);
+        try (InputStream is = openResource(GAME_OF_LIFE)) {
+            ModuleReader.fromInputStream(is).accept(broadcast);
+        }
+        return mw;
+    }
+
+    @Test
+    void writesSame() throws IOException {
+        byte[] expected = write().toByteArray();
+        ModuleWriter other = new ModuleWriter();
+        ModuleWriter mw = write(other, new DeepModuleVisitor(), null, new ModuleVisitor());
+        assertArrayEquals(expected, mw.toByteArray());
+        assertArrayEquals(expected, other.toByteArray());
+    }
+
+    @Test
+    void countsInstructions() throws IOException {
+        int[] counts = new int[2];
+        ModuleVisitor[] counters = new ModuleVisitor[2];
+        for (int i = 0; i < counters.length; i++) {
+            int index = i;
+            counters[i] = new ModuleVisitor() {
+                @Override
+                public @Nullable CodesVisitor visitCode() {
+                    return new CodesVisitor() {
+                        @Override
+                        public @Nullable ExprVisitor visitCode(byte @NotNull [] locals) {
+                            return new ExprVisitor() {
+                                @Override
+                                public void visitPc(long pc) {
+                                    counts[index]++;
+                                }
+                            };
+                        }
+                    };
+                }
+            };
+        }
+        write(counters);
+        assertTrue(counts[0] > 0);
+        assertEquals(counts[0], counts[1]);
+    }
+
+    @Test
+    void dropsNulls() {
+        ModuleVisitor mv = new ModuleVisitor();
+        assertSame(mv, BroadcastModuleVisitor.of(null, mv, null));
+        assertNull(BroadcastModuleVisitor.of(null, null));
+        assertNull(BroadcastModuleVisitor.of());
+
+        ModuleVisitor broadcast = BroadcastModuleVisitor.of(new ModuleVisitor(), new ModuleVisitor());
+        assertNotNull(broadcast);
+        // none of the visitors are interested
+        assertNull(broadcast.visitCode());
+
+        ModuleWriter mw = new ModuleWriter();
+        broadcast = BroadcastModuleVisitor.of(new ModuleVisitor(), mw);
+        assertNotNull(broadcast);
+        assertTrue(broadcast.visitCode() instanceof CodesWriter);
+
+        ExprVisitor ev = new ExprVisitor();
+        assertSame(ev, BroadcastExprVisitor.of(ev, null));
+        assertNull(BroadcastExprVisitor.of((ExprVisitor) null));
+    }
+}
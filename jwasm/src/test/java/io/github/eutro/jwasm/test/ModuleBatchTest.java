@@ -0,0 +1,127 @@
+package io.github.eutro.jwasm.test;
+
+import io.github.eutro.jwasm.ModuleBatch;
+import io.github.eutro.jwasm.ModuleReader;
+import io.github.eutro.jwasm.ModuleVisitor;
+import io.github.eutro.jwasm.ModuleWriter;
+import io.github.eutro.jwasm.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ModuleBatchTest extends ModuleTestBase {
+    private static byte[] rewrite(byte[] bytes) {
+        ModuleWriter mw = new ModuleWriter();
+        ModuleReader.fromBytes(bytes).accept(mw);
+        return mw.toByteArray();
+    }
+
+    @Test
+    void rewritesModules() throws Exception {
+        String[] names = {HELLO_WORLD, GAME_OF_LIFE, AOC_SOLNS};
+        List<ModuleBatch.Source> sources = new ArrayList<>();
+        List<byte[]> expected = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            byte[] bytes = readResource(names[i % names.length]);
+            sources.add(ModuleBatch.Source.of(names[i % names.length], bytes));
+            expected.add(rewrite(bytes));
+        }
+        sources.add(ModuleBatch.Source.of("bad", new byte[]{0, 'a', 's', 'n'}));
+        sources.add(ModuleBatch.Source.of("missing", () -> {
+            throw new FileNotFoundException("missing");
+        }));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<ModuleBatch.Result> results = new ArrayList<>();
+            new ModuleBatch(executor, 3).run(sources.stream(), mw -> mw, results::add);
+
+            assertEquals(sources.size(), results.size());
+            boolean[] seen = new boolean[sources.size()];
+            for (ModuleBatch.Result result : results) {
+                int index = (int) result.getIndex();
+                assertFalse(seen[index]);
+                seen[index] = true;
+                assertSame(sources.get(index), result.getSource());
+                if (index < expected.size()) {
+                    assertTrue(result.passed(), result::toString);
+                    assertArrayEquals(expected.get(index), result.getOutput());
+                } else {
+                    assertFalse(result.passed());
+                    assertNull(result.getOutput());
+                }
+            }
+            assertTrue(results.stream().anyMatch(r -> r.getFailure() instanceof ValidationException));
+            assertTrue(results.stream().anyMatch(r -> r.getFailure() instanceof FileNotFoundException));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void limitsModuleBytes() throws Exception {
+        byte[] bytes = readResource(GAME_OF_LIFE);
+        List<ModuleBatch.Source> sources = new ArrayList<>();
+        sources.add(ModuleBatch.Source.of("fits", bytes));
+        sources.add(ModuleBatch.Source.of("known", 2 * bytes.length, () -> {
+            throw new AssertionError("opened a source known to be too large");
+        }));
+        byte[] larger = Arrays.copyOf(bytes, bytes.length + 1);
+        sources.add(ModuleBatch.Source.of("unknown", () -> new ByteArrayInputStream(larger)));
+
+        List<ModuleBatch.Result> results = new ArrayList<>();
+        ModuleBatch batch = new ModuleBatch(Runnable::run, 1).setMaxModuleBytes(bytes.length);
+        assertEquals(bytes.length, batch.getMaxModuleBytes());
+        batch.run(sources.iterator(), mw -> mw, results::add);
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).passed(), results.get(0)::toString);
+        assertArrayEquals(rewrite(bytes), results.get(0).getOutput());
+        assertTrue(results.get(1).getFailure() instanceof IOException, results.get(1)::toString);
+        assertTrue(results.get(2).getFailure() instanceof IOException, results.get(2)::toString);
+    }
+
+    @Test
+    void boundsInFlight() throws Exception {
+        byte[] bytes = readResource(HELLO_WORLD);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        List<ModuleBatch.Source> sources = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            sources.add(ModuleBatch.Source.of("m" + i, bytes));
+        }
+
+        ExecutorService executor = ModuleBatch.defaultExecutor();
+        try {
+            int[] passed = {0};
+            new ModuleBatch(executor, 2).run(sources.iterator(), mw -> {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                return new ModuleVisitor() {
+                    @Override
+                    public void visitEnd() {
+                        inFlight.decrementAndGet();
+                    }
+                };
+            }, result -> {
+                assertTrue(result.passed(), result::toString);
+                // nothing was written
+                assertNull(result.getOutput());
+                passed[0]++;
+            });
+            assertEquals(sources.size(), passed[0]);
+            assertTrue(maxInFlight.get() <= 2);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
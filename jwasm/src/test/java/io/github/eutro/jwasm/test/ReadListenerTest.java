@@ -0,0 +1,92 @@
+package io.github.eutro.jwasm.test;
+
+import io.github.eutro.jwasm.ModuleReader;
+import io.github.eutro.jwasm.ModuleVisitor;
+import io.github.eutro.jwasm.Opcodes;
+import io.github.eutro.jwasm.ReadListener;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadListenerTest extends ModuleTestBase {
+    private static class Recorder implements ReadListener {
+        final List<long[]> sections = new ArrayList<>();
+        final List<long[]> codes = new ArrayList<>();
+
+        @Override
+        public void sectionRead(byte id, long offset, long size, long count, long nanos) {
+            assertTrue(nanos >= 0);
+            sections.add(new long[]{id, offset, size, count});
+        }
+
+        @Override
+        public void codeRead(int index, long offset, long size, int instructions, long nanos) {
+            assertTrue(nanos >= 0);
+            codes.add(new long[]{index, offset, size, instructions});
+        }
+
+        long[] section(byte id) {
+            for (long[] section : sections) {
+                if (section[0] == id) return section;
+            }
+            return fail("No section " + id);
+        }
+    }
+
+    @Test
+    void sectionsCoverModule() throws IOException {
+        byte[] bytes = readResource(GAME_OF_LIFE);
+        for (ModuleVisitor mv : new ModuleVisitor[]{new ModuleVisitor(), new DeepModuleVisitor()}) {
+            Recorder recorder = new Recorder();
+            ModuleReader.fromBytes(bytes).setListener(recorder).accept(mv);
+
+            long offset = 8;
+            for (long[] section : recorder.sections) {
+                assertEquals(offset, section[1]);
+                offset += section[2];
+            }
+            assertEquals(bytes.length, offset);
+
+            long[] code = recorder.section(Opcodes.SECTION_CODE);
+            assertEquals(recorder.section(Opcodes.SECTION_FUNCTION)[3], code[3]);
+            if (mv instanceof DeepModuleVisitor) {
+                assertEquals(code[3], recorder.codes.size());
+                long bodyOffset = recorder.codes.get(0)[1];
+                assertTrue(bodyOffset > code[1]);
+                for (long[] body : recorder.codes) {
+                    assertEquals(bodyOffset, body[1]);
+                    assertTrue(body[3] > 0);
+                    bodyOffset += body[2];
+                }
+                assertEquals(code[1] + code[2], bodyOffset);
+            } else {
+                assertTrue(recorder.codes.isEmpty());
+            }
+        }
+    }
+
+    @Test
+    void countsInstructions() {
+        byte[] bytes = new ModuleGenerator()
+                .functions(3)
+                .instructions(16)
+                .exports(2)
+                .toByteArray();
+        Recorder recorder = new Recorder();
+        ModuleReader.fromBytes(bytes).setListener(recorder).accept(new DeepModuleVisitor());
+
+        assertEquals(3, recorder.section(Opcodes.SECTION_FUNCTION)[3]);
+        assertEquals(2, recorder.section(Opcodes.SECTION_EXPORT)[3]);
+        assertEquals(3, recorder.codes.size());
+        for (int i = 0; i < recorder.codes.size(); i++) {
+            long[] body = recorder.codes.get(i);
+            assertEquals(i, body[0]);
+            // the instructions, and the end
+            assertEquals(17, body[3]);
+        }
+    }
+}
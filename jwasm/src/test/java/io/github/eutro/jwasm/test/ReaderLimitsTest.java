@@ -0,0 +1,143 @@
+package io.github.eutro.jwasm.test;
+
+import io.github.eutro.jwasm.ModuleReader;
+import io.github.eutro.jwasm.ModuleWriter;
+import io.github.eutro.jwasm.Opcodes;
+import io.github.eutro.jwasm.ReaderLimits;
+import io.github.eutro.jwasm.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReaderLimitsTest extends ModuleTestBase {
+    private static void putVarUInt(ByteArrayOutputStream os, long value) {
+        do {
+            byte b = (byte) (value & 0x7F);
+            value >>>= 7;
+            if (value != 0) b |= (byte) 0x80;
+            os.write(b);
+        } while (value != 0);
+    }
+
+    private static void putSection(ByteArrayOutputStream os, byte id, byte[] contents) {
+        os.write(id);
+        putVarUInt(os, contents.length);
+        os.write(contents, 0, contents.length);
+    }
+
+    /**
+     * A module with a single function of type {@code [] -> []}, with the given body.
+     */
+    private static byte[] module(byte[] body) {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        os.write(0x00);
+        os.write('a');
+        os.write('s');
+        os.write('m');
+        os.write(0x01);
+        os.write(0x00);
+        os.write(0x00);
+        os.write(0x00);
+        putSection(os, Opcodes.SECTION_TYPE, new byte[]{1, Opcodes.TYPES_FUNCTION, 0, 0});
+        putSection(os, Opcodes.SECTION_FUNCTION, new byte[]{1, 0});
+        ByteArrayOutputStream code = new ByteArrayOutputStream();
+        putVarUInt(code, 1);
+        putVarUInt(code, body.length);
+        code.write(body, 0, body.length);
+        putSection(os, Opcodes.SECTION_CODE, code.toByteArray());
+        return os.toByteArray();
+    }
+
+    private static byte[] hugeLocals() {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        putVarUInt(body, 1);
+        putVarUInt(body, 0x7FFF_FFFF);
+        body.write(Opcodes.I32);
+        body.write(Opcodes.END);
+        return module(body.toByteArray());
+    }
+
+    private static byte[] hugeBrTable() {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        putVarUInt(body, 0);
+        body.write(Opcodes.BLOCK);
+        body.write(Opcodes.EMPTY_TYPE);
+        body.write(Opcodes.BR_TABLE);
+        putVarUInt(body, 0x3FFF_FFFF);
+        body.write(0);
+        body.write(0);
+        body.write(Opcodes.END);
+        body.write(Opcodes.END);
+        return module(body.toByteArray());
+    }
+
+    private static void read(byte[] bytes, ReaderLimits limits) throws IOException {
+        try (InputStream is = new ByteArrayInputStream(bytes)) {
+            ModuleReader.fromInputStream(is).setLimits(limits).accept(new DeepModuleVisitor());
+        }
+    }
+
+    @Test
+    void readsBundledModules() throws IOException {
+        for (String name : new String[]{HELLO_WORLD, GAME_OF_LIFE, AOC_SOLNS, RAWG_ASMS, RAWG_RUST}) {
+            ModuleWriter expected = new ModuleWriter();
+            try (InputStream is = openResource(name)) {
+                ModuleReader.fromInputStream(is).accept(expected);
+            }
+            ModuleWriter actual = new ModuleWriter();
+            try (InputStream is = openResource(name)) {
+                ModuleReader.fromInputStream(is).setLimits(ReaderLimits.UNTRUSTED).accept(actual);
+            }
+            assertArrayEquals(expected.toByteArray(), actual.toByteArray(), name);
+        }
+    }
+
+    @Test
+    void rejectsHugeLocals() {
+        assertThrows(ValidationException.class, () -> read(hugeLocals(), ReaderLimits.UNTRUSTED));
+        assertThrows(ValidationException.class,
+                () -> read(hugeLocals(), ReaderLimits.UNLIMITED.withMaxAllocation(1 << 20)));
+    }
+
+    @Test
+    void rejectsHugeBrTable() {
+        assertThrows(ValidationException.class, () -> read(hugeBrTable(), ReaderLimits.UNTRUSTED));
+        // the label count can't be right if there aren't enough bytes left for the labels
+        assertThrows(ValidationException.class,
+                () -> ModuleReader.fromBytes(hugeBrTable()).accept(new DeepModuleVisitor()));
+    }
+
+    @Test
+    void rejectsLongVectors() {
+        byte[] bytes = module(new byte[]{0, Opcodes.END});
+        // claim 127 types in the type section
+        bytes[10] = 0x7F;
+        assertThrows(ValidationException.class,
+                () -> ModuleReader.fromBytes(bytes).accept(new DeepModuleVisitor()));
+    }
+
+    @Test
+    void checksLimits() throws IOException {
+        byte[] bytes = module(new byte[]{0, Opcodes.END});
+        read(bytes, ReaderLimits.UNTRUSTED.withMaxFunctions(1));
+        assertThrows(ValidationException.class, () -> read(bytes, ReaderLimits.UNTRUSTED.withMaxFunctions(0)));
+        assertThrows(ValidationException.class, () -> read(bytes, ReaderLimits.UNTRUSTED.withMaxBodySize(1)));
+        assertThrows(IllegalArgumentException.class, () -> ReaderLimits.UNTRUSTED.withMaxLocals(-1));
+
+        try (InputStream is = openResource(GAME_OF_LIFE)) {
+            assertThrows(ValidationException.class, () -> ModuleReader.fromInputStream(is)
+                    .setLimits(ReaderLimits.UNLIMITED.withMaxAllocation(10))
+                    .accept(new DeepModuleVisitor()));
+        }
+        try (InputStream is = openResource(GAME_OF_LIFE)) {
+            assertThrows(ValidationException.class, () -> ModuleReader.fromInputStream(is)
+                    .setLimits(ReaderLimits.UNLIMITED.withMaxNameLength(2))
+                    .accept(new DeepModuleVisitor()));
+        }
+    }
+}
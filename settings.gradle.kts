@@ -5,5 +5,6 @@ include(
     "jwasm-attrs",
     "jwasm-analysis",
     "jwasm-sexp",
-    "jwasm-test"
+    "jwasm-test",
+    "jwasm-bench"
 )